@@ -0,0 +1,18 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.protostream.SerializationContextInitializer;
+import org.infinispan.protostream.annotations.AutoProtoSchemaBuilder;
+
+/**
+ * @since 14.0
+ */
+@AutoProtoSchemaBuilder(
+      includeClasses = ReplaceValueFunction.class,
+      schemaFileName = "benchmarks.proto",
+      schemaFilePath = "proto/generated",
+      schemaPackageName = "org.infinispan.benchmarks",
+      service = false
+)
+interface BenchmarkSCI extends SerializationContextInitializer {
+   BenchmarkSCI INSTANCE = new BenchmarkSCIImpl();
+}
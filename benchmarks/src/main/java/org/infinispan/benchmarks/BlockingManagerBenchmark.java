@@ -0,0 +1,106 @@
+package org.infinispan.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.factories.threads.EnhancedQueueExecutorFactory;
+import org.infinispan.factories.threads.VirtualThreadExecutorFactory;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
+import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.concurrent.CompletionStages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the {@link BlockingManager} of a cache manager backed by the platform thread pool against virtual threads when the blocking
+ * operations are slow, like the writes to a slow store. The sample time mode reports both the throughput and the
+ * latency percentiles of the callers.
+ * <p>
+ * The platform thread pool has {@code POOL_THREADS} threads, fewer than the concurrent callers, so with a high
+ * {@code operationMicros} the callers queue behind the pool. Virtual threads need JDK 21 or later, on older JVMs both
+ * variants use platform threads.
+ *
+ * @since 14.0
+ */
+public class BlockingManagerBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 10;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+   private static final int POOL_THREADS = 16;
+   private static final int CALLERS = 64;
+
+   public static void main(String[] args) throws Exception {
+      Options opt = new OptionsBuilder()
+            .include(BlockingManagerBenchmark.class.getName() + ".State.*")
+            .mode(Mode.SampleTime)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .forks(2)
+            .shouldFailOnError(true)
+            .build();
+
+      new Runner(opt).run();
+   }
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State {
+      @Param({"false", "true"})
+      boolean virtualThreads;
+
+      @Param({"0", "100", "1000"})
+      long operationMicros;
+
+      private DefaultCacheManager cacheManager;
+      private BlockingManager blockingManager;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         GlobalConfigurationBuilder global = new GlobalConfigurationBuilder().nonClusteredDefault();
+         global.blockingThreadPool().threadPoolFactory(virtualThreads ?
+               VirtualThreadExecutorFactory.create(CALLERS * 16, 10_000) :
+               EnhancedQueueExecutorFactory.create(POOL_THREADS, 10_000));
+         cacheManager = new DefaultCacheManager(global.build());
+         blockingManager = cacheManager.getGlobalComponentRegistry().getComponent(BlockingManager.class);
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         cacheManager.stop();
+      }
+
+      @Benchmark
+      @Threads(CALLERS)
+      public Object runBlocking() {
+         return CompletionStages.join(blockingManager.runBlocking(this::slowOperation, "benchmark"));
+      }
+
+      @Benchmark
+      @Threads(CALLERS)
+      public Object runBlockingBatch() {
+         // A caller that fans out several store operations, like a getAll on a store without bulk reads
+         AggregateCompletionStage<Void> stage = CompletionStages.aggregateCompletionStage();
+         for (int i = 0; i < 8; i++) {
+            stage.dependsOn(blockingManager.runBlocking(this::slowOperation, "benchmark"));
+         }
+         return CompletionStages.join(stage.freeze());
+      }
+
+      private void slowOperation() {
+         if (operationMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(operationMicros));
+         }
+      }
+   }
+}
@@ -0,0 +1,235 @@
+package org.infinispan.benchmarks;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.TransactionMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the basic operations of an embedded cache: get, put, putAll, getAll, compute and remove.
+ * <p>
+ * The cache is local, replicated or distributed, stores its entries on or off heap, and is transactional or not.
+ * Clustered caches run {@value #NODES} nodes in this JVM, connected through the loopback interface, and the operations
+ * are invoked on the first node. Distributed caches keep 2 copies of each entry, so some of the operations are sent to
+ * other nodes.
+ * <p>
+ * The GC profiler reports the bytes allocated per operation in {@code gc.alloc.rate.norm}. Run all the benchmarks with
+ * {@code java -jar target/benchmarks.jar} after building the module with {@code mvn package -Pshade}, or select a
+ * subset with the usual JMH options, e.g. {@code java -jar target/benchmarks.jar get -p cacheMode=DIST_SYNC}.
+ *
+ * @since 14.0
+ */
+public class CacheOperationsBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 10;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+   private static final int NODES = 3;
+   private static final int KEYS = 10_000;
+   private static final int BATCH_SIZE = 16;
+   private static final String CACHE_NAME = "benchmark";
+
+   public static void main(String[] args) throws Exception {
+      Options opt = new OptionsBuilder()
+            .include(CacheOperationsBenchmark.class.getName() + ".State.*")
+            .mode(Mode.Throughput)
+            .timeUnit(TimeUnit.MILLISECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .forks(2)
+            .addProfiler(GCProfiler.class)
+            .shouldFailOnError(true)
+            .build();
+
+      new Runner(opt).run();
+   }
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State {
+      @Param({"LOCAL", "REPL_SYNC", "DIST_SYNC"})
+      CacheMode cacheMode;
+
+      @Param({"HEAP", "OFF_HEAP"})
+      StorageType storage;
+
+      @Param({"false", "true"})
+      boolean transactional;
+
+      private DefaultCacheManager[] cacheManagers;
+      private Cache<String, String> cache;
+      private String[] keys;
+      private String[] values;
+      private Set<String>[] keyBatches;
+      private Map<String, String>[] entryBatches;
+      private ReplaceValueFunction computeFunction;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         ConfigurationBuilder builder = new ConfigurationBuilder();
+         builder.clustering().cacheMode(cacheMode);
+         builder.memory().storage(storage);
+         if (transactional) {
+            // Optimistic transactions would fail with write skew errors when the threads update the same key
+            builder.transaction().transactionMode(TransactionMode.TRANSACTIONAL).lockingMode(LockingMode.PESSIMISTIC);
+         }
+
+         int nodes = cacheMode.isClustered() ? NODES : 1;
+         cacheManagers = new DefaultCacheManager[nodes];
+         for (int i = 0; i < nodes; i++) {
+            cacheManagers[i] = new DefaultCacheManager(globalConfiguration(i).build());
+            cacheManagers[i].defineConfiguration(CACHE_NAME, builder.build());
+         }
+         // Start the cache on all the nodes, so that the first node sees the final topology
+         for (DefaultCacheManager cacheManager : cacheManagers) {
+            cacheManager.getCache(CACHE_NAME);
+         }
+         waitForMembers(nodes);
+         cache = cacheManagers[0].getCache(CACHE_NAME);
+
+         keys = new String[KEYS];
+         values = new String[KEYS];
+         for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + i;
+            values[i] = "value-" + i;
+            cache.put(keys[i], values[i]);
+         }
+         computeFunction = new ReplaceValueFunction("computed");
+         createBatches();
+      }
+
+      private GlobalConfigurationBuilder globalConfiguration(int node) {
+         GlobalConfigurationBuilder global;
+         if (cacheMode.isClustered()) {
+            global = GlobalConfigurationBuilder.defaultClusteredBuilder();
+            global.transport().clusterName("benchmark").nodeName("node-" + node)
+                  .addProperty(JGroupsTransport.CONFIGURATION_FILE, "benchmark-jgroups.xml");
+         } else {
+            global = new GlobalConfigurationBuilder().nonClusteredDefault();
+         }
+         global.cacheManagerName("benchmark-" + node);
+         global.serialization().addContextInitializer(BenchmarkSCI.INSTANCE);
+         return global;
+      }
+
+      private void waitForMembers(int nodes) {
+         if (nodes == 1) {
+            return;
+         }
+         long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+         for (DefaultCacheManager cacheManager : cacheManagers) {
+            DistributionManager distributionManager =
+                  cacheManager.getCache(CACHE_NAME).getAdvancedCache().getDistributionManager();
+            while (distributionManager.getCacheTopology().getActualMembers().size() < nodes) {
+               if (System.nanoTime() - deadline > 0) {
+                  throw new IllegalStateException("Timed out waiting for " + nodes + " cache members");
+               }
+               Thread.yield();
+            }
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      private void createBatches() {
+         // Enough batches to touch every key, built in advance so they are not part of the measured allocation
+         int batches = KEYS / BATCH_SIZE;
+         keyBatches = new Set[batches];
+         entryBatches = new Map[batches];
+         for (int i = 0; i < batches; i++) {
+            keyBatches[i] = new HashSet<>();
+            entryBatches[i] = new HashMap<>();
+            for (int j = 0; j < BATCH_SIZE; j++) {
+               int k = ThreadLocalRandom.current().nextInt(KEYS);
+               keyBatches[i].add(keys[k]);
+               entryBatches[i].put(keys[k], values[k]);
+            }
+         }
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         if (cacheMode.isClustered()) {
+            // Stop the cache on all the nodes at once, without rebalancing after each node leaves
+            cache.shutdown();
+         }
+         for (int i = cacheManagers.length - 1; i >= 0; i--) {
+            cacheManagers[i].stop();
+         }
+      }
+
+      @Benchmark
+      @Threads(4)
+      public Object get() {
+         return cache.get(keys[nextKey()]);
+      }
+
+      @Benchmark
+      @Threads(4)
+      public Object put() {
+         int k = nextKey();
+         return cache.put(keys[k], values[k]);
+      }
+
+      @Benchmark
+      @Threads(4)
+      public void putAll() {
+         cache.putAll(entryBatches[nextBatch()]);
+      }
+
+      @Benchmark
+      @Threads(4)
+      public Object getAll() {
+         return cache.getAdvancedCache().getAll(keyBatches[nextBatch()]);
+      }
+
+      @Benchmark
+      @Threads(4)
+      public Object compute() {
+         return cache.compute(keys[nextKey()], computeFunction);
+      }
+
+      /**
+       * Removes a key and writes it back, so that the following removes do not find the keys missing. Compare with
+       * {@link #put()} to estimate the cost of the remove alone.
+       */
+      @Benchmark
+      @Threads(4)
+      public Object remove() {
+         int k = nextKey();
+         Object previous = cache.remove(keys[k]);
+         cache.put(keys[k], values[k]);
+         return previous;
+      }
+
+      private static int nextKey() {
+         return ThreadLocalRandom.current().nextInt(KEYS);
+      }
+
+      private int nextBatch() {
+         return ThreadLocalRandom.current().nextInt(keyBatches.length);
+      }
+   }
+}
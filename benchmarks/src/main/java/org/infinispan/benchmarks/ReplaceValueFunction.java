@@ -0,0 +1,26 @@
+package org.infinispan.benchmarks;
+
+import java.util.function.BiFunction;
+
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+
+/**
+ * Remapping function used by the compute benchmarks, marshallable so that it can be sent to the owners of the key.
+ *
+ * @since 14.0
+ */
+public class ReplaceValueFunction implements BiFunction<String, String, String> {
+   @ProtoField(number = 1)
+   final String value;
+
+   @ProtoFactory
+   ReplaceValueFunction(String value) {
+      this.value = value;
+   }
+
+   @Override
+   public String apply(String key, String oldValue) {
+      return value;
+   }
+}
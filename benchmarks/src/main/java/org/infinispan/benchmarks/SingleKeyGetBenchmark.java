@@ -0,0 +1,101 @@
+package org.infinispan.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.DefaultCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link Cache#get(Object)}, which reuses its context and command when the read completes synchronously,
+ * against a read with a flag, which still creates a new context and command for each invocation. The flag does not
+ * change the work done by the interceptors, as the cache has no listeners.
+ * <p>
+ * The GC profiler reports the bytes allocated per operation in {@code gc.alloc.rate.norm}.
+ *
+ * @since 14.0
+ */
+public class SingleKeyGetBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 10;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+   private static final int KEYS = 1024;
+
+   public static void main(String[] args) throws Exception {
+      Options opt = new OptionsBuilder()
+            .include(SingleKeyGetBenchmark.class.getName() + ".State.*")
+            .mode(Mode.Throughput)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .forks(2)
+            .addProfiler(GCProfiler.class)
+            .shouldFailOnError(true)
+            .build();
+
+      new Runner(opt).run();
+   }
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State {
+      @Param({"false", "true"})
+      boolean statistics;
+
+      private DefaultCacheManager cacheManager;
+      private Cache<Object, Object> cache;
+      private AdvancedCache<Object, Object> flagCache;
+      private String[] keys;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         GlobalConfigurationBuilder global = new GlobalConfigurationBuilder().nonClusteredDefault();
+         ConfigurationBuilder builder = new ConfigurationBuilder();
+         builder.statistics().enabled(statistics);
+         cacheManager = new DefaultCacheManager(global.build(), builder.build());
+         cache = cacheManager.getCache();
+         flagCache = cache.getAdvancedCache().withFlags(Flag.SKIP_LISTENER_NOTIFICATION);
+         keys = new String[KEYS];
+         for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key" + i;
+            cache.put(keys[i], "value" + i);
+         }
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         cacheManager.stop();
+      }
+
+      @Benchmark
+      @Threads(4)
+      public Object get() {
+         return cache.get(keys[nextKey()]);
+      }
+
+      @Benchmark
+      @Threads(4)
+      public Object getWithNewCommand() {
+         return flagCache.get(keys[nextKey()]);
+      }
+
+      private static int nextKey() {
+         return ThreadLocalRandom.current().nextInt(KEYS);
+      }
+   }
+}
@@ -0,0 +1,112 @@
+package org.infinispan.container.offheap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.impl.InternalEntryFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares lookups in {@link OffHeapConcurrentMap} using optimistic reads against always acquiring the striped read
+ * lock. The {@code hotKeys} parameter controls how many distinct keys are read, so a low value concentrates readers
+ * on a few lock stripes.
+ * <p>
+ * The benchmark is in the package of the map, so it can create the map and its entry factory without a cache.
+ *
+ * @since 14.0
+ */
+public class OffHeapConcurrentMapBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 10;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+
+   public static void main(String[] args) throws Exception {
+      Options opt = new OptionsBuilder()
+            .include(OffHeapConcurrentMapBenchmark.class.getName() + ".State.*")
+            .mode(Mode.Throughput)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .forks(2)
+            .shouldFailOnError(true)
+            .build();
+
+      new Runner(opt).run();
+   }
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State {
+      @Param({"true", "false"})
+      boolean optimisticReads;
+
+      @Param({"16", "100000"})
+      int hotKeys;
+
+      private OffHeapConcurrentMap map;
+      private WrappedBytes[] keys;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         OffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+         OffHeapEntryFactoryImpl offHeapEntryFactory = new OffHeapEntryFactoryImpl();
+         offHeapEntryFactory.allocator = allocator;
+         offHeapEntryFactory.internalEntryFactory = new InternalEntryFactoryImpl();
+         offHeapEntryFactory.configuration = new ConfigurationBuilder().build();
+         offHeapEntryFactory.start();
+
+         map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null, optimisticReads);
+         keys = new WrappedBytes[hotKeys];
+         for (int i = 0; i < hotKeys; ++i) {
+            keys[i] = new WrappedByteArray(("key" + i).getBytes());
+            map.put(keys[i], new ImmortalCacheEntry(keys[i], keys[i]));
+         }
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         map.close();
+      }
+
+      private WrappedBytes randomKey() {
+         return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+      }
+
+      @Benchmark
+      @Threads(Threads.MAX)
+      public InternalCacheEntry<WrappedBytes, WrappedBytes> peek() {
+         return map.peek(randomKey());
+      }
+
+      @Benchmark
+      @Group("readWrite")
+      @GroupThreads(7)
+      public InternalCacheEntry<WrappedBytes, WrappedBytes> readWriteRead() {
+         return map.peek(randomKey());
+      }
+
+      @Benchmark
+      @Group("readWrite")
+      @GroupThreads(1)
+      public InternalCacheEntry<WrappedBytes, WrappedBytes> readWriteWrite() {
+         WrappedBytes key = randomKey();
+         return map.put(key, new ImmortalCacheEntry(key, key));
+      }
+   }
+}
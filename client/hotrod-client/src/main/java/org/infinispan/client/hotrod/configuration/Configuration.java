@@ -17,6 +17,7 @@
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_MAX_WAIT;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_MIN_IDLE;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_PIPELINED;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECT_TIMEOUT;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONTEXT_INITIALIZERS;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.DEFAULT_EXECUTOR_FACTORY_POOL_SIZE;
@@ -409,6 +410,7 @@ public Properties properties() {
       properties.setProperty(CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME, connectionPool().minEvictableIdleTime());
       properties.setProperty("minEvictableIdleTimeMillis", connectionPool().minEvictableIdleTime());
       properties.setProperty(CONNECTION_POOL_MAX_PENDING_REQUESTS, connectionPool().maxPendingRequests());
+      properties.setProperty(CONNECTION_POOL_PIPELINED, connectionPool().pipelined());
 
       StringBuilder servers = new StringBuilder();
       for (ServerConfiguration server : servers()) {
@@ -19,6 +19,7 @@ public class ConnectionPoolConfigurationBuilder extends AbstractConfigurationChi
    private int minIdle = 1;
    private long minEvictableIdleTime = 1800000;
    private int maxPendingRequests = 5;
+   private boolean pipelined = false;
 
    ConnectionPoolConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -102,7 +103,7 @@ public ConnectionPoolConfigurationBuilder minEvictableIdleTime(long minEvictable
     * and the pool will try to create a new connection if all connections are utilized. Only if the new connection
     * cannot be created and the {@link #exhaustedAction(ExhaustedAction) exhausted action}
     * is set to {@link ExhaustedAction#WAIT} the pool will allow sending the request over one of the over-utilized
-    * connections.
+    * connections, unless it is {@link #pipelined(boolean) pipelined}.
     * The rule of thumb is that this should be set to higher values if the values are small (&lt; 1kB) and to lower values
     * if the entries are big (&gt; 10kB).
     * Default setting for this parameter is 5.
@@ -112,6 +113,22 @@ public ConnectionPoolConfigurationBuilder maxPendingRequests(int maxPendingReque
       return this;
    }
 
+   /**
+    * Enables pipelining: the concurrent requests to a server share the connections instead of checking them out of the
+    * pool, and the responses are matched to the requests by their message id. A connection accepts up to
+    * {@link #maxPendingRequests(int)} requests waiting for a response, and a new connection is created only when all
+    * the connections to the server reach that limit, so the number of connections depends on the number of requests
+    * in flight divided by {@link #maxPendingRequests(int)}. When the pool reaches {@link #maxActive(int)} and the
+    * {@link #exhaustedAction(ExhaustedAction) exhausted action} is {@link ExhaustedAction#WAIT}, the requests wait
+    * until a connection receives a response instead of exceeding the limit. Use it with a higher
+    * {@link #maxPendingRequests(int)} and a {@link #maxActive(int)} limit.
+    * Default setting for this parameter is false.
+    */
+   public ConnectionPoolConfigurationBuilder pipelined(boolean pipelined) {
+      this.pipelined = pipelined;
+      return this;
+   }
+
    /**
     * Configures the connection pool parameter according to properties
     */
@@ -135,13 +152,14 @@ public ConnectionPoolConfigurationBuilder withPoolProperties(Properties properti
       maxPendingRequests(typed.getIntProperty(ConfigurationProperties.CONNECTION_POOL_MAX_PENDING_REQUESTS,
             typed.getIntProperty("maxPendingRequests", maxPendingRequests, true),
             true));
+      pipelined(typed.getBooleanProperty(ConfigurationProperties.CONNECTION_POOL_PIPELINED, pipelined, true));
 
       return this;
    }
 
    @Override
    public ConnectionPoolConfiguration create() {
-      return new ConnectionPoolConfiguration(exhaustedAction, maxActive, maxWait, minIdle, minEvictableIdleTime, maxPendingRequests);
+      return new ConnectionPoolConfiguration(exhaustedAction, maxActive, maxWait, minIdle, minEvictableIdleTime, maxPendingRequests, pipelined);
    }
 
    @Override
@@ -152,6 +170,7 @@ public ConnectionPoolConfigurationBuilder read(ConnectionPoolConfiguration templ
       minIdle = template.minIdle();
       minEvictableIdleTime = template.minEvictableIdleTime();
       maxPendingRequests = template.maxPendingRequests();
+      pipelined = template.pipelined();
       return this;
    }
 
@@ -76,6 +76,11 @@ public void releaseChannel(Channel channel) {
       }
    }
 
+   @Override
+   public boolean requiresExclusiveChannel() {
+      return !codec.allowOperationsAndEvents();
+   }
+
    public void cleanup() {
       // To prevent releasing concurrently from the channel and closing it
       channel.eventLoop().execute(() -> {
@@ -1,12 +1,9 @@
 package org.infinispan.client.hotrod.counter.operation;
 
-import static org.infinispan.counter.util.EncodeUtil.encodeConfiguration;
-
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.infinispan.client.hotrod.configuration.Configuration;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
-import org.infinispan.client.hotrod.impl.transport.netty.ByteBufUtil;
 import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
 import org.infinispan.client.hotrod.impl.transport.netty.HeaderDecoder;
 import org.infinispan.counter.api.CounterConfiguration;
@@ -33,8 +30,8 @@ public DefineCounterOperation(Codec codec, ChannelFactory channelFactory, Atomic
 
    @Override
    protected void executeOperation(Channel channel) {
-      ByteBuf buf = getHeaderAndCounterNameBufferAndRead(channel, 28);
-      encodeConfiguration(configuration, buf::writeByte, buf::writeLong, i -> ByteBufUtil.writeVInt(buf, i));
+      ByteBuf buf = getHeaderAndCounterNameBufferAndRead(channel, 36);
+      codec.writeCounterConfiguration(buf, configuration);
       channel.writeAndFlush(buf);
    }
 
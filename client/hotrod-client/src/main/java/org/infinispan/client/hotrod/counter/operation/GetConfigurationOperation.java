@@ -1,12 +1,9 @@
 package org.infinispan.client.hotrod.counter.operation;
 
-import static org.infinispan.counter.util.EncodeUtil.decodeConfiguration;
-
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.infinispan.client.hotrod.configuration.Configuration;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
-import org.infinispan.client.hotrod.impl.transport.netty.ByteBufUtil;
 import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
 import org.infinispan.client.hotrod.impl.transport.netty.HeaderDecoder;
 import org.infinispan.counter.api.CounterConfiguration;
@@ -40,6 +37,6 @@ public void acceptResponse(ByteBuf buf, short status, HeaderDecoder decoder) {
          return;
       }
 
-      complete(decodeConfiguration(buf::readByte, buf::readLong, () -> ByteBufUtil.readVInt(buf)));
+      complete(codec.readCounterConfiguration(buf));
    }
 }
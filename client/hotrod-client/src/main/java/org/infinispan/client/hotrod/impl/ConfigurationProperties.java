@@ -108,6 +108,7 @@ public class ConfigurationProperties {
    public static final String CONNECTION_POOL_MAX_PENDING_REQUESTS = ICH + "connection_pool.max_pending_requests";
    public static final String CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME = ICH + "connection_pool.min_evictable_idle_time";
    public static final String CONNECTION_POOL_EXHAUSTED_ACTION = ICH + "connection_pool.exhausted_action";
+   public static final String CONNECTION_POOL_PIPELINED = ICH + "connection_pool.pipelined";
    // XSite properties
    public static final String CLUSTER_PROPERTIES_PREFIX = ICH + "cluster";
    public static final Pattern CLUSTER_PROPERTIES_PREFIX_REGEX =
@@ -606,6 +607,14 @@ public void setConnectionPoolExhaustedAction(String connectionPoolExhaustedActio
       props.setProperty(CONNECTION_POOL_EXHAUSTED_ACTION, connectionPoolExhaustedAction);
    }
 
+   public boolean isConnectionPoolPipelined() {
+      return props.getBooleanProperty(CONNECTION_POOL_PIPELINED, false);
+   }
+
+   public void setConnectionPoolPipelined(boolean connectionPoolPipelined) {
+      props.setProperty(CONNECTION_POOL_PIPELINED, connectionPoolPipelined);
+   }
+
    /**
     * Is version previous to, and not including, 1.2?
     */
@@ -98,6 +98,11 @@ public void releaseChannel(Channel channel) {
       }
    }
 
+   @Override
+   public boolean requiresExclusiveChannel() {
+      return !codec.allowOperationsAndEvents();
+   }
+
    @Override
    public void acceptResponse(ByteBuf buf, short status, HeaderDecoder decoder) {
       if (HotRodConstants.isSuccess(status)) {
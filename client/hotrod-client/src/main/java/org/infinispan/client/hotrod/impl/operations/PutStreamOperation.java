@@ -73,6 +73,12 @@ public void executeOperation(Channel channel) {
    public void releaseChannel(Channel channel) {
    }
 
+   @Override
+   public boolean requiresExclusiveChannel() {
+      // The value is written in chunks after the header
+      return true;
+   }
+
    @Override
    public boolean completeExceptionally(Throwable ex) {
       closeFuture.completeExceptionally(ex);
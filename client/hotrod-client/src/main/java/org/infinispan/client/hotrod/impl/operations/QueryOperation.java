@@ -62,8 +62,8 @@ protected void executeOperation(Channel channel) {
 
       codec.writeHeader(buf, header);
       ByteBufUtil.writeVInt(buf, requestBytes.length);
-      channel.write(buf);
-      channel.writeAndFlush(Unpooled.wrappedBuffer(requestBytes));
+      // A single write, so that the request is not interleaved with the requests sharing the channel
+      channel.writeAndFlush(Unpooled.wrappedBuffer(buf, Unpooled.wrappedBuffer(requestBytes)));
    }
 
    private List<QueryRequest.NamedParameter> getNamedParameters() {
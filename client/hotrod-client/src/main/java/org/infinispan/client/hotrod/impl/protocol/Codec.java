@@ -14,12 +14,15 @@
 import org.infinispan.client.hotrod.event.impl.AbstractClientEvent;
 import org.infinispan.client.hotrod.impl.operations.OperationsFactory;
 import org.infinispan.client.hotrod.impl.operations.PingResponse;
+import org.infinispan.client.hotrod.impl.transport.netty.ByteBufUtil;
 import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
 import org.infinispan.commons.configuration.ClassAllowList;
 import org.infinispan.commons.dataconversion.MediaType;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.IntSet;
+import org.infinispan.counter.api.CounterConfiguration;
+import org.infinispan.counter.util.EncodeUtil;
 
 import io.netty.buffer.ByteBuf;
 
@@ -151,4 +154,18 @@ default MediaType readValueType(ByteBuf buf) {
     * Read the response code for hints of object storage in the server.
     */
    boolean isObjectStorageHinted(PingResponse pingResponse);
+
+   /**
+    * Writes the {@link CounterConfiguration} of a counter definition.
+    */
+   default void writeCounterConfiguration(ByteBuf buf, CounterConfiguration configuration) {
+      EncodeUtil.encodeConfiguration(configuration, buf::writeByte, buf::writeLong, i -> ByteBufUtil.writeVInt(buf, i));
+   }
+
+   /**
+    * Reads the {@link CounterConfiguration} of a counter.
+    */
+   default CounterConfiguration readCounterConfiguration(ByteBuf buf) {
+      return EncodeUtil.decodeConfiguration(buf::readByte, buf::readLong, () -> ByteBufUtil.readVInt(buf));
+   }
 }
@@ -0,0 +1,28 @@
+package org.infinispan.client.hotrod.impl.protocol;
+
+import org.infinispan.client.hotrod.impl.transport.netty.ByteBufUtil;
+import org.infinispan.counter.api.CounterConfiguration;
+import org.infinispan.counter.util.EncodeUtil;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * @since 14.0
+ */
+public class Codec32 extends Codec31 {
+   @Override
+   public HeaderParams writeHeader(ByteBuf buf, HeaderParams params) {
+      return writeHeader(buf, params, HotRodConstants.VERSION_32);
+   }
+
+   @Override
+   public void writeCounterConfiguration(ByteBuf buf, CounterConfiguration configuration) {
+      EncodeUtil.encodeConfiguration(configuration, buf::writeByte, buf::writeLong, i -> ByteBufUtil.writeVInt(buf, i),
+            true);
+   }
+
+   @Override
+   public CounterConfiguration readCounterConfiguration(ByteBuf buf) {
+      return EncodeUtil.decodeConfiguration(buf::readByte, buf::readLong, () -> ByteBufUtil.readVInt(buf), true);
+   }
+}
@@ -183,7 +183,8 @@ private ChannelPool newPool(SocketAddress address) {
       ChannelPool pool = new ChannelPool(bootstrap.config().group().next(), address, channelInitializer,
                                          configuration.connectionPool().exhaustedAction(), this::onConnectionEvent,
                                          configuration.connectionPool().maxWait(), maxConnections,
-                                         configuration.connectionPool().maxPendingRequests());
+                                         configuration.connectionPool().maxPendingRequests(),
+                                         configuration.connectionPool().pipelined());
       channelInitializer.setChannelPool(pool);
       return pool;
    }
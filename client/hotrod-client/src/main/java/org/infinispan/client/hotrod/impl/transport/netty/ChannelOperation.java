@@ -19,4 +19,12 @@ public interface ChannelOperation {
     * @param cause
     */
    void cancel(SocketAddress address, Throwable cause);
+
+   /**
+    * Whether the operation must be the only one writing to the channel until it releases it. When the connection pool
+    * is pipelined, the other operations share the channels.
+    */
+   default boolean requiresExclusiveChannel() {
+      return false;
+   }
 }
@@ -3,13 +3,18 @@
 import static org.infinispan.client.hotrod.logging.Log.HOTROD;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiConsumer;
 
@@ -32,6 +37,15 @@
  * channel is available.
  * <p>
  * The connections are handled LIFO, pending requests are handled FIFO.
+ * <p>
+ * When the pool is pipelined, the operations do not acquire the channels but share them: an operation is written to
+ * the first channel with less than {@code maxPendingRequests} registered operations, and the responses are matched by
+ * their message id. A new channel is created only when all the channels are full. When no more channels can be created
+ * and the exhausted action is {@link ExhaustedAction#WAIT}, the operations wait in the pool until a response is
+ * received on one of the channels. The operations that {@link ChannelOperation#requiresExclusiveChannel() require an
+ * exclusive channel} still acquire one that is not shared: while such an operation waits, the other operations stop
+ * sharing the channels, so that it gets one once its shared users release it. A new channel is shared as soon as it is
+ * connected, and the operations that would create another channel while it connects wait for it first.
  */
 class ChannelPool {
    enum ChannelEventType { CONNECTED, CLOSED_IDLE, CLOSED_ACTIVE, CONNECT_FAILED}
@@ -49,15 +63,20 @@ enum ChannelEventType { CONNECTED, CLOSED_IDLE, CLOSED_ACTIVE, CONNECT_FAILED}
    private final long maxWait;
    private final int maxConnections;
    private final int maxPendingRequests;
+   private final boolean pipelined;
    private final AtomicInteger created = new AtomicInteger();
    private final AtomicInteger active = new AtomicInteger();
    private final AtomicInteger connected = new AtomicInteger();
+   // The number of callbacks waiting for an exclusive channel, only used when pipelined
+   private final AtomicInteger exclusiveWaiters = new AtomicInteger();
+   // Completed once the channel being created for a shared operation is in the pool
+   private final AtomicReference<CompletableFuture<Void>> connecting = new AtomicReference<>();
    private final StampedLock lock = new StampedLock();
    private volatile boolean terminated = false;
 
    ChannelPool(EventExecutor executor, SocketAddress address, ChannelInitializer newChannelInvoker,
                ExhaustedAction exhaustedAction, BiConsumer<ChannelPool, ChannelEventType> connectionFailureListener,
-               long maxWait, int maxConnections, int maxPendingRequests) {
+               long maxWait, int maxConnections, int maxPendingRequests, boolean pipelined) {
       this.connectionFailureListener = connectionFailureListener;
       this.executor = executor;
       this.address = address;
@@ -66,6 +85,7 @@ enum ChannelEventType { CONNECTED, CLOSED_IDLE, CLOSED_ACTIVE, CONNECT_FAILED}
       this.maxWait = maxWait;
       this.maxConnections = maxConnections;
       this.maxPendingRequests = maxPendingRequests;
+      this.pipelined = pipelined;
    }
 
    public void acquire(ChannelOperation callback) {
@@ -73,14 +93,21 @@ public void acquire(ChannelOperation callback) {
          callback.cancel(address, new RejectedExecutionException("Pool was terminated"));
          return;
       }
+      boolean shareChannel = pipelined && !callback.requiresExclusiveChannel();
       Channel channel;
+      if (shareChannel && (channel = reserveSharedChannel(false)) != null) {
+         invokeShared(channel, callback, false);
+         return;
+      }
       int fullChannelsSeen = 0;
-      while ((channel = channels.pollFirst()) != null) {
+      // When sharing, all the channels were already found full
+      while (!shareChannel && (channel = channels.pollFirst()) != null) {
          if (!channel.isActive()) {
             // The channel was closed while idle but not removed - just forget it
             continue;
          }
-         if (!channel.isWritable() || channel.pipeline().get(HeaderDecoder.class).registeredOperations() >= maxPendingRequests) {
+         if (!channel.isWritable() || channel.pipeline().get(HeaderDecoder.class).registeredOperations() >= maxPendingRequests
+               || !ChannelRecord.of(channel).setAcquired()) {
             channels.addLast(channel);
             // prevent looping on non-writable channels
             if (++fullChannelsSeen < MAX_FULL_CHANNELS_SEEN) {
@@ -92,13 +119,21 @@ public void acquire(ChannelOperation callback) {
          activateChannel(channel, callback, false);
          return;
       }
+      if (shareChannel) {
+         CompletableFuture<Void> pendingChannel = connecting.get();
+         if (pendingChannel != null) {
+            // The channel being created may have room for this operation too
+            acquireWhenConnected(pendingChannel, callback);
+            return;
+         }
+      }
       int current = created.get();
       while (current < maxConnections) {
          if (created.compareAndSet(current, current + 1)) {
             int currentActive = active.incrementAndGet();
             if (log.isTraceEnabled()) log.tracef("[%s] Creating new channel, created = %d, active = %d", address, current + 1, currentActive);
             // create new connection and apply callback
-            createAndInvoke(callback);
+            createAndInvoke(callback, shareChannel);
             return;
          }
          current = created.get();
@@ -113,7 +148,7 @@ public void acquire(ChannelOperation callback) {
             int currentCreated = created.incrementAndGet();
             int currentActive = active.incrementAndGet();
             if (log.isTraceEnabled()) log.tracef("[%s] Creating new channel, created = %d, active = %d", address, currentCreated, currentActive);
-            createAndInvoke(callback);
+            createAndInvoke(callback, shareChannel);
             return;
          default:
             throw new IllegalArgumentException(String.valueOf(exhaustedAction));
@@ -127,48 +162,164 @@ public void acquire(ChannelOperation callback) {
       // To prevent adding channel and callback concurrently we'll synchronize all additions
       // TODO: completely lock-free algorithm would be better
       long stamp = lock.writeLock();
+      List<Channel> skippedChannels = null;
       try {
-         for (;;) {
-            // at this point we won't be picky and use non-writable channel anyway
-            channel = channels.pollFirst();
+         if (shareChannel) {
+            // A response received on a channel invokes the waiting callbacks, see responseReceived
+            channel = reserveSharedChannel(true);
             if (channel == null) {
                callbacks.addLast(callback);
                return;
-            } else if (channel.isActive()) {
-               break;
+            }
+         } else {
+            if (pipelined) {
+               // Counted before polling the channels so that no operation starts sharing a skipped channel
+               exclusiveWaiters.incrementAndGet();
+            }
+            for (;;) {
+               // at this point we won't be picky and use non-writable channel anyway
+               channel = channels.pollFirst();
+               if (channel == null) {
+                  callbacks.addLast(callback);
+                  return;
+               } else if (channel.isActive()) {
+                  if ((!pipelined || hasCapacity(channel)) && ChannelRecord.of(channel).setAcquired()) {
+                     if (pipelined) {
+                        exclusiveWaiters.decrementAndGet();
+                     }
+                     break;
+                  }
+                  // The channel is shared or full, the callback is invoked once all its users release it
+                  // or it receives a response
+                  if (skippedChannels == null) {
+                     skippedChannels = new ArrayList<>();
+                  }
+                  skippedChannels.add(channel);
+               }
             }
          }
       } finally {
+         if (skippedChannels != null) {
+            skippedChannels.forEach(channels::addLast);
+         }
          lock.unlockWrite(stamp);
       }
-      activateChannel(channel, callback, false);
+      if (shareChannel) {
+         invokeShared(channel, callback, false);
+      } else {
+         activateChannel(channel, callback, false);
+      }
+   }
+
+   private void acquireWhenConnected(CompletableFuture<Void> pendingChannel, ChannelOperation callback) {
+      pendingChannel.whenComplete((ignored, t) -> {
+         try {
+            acquire(callback);
+         } catch (Throwable throwable) {
+            callback.cancel(address, throwable);
+         }
+      });
+   }
+
+   /**
+    * Finds a channel that is not acquired and has less than {@code maxPendingRequests} registered or reserved
+    * operations, and registers a new shared user.
+    *
+    * @param ignoreWritability whether to use a channel that is not writable.
+    * @return the channel, or {@code null} if all the channels are acquired or full, or if an operation is waiting for
+    * an exclusive channel.
+    */
+   private Channel reserveSharedChannel(boolean ignoreWritability) {
+      if (exclusiveWaiters.get() > 0) {
+         // Let the shared users release the channels
+         return null;
+      }
+      for (Iterator<Channel> it = channels.iterator(); it.hasNext(); ) {
+         Channel channel = it.next();
+         if (!channel.isActive()) {
+            // The channel was closed while idle but not removed - just forget it
+            it.remove();
+            continue;
+         }
+         if ((ignoreWritability || channel.isWritable()) && acquireShared(channel)) {
+            return channel;
+         }
+      }
+      return null;
+   }
+
+   private boolean hasCapacity(Channel channel) {
+      return channel.pipeline().get(HeaderDecoder.class).registeredOperations() < maxPendingRequests;
+   }
+
+   private boolean acquireShared(Channel channel) {
+      return ChannelRecord.of(channel).acquireShared(channel.pipeline().get(HeaderDecoder.class), maxPendingRequests);
+   }
+
+   /**
+    * Invoke the callback on a channel after registering it as a shared user with
+    * {@link ChannelRecord#acquireShared(HeaderDecoder, int)}.
+    */
+   private void invokeShared(Channel channel, ChannelOperation callback, boolean useExecutor) {
+      if (log.isTraceEnabled()) log.tracef("[%s] Sharing channel %s", address, channel);
+      ChannelRecord record = ChannelRecord.of(channel);
+      if (useExecutor) {
+         // Do not execute another operation in the thread that received the response
+         executor.execute(() -> {
+            try {
+               callback.invoke(channel);
+            } catch (Throwable t) {
+               log.tracef(t, "Closing channel %s due to exception", channel);
+               discardChannel(channel, record);
+            }
+         });
+      } else {
+         try {
+            callback.invoke(channel);
+         } catch (Throwable t) {
+            log.tracef(t, "Closing channel %s due to exception", channel);
+            discardChannel(channel, record);
+            throw t;
+         }
+      }
    }
 
-   private void createAndInvoke(ChannelOperation callback) {
+   private void createAndInvoke(ChannelOperation callback, boolean shareChannel) {
+      CompletableFuture<Void> pendingChannel = shareChannel ? startConnecting() : null;
       try {
          newChannelInvoker.createChannel().whenComplete((channel, throwable) -> {
-            if (throwable != null) {
-               int currentActive = active.decrementAndGet();
-               if (currentActive < 0) {
-                  HOTROD.invalidActiveCountAfterClose(channel);
-               }
-               int currentCreated = created.decrementAndGet();
-               if (currentCreated < 0) {
-                  HOTROD.invalidCreatedCountAfterClose(channel);
+            try {
+               if (throwable != null) {
+                  int currentActive = active.decrementAndGet();
+                  if (currentActive < 0) {
+                     HOTROD.invalidActiveCountAfterClose(channel);
+                  }
+                  int currentCreated = created.decrementAndGet();
+                  if (currentCreated < 0) {
+                     HOTROD.invalidCreatedCountAfterClose(channel);
+                  }
+                  if (log.isTraceEnabled()) log.tracef(throwable, "[%s] Channel could not be created, created = %d, active = %d, connected = %d",
+                                        address, currentCreated, currentActive, connected.get());
+                  callback.cancel(address, throwable);
+                  connectionFailureListener.accept(this, ChannelEventType.CONNECT_FAILED);
+               } else {
+                  int currentConnected = connected.incrementAndGet();
+                  if (log.isTraceEnabled()) log.tracef(throwable, "[%s] Channel connected, created = %d, active = %d, connected = %d",
+                                                       address, created.get(), active.get(), currentConnected);
+                  if (shareChannel && ChannelRecord.of(channel).shareAcquired()) {
+                     addSharedChannel(channel);
+                     invokeShared(channel, callback, false);
+                  } else {
+                     callback.invoke(channel);
+                  }
+                  connectionFailureListener.accept(this, ChannelEventType.CONNECTED);
                }
-               if (log.isTraceEnabled()) log.tracef(throwable, "[%s] Channel could not be created, created = %d, active = %d, connected = %d",
-                                     address, currentCreated, currentActive, connected.get());
-               callback.cancel(address, throwable);
-               connectionFailureListener.accept(this, ChannelEventType.CONNECT_FAILED);
-            } else {
-               int currentConnected = connected.incrementAndGet();
-               if (log.isTraceEnabled()) log.tracef(throwable, "[%s] Channel connected, created = %d, active = %d, connected = %d",
-                                                    address, created.get(), active.get(), currentConnected);
-               callback.invoke(channel);
-               connectionFailureListener.accept(this, ChannelEventType.CONNECTED);
+            } finally {
+               connectDone(pendingChannel);
             }
          });
       } catch (Throwable t) {
+         connectDone(pendingChannel);
          int currentActive = active.decrementAndGet();
          int currentCreated = created.decrementAndGet();
          if (log.isTraceEnabled()) log.tracef(t, "[%s] Channel could not be created, created = %d, active = %d, connected = %d",
@@ -183,10 +334,49 @@ private void createAndInvoke(ChannelOperation callback) {
       }
    }
 
+   /**
+    * Add a new channel to the pool after its first operation starts sharing it.
+    */
+   private void addSharedChannel(Channel channel) {
+      int currentActive = active.decrementAndGet();
+      if (log.isTraceEnabled()) log.tracef("[%s] Sharing new channel %s, active = %d", address, channel, currentActive);
+      long stamp = lock.readLock();
+      try {
+         channels.addFirst(channel);
+      } finally {
+         lock.unlockRead(stamp);
+      }
+   }
+
+   /**
+    * @return the future completed once the new channel is in the pool, or {@code null} if another channel is already
+    * being created for the shared operations.
+    */
+   private CompletableFuture<Void> startConnecting() {
+      CompletableFuture<Void> pendingChannel = new CompletableFuture<>();
+      return connecting.compareAndSet(null, pendingChannel) ? pendingChannel : null;
+   }
+
+   private void connectDone(CompletableFuture<Void> pendingChannel) {
+      if (pendingChannel != null) {
+         // Cleared first so that the operations waiting for the channel do not wait for it again
+         connecting.compareAndSet(pendingChannel, null);
+         pendingChannel.complete(null);
+      }
+   }
+
    /**
     * Release a channel back into the pool after an operation has finished.
     */
    public void release(Channel channel, ChannelRecord record) {
+      if (pipelined) {
+         if (record.releaseShared() >= 0) {
+            // The released reservation leaves room for a waiting callback
+            invokeWaitingCallback(channel, record);
+            return;
+         }
+      }
+
       // The channel can be closed when it's idle (due to idle timeout or closed connection)
       if (record.isIdle()) {
          HOTROD.warnf("Cannot release channel %s because it is idle", channel);
@@ -205,6 +395,17 @@ public void release(Channel channel, ChannelRecord record) {
          HOTROD.warnf("[%s] Invalid active count after releasing channel %s", address, channel);
       }
 
+      if (pipelined) {
+         long stamp = lock.readLock();
+         try {
+            channels.addFirst(channel);
+         } finally {
+            lock.unlockRead(stamp);
+         }
+         invokeWaitingCallback(channel, record);
+         return;
+      }
+
       ChannelOperation callback;
       // We're protecting against concurrent acquires, concurrent releases are fine
       // hopefully the acquire will usually get the channel through the fast (non-locking) path
@@ -215,12 +416,104 @@ public void release(Channel channel, ChannelRecord record) {
             channels.addFirst(channel);
             return;
          }
+         if (!record.setAcquired()) {
+            // An operation started sharing the channel, the callback is invoked once it releases it
+            callbacks.addFirst(callback);
+            channels.addFirst(channel);
+            return;
+         }
       } finally {
          lock.unlockRead(stamp);
       }
       activateChannel(channel, callback, true);
    }
 
+   /**
+    * Invoked by the {@link HeaderDecoder} when the response of an operation registered on the channel is received.
+    */
+   void responseReceived(Channel channel, ChannelRecord record) {
+      if (pipelined) {
+         invokeWaitingCallback(channel, record);
+      }
+   }
+
+   /**
+    * Invoke the callbacks waiting in the pool that can use the channel, in order, while it has less than
+    * {@code maxPendingRequests} registered or reserved operations: a callback that requires an exclusive channel
+    * acquires it if it is no longer shared, the other callbacks share it. The callbacks behind a callback waiting for an
+    * exclusive channel keep waiting, so that they can't starve it.
+    */
+   private void invokeWaitingCallback(Channel channel, ChannelRecord record) {
+      if (callbacks.isEmpty()) {
+         return;
+      }
+      ChannelOperation exclusiveCallback = null;
+      List<ChannelOperation> sharedCallbacks = null;
+      boolean noExclusiveWaiters = false;
+      long stamp = lock.readLock();
+      try {
+         if (!channel.isActive()) {
+            return;
+         }
+         for (ChannelOperation waiting : callbacks) {
+            if (waiting.requiresExclusiveChannel()) {
+               if (sharedCallbacks != null || !hasCapacity(channel) || !channels.remove(channel)) {
+                  // Shared, full or acquired by another operation
+                  break;
+               }
+               if (!record.setAcquired()) {
+                  // The channel is shared, the callback is invoked once all its users release it
+                  channels.addFirst(channel);
+                  break;
+               }
+               // The callback may have timed out or been taken by a concurrent release
+               if (callbacks.remove(waiting)) {
+                  noExclusiveWaiters = exclusiveWaiters.decrementAndGet() == 0;
+                  exclusiveCallback = waiting;
+                  break;
+               }
+               record.setIdleAndIsClosed();
+               channels.addFirst(channel);
+            } else {
+               if (!acquireShared(channel)) {
+                  // Acquired or full
+                  break;
+               }
+               if (callbacks.remove(waiting)) {
+                  if (sharedCallbacks == null) {
+                     sharedCallbacks = new ArrayList<>();
+                  }
+                  sharedCallbacks.add(waiting);
+               } else {
+                  record.releaseShared();
+               }
+            }
+         }
+      } finally {
+         lock.unlockRead(stamp);
+      }
+      if (exclusiveCallback != null) {
+         activateChannel(channel, exclusiveCallback, true);
+         if (noExclusiveWaiters) {
+            invokeWaitingCallbacks();
+         }
+      } else if (sharedCallbacks != null) {
+         for (ChannelOperation callback : sharedCallbacks) {
+            invokeShared(channel, callback, true);
+         }
+      }
+   }
+
+   /**
+    * Invoke the callbacks that waited behind a callback requiring an exclusive channel on all the channels, as they may
+    * not receive any response.
+    */
+   private void invokeWaitingCallbacks() {
+      for (Channel channel : channels) {
+         invokeWaitingCallback(channel, ChannelRecord.of(channel));
+      }
+   }
+
    /**
     * Update counts after a channel has been closed.
     */
@@ -246,12 +539,14 @@ public void releaseClosedChannel(Channel channel, ChannelRecord channelRecord) {
       connectionFailureListener.accept( this, idle ? ChannelEventType.CLOSED_IDLE : ChannelEventType.CLOSED_ACTIVE);
    }
 
+   /**
+    * Invoke the callback on a channel after its record was {@link ChannelRecord#setAcquired() acquired}.
+    */
    private void activateChannel(Channel channel, ChannelOperation callback, boolean useExecutor) {
       assert channel.isActive() : "Channel " + channel + " is not active";
       int currentActive = active.incrementAndGet();
       if (log.isTraceEnabled()) log.tracef("[%s] Activated record %s, created = %d, active = %d", address, channel, created.get(), currentActive);
       ChannelRecord record = ChannelRecord.of(channel);
-      record.setAcquired();
       if (useExecutor) {
          // Do not execute another operation in releasing thread, we could run out of stack
          executor.execute(() -> {
@@ -316,6 +611,7 @@ public String toString() {
             ", maxWait=" + maxWait +
             ", maxConnections=" + maxConnections +
             ", maxPendingRequests=" + maxPendingRequests +
+            ", pipelined=" + pipelined +
             ", created=" + created +
             ", active=" + active +
             ", connected=" + connected +
@@ -335,9 +631,14 @@ private TimeoutCallback(ChannelOperation callback) {
 
       @Override
       public void run() {
-         callbacks.remove(this);
-         if (invokedUpdater.compareAndSet(this, 0, 1)) {
-            callback.cancel(address, new TimeoutException("Timed out waiting for connection"));
+         // When the callback is not waiting in the pool it is being invoked
+         if (callbacks.remove(this)) {
+            if (invokedUpdater.compareAndSet(this, 0, 1)) {
+               callback.cancel(address, new TimeoutException("Timed out waiting for connection"));
+            }
+            if (pipelined && requiresExclusiveChannel() && exclusiveWaiters.decrementAndGet() == 0) {
+               invokeWaitingCallbacks();
+            }
          }
       }
 
@@ -354,7 +655,18 @@ public void invoke(Channel channel) {
 
       @Override
       public void cancel(SocketAddress address, Throwable cause) {
-         throw new UnsupportedOperationException();
+         ScheduledFuture<?> timeoutFuture = this.timeoutFuture;
+         if (timeoutFuture != null) {
+            timeoutFuture.cancel(false);
+         }
+         if (invokedUpdater.compareAndSet(this, 0, 1)) {
+            callback.cancel(address, cause);
+         }
+      }
+
+      @Override
+      public boolean requiresExclusiveChannel() {
+         return callback.requiresExclusiveChannel();
       }
    }
 }
@@ -27,6 +27,8 @@ public class ChannelRecord extends CompletableFuture<Channel> implements Generic
    private final ChannelPool channelPool;
    private boolean closed = false;
    private boolean acquired = true;
+   // Operations using the channel without acquiring it, see ChannelPool
+   private int sharedUsers = 0;
 
    ChannelRecord(SocketAddress unresolvedAddress, ChannelPool channelPool) {
       this.unresolvedAddress = unresolvedAddress;
@@ -61,9 +63,51 @@ public void operationComplete(ChannelFuture future) throws Exception {
       channelPool.releaseClosedChannel(future.channel(), this);
    }
 
-   synchronized void setAcquired() {
+   synchronized boolean setAcquired() {
       assert !acquired;
+      if (sharedUsers > 0) {
+         return false;
+      }
       acquired = true;
+      return true;
+   }
+
+   /**
+    * Registers a shared user if the channel is not acquired and has room for one more operation. The shared users
+    * that have not registered their operation in the decoder yet are counted as pending, so concurrent callers can't
+    * exceed {@code maxPendingRequests}.
+    */
+   synchronized boolean acquireShared(HeaderDecoder decoder, int maxPendingRequests) {
+      if (acquired || sharedUsers + decoder.registeredOperations() >= maxPendingRequests) {
+         return false;
+      }
+      sharedUsers++;
+      return true;
+   }
+
+   /**
+    * Turns the acquisition of a new channel into a shared use, so that other operations can share the channel.
+    *
+    * @return {@code false} if the channel is already closed.
+    */
+   synchronized boolean shareAcquired() {
+      assert acquired;
+      if (closed) {
+         return false;
+      }
+      acquired = false;
+      sharedUsers++;
+      return true;
+   }
+
+   /**
+    * @return the number of remaining shared users, or -1 if the channel was not shared.
+    */
+   synchronized int releaseShared() {
+      if (sharedUsers == 0) {
+         return -1;
+      }
+      return --sharedUsers;
    }
 
    public synchronized boolean isIdle() {
@@ -87,4 +131,8 @@ public synchronized boolean closeAndWasIdle() {
    public void release(Channel channel) {
       channelPool.release(channel, this);
    }
+
+   void responseReceived(Channel channel) {
+      channelPool.responseReceived(channel, this);
+   }
 }
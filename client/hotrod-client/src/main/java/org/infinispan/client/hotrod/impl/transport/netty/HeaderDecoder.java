@@ -130,6 +130,8 @@ protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
                if (log.isTraceEnabled()) {
                   log.tracef("Received response for request %d, %s", messageId, operation);
                }
+               // A pipelined pool may have operations waiting for the channel to have fewer registered operations
+               ChannelRecord.of(ctx.channel()).responseReceived(ctx.channel());
                checkpoint(State.READ_HEADER);
                // fall through
             case READ_HEADER:
@@ -0,0 +1,157 @@
+package org.infinispan.client.hotrod;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.configuration.ExhaustedAction;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
+import org.infinispan.client.hotrod.test.HotRodClientTestingUtil;
+import org.infinispan.client.hotrod.test.InternalRemoteCacheManager;
+import org.infinispan.client.hotrod.test.NoopChannelOperation;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the operations sharing the connections of a pipelined connection pool.
+ *
+ * @since 14.0
+ */
+@Test(testName = "client.hotrod.PipelinedConnectionPoolTest", groups = "functional")
+public class PipelinedConnectionPoolTest extends SingleHotRodServerTest {
+
+   private static final int NUM_OPERATIONS = 500;
+
+   @Override
+   protected RemoteCacheManager getRemoteCacheManager() {
+      ConfigurationBuilder builder = createHotRodClientConfigurationBuilder("127.0.0.1", hotrodServer.getPort());
+      builder.connectionPool().pipelined(true).maxPendingRequests(NUM_OPERATIONS * 2);
+      return new InternalRemoteCacheManager(builder.build());
+   }
+
+   public void testConcurrentOperationsShareConnection() throws Exception {
+      RemoteCache<String, String> remoteCache = remoteCacheManager.getCache();
+      remoteCache.put("k", "v");
+      int connections = numConnections();
+
+      List<CompletableFuture<String>> futures = new ArrayList<>(NUM_OPERATIONS);
+      for (int i = 0; i < NUM_OPERATIONS; i++) {
+         futures.add(remoteCache.putAsync("k" + i, "v" + i));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+      assertEquals(connections, numConnections());
+
+      for (int i = 0; i < NUM_OPERATIONS; i++) {
+         assertEquals("v" + i, remoteCache.get("k" + i));
+      }
+   }
+
+   public void testOperationsWaitForFullConnection() throws Exception {
+      ConfigurationBuilder builder = createHotRodClientConfigurationBuilder("127.0.0.1", hotrodServer.getPort());
+      builder.connectionPool().pipelined(true).maxActive(1).maxPendingRequests(2)
+            .exhaustedAction(ExhaustedAction.WAIT);
+      InternalRemoteCacheManager rcm = new InternalRemoteCacheManager(builder.build());
+      try {
+         RemoteCache<String, String> remoteCache = rcm.getCache();
+         List<CompletableFuture<String>> futures = new ArrayList<>(NUM_OPERATIONS);
+         for (int i = 0; i < NUM_OPERATIONS; i++) {
+            futures.add(remoteCache.putAsync("w" + i, "v" + i));
+         }
+         // Every operation is invoked once a response frees a slot on the only connection
+         CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+         ChannelFactory channelFactory = rcm.getChannelFactory();
+         assertEquals(1, channelFactory.getNumActive() + channelFactory.getNumIdle());
+
+         for (int i = 0; i < NUM_OPERATIONS; i++) {
+            assertEquals("v" + i, remoteCache.get("w" + i));
+         }
+      } finally {
+         HotRodClientTestingUtil.killRemoteCacheManager(rcm);
+      }
+   }
+
+   public void testConcurrentAcquiresDoNotExceedMaxPendingRequests() throws Exception {
+      int maxPendingRequests = 4;
+      ConfigurationBuilder builder = createHotRodClientConfigurationBuilder("127.0.0.1", hotrodServer.getPort());
+      builder.connectionPool().pipelined(true).maxActive(1).maxPendingRequests(maxPendingRequests)
+            .exhaustedAction(ExhaustedAction.WAIT);
+      InternalRemoteCacheManager rcm = new InternalRemoteCacheManager(builder.build());
+      try {
+         rcm.getCache().put("p", "v");
+         ChannelFactory channelFactory = rcm.getChannelFactory();
+         InetSocketAddress address = InetSocketAddress.createUnresolved("127.0.0.1", hotrodServer.getPort());
+
+         // The operations share the connection without registering any request, as if they had not written it yet
+         int numThreads = 8;
+         int acquiresPerThread = 10;
+         CyclicBarrier barrier = new CyclicBarrier(numThreads);
+         List<Future<List<NoopChannelOperation>>> threadFutures = new ArrayList<>(numThreads);
+         for (int t = 0; t < numThreads; t++) {
+            threadFutures.add(fork(() -> {
+               List<NoopChannelOperation> operations = new ArrayList<>(acquiresPerThread);
+               barrier.await(10, TimeUnit.SECONDS);
+               for (int i = 0; i < acquiresPerThread; i++) {
+                  operations.add(channelFactory.fetchChannelAndInvoke(address, new NoopChannelOperation()));
+               }
+               return operations;
+            }));
+         }
+         List<NoopChannelOperation> operations = new ArrayList<>(numThreads * acquiresPerThread);
+         for (Future<List<NoopChannelOperation>> threadFuture : threadFutures) {
+            operations.addAll(threadFuture.get(10, TimeUnit.SECONDS));
+         }
+         assertEquals(maxPendingRequests, operations.stream().filter(CompletableFuture::isDone).count());
+
+         // Every release lets one waiting operation share the connection
+         List<NoopChannelOperation> unreleased = new ArrayList<>(operations);
+         for (int released = 0; released < operations.size(); released++) {
+            long numInvoked = Math.min(operations.size(), maxPendingRequests + released);
+            eventuallyEquals(numInvoked, () -> operations.stream().filter(CompletableFuture::isDone).count());
+            NoopChannelOperation operation = unreleased.stream().filter(CompletableFuture::isDone).findFirst().get();
+            unreleased.remove(operation);
+            channelFactory.releaseChannel(operation.join());
+         }
+         assertEquals(1, channelFactory.getNumActive() + channelFactory.getNumIdle());
+      } finally {
+         HotRodClientTestingUtil.killRemoteCacheManager(rcm);
+      }
+   }
+
+   public void testStreamingUsesExclusiveConnection() throws Exception {
+      RemoteCache<String, String> remoteCache = remoteCacheManager.getCache();
+      StreamingRemoteCache<String> streamingRemoteCache = remoteCache.streaming();
+      int size = 2000;
+      try (OutputStream os = streamingRemoteCache.put("stream")) {
+         for (int i = 0; i < size; i++) {
+            os.write(i % 256);
+            if (i == size / 2) {
+               // Written while the stream holds its connection
+               remoteCache.putAsync("other", "v").get(10, TimeUnit.SECONDS);
+            }
+         }
+      }
+      assertEquals("v", remoteCache.get("other"));
+
+      int count = 0;
+      try (InputStream is = streamingRemoteCache.get("stream")) {
+         for (int b = is.read(); b >= 0; b = is.read(), count++) {
+            assertEquals(count % 256, b);
+         }
+      }
+      assertEquals(size, count);
+   }
+
+   private int numConnections() {
+      ChannelFactory channelFactory = ((InternalRemoteCacheManager) remoteCacheManager).getChannelFactory();
+      return channelFactory.getNumActive() + channelFactory.getNumIdle();
+   }
+}
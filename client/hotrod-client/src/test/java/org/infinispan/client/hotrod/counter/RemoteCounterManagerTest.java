@@ -1,6 +1,8 @@
 package org.infinispan.client.hotrod.counter;
 
 import static org.infinispan.commons.test.CommonsTestingUtil.tmpDirectory;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.io.File;
 import java.lang.reflect.Method;
@@ -8,10 +10,15 @@
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.infinispan.client.hotrod.ProtocolVersion;
+import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.RemoteCounterManagerFactory;
+import org.infinispan.client.hotrod.test.HotRodClientTestingUtil;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.counter.api.CounterConfiguration;
 import org.infinispan.counter.api.CounterManager;
+import org.infinispan.counter.api.CounterType;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.server.hotrod.counter.CounterManagerTestStrategy;
 import org.infinispan.server.hotrod.counter.impl.CounterManagerImplTestStrategy;
@@ -89,6 +96,23 @@ public void testGetCounterNames(Method method) {
       strategy.testGetCounterNames(method);
    }
 
+   public void testWeakCounterFlushInterval(Method method) {
+      String counterName = method.getName();
+      CounterConfiguration.Builder builder = CounterConfiguration.builder(CounterType.WEAK).concurrencyLevel(4);
+      CounterConfiguration config = builder.flushInterval(1000).build();
+      RemoteCacheManager remoteCacheManager = new RemoteCacheManager(createHotRodClientConfigurationBuilder(server(0))
+            .version(ProtocolVersion.PROTOCOL_VERSION_32).build());
+      try {
+         CounterManager counterManager = RemoteCounterManagerFactory.asCounterManager(remoteCacheManager);
+         assertTrue(counterManager.defineCounter(counterName, config));
+         assertEquals(config, counterManager.getConfiguration(counterName));
+         // The counters of the automatic version still use the protocol 3.1, which does not send the flush interval
+         assertEquals(builder.flushInterval(0).build(), counterManager().getConfiguration(counterName));
+      } finally {
+         HotRodClientTestingUtil.killRemoteCacheManager(remoteCacheManager);
+      }
+   }
+
    @AfterClass(alwaysRun = true)
    @Override
    protected void destroy() {
@@ -225,6 +225,9 @@ public interface Ids {
    Integer XSITE_AUTO_TRANSFER_RESPONSE = 153;
    Integer COMMAND_INVOCATION_ID = 154;
 
+   Integer COMPACT_METADATA_IMMORTAL_ENTRY = 155;
+   Integer COMPACT_METADATA_EXPIRABLE_ENTRY = 156;
+
    Integer COUNTER_CONFIGURATION = 2000; //from counter
    Integer COUNTER_STATE = 2001; //from counter
 }
@@ -0,0 +1,134 @@
+package org.infinispan.commons.stat;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of non-negative values with a bounded relative error.
+ * <p>
+ * Values are counted in buckets whose width grows exponentially: every power of two is split in 4 buckets, so a
+ * percentile is at most 25% larger than the actual value. The counters are striped, so concurrent recordings do not
+ * contend on the same memory, and recording a value only allocates when the contention grows, which makes it suitable
+ * for hot paths.
+ *
+ * @since 14.0
+ */
+public class SimpleHistogram {
+   private static final int SUB_BUCKET_BITS = 2;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+   private final LongAdder[] counts = new LongAdder[BUCKETS];
+   private final LongAdder count = new LongAdder();
+   private final LongAdder sum = new LongAdder();
+   private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+   public SimpleHistogram() {
+      for (int i = 0; i < BUCKETS; ++i) {
+         counts[i] = new LongAdder();
+      }
+   }
+
+   /**
+    * Records a value, negative values are recorded as 0.
+    */
+   public void record(long value) {
+      if (value < 0) {
+         value = 0;
+      }
+      counts[bucket(value)].increment();
+      count.increment();
+      sum.add(value);
+      max.accumulate(value);
+   }
+
+   /**
+    * @return how many values were recorded
+    */
+   public long count() {
+      return count.sum();
+   }
+
+   /**
+    * @return the average of the recorded values, or 0 if none was recorded
+    */
+   public double getAverage() {
+      long count = this.count.sum();
+      return count == 0 ? 0 : (double) sum.sum() / count;
+   }
+
+   /**
+    * @return the largest recorded value, or 0 if none was recorded
+    */
+   public long getMax() {
+      return max.get();
+   }
+
+   /**
+    * Returns an upper bound of the value below which the given fraction of the recorded values fall.
+    * @param percentile the percentile, between 0 and 100
+    * @return the percentile, or 0 if no value was recorded
+    */
+   public long getPercentile(double percentile) {
+      long total = 0;
+      long[] snapshot = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; ++i) {
+         total += snapshot[i] = counts[i].sum();
+      }
+      if (total == 0) {
+         return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100) / 100));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; ++i) {
+         seen += snapshot[i];
+         if (seen >= rank) {
+            return Math.min(upperBound(i), max.get());
+         }
+      }
+      return max.get();
+   }
+
+   /**
+    * Discards all the recorded values.
+    */
+   public void reset() {
+      for (LongAdder bucketCount : counts) {
+         bucketCount.reset();
+      }
+      count.reset();
+      sum.reset();
+      max.reset();
+   }
+
+   static int bucket(long value) {
+      if (value < SUB_BUCKETS) {
+         return (int) value;
+      }
+      int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+      int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+   }
+
+   static long upperBound(int bucket) {
+      if (bucket < SUB_BUCKETS) {
+         return bucket;
+      }
+      int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+      long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+      long upper = ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+      // The last bucket would overflow
+      return upper < 0 ? Long.MAX_VALUE : upper;
+   }
+
+   @Override
+   public String toString() {
+      return "SimpleHistogram{" +
+            "count=" + count() +
+            ", average=" + getAverage() +
+            ", p50=" + getPercentile(50) +
+            ", p99=" + getPercentile(99) +
+            ", max=" + getMax() +
+            '}';
+   }
+}
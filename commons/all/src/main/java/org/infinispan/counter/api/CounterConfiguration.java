@@ -25,17 +25,19 @@ public class CounterConfiguration {
    private final long upperBound;
    private final long lowerBound;
    private final long lifespan;
+   private final long flushInterval;
    private final int concurrencyLevel;
    private final CounterType type;
    private final Storage storage;
 
    @ProtoFactory
    CounterConfiguration(long initialValue, long lowerBound, long upperBound, int concurrencyLevel, CounterType type,
-                        Storage storage, long lifespan) {
+                        Storage storage, long lifespan, long flushInterval) {
       this.initialValue = initialValue;
       this.upperBound = upperBound;
       this.lowerBound = lowerBound;
       this.lifespan = lifespan;
+      this.flushInterval = flushInterval;
       this.concurrencyLevel = concurrencyLevel;
       this.type = type;
       this.storage = storage;
@@ -80,6 +82,11 @@ public long lifespan() {
       return lifespan;
    }
 
+   @ProtoField(number = 8, defaultValue = "0")
+   public long flushInterval() {
+      return flushInterval;
+   }
+
    @Override
    public String toString() {
       return "CounterConfiguration{" +
@@ -89,6 +96,7 @@ public String toString() {
             ", concurrencyLevel=" + concurrencyLevel +
             ", type=" + type +
             ", storage=" + storage +
+            ", flushInterval=" + flushInterval +
             '}';
    }
 
@@ -107,6 +115,7 @@ public boolean equals(Object o) {
             upperBound == that.upperBound &&
             lowerBound == that.lowerBound &&
             concurrencyLevel == that.concurrencyLevel &&
+            flushInterval == that.flushInterval &&
             type == that.type &&
             storage == that.storage;
    }
@@ -117,6 +126,7 @@ public int hashCode() {
       result = 31 * result + (int) (upperBound ^ (upperBound >>> 32));
       result = 31 * result + (int) (lowerBound ^ (lowerBound >>> 32));
       result = 31 * result + concurrencyLevel;
+      result = 31 * result + (int) (flushInterval ^ (flushInterval >>> 32));
       result = 31 * result + type.hashCode();
       result = 31 * result + storage.hashCode();
       return result;
@@ -131,6 +141,7 @@ public static class Builder {
       private long lowerBound = Long.MIN_VALUE;
       private long upperBound = Long.MAX_VALUE;
       private long lifespan = 0;
+      private long flushInterval = 0;
       private Storage storage = Storage.VOLATILE;
       private int concurrencyLevel = 16;
 
@@ -215,12 +226,32 @@ public Builder concurrencyLevel(int concurrencyLevel) {
          return this;
       }
 
+      /**
+       * Sets the interval, in milliseconds, between the updates of the counter's value in the cluster.
+       * <p>
+       * Only for {@link CounterType#WEAK}.
+       * <p>
+       * When positive, the updates to the counter are accumulated locally and applied to the cluster-wide value once
+       * per interval, with a single update. The returned {@link java.util.concurrent.CompletableFuture}s complete as
+       * soon as an update is accumulated, and the updates are visible to the other nodes, and to the listeners, only
+       * after they are applied. The updates not applied yet when the node stops are lost. It is a trade-off between the
+       * write performance and how soon the updates are visible.
+       * <p>
+       * The default value is zero, the updates are applied immediately.
+       *
+       * @param flushInterval the new interval, in milliseconds.
+       */
+      public Builder flushInterval(long flushInterval) {
+         this.flushInterval = flushInterval;
+         return this;
+      }
+
       /**
        * @return the {@link CounterConfiguration} with this configuration.
        */
       public CounterConfiguration build() {
          return new CounterConfiguration(initialValue, lowerBound, upperBound, concurrencyLevel, type, storage,
-               lifespan);
+               lifespan, flushInterval);
       }
    }
 
@@ -34,6 +34,10 @@ public Properties format(CounterConfiguration configuration) {
             break;
          case WEAK:
             PropertyKey.CONCURRENCY.setProperty(configuration, properties);
+            if (configuration.flushInterval() > 0) {
+               // only the buffered counters have the property
+               PropertyKey.FLUSH_INTERVAL.setProperty(configuration, properties);
+            }
             break;
          default:
             throw new IllegalStateException();
@@ -49,6 +53,7 @@ public CounterConfiguration.Builder from(Properties properties) {
       switch (type) {
          case WEAK:
             fromProperty(properties, PropertyKey.CONCURRENCY, Integer::valueOf, builder::concurrencyLevel);
+            fromProperty(properties, PropertyKey.FLUSH_INTERVAL, Long::valueOf, builder::flushInterval);
             break;
          case BOUNDED_STRONG:
             fromProperty(properties, PropertyKey.UPPER_BOUND, Long::valueOf, builder::upperBound);
@@ -105,6 +110,12 @@ void setProperty(CounterConfiguration config, Properties properties) {
          void setProperty(CounterConfiguration config, Properties properties) {
             properties.setProperty(key, String.valueOf(config.concurrencyLevel()));
          }
+      },
+      FLUSH_INTERVAL("flush-interval") {
+         @Override
+         void setProperty(CounterConfiguration config, Properties properties) {
+            properties.setProperty(key, String.valueOf(config.flushInterval()));
+         }
       };
       final String key;
 
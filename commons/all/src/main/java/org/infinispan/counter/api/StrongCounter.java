@@ -1,6 +1,9 @@
 package org.infinispan.counter.api;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.infinispan.counter.exception.CounterOutOfBoundsException;
 
 /**
  * The strong consistent counter interface.
@@ -56,6 +59,33 @@ default CompletableFuture<Long> decrementAndGet() {
     */
    CompletableFuture<Long> addAndGet(long delta);
 
+   /**
+    * Atomically reserves a range of {@code size} consecutive values and returns the first one.
+    * <p>
+    * The caller owns the values from the returned value to the returned value plus {@code size - 1}, e.g. to generate
+    * identifiers locally without updating the counter for each identifier.
+    * <p>
+    * A bounded counter fails with {@link org.infinispan.counter.exception.CounterOutOfBoundsException} if the range
+    * does not fit, like {@link #addAndGet(long)}. An unbounded counter stops at {@link Long#MAX_VALUE}, so the range
+    * would overlap the ranges reserved before: it fails with the same exception when the range reaches {@link
+    * Long#MAX_VALUE}.
+    *
+    * @param size The number of values to reserve. It must be positive.
+    * @return The first value of the range.
+    */
+   default CompletableFuture<Long> reserve(long size) {
+      if (size <= 0) {
+         throw new IllegalArgumentException("The size must be positive but it was " + size);
+      }
+      return addAndGet(size).thenApply(value -> {
+         if (value == Long.MAX_VALUE) {
+            throw new CompletionException(new CounterOutOfBoundsException(
+                  String.format(CounterOutOfBoundsException.FORMAT_MESSAGE, CounterOutOfBoundsException.UPPER_BOUND)));
+         }
+         return value - size + 1;
+      });
+   }
+
    /**
     * Resets the counter to its initial value.
     */
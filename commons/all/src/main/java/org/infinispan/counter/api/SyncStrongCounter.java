@@ -1,5 +1,7 @@
 package org.infinispan.counter.api;
 
+import org.infinispan.counter.exception.CounterOutOfBoundsException;
+
 /**
  * A synchronous {@link StrongCounter}.
  *
@@ -27,6 +29,21 @@ default long decrementAndGet() {
     */
    long addAndGet(long delta);
 
+   /**
+    * @see StrongCounter#reserve(long)
+    */
+   default long reserve(long size) {
+      if (size <= 0) {
+         throw new IllegalArgumentException("The size must be positive but it was " + size);
+      }
+      long value = addAndGet(size);
+      if (value == Long.MAX_VALUE) {
+         throw new CounterOutOfBoundsException(
+               String.format(CounterOutOfBoundsException.FORMAT_MESSAGE, CounterOutOfBoundsException.UPPER_BOUND));
+      }
+      return value - size + 1;
+   }
+
    /**
     * @see StrongCounter#reset()
     */
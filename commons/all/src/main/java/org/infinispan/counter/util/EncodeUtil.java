@@ -112,10 +112,27 @@ public static byte encodeTypeAndStorage(CounterConfiguration configuration) {
     */
    public static void encodeConfiguration(CounterConfiguration configuration, Consumer<Byte> byteConsumer,
          LongConsumer longConsumer, IntConsumer intConsumer) {
+      encodeConfiguration(configuration, byteConsumer, longConsumer, intConsumer, false);
+   }
+
+   /**
+    * Encodes the configuration, including the {@link CounterConfiguration#flushInterval()} of the weak counters if
+    * {@code withFlushInterval} is {@code true}.
+    * <p>
+    * The flush interval is only encoded for the peers using the Hot Rod protocol 3.2 or later, the older peers do not
+    * expect it.
+    *
+    * @see #encodeConfiguration(CounterConfiguration, Consumer, LongConsumer, IntConsumer)
+    */
+   public static void encodeConfiguration(CounterConfiguration configuration, Consumer<Byte> byteConsumer,
+         LongConsumer longConsumer, IntConsumer intConsumer, boolean withFlushInterval) {
       byteConsumer.accept(encodeTypeAndStorage(configuration));
       switch (configuration.type()) {
          case WEAK:
             intConsumer.accept(configuration.concurrencyLevel());
+            if (withFlushInterval) {
+               longConsumer.accept(configuration.flushInterval());
+            }
             break;
          case BOUNDED_STRONG:
             longConsumer.accept(configuration.lowerBound());
@@ -138,6 +155,18 @@ public static void encodeConfiguration(CounterConfiguration configuration, Consu
     */
    public static CounterConfiguration decodeConfiguration(Supplier<Byte> byteSupplier, LongSupplier longSupplier,
          IntSupplier intSupplier) {
+      return decodeConfiguration(byteSupplier, longSupplier, intSupplier, false);
+   }
+
+   /**
+    * Decodes a {@link CounterConfiguration} encoded by {@link #encodeConfiguration(CounterConfiguration, Consumer,
+    * LongConsumer, IntConsumer, boolean)}.
+    *
+    * @return the decoded {@link CounterConfiguration}.
+    * @see #encodeConfiguration(CounterConfiguration, Consumer, LongConsumer, IntConsumer, boolean)
+    */
+   public static CounterConfiguration decodeConfiguration(Supplier<Byte> byteSupplier, LongSupplier longSupplier,
+         IntSupplier intSupplier, boolean withFlushInterval) {
       byte flags = byteSupplier.get();
       CounterType type = decodeType(flags);
       CounterConfiguration.Builder builder = CounterConfiguration.builder(type);
@@ -145,6 +174,9 @@ public static CounterConfiguration decodeConfiguration(Supplier<Byte> byteSuppli
       switch (type) {
          case WEAK:
             builder.concurrencyLevel(intSupplier.getAsInt());
+            if (withFlushInterval) {
+               builder.flushInterval(longSupplier.getAsLong());
+            }
             break;
          case BOUNDED_STRONG:
             builder.lowerBound(longSupplier.getAsLong());
@@ -0,0 +1,98 @@
+package org.infinispan.commons.stat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * An unit test for {@link SimpleHistogram}
+ *
+ * @since 14.0
+ */
+public class SimpleHistogramTest {
+
+   @Test
+   public void testEmpty() {
+      SimpleHistogram histogram = new SimpleHistogram();
+      assertEquals(0, histogram.count());
+      assertEquals(0, histogram.getAverage(), 0);
+      assertEquals(0, histogram.getMax());
+      assertEquals(0, histogram.getPercentile(50));
+      assertEquals(0, histogram.getPercentile(100));
+   }
+
+   @Test
+   public void testValues() {
+      SimpleHistogram histogram = new SimpleHistogram();
+      for (int i = 1; i <= 100; i++) {
+         histogram.record(i);
+      }
+      histogram.record(-5);
+      assertEquals(101, histogram.count());
+      assertEquals(5050 / 101.0, histogram.getAverage(), 0.0001);
+      assertEquals(100, histogram.getMax());
+      assertEquals(100, histogram.getPercentile(100));
+      assertEquals(0, histogram.getPercentile(0));
+      assertPercentile(50, histogram.getPercentile(50));
+      assertPercentile(90, histogram.getPercentile(90));
+      assertPercentile(99, histogram.getPercentile(99));
+   }
+
+   @Test
+   public void testBuckets() {
+      long previousUpperBound = -1;
+      for (long value : new long[]{0, 1, 3, 4, 5, 7, 8, 100, 1000, 1L << 40, Long.MAX_VALUE - 1, Long.MAX_VALUE}) {
+         int bucket = SimpleHistogram.bucket(value);
+         long upperBound = SimpleHistogram.upperBound(bucket);
+         assertTrue(value + " > " + upperBound, value <= upperBound);
+         assertTrue(value + " in bucket " + bucket, bucket == 0 || SimpleHistogram.upperBound(bucket - 1) < value);
+         assertTrue(upperBound >= previousUpperBound);
+         assertTrue(upperBound - value <= value / 4);
+         previousUpperBound = upperBound;
+      }
+   }
+
+   @Test
+   public void testReset() {
+      SimpleHistogram histogram = new SimpleHistogram();
+      histogram.record(10);
+      histogram.record(1000);
+      histogram.reset();
+      assertEquals(0, histogram.count());
+      assertEquals(0, histogram.getMax());
+      assertEquals(0, histogram.getPercentile(99));
+      histogram.record(3);
+      assertEquals(3, histogram.getMax());
+      assertEquals(3, histogram.getPercentile(50));
+   }
+
+   @Test
+   public void testConcurrentRecords() throws Exception {
+      SimpleHistogram histogram = new SimpleHistogram();
+      int threads = 4;
+      int values = 10_000;
+      Thread[] recorders = new Thread[threads];
+      for (int t = 0; t < threads; t++) {
+         recorders[t] = new Thread(() -> {
+            for (int i = 1; i <= values; i++) {
+               histogram.record(i);
+            }
+         });
+         recorders[t].start();
+      }
+      for (Thread recorder : recorders) {
+         recorder.join();
+      }
+      assertEquals(threads * values, histogram.count());
+      assertEquals(values, histogram.getMax());
+      assertEquals(values, histogram.getPercentile(100));
+      assertEquals((values + 1) / 2.0, histogram.getAverage(), 0.0001);
+   }
+
+   private static void assertPercentile(long expected, long actual) {
+      // Each bucket is at most 25% wider than its lower bound
+      assertTrue(expected + " > " + actual, actual >= expected);
+      assertTrue(actual + " > 1.25 * " + expected, actual <= expected * 5 / 4);
+   }
+}
@@ -64,6 +64,7 @@
 import org.infinispan.commons.util.EnumUtil;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.Version;
+import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.Configurations;
 import org.infinispan.configuration.format.PropertyFormatter;
@@ -75,6 +76,7 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.context.impl.FlagBitSets;
+import org.infinispan.context.impl.SingleKeyNonTxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.encoding.DataConversion;
@@ -94,6 +96,8 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.functional.impl.Params;
 import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.interceptors.InvocationStage;
+import org.infinispan.interceptors.impl.AsyncInterceptorChainImpl;
 import org.infinispan.jmx.annotations.DataType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
@@ -104,6 +108,10 @@
 import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.notifications.cachelistener.ListenerHolder;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryActivated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryLoaded;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryPassivated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryVisited;
 import org.infinispan.notifications.cachelistener.filter.CacheEventConverter;
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilter;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
@@ -180,6 +188,9 @@
    private boolean batchingEnabled;
    private final ContextBuilder nonTxContextBuilder = this::nonTxContextBuilder;
    private final ContextBuilder defaultBuilder = i -> invocationHelper.createInvocationContextWithImplicitTransaction(i, false);
+   // The context and the command reused by get(Object), see getReusingCommand
+   private final ThreadLocal<SingleKeyRead> singleKeyRead = new ThreadLocal<>();
+   private boolean reuseSingleKeyRead;
 
    public CacheImpl(String name) {
       this.name = name;
@@ -194,6 +205,9 @@ public void preStart() {
       defaultMetadata = Configurations.newDefaultMetadata(config);
       transactional = config.transaction().transactionMode().isTransactional();
       batchingEnabled = config.invocationBatching().enabled();
+      CacheMode cacheMode = config.clustering().cacheMode();
+      reuseSingleKeyRead = !transactional && !batchingEnabled && (!cacheMode.isClustered() || cacheMode.isReplicated()) &&
+            invoker instanceof AsyncInterceptorChainImpl;
    }
 
    private void assertKeyNotNull(Object key) {
@@ -532,9 +546,67 @@ public final boolean containsValue(Object value) {
 
    @Override
    public final V get(Object key) {
+      if (reuseSingleKeyRead && !hasReadCommandListener()) {
+         return getReusingCommand(key);
+      }
       return get(key, EnumUtil.EMPTY_BIT_SET, invocationContextFactory.createInvocationContext(false, 1));
    }
 
+   /**
+    * @return whether there is a listener for an event that a read can fire, which receives the read command
+    */
+   private boolean hasReadCommandListener() {
+      return notifier.hasListener(CacheEntryVisited.class) || notifier.hasListener(CacheEntryLoaded.class) ||
+            notifier.hasListener(CacheEntryActivated.class) || notifier.hasListener(CacheEntryPassivated.class);
+   }
+
+   /**
+    * Reads a key with a context and a command confined to the current thread, so that a read that completes
+    * synchronously does not allocate them.
+    * <p>
+    * They are only reused after a synchronous invocation: when the read waits for a remote node or a store, or fails,
+    * interceptor callbacks may still reference them, so the next read creates new ones. The listeners of the events
+    * fired by a read (visited, loaded, activated and passivated) may keep the command, so they disable the reuse.
+    */
+   private V getReusingCommand(Object key) {
+      assertKeyNotNull(key);
+      SingleKeyRead read = singleKeyRead.get();
+      if (read == null) {
+         read = new SingleKeyRead();
+         singleKeyRead.set(read);
+      } else if (read.inUse) {
+         // A read invoked by an interceptor or a listener during another read
+         return get(key, EnumUtil.EMPTY_BIT_SET, invocationContextFactory.createInvocationContext(false, 1));
+      }
+      int segment = keyPartitioner.getSegment(key);
+      if (read.command == null) {
+         read.ctx = new SingleKeyNonTxInvocationContext(null);
+         read.command = commandsFactory.buildGetKeyValueCommand(key, segment, EnumUtil.EMPTY_BIT_SET);
+      } else {
+         read.command.reset(key, segment, EnumUtil.EMPTY_BIT_SET);
+      }
+      read.inUse = true;
+      boolean reusable = false;
+      try {
+         Object result = ((AsyncInterceptorChainImpl) invoker).invokeOrGetStage(read.ctx, read.command);
+         if (result instanceof InvocationStage) {
+            return (V) AsyncInterceptorChainImpl.join((InvocationStage) result);
+         }
+         reusable = true;
+         return (V) result;
+      } finally {
+         if (reusable) {
+            // Don't keep the key and the entry reachable from the thread until the next read
+            read.ctx.resetState();
+            read.command.reset(null, -1, EnumUtil.EMPTY_BIT_SET);
+         } else {
+            read.ctx = null;
+            read.command = null;
+         }
+         read.inUse = false;
+      }
+   }
+
    final V get(Object key, long explicitFlags, InvocationContext ctx) {
       assertKeyNotNull(key);
       GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, keyPartitioner.getSegment(key), explicitFlags);
@@ -1890,4 +1962,10 @@ public Properties getConfigurationAsProperties() {
    public ContextBuilder defaultContextBuilderForWrite() {
       return defaultBuilder;
    }
+
+   private static final class SingleKeyRead {
+      SingleKeyNonTxInvocationContext ctx;
+      GetKeyValueCommand command;
+      boolean inUse;
+   }
 }
@@ -29,6 +29,16 @@ public GetKeyValueCommand(Object key, int segment, long flagsBitSet) {
    public GetKeyValueCommand() {
    }
 
+   /**
+    * Prepares the command to be invoked again for a different key, after the previous invocation completed.
+    */
+   public void reset(Object key, int segment, long flagsBitSet) {
+      this.key = key;
+      this.segment = segment;
+      setFlagsBitSet(flagsBitSet);
+      setTopologyId(-1);
+   }
+
    @Override
    public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
       return visitor.visitGetKeyValueCommand(ctx, this);
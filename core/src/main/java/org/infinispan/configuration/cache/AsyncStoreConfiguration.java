@@ -17,15 +17,17 @@ public class AsyncStoreConfiguration {
    @Deprecated
    public static final AttributeDefinition<Integer> THREAD_POOL_SIZE = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.THREAD_POOL_SIZE, 1).immutable().build();
    public static final AttributeDefinition<Boolean> FAIL_SILENTLY = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.FAIL_SILENTLY, false).immutable().build();
+   public static final AttributeDefinition<Integer> CONCURRENCY_LEVEL = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.CONCURRENCY_LEVEL, 1).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY);
+      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY, CONCURRENCY_LEVEL);
    }
 
    private final Attribute<Boolean> enabled;
    private final Attribute<Integer> modificationQueueSize;
    private final Attribute<Integer> threadPoolSize;
    private final Attribute<Boolean> failSilently;
+   private final Attribute<Integer> concurrencyLevel;
 
    private final AttributeSet attributes;
 
@@ -35,6 +37,7 @@ public AsyncStoreConfiguration(AttributeSet attributes) {
       this.modificationQueueSize = attributes.attribute(MODIFICATION_QUEUE_SIZE);
       this.threadPoolSize = attributes.attribute(THREAD_POOL_SIZE);
       this.failSilently = attributes.attribute(FAIL_SILENTLY);
+      this.concurrencyLevel = attributes.attribute(CONCURRENCY_LEVEL);
    }
 
    /**
@@ -67,6 +70,14 @@ public boolean failSilently() {
       return failSilently.get();
    }
 
+   /**
+    * The maximum number of batches of modifications written to the underlying store at the same time. The modification
+    * queue is partitioned by segment, so the modifications of a key are always written in order.
+    */
+   public int concurrencyLevel() {
+      return concurrencyLevel.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
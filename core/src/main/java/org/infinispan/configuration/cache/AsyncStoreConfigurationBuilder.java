@@ -1,9 +1,11 @@
 package org.infinispan.configuration.cache;
 
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.CONCURRENCY_LEVEL;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.ENABLED;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FAIL_SILENTLY;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.THREAD_POOL_SIZE;
+import static org.infinispan.util.logging.Log.CONFIG;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
@@ -85,9 +87,23 @@ public AsyncStoreConfigurationBuilder<S> failSilently(boolean failSilently) {
       return this;
    }
 
+   /**
+    * Sets the maximum number of batches of modifications written to the underlying store at the same time. The
+    * modification queue is partitioned by segment, so the modifications of a key are always written in order.
+    * Defaults to 1.
+    */
+   public AsyncStoreConfigurationBuilder<S> concurrencyLevel(int concurrencyLevel) {
+      attributes.attribute(CONCURRENCY_LEVEL).set(concurrencyLevel);
+      return this;
+   }
+
    @Override
    public
    void validate() {
+      int concurrencyLevel = attributes.attribute(CONCURRENCY_LEVEL).get();
+      if (concurrencyLevel < 1) {
+         throw CONFIG.invalidAsyncStoreConcurrencyLevel(concurrencyLevel);
+      }
    }
 
    @Override
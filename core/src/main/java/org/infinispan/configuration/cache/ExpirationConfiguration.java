@@ -18,9 +18,10 @@ public class ExpirationConfiguration extends ConfigurationElement<ExpirationConf
    public static final AttributeDefinition<Boolean> REAPER_ENABLED = AttributeDefinition.builder("reaperEnabled", true).immutable().autoPersist(false).build();
    public static final AttributeDefinition<Long> WAKEUP_INTERVAL = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.INTERVAL, TimeUnit.MINUTES.toMillis(1)).build();
    public static final AttributeDefinition<TouchMode> TOUCH = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.TOUCH, TouchMode.SYNC).immutable().build();
+   public static final AttributeDefinition<Boolean> TIMING_WHEEL = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.TIMING_WHEEL, false).immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(ExpirationConfiguration.class, LIFESPAN, MAX_IDLE, REAPER_ENABLED, WAKEUP_INTERVAL, TOUCH);
+      return new AttributeSet(ExpirationConfiguration.class, LIFESPAN, MAX_IDLE, REAPER_ENABLED, WAKEUP_INTERVAL, TOUCH, TIMING_WHEEL);
    }
 
    private final Attribute<Long> lifespan;
@@ -28,6 +29,7 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<Boolean> reaperEnabled;
    private final Attribute<Long> wakeUpInterval;
    private final Attribute<TouchMode> touch;
+   private final Attribute<Boolean> timingWheel;
 
    ExpirationConfiguration(AttributeSet attributes) {
       super(Element.EXPIRATION, attributes);
@@ -36,6 +38,7 @@ static AttributeSet attributeDefinitionSet() {
       reaperEnabled = attributes.attribute(REAPER_ENABLED);
       wakeUpInterval = attributes.attribute(WAKEUP_INTERVAL);
       touch = attributes.attribute(TOUCH);
+      timingWheel = attributes.attribute(TIMING_WHEEL);
    }
 
    /**
@@ -85,4 +88,12 @@ public long wakeUpInterval() {
    public TouchMode touch() {
       return touch.get();
    }
+
+   /**
+    * Whether the entries that can expire are indexed by their expiration time, so that the reaper only visits the
+    * entries that are due instead of iterating over the whole data container.
+    */
+   public boolean timingWheel() {
+      return timingWheel.get();
+   }
 }
@@ -3,6 +3,7 @@
 import static org.infinispan.configuration.cache.ExpirationConfiguration.LIFESPAN;
 import static org.infinispan.configuration.cache.ExpirationConfiguration.MAX_IDLE;
 import static org.infinispan.configuration.cache.ExpirationConfiguration.REAPER_ENABLED;
+import static org.infinispan.configuration.cache.ExpirationConfiguration.TIMING_WHEEL;
 import static org.infinispan.configuration.cache.ExpirationConfiguration.TOUCH;
 import static org.infinispan.configuration.cache.ExpirationConfiguration.WAKEUP_INTERVAL;
 
@@ -149,6 +150,17 @@ public ExpirationConfigurationBuilder touch(TouchMode touchMode) {
       return this;
    }
 
+   /**
+    * Index the entries that can expire by their expiration time in a timing wheel, so that the reaper only visits the
+    * entries that are due instead of iterating over the whole data container. This uses additional memory for every
+    * entry that can expire and is only worthwhile when a small fraction of a large number of entries expires
+    * between reaper runs. Expired entries in cache stores are still purged by the stores.
+    */
+   public ExpirationConfigurationBuilder timingWheel(boolean enabled) {
+      attributes.attribute(TIMING_WHEEL).set(enabled);
+      return this;
+   }
+
    @Override
    public void validate() {
       Attribute<TouchMode> touch = attributes.attribute(TOUCH);
@@ -34,10 +34,11 @@ public class HashConfiguration extends ConfigurationElement<HashConfiguration> {
          })
          .serializer(AttributeSerializer.INSTANCE_CLASS_NAME)
          .immutable().build();
+   public static final AttributeDefinition<ReadRouting> READ_ROUTING = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.READ_ROUTING, ReadRouting.STAGGERED).immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(HashConfiguration.class, CONSISTENT_HASH_FACTORY, NUM_OWNERS,
-            NUM_SEGMENTS, CAPACITY_FACTOR, KEY_PARTITIONER);
+            NUM_SEGMENTS, CAPACITY_FACTOR, KEY_PARTITIONER, READ_ROUTING);
    }
 
    private final Attribute<ConsistentHashFactory> consistentHashFactory;
@@ -45,6 +46,7 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> numSegments;
    private final Attribute<Float> capacityFactor;
    private final Attribute<KeyPartitioner> keyPartitioner;
+   private final Attribute<ReadRouting> readRouting;
 
    private final GroupsConfiguration groupsConfiguration;
 
@@ -56,6 +58,7 @@ static AttributeSet attributeDefinitionSet() {
       numSegments = attributes.attribute(NUM_SEGMENTS);
       capacityFactor = attributes.attribute(CAPACITY_FACTOR);
       keyPartitioner = attributes.attribute(KEY_PARTITIONER);
+      readRouting = attributes.attribute(READ_ROUTING);
    }
 
    /**
@@ -102,6 +105,13 @@ public KeyPartitioner keyPartitioner() {
       return keyPartitioner.get();
    }
 
+   /**
+    * How the reads of keys that are not owned locally choose the owner that serves them.
+    */
+   public ReadRouting readRouting() {
+      return readRouting.get();
+   }
+
    /**
     * Configuration for various grouper definitions. See the user guide for more information.
     */
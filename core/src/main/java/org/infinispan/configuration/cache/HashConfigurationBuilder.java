@@ -5,6 +5,7 @@
 import static org.infinispan.configuration.cache.HashConfiguration.KEY_PARTITIONER;
 import static org.infinispan.configuration.cache.HashConfiguration.NUM_OWNERS;
 import static org.infinispan.configuration.cache.HashConfiguration.NUM_SEGMENTS;
+import static org.infinispan.configuration.cache.HashConfiguration.READ_ROUTING;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
@@ -105,6 +106,18 @@ public GroupsConfigurationBuilder groups() {
       return groupsConfigurationBuilder;
    }
 
+   /**
+    * Controls how the reads of keys that are not owned locally choose the owner that serves them. With
+    * {@link ReadRouting#ADAPTIVE}, a read is sent first to the owner that responded fastest recently, so a slow
+    * owner, e.g. one in a long GC pause, does not delay the reads.
+    *
+    * @since 14.0
+    */
+   public HashConfigurationBuilder readRouting(ReadRouting readRouting) {
+      attributes.attribute(READ_ROUTING).set(readRouting);
+      return this;
+   }
+
    @Override
    public void validate() {
       groupsConfigurationBuilder.validate();
@@ -240,6 +240,26 @@ public EvictionStrategy evictionStrategy() {
       return whenFull();
    }
 
+   /**
+    * Sets how native memory is allocated for entries when the storage is {@link StorageType#OFF_HEAP}.
+    * <ul>
+    *    <li>UNPOOLED - every entry is allocated and freed individually (default)</li>
+    *    <li>SLAB - entries are allocated from size-class slabs reserved in large arena chunks and freed blocks are
+    *    recycled, which avoids a system allocator call per write at the cost of never shrinking until the cache
+    *    is stopped</li>
+    * </ul>
+    * @param allocator the allocator type to use
+    * @return this
+    */
+   public MemoryConfigurationBuilder allocator(OffHeapAllocatorType allocator) {
+      attributes.attribute(MemoryConfiguration.ALLOCATOR).set(allocator);
+      return this;
+   }
+
+   public OffHeapAllocatorType allocator() {
+      return attributes.attribute(MemoryConfiguration.ALLOCATOR).get();
+   }
+
    boolean isSizeBounded() {
       return maxSize() != null;
    }
@@ -0,0 +1,18 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Enumeration defining how native memory is obtained for entries when the cache uses {@link StorageType#OFF_HEAP}.
+ *
+ * @since 14.0
+ */
+public enum OffHeapAllocatorType {
+   /**
+    * Every entry is allocated and freed individually through the system allocator.
+    */
+   UNPOOLED,
+   /**
+    * Entries are carved out of size-class slabs which are reserved from large arena chunks. Freed blocks are recycled
+    * for entries of the same size class and memory is only returned to the system when the cache is stopped.
+    */
+   SLAB,
+}
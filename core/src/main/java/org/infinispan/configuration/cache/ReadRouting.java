@@ -0,0 +1,20 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Specifies how a distributed cache chooses the owner that serves a read of a key that is not owned locally.
+ *
+ * @since 14.0
+ */
+public enum ReadRouting {
+   /**
+    * The read is sent to the owners in the order of the consistent hash, starting with the primary owner. The read is
+    * sent to the next owner after a fraction of the remote timeout.
+    */
+   STAGGERED,
+   /**
+    * The read is sent first to the owner that is likely to respond first, based on its recent response times and the
+    * number of requests in progress. The read is sent to the next owner once the first owner takes longer than a
+    * percentile of its recent response times, configured with the {@code readHedgePercentile} transport property.
+    */
+   ADAPTIVE,
+}
@@ -23,20 +23,23 @@ public class SingleFileStoreConfiguration extends AbstractStoreConfiguration {
    @Deprecated
    public static final AttributeDefinition<Integer> MAX_ENTRIES = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.MAX_ENTRIES, -1).immutable().build();
    public static final AttributeDefinition<Float> FRAGMENTATION_FACTOR = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.FRAGMENTATION_FACTOR, 0.75f).immutable().build();
+   public static final AttributeDefinition<Boolean> OFF_HEAP_INDEX = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.OFF_HEAP_INDEX, false).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(SingleFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, MAX_ENTRIES, FRAGMENTATION_FACTOR);
+      return new AttributeSet(SingleFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, MAX_ENTRIES, FRAGMENTATION_FACTOR, OFF_HEAP_INDEX);
    }
 
    private final Attribute<String> location;
    private final Attribute<Integer> maxEntries;
    private final Attribute<Float> fragmentationFactor;
+   private final Attribute<Boolean> offHeapIndex;
 
    public SingleFileStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async) {
       super(attributes, async);
       location = attributes.attribute(LOCATION);
       maxEntries = attributes.attribute(MAX_ENTRIES);
       fragmentationFactor = attributes.attribute(FRAGMENTATION_FACTOR);
+      offHeapIndex = attributes.attribute(OFF_HEAP_INDEX);
    }
 
    public String location() {
@@ -55,6 +58,13 @@ public float fragmentationFactor() {
       return fragmentationFactor.get();
    }
 
+   /**
+    * Whether the index of the keys is kept outside the Java heap.
+    */
+   public boolean offHeapIndex() {
+      return offHeapIndex.get();
+   }
+
    @Override
    public String toString() {
       return "SingleFileStoreConfiguration [attributes=" + attributes + "]";
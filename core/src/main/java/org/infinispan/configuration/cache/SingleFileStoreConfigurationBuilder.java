@@ -4,6 +4,7 @@
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.FRAGMENTATION_FACTOR;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.LOCATION;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.MAX_ENTRIES;
+import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.OFF_HEAP_INDEX;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.attributes.Attribute;
@@ -81,6 +82,17 @@ public SingleFileStoreConfigurationBuilder fragmentationFactor(float fragmentati
       return this;
    }
 
+   /**
+    * Keeps the index of the keys outside the Java heap. The index then stores only the hash code of each key and the
+    * position of its entry in the file, and the keys are read from the file to confirm a lookup, so the heap usage no
+    * longer depends on the number of keys in the store. Lookups are slower, because they read the key from disk.
+    * Cannot be used together with {@link #maxEntries(int)}.
+    */
+   public SingleFileStoreConfigurationBuilder offHeapIndex(boolean offHeapIndex) {
+      attributes.attribute(OFF_HEAP_INDEX).set(offHeapIndex);
+      return this;
+   }
+
    @Override
    public void validate() {
       Attribute<Boolean> segmentedAttribute = attributes.attribute(SEGMENTED);
@@ -88,6 +100,9 @@ public void validate() {
       if (segmentedAttribute.get() && maxEntriesAttribute.get() > 0) {
          throw Log.CONFIG.segmentedSingleFileStoreDoesNotSupportMaxEntries();
       }
+      if (attributes.attribute(OFF_HEAP_INDEX).get() && maxEntriesAttribute.get() > 0) {
+         throw Log.CONFIG.offHeapIndexSingleFileStoreDoesNotSupportMaxEntries();
+      }
       super.validate();
    }
 
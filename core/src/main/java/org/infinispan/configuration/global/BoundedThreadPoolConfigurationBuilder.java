@@ -5,13 +5,16 @@
 import static org.infinispan.configuration.global.BoundedThreadPoolConfiguration.MAX_THREADS;
 import static org.infinispan.configuration.global.BoundedThreadPoolConfiguration.NON_BLOCKING;
 import static org.infinispan.configuration.global.BoundedThreadPoolConfiguration.QUEUE_LENGTH;
+import static org.infinispan.configuration.global.BoundedThreadPoolConfiguration.VIRTUAL_THREADS;
 import static org.infinispan.configuration.global.CachedThreadPoolConfiguration.NAME;
 import static org.infinispan.configuration.global.CachedThreadPoolConfiguration.THREAD_FACTORY;
+import static org.infinispan.util.logging.Log.CONFIG;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.factories.threads.CoreExecutorFactory;
 import org.infinispan.factories.threads.DefaultThreadFactory;
+import org.infinispan.factories.threads.VirtualThreadExecutorFactory;
 
 /*
  * @since 10.0
@@ -80,6 +83,20 @@ public Boolean isNonBlocking() {
       return attributes.attribute(NON_BLOCKING).get();
    }
 
+   /**
+    * Runs each task of a blocking thread pool in a virtual thread. {@link #maxThreads(Integer)} becomes the maximum
+    * number of tasks running at the same time, the core threads and keep alive time are not used. Virtual threads
+    * require JDK 21 or later, the thread pool uses platform threads on older JVMs.
+    */
+   public BoundedThreadPoolConfigurationBuilder virtualThreads(boolean virtualThreads) {
+      attributes.attribute(VIRTUAL_THREADS).set(virtualThreads);
+      return this;
+   }
+
+   public boolean isVirtualThreads() {
+      return attributes.attribute(VIRTUAL_THREADS).get();
+   }
+
    public String name() {
       return attributes.attribute(NAME).get();
    }
@@ -110,8 +127,15 @@ public String toString() {
    public ThreadPoolConfiguration asThreadPoolConfigurationBuilder() {
       ThreadPoolConfigurationBuilder builder = new ThreadPoolConfigurationBuilder(getGlobalConfig());
       boolean isNonBlocking = isNonBlocking();
-      builder.threadPoolFactory(CoreExecutorFactory.executorFactory(maxThreads(), coreThreads(), queueLength(),
-            keepAliveTime(), isNonBlocking));
+      if (isVirtualThreads()) {
+         if (isNonBlocking) {
+            throw CONFIG.virtualThreadsNonBlockingThreadPool(name());
+         }
+         builder.threadPoolFactory(VirtualThreadExecutorFactory.create(maxThreads(), queueLength()));
+      } else {
+         builder.threadPoolFactory(CoreExecutorFactory.executorFactory(maxThreads(), coreThreads(), queueLength(),
+               keepAliveTime(), isNonBlocking));
+      }
       builder.name(name());
       if (threadFactory() != null) {
          DefaultThreadFactory threadFactory = getGlobalConfig().threads().getThreadFactory(threadFactory()).create().getThreadFactory(isNonBlocking);
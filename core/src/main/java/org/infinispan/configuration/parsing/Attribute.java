@@ -18,6 +18,7 @@ public enum Attribute {
     ADDRESS_COUNT,
     AFTER,
     ALIASES,
+    ALLOCATOR,
     @Deprecated
     ALLOW_DUPLICATE_DOMAINS("duplicate-domains"),
     @Deprecated
@@ -45,6 +46,8 @@ public enum Attribute {
     CLASS,
     CLUSTER,
     COMMIT_INTERVAL,
+    COMPACTION_RATE_LIMIT,
+    COMPACTION_THREADS,
     COMPACTION_THRESHOLD,
     COMPLETED_TX_TIMEOUT("complete-timeout"),
     CONCURRENCY_LEVEL,
@@ -119,6 +122,7 @@ public enum Attribute {
     MBEAN_SERVER_LOOKUP,
     MERGE_POLICY,
     MEDIA_TYPE,
+    MEMORY_MAPPED,
     MIN_NODE_SIZE,
     MODE,
     NODE_NAME,
@@ -129,6 +133,7 @@ public enum Attribute {
     NAMES_AS_TAGS("namesAsTags"),
     NON_BLOCKING_EXECUTOR,
     NOTIFICATIONS,
+    OFF_HEAP_INDEX,
     ON_REHASH("onRehash"),
     OPEN_FILES_LIMIT,
     OWNERS,
@@ -151,6 +156,7 @@ public enum Attribute {
     RACK_ID("rack"),
     RAM_BUFFER_SIZE,
     READ_ONLY,
+    READ_ROUTING,
     REAPER_WAKE_UP_INTERVAL("reaper-interval"),
     RECOVERY_INFO_CACHE_NAME("recovery-cache"),
     REFRESH_INTERVAL,
@@ -195,6 +201,7 @@ public enum Attribute {
     THREAD_POLICY,
     THREAD_POOL_SIZE,
     TIMEOUT,
+    TIMING_WHEEL,
     TOTAL_ORDER_EXECUTOR,
     TOUCH,
     TRANSACTION_MANAGER_LOOKUP_CLASS("transaction-manager-lookup"),
@@ -209,6 +216,7 @@ public enum Attribute {
     VALUE_EQUIVALENCE,
     VERSION,
     VERSIONING_SCHEME("scheme"),
+    VIRTUAL_THREADS,
     WAIT_TIME,
     WHEN_SPLIT,
     WHEN_FULL,
@@ -40,8 +40,10 @@
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfigurationBuilder;
 import org.infinispan.configuration.cache.MemoryConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.PartitionHandlingConfigurationBuilder;
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.configuration.cache.ReadRouting;
 import org.infinispan.configuration.cache.SecurityConfigurationBuilder;
 import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
 import org.infinispan.configuration.cache.StorageType;
@@ -598,6 +600,9 @@ private void parseMemory(final ConfigurationReader reader, final ConfigurationBu
                case WHEN_FULL:
                   memoryBuilder.whenFull(EvictionStrategy.valueOf(value));
                   break;
+               case ALLOCATOR:
+                  memoryBuilder.allocator(OffHeapAllocatorType.valueOf(value));
+                  break;
                default:
                   throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1020,6 +1025,10 @@ private void parseExpiration(ConfigurationReader reader, ConfigurationBuilder bu
                }
                break;
             }
+            case TIMING_WHEEL: {
+               builder.expiration().timingWheel(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1217,6 +1226,10 @@ protected void parseDistributedCache(ConfigurationReader reader, ConfigurationBu
                builder.clustering().hash().capacityFactor(Float.parseFloat(value));
                break;
             }
+            case READ_ROUTING: {
+               builder.clustering().hash().readRouting(ReadRouting.valueOf(value));
+               break;
+            }
             default: {
                this.parseSegmentedCacheAttribute(reader, i, attribute, value, builder, holder.getClassLoader(), baseCacheMode);
             }
@@ -1468,6 +1481,20 @@ protected void parseFileStore(ConfigurationReader reader, ConfigurationBuilderHo
                   throw ParseUtils.unexpectedAttribute(reader, i);
                }
                break;
+            case COMPACTION_THREADS:
+               if (fileStoreBuilder != null) {
+                  fileStoreBuilder.compactionThreads(Integer.parseInt(value));
+               } else {
+                  throw ParseUtils.unexpectedAttribute(reader, i);
+               }
+               break;
+            case COMPACTION_RATE_LIMIT:
+               if (fileStoreBuilder != null) {
+                  fileStoreBuilder.compactionRateLimit(Long.parseLong(value));
+               } else {
+                  throw ParseUtils.unexpectedAttribute(reader, i);
+               }
+               break;
             case PURGE: {
                actualStoreConfig.purgeOnStartup(Boolean.parseBoolean(value));
                break;
@@ -1521,6 +1548,9 @@ private void parseData(ConfigurationReader reader, SoftIndexFileStoreConfigurati
             case SYNC_WRITES:
                builder.syncWrites(Boolean.parseBoolean(value));
                break;
+            case MEMORY_MAPPED:
+               builder.memoryMapped(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1586,6 +1616,10 @@ protected void parseSingleFileStore(ConfigurationReader reader, ConfigurationBui
                storeBuilder.fragmentationFactor(Float.parseFloat(value));
                break;
             }
+            case OFF_HEAP_INDEX: {
+               storeBuilder.offHeapIndex(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                parseStoreAttribute(reader, i, storeBuilder);
             }
@@ -1699,6 +1733,9 @@ public static void parseStoreWriteBehind(ConfigurationReader reader, AsyncStoreC
             case FAIL_SILENTLY:
                storeBuilder.failSilently(Boolean.parseBoolean(value));
                break;
+            case CONCURRENCY_LEVEL:
+               storeBuilder.concurrencyLevel(Integer.parseInt(value));
+               break;
             case THREAD_POOL_SIZE: {
                if (reader.getSchema().since(11, 0)) {
                   throw ParseUtils.attributeRemoved(reader, i);
@@ -319,6 +319,7 @@ public void parseBoundedQueueThreadPool(ConfigurationReader reader, Configuratio
       int coreThreads = 0;
       int queueLength = 0;
       long keepAlive = 0;
+      boolean virtualThreads = false;
 
       for (int i = 0; i < reader.getAttributeCount(); i++) {
          ParseUtils.requireNoNamespaceAttribute(reader, i);
@@ -350,6 +351,13 @@ public void parseBoundedQueueThreadPool(ConfigurationReader reader, Configuratio
                keepAlive = Long.parseLong(value);
                break;
             }
+            case VIRTUAL_THREADS: {
+               if (isNonBlocking) {
+                  throw ParseUtils.unexpectedAttribute(reader, i);
+               }
+               virtualThreads = Boolean.parseBoolean(value);
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -357,7 +365,7 @@ public void parseBoundedQueueThreadPool(ConfigurationReader reader, Configuratio
       }
 
       threadsBuilder.addBoundedThreadPool(name).threadFactory(threadFactoryName).coreThreads(coreThreads)
-            .maxThreads(maxThreads).queueLength(queueLength).keepAliveTime(keepAlive).nonBlocking(isNonBlocking);
+            .maxThreads(maxThreads).queueLength(queueLength).keepAliveTime(keepAlive).nonBlocking(isNonBlocking).virtualThreads(virtualThreads);
       ParseUtils.requireNoContent(reader);
    }
 
@@ -33,6 +33,7 @@ private void writeStoreWriteBehind(ConfigurationWriter writer, StoreConfiguratio
          writer.writeStartElement(Element.WRITE_BEHIND);
          writeBehind.write(writer, AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE, Attribute.MODIFICATION_QUEUE_SIZE);
          writeBehind.write(writer, AsyncStoreConfiguration.FAIL_SILENTLY, Attribute.FAIL_SILENTLY);
+         writeBehind.write(writer, AsyncStoreConfiguration.CONCURRENCY_LEVEL, Attribute.CONCURRENCY_LEVEL);
          writer.writeEndElement();
       }
    }
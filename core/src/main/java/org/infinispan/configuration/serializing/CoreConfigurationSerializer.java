@@ -79,6 +79,7 @@
 import org.infinispan.factories.threads.DefaultThreadFactory;
 import org.infinispan.factories.threads.EnhancedQueueExecutorFactory;
 import org.infinispan.factories.threads.NonBlockingThreadPoolExecutorFactory;
+import org.infinispan.factories.threads.VirtualThreadExecutorFactory;
 import org.infinispan.persistence.sifs.configuration.DataConfiguration;
 import org.infinispan.persistence.sifs.configuration.IndexConfiguration;
 import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration;
@@ -105,6 +106,7 @@ public class CoreConfigurationSerializer extends AbstractStoreSerializer impleme
       THREAD_POOL_FACTORIES.put(CachedThreadPoolExecutorFactory.class.getName(), Element.CACHED_THREAD_POOL);
       THREAD_POOL_FACTORIES.put(NonBlockingThreadPoolExecutorFactory.class.getName(), Element.BLOCKING_BOUNDED_QUEUE_THREAD_POOL);
       THREAD_POOL_FACTORIES.put(EnhancedQueueExecutorFactory.class.getName(), Element.BLOCKING_BOUNDED_QUEUE_THREAD_POOL);
+      THREAD_POOL_FACTORIES.put(VirtualThreadExecutorFactory.class.getName(), Element.BLOCKING_BOUNDED_QUEUE_THREAD_POOL);
       THREAD_POOL_FACTORIES.put(ScheduledThreadPoolExecutorFactory.class.getName(), Element.SCHEDULED_THREAD_POOL);
    }
 
@@ -237,6 +239,11 @@ private void writeThreadPool(ConfigurationWriter writer, String name, ThreadPool
             writer.writeAttribute(Attribute.CORE_THREADS, Integer.toString(pool.coreThreads()));
             writer.writeAttribute(Attribute.QUEUE_LENGTH, Integer.toString(pool.queueLength()));
             writer.writeAttribute(Attribute.KEEP_ALIVE_TIME, Long.toString(pool.keepAlive()));
+         } else if (threadPoolFactory instanceof VirtualThreadExecutorFactory) {
+            VirtualThreadExecutorFactory pool = (VirtualThreadExecutorFactory) threadPoolFactory;
+            writer.writeAttribute(Attribute.MAX_THREADS, Integer.toString(pool.maxThreads()));
+            writer.writeAttribute(Attribute.QUEUE_LENGTH, Integer.toString(pool.queueLength()));
+            writer.writeAttribute(Attribute.VIRTUAL_THREADS, "true");
          }
          writer.writeEndMapItem();
       }
@@ -698,6 +705,7 @@ private void writeMemory(ConfigurationWriter writer, Configuration configuration
             attributes.write(writer, MemoryConfiguration.MAX_SIZE, Attribute.MAX_SIZE);
          }
          attributes.write(writer, MemoryConfiguration.WHEN_FULL, Attribute.WHEN_FULL);
+         attributes.write(writer, MemoryConfiguration.ALLOCATOR, Attribute.ALLOCATOR);
          writer.writeEndElement();
       }
    }
@@ -861,7 +869,8 @@ private void writeDataElement(ConfigurationWriter writer, SoftIndexFileStoreConf
       configuration.data().attributes().write(writer, Element.DATA.getLocalName(),
             DataConfiguration.DATA_LOCATION,
             DataConfiguration.MAX_FILE_SIZE,
-            DataConfiguration.SYNC_WRITES);
+            DataConfiguration.SYNC_WRITES,
+            DataConfiguration.MEMORY_MAPPED);
    }
 
    private void writeIndexElement(ConfigurationWriter writer, SoftIndexFileStoreConfiguration configuration) {
@@ -2,6 +2,9 @@
 
 import org.infinispan.commons.util.AbstractEntrySizeCalculatorHelper;
 import org.infinispan.commons.util.EntrySizeCalculator;
+import org.infinispan.container.entries.metadata.CompactMetadata;
+import org.infinispan.container.entries.metadata.CompactMetadataExpirableCacheEntry;
+import org.infinispan.container.entries.metadata.CompactMetadataImmortalCacheEntry;
 import org.infinispan.container.entries.metadata.MetadataImmortalCacheEntry;
 import org.infinispan.container.entries.metadata.MetadataMortalCacheEntry;
 import org.infinispan.container.entries.metadata.MetadataTransientCacheEntry;
@@ -34,10 +37,15 @@ public long calculateSize(K key, InternalCacheEntry<K, V> ice) {
       // This will be non zero when use expiration, but don't want to store the metadata
       long noMetadataSize = 0;
       boolean metadataAware;
-      // We want to put immortal entries first as they are very common.  Also MetadataImmortalCacheEntry extends
-      // ImmortalCacheEntry so it has to come before
+      boolean compact = false;
+      // We want to put immortal entries first as they are very common.  Also MetadataImmortalCacheEntry and
+      // CompactMetadataImmortalCacheEntry extend ImmortalCacheEntry so they have to come before
       if (ice instanceof MetadataImmortalCacheEntry) {
          metadataAware = true;
+      } else if (ice instanceof CompactMetadataImmortalCacheEntry) {
+         // The metadata of a compact entry is rebuilt on every read, only the version is stored
+         metadataAware = false;
+         compact = true;
       } else if (ice instanceof ImmortalCacheEntry) {
          metadataAware = false;
       } else if (ice instanceof MortalCacheEntry) {
@@ -49,6 +57,11 @@ public long calculateSize(K key, InternalCacheEntry<K, V> ice) {
       } else if (ice instanceof TransientMortalCacheEntry) {
          noMetadataSize += 32;
          metadataAware = false;
+      } else if (ice instanceof CompactMetadataExpirableCacheEntry) {
+         // lifespan, max idle, created and last used
+         noMetadataSize += 32;
+         metadataAware = false;
+         compact = true;
       } else if (ice instanceof MetadataMortalCacheEntry) {
          metadataAware = true;
       } else if (ice instanceof MetadataTransientCacheEntry) {
@@ -66,12 +79,17 @@ public long calculateSize(K key, InternalCacheEntry<K, V> ice) {
       } else {
          metadata = null;
       }
-      long keyValueMetadataSize = calculateSize(key, ice.getValue(), metadata, ice.getInternalMetadata());
+      long keyValueMetadataSize = calculateSize(key, ice.getValue(), metadata, ice.getInternalMetadata(), compact);
       return keyValueMetadataSize + noMetadataSize;
    }
 
    @Override
    public long calculateSize(K key, V value, Metadata metadata, PrivateMetadata pvtMetadata) {
+      // The entry factory stores compactable metadata in compact entries
+      return calculateSize(key, value, metadata, pvtMetadata, CompactMetadata.isCompactable(metadata));
+   }
+
+   private long calculateSize(K key, V value, Metadata metadata, PrivateMetadata pvtMetadata, boolean compact) {
       long objSize = calculator.calculateSize(key, value);
 
       // This is for the surrounding ICE
@@ -82,7 +100,13 @@ public long calculateSize(K key, V value, Metadata metadata, PrivateMetadata pvt
       iceSize += 3 * POINTER_SIZE;
 
       long metadataSize = 0;
-      if (metadata != null) {
+      if (compact) {
+         // Compact entries store the version in a long, and lifespan, max idle, created and last used if they expire
+         iceSize += 8;
+         if (metadata != null && (metadata.lifespan() != -1 || metadata.maxIdle() != -1)) {
+            iceSize += 32;
+         }
+      } else if (metadata != null) {
          // Mortal uses 2 longs to keep track of created and lifespan
          if (metadata.lifespan() != -1) {
             iceSize += 16;
@@ -98,6 +122,13 @@ public long calculateSize(K key, V value, Metadata metadata, PrivateMetadata pvt
             metadataSize += OBJECT_SIZE + POINTER_SIZE;
             // We only support embedded metadata that has a reference and NumericVersion instance
             metadataSize += POINTER_SIZE;
+            // The expirable embedded metadata classes also keep the lifespan and max idle
+            if (metadata.lifespan() != -1) {
+               metadataSize += 8;
+            }
+            if (metadata.maxIdle() != -1) {
+               metadataSize += 8;
+            }
             metadataSize = roundUpToNearest8(metadataSize);
             // This is for the NumericVersion and the long inside of it
             metadataSize += numericVersionSize();
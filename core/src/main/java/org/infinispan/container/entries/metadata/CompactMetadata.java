@@ -0,0 +1,63 @@
+package org.infinispan.container.entries.metadata;
+
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+
+/**
+ * Utility methods for the compact entries, which store the fields of an {@link EmbeddedMetadata} with a
+ * {@link NumericVersion} as primitives instead of keeping a reference to the metadata instance.
+ * <p>
+ * The metadata is rebuilt when requested, so the compact entries trade a short lived allocation on
+ * {@link org.infinispan.container.entries.InternalCacheEntry#getMetadata()} for two fewer objects per stored entry.
+ *
+ * @see CompactMetadataImmortalCacheEntry
+ * @see CompactMetadataExpirableCacheEntry
+ * @since 14.0
+ */
+public final class CompactMetadata {
+
+   private CompactMetadata() {
+   }
+
+   /**
+    * Returns whether the metadata can be stored in a compact entry and rebuilt without losing information. Other
+    * metadata types may carry more fields, even if they extend {@link EmbeddedMetadata}, so only the embedded classes
+    * themselves are accepted.
+    */
+   public static boolean isCompactable(Metadata metadata) {
+      if (metadata == null || !(metadata.version() instanceof NumericVersion)) {
+         return false;
+      }
+      Class<?> metadataClass = metadata.getClass();
+      if (metadataClass != EmbeddedMetadata.class && metadataClass != EmbeddedMetadata.EmbeddedExpirableMetadata.class
+            && metadataClass != EmbeddedMetadata.EmbeddedLifespanExpirableMetadata.class
+            && metadataClass != EmbeddedMetadata.EmbeddedMaxIdleExpirableMetadata.class) {
+         return false;
+      }
+      // Any other negative value would be rebuilt as -1
+      return metadata.lifespan() >= -1 && metadata.maxIdle() >= -1;
+   }
+
+   /**
+    * @return the version of a metadata instance that {@link #isCompactable(Metadata) is compactable}
+    */
+   static long version(Metadata metadata) {
+      return ((NumericVersion) metadata.version()).getVersion();
+   }
+
+   /**
+    * Rebuilds the metadata from its fields. A negative lifespan or max idle is not set on the builder, so the result
+    * is always the most specific {@link EmbeddedMetadata} class.
+    */
+   static Metadata toMetadata(long lifespan, long maxIdle, long version) {
+      Metadata.Builder builder = new EmbeddedMetadata.Builder().version(new NumericVersion(version));
+      if (lifespan > -1) {
+         builder.lifespan(lifespan);
+      }
+      if (maxIdle > -1) {
+         builder.maxIdle(maxIdle);
+      }
+      return builder.build();
+   }
+}
@@ -0,0 +1,183 @@
+package org.infinispan.container.entries.metadata;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.Set;
+
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.container.entries.AbstractInternalCacheEntry;
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.marshall.core.Ids;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.metadata.impl.PrivateMetadata;
+
+/**
+ * A compact form of {@link MetadataMortalCacheEntry}, {@link MetadataTransientCacheEntry} and
+ * {@link MetadataTransientMortalCacheEntry} that stores the lifespan, max idle and numeric version of the metadata in
+ * primitive fields instead of referencing the metadata and version instances.
+ * <p>
+ * A lifespan or max idle of -1 means the entry does not expire in that way, in which case the matching timestamp is
+ * not used.
+ *
+ * @see CompactMetadata
+ * @since 14.0
+ */
+public class CompactMetadataExpirableCacheEntry extends AbstractInternalCacheEntry implements MetadataAware {
+
+   protected long lifespan;
+   protected long maxIdle;
+   protected long created;
+   protected long lastUsed;
+   protected long version;
+
+   public CompactMetadataExpirableCacheEntry(Object key, Object value, Metadata metadata, long now) {
+      this(key, value, metadata, now, now);
+   }
+
+   public CompactMetadataExpirableCacheEntry(Object key, Object value, Metadata metadata, long lastUsed,
+         long created) {
+      this(key, value, null, metadata.lifespan(), metadata.maxIdle(), created, lastUsed,
+            CompactMetadata.version(metadata));
+   }
+
+   protected CompactMetadataExpirableCacheEntry(Object key, Object value, PrivateMetadata internalMetadata,
+         long lifespan, long maxIdle, long created, long lastUsed, long version) {
+      super(key, value, internalMetadata);
+      this.lifespan = lifespan;
+      this.maxIdle = maxIdle;
+      this.created = created;
+      this.lastUsed = lastUsed;
+      this.version = version;
+   }
+
+   @Override
+   public final boolean isExpired(long now) {
+      return ExpiryHelper.isExpiredTransientMortal(maxIdle, lastUsed, lifespan, created, now);
+   }
+
+   @Override
+   public final boolean canExpire() {
+      return true;
+   }
+
+   @Override
+   public final boolean canExpireMaxIdle() {
+      return maxIdle > -1;
+   }
+
+   @Override
+   public final long getCreated() {
+      return lifespan > -1 ? created : -1;
+   }
+
+   @Override
+   public final long getLastUsed() {
+      return maxIdle > -1 ? lastUsed : -1;
+   }
+
+   @Override
+   public final long getLifespan() {
+      return lifespan;
+   }
+
+   @Override
+   public final long getMaxIdle() {
+      return maxIdle;
+   }
+
+   @Override
+   public final long getExpiryTime() {
+      long lset = lifespan > -1 ? created + lifespan : -1;
+      long muet = maxIdle > -1 ? lastUsed + maxIdle : -1;
+      return ExpiryHelper.mostRecentExpirationTime(lset, muet);
+   }
+
+   @Override
+   public final void touch(long currentTimeMillis) {
+      lastUsed = currentTimeMillis;
+   }
+
+   @Override
+   public void reincarnate(long now) {
+      created = now;
+   }
+
+   @Override
+   public InternalCacheValue<?> toInternalCacheValue() {
+      Metadata metadata = getMetadata();
+      if (maxIdle < 0) {
+         return new MetadataMortalCacheValue(value, internalMetadata, metadata, created);
+      } else if (lifespan < 0) {
+         return new MetadataTransientCacheValue(value, internalMetadata, metadata, lastUsed);
+      }
+      return new MetadataTransientMortalCacheValue(value, internalMetadata, metadata, created, lastUsed);
+   }
+
+   @Override
+   public Metadata getMetadata() {
+      return CompactMetadata.toMetadata(lifespan, maxIdle, version);
+   }
+
+   @Override
+   public void setMetadata(Metadata metadata) {
+      if (!CompactMetadata.isCompactable(metadata)) {
+         throw new IllegalStateException(
+               "Metadata " + metadata + " cannot be set on compact entries. They need to be recreated via the entry factory.");
+      }
+      this.lifespan = metadata.lifespan();
+      this.maxIdle = metadata.maxIdle();
+      this.version = CompactMetadata.version(metadata);
+   }
+
+   @Override
+   protected void appendFieldsToString(StringBuilder builder) {
+      super.appendFieldsToString(builder);
+      builder.append(", lifespan=").append(lifespan);
+      builder.append(", maxIdle=").append(maxIdle);
+      builder.append(", created=").append(created);
+      builder.append(", lastUsed=").append(lastUsed);
+      builder.append(", version=").append(version);
+   }
+
+   public static class Externalizer extends AbstractExternalizer<CompactMetadataExpirableCacheEntry> {
+      @Override
+      public void writeObject(ObjectOutput output, CompactMetadataExpirableCacheEntry ice) throws IOException {
+         output.writeObject(ice.key);
+         output.writeObject(ice.value);
+         output.writeObject(ice.internalMetadata);
+         output.writeLong(ice.lifespan);
+         output.writeLong(ice.maxIdle);
+         output.writeLong(ice.created);
+         output.writeLong(ice.lastUsed);
+         output.writeLong(ice.version);
+      }
+
+      @Override
+      public CompactMetadataExpirableCacheEntry readObject(ObjectInput input)
+            throws IOException, ClassNotFoundException {
+         Object key = input.readObject();
+         Object value = input.readObject();
+         PrivateMetadata internalMetadata = (PrivateMetadata) input.readObject();
+         long lifespan = input.readLong();
+         long maxIdle = input.readLong();
+         long created = input.readLong();
+         long lastUsed = input.readLong();
+         long version = input.readLong();
+         return new CompactMetadataExpirableCacheEntry(key, value, internalMetadata, lifespan, maxIdle, created,
+               lastUsed, version);
+      }
+
+      @Override
+      public Integer getId() {
+         return Ids.COMPACT_METADATA_EXPIRABLE_ENTRY;
+      }
+
+      @Override
+      public Set<Class<? extends CompactMetadataExpirableCacheEntry>> getTypeClasses() {
+         return Collections.singleton(CompactMetadataExpirableCacheEntry.class);
+      }
+   }
+}
@@ -0,0 +1,91 @@
+package org.infinispan.container.entries.metadata;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.Set;
+
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.marshall.core.Ids;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.metadata.impl.PrivateMetadata;
+
+/**
+ * A form of {@link MetadataImmortalCacheEntry} that stores the numeric version of the metadata in a primitive field
+ * instead of referencing the metadata and version instances. Like {@link MetadataImmortalCacheEntry}, it is an
+ * {@link ImmortalCacheEntry}.
+ *
+ * @see CompactMetadata
+ * @since 14.0
+ */
+public class CompactMetadataImmortalCacheEntry extends ImmortalCacheEntry implements MetadataAware {
+
+   protected long version;
+
+   public CompactMetadataImmortalCacheEntry(Object key, Object value, Metadata metadata) {
+      this(key, value, null, CompactMetadata.version(metadata));
+   }
+
+   protected CompactMetadataImmortalCacheEntry(Object key, Object value, PrivateMetadata internalMetadata,
+         long version) {
+      super(key, value, internalMetadata);
+      this.version = version;
+   }
+
+   @Override
+   public InternalCacheValue<?> toInternalCacheValue() {
+      return new MetadataImmortalCacheValue(value, internalMetadata, getMetadata());
+   }
+
+   @Override
+   public Metadata getMetadata() {
+      return CompactMetadata.toMetadata(-1, -1, version);
+   }
+
+   @Override
+   public void setMetadata(Metadata metadata) {
+      if (!CompactMetadata.isCompactable(metadata) || metadata.lifespan() > -1 || metadata.maxIdle() > -1) {
+         throw new IllegalStateException(
+               "Metadata " + metadata + " cannot be set on compact immortal entries. They need to be recreated via the entry factory.");
+      }
+      this.version = CompactMetadata.version(metadata);
+   }
+
+   @Override
+   protected void appendFieldsToString(StringBuilder builder) {
+      super.appendFieldsToString(builder);
+      builder.append(", version=").append(version);
+   }
+
+   public static class Externalizer extends AbstractExternalizer<CompactMetadataImmortalCacheEntry> {
+      @Override
+      public void writeObject(ObjectOutput output, CompactMetadataImmortalCacheEntry ice) throws IOException {
+         output.writeObject(ice.key);
+         output.writeObject(ice.value);
+         output.writeObject(ice.internalMetadata);
+         output.writeLong(ice.version);
+      }
+
+      @Override
+      public CompactMetadataImmortalCacheEntry readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         Object key = input.readObject();
+         Object value = input.readObject();
+         PrivateMetadata internalMetadata = (PrivateMetadata) input.readObject();
+         long version = input.readLong();
+         return new CompactMetadataImmortalCacheEntry(key, value, internalMetadata, version);
+      }
+
+      @Override
+      public Integer getId() {
+         return Ids.COMPACT_METADATA_IMMORTAL_ENTRY;
+      }
+
+      @Override
+      public Set<Class<? extends CompactMetadataImmortalCacheEntry>> getTypeClasses() {
+         return Collections.singleton(CompactMetadataImmortalCacheEntry.class);
+      }
+   }
+}
@@ -150,6 +150,10 @@ public void put(int segment, K k, V v, Metadata metadata, PrivateMetadata intern
          if (log.isTraceEnabled())
             log.tracef("Store %s=%s in container", k, copy);
          entries.put(k, copy);
+         if (copy.canExpire()) {
+            expirationManager.entryWritten(k, copy);
+            expirationManager.entriesUpdated();
+         }
       } else {
          log.tracef("Insertion attempted for key: %s but there was no map created for it at segment: %d", k, segment);
       }
@@ -180,13 +184,26 @@ public boolean containsKey(Object k) {
    }
 
    @Override
+   @SuppressWarnings("unchecked")
    public InternalCacheEntry<K, V> remove(int segment, Object k) {
       PeekableTouchableMap<K, V> entries = getMapForSegment(segment);
       if (entries != null) {
-         InternalCacheEntry<K, V> e = entries.remove(k);
+         ByRef<InternalCacheEntry<K, V>> removedRef = new ByRef<>(null);
+         // The expiration index must see the removal before the writes that follow it
+         entries.compute((K) k, (key, entry) -> {
+            removedRef.set(entry);
+            if (entry != null && entry.canExpire()) {
+               expirationManager.entryRemoved(key, entry);
+            }
+            return null;
+         });
+         InternalCacheEntry<K, V> e = removedRef.get();
          if (log.isTraceEnabled()) {
             log.tracef("Removed %s=%s from container", k, e);
          }
+         if (e != null && e.canExpire()) {
+            expirationManager.entriesUpdated();
+         }
 
          return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
       }
@@ -212,8 +229,12 @@ public CompletionStage<Void> evict(int segment, K key) {
          // - we don't need eviction manager either as it is handled in NotifyHelper
          evictionStageRef.set(handleEviction(entry, null, passivator.running(), null, this, null));
          computeEntryRemoved(o, entry);
+         if (entry.canExpire()) {
+            expirationManager.entryRemoved(o, entry);
+         }
          return null;
       });
+      expirationManager.entriesUpdated();
       return evictionStageRef.get();
    }
 
@@ -225,19 +246,33 @@ public void evict(K key) {
    @Override
    public InternalCacheEntry<K, V> compute(int segment, K key, DataContainer.ComputeAction<K, V> action) {
       PeekableTouchableMap<K, V> entries = getMapForSegment(segment);
-      return entries != null ? entries.compute(key, (k, oldEntry) -> {
+      if (entries == null) {
+         return null;
+      }
+      InternalCacheEntry<K, V> result = entries.compute(key, (k, oldEntry) -> {
          InternalCacheEntry<K, V> newEntry = action.compute(k, oldEntry, entryFactory);
          if (newEntry == oldEntry) {
             return oldEntry;
          } else if (newEntry == null) {
             computeEntryRemoved(k, oldEntry);
+            if (oldEntry != null && oldEntry.canExpire()) {
+               expirationManager.entryRemoved(k, oldEntry);
+            }
             return null;
          }
          computeEntryWritten(k, newEntry);
+         if (newEntry.canExpire()) {
+            expirationManager.entryWritten(k, newEntry);
+         } else if (oldEntry != null && oldEntry.canExpire()) {
+            expirationManager.entryRemoved(k, oldEntry);
+         }
          if (log.isTraceEnabled())
             log.tracef("Store %s in container", newEntry);
          return newEntry;
-      }) : null;
+      });
+      // The index updates are applied outside the lock of the key
+      expirationManager.entriesUpdated();
+      return result;
    }
 
    @Override
@@ -340,6 +375,9 @@ public void delete(K key, InternalCacheEntry<K, V> value, RemovalCause cause) {
             }
             if (cause == RemovalCause.SIZE) {
                listener.onEntryChosenForEviction(key, value);
+               if (value.canExpire()) {
+                  expirationManager.entryRemoved(key, value);
+               }
             }
          }
       }).removalListener(listener);
@@ -15,7 +15,11 @@
 import org.infinispan.container.entries.TransientCacheValue;
 import org.infinispan.container.entries.TransientMortalCacheEntry;
 import org.infinispan.container.entries.TransientMortalCacheValue;
+import org.infinispan.container.entries.metadata.CompactMetadata;
+import org.infinispan.container.entries.metadata.CompactMetadataExpirableCacheEntry;
+import org.infinispan.container.entries.metadata.CompactMetadataImmortalCacheEntry;
 import org.infinispan.container.entries.metadata.L1MetadataInternalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataAware;
 import org.infinispan.container.entries.metadata.MetadataImmortalCacheEntry;
 import org.infinispan.container.entries.metadata.MetadataImmortalCacheValue;
 import org.infinispan.container.entries.metadata.MetadataMortalCacheEntry;
@@ -56,6 +60,10 @@ public InternalCacheEntry create(Object key, Object value, Metadata metadata) {
          if (lifespan < 0 && maxIdle > -1) return new TransientCacheEntry(key, value, maxIdle, timeService.wallClockTime());
          return new TransientMortalCacheEntry(key, value, maxIdle, lifespan, timeService.wallClockTime());
       } else {
+         if (CompactMetadata.isCompactable(metadata)) {
+            long now = timeService.wallClockTime();
+            return createCompactEntry(key, value, metadata, now, now);
+         }
          if (lifespan < 0 && maxIdle < 0) return new MetadataImmortalCacheEntry(key, value, metadata);
          if (lifespan > -1 && maxIdle < 0) return new MetadataMortalCacheEntry(key, value, metadata, timeService.wallClockTime());
          if (lifespan < 0 && maxIdle > -1) return new MetadataTransientCacheEntry(key, value, metadata, timeService.wallClockTime());
@@ -93,6 +101,7 @@ public InternalCacheEntry create(Object key, Object value, EntryVersion version,
          // If no metadata passed, assumed embedded metadata
          Metadata metadata = new EmbeddedMetadata.Builder()
                .lifespan(lifespan).maxIdle(maxIdle).version(version).build();
+         if (CompactMetadata.isCompactable(metadata)) return createCompactEntry(key, value, metadata, created, lastUsed);
          if (lifespan < 0 && maxIdle < 0) return new MetadataImmortalCacheEntry(key, value, metadata);
          if (lifespan > -1 && maxIdle < 0) return new MetadataMortalCacheEntry(key, value, metadata, created);
          if (lifespan < 0 && maxIdle > -1) return new MetadataTransientCacheEntry(key, value, metadata, lastUsed);
@@ -108,6 +117,7 @@ public InternalCacheEntry create(Object key, Object value, Metadata metadata, lo
          if (lifespan < 0 && maxIdle > -1) return new TransientCacheEntry(key, value, maxIdle, lastUsed);
          return new TransientMortalCacheEntry(key, value, maxIdle, lifespan, lastUsed, created);
       } else {
+         if (CompactMetadata.isCompactable(metadata)) return createCompactEntry(key, value, metadata, created, lastUsed);
          // Metadata to store, take lifespan and maxIdle settings from it
          long metaLifespan = metadata.lifespan();
          long metaMaxIdle = metadata.maxIdle();
@@ -154,6 +164,10 @@ public InternalCacheEntry create(Object key, Object value, Metadata metadata, lo
          if (lifespan < 0 && maxIdle > -1) return new TransientCacheEntry(key, value, maxIdle, timeService.wallClockTime());
          return new TransientMortalCacheEntry(key, value, maxIdle, lifespan, timeService.wallClockTime());
       } else {
+         if (CompactMetadata.isCompactable(metadata)) {
+            long now = timeService.wallClockTime();
+            return createCompactEntry(key, value, metadata, now, now);
+         }
          // Metadata to store, take lifespan and maxIdle settings from it
          long metaLifespan = metadata.lifespan();
          long metaMaxIdle = metadata.maxIdle();
@@ -235,8 +249,8 @@ public <K, V> InternalCacheValue<V> getValueFromCtx(K key, InvocationContext ctx
    private InternalCacheEntry updateMetadataUnawareEntry(InternalCacheEntry ice, long lifespan, long maxIdle) {
       if (lifespan < 0) {
          if (maxIdle < 0) {
-            // Need extra check because MetadataImmortalCacheEntry extends ImmortalCacheEntry
-            if (ice instanceof ImmortalCacheEntry && !(ice instanceof MetadataImmortalCacheEntry)) {
+            // Need extra check because MetadataImmortalCacheEntry and CompactMetadataImmortalCacheEntry extend ImmortalCacheEntry
+            if (ice instanceof ImmortalCacheEntry && !(ice instanceof MetadataAware)) {
                return ice;
             } else {
                return new ImmortalCacheEntry(ice.getKey(), ice.getValue());
@@ -274,6 +288,16 @@ private InternalCacheEntry updateMetadataUnawareEntry(InternalCacheEntry ice, lo
    private InternalCacheEntry updateMetadataAwareEntry(InternalCacheEntry ice, Metadata metadata) {
       long lifespan = metadata.lifespan();
       long maxIdle = metadata.maxIdle();
+      if (CompactMetadata.isCompactable(metadata)) {
+         boolean immortal = lifespan < 0 && maxIdle < 0;
+         if (immortal ? ice instanceof CompactMetadataImmortalCacheEntry : ice instanceof CompactMetadataExpirableCacheEntry) {
+            ice.setMetadata(metadata);
+            return ice;
+         } else {
+            long ctm = timeService.wallClockTime();
+            return createCompactEntry(ice.getKey(), ice.getValue(), metadata, ctm, ctm);
+         }
+      }
       if (lifespan < 0) {
          if (maxIdle < 0) {
             if (ice instanceof MetadataImmortalCacheEntry) {
@@ -311,6 +335,18 @@ private InternalCacheEntry updateMetadataAwareEntry(InternalCacheEntry ice, Meta
       }
    }
 
+   /**
+    * Creates an entry that stores the fields of the metadata as primitives, the metadata must be
+    * {@link CompactMetadata#isCompactable(Metadata) compactable}.
+    */
+   private static InternalCacheEntry createCompactEntry(Object key, Object value, Metadata metadata, long created,
+                                                        long lastUsed) {
+      if (metadata.lifespan() < 0 && metadata.maxIdle() < 0) {
+         return new CompactMetadataImmortalCacheEntry(key, value, metadata);
+      }
+      return new CompactMetadataExpirableCacheEntry(key, value, metadata, lastUsed, created);
+   }
+
    /**
     * Indicates whether the entire metadata object needs to be stored or not.
     *
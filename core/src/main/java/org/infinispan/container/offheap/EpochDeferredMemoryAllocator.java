@@ -0,0 +1,227 @@
+package org.infinispan.container.offheap;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Allocator that delays deallocations until no reader that could still reference the memory is running, using epoch
+ * based reclamation.
+ * <p>
+ * Readers that access memory without holding a lock must surround the access with {@link #enter()} and
+ * {@link #exit(Participant)}. Memory that is deallocated, which must no longer be reachable by new readers at this
+ * point, is retired in the deallocating thread's list together with the current global epoch. It is only handed
+ * to the underlying allocator once every active reader entered after that epoch. Entering and exiting only write to
+ * a thread owned field, so readers never contend with each other.
+ * <p>
+ * When a thread accumulates {@link #RECLAIM_THRESHOLD} deallocations, it reclaims the memory retired by every thread,
+ * so the deallocations of threads that are idle or short lived are reclaimed too. Threads that are no longer alive
+ * stop taking part once all their retired memory is reclaimed.
+ *
+ * @since 14.0
+ */
+class EpochDeferredMemoryAllocator implements OffHeapMemoryAllocator {
+   // How many deallocations a thread accumulates before it tries to reclaim them
+   static final int RECLAIM_THRESHOLD = 64;
+   private static final long INACTIVE = 0;
+
+   private final OffHeapMemoryAllocator allocator;
+   private final AtomicLong epoch = new AtomicLong(1);
+   // Only one thread reclaims the memory of all the threads at a time
+   private final AtomicBoolean reclaiming = new AtomicBoolean();
+   private final Queue<Participant> participants = new ConcurrentLinkedQueue<>();
+   private final ThreadLocal<Participant> participant = ThreadLocal.withInitial(this::register);
+
+   EpochDeferredMemoryAllocator(OffHeapMemoryAllocator allocator) {
+      this.allocator = allocator;
+   }
+
+   /**
+    * Marks the current thread as a reader. Memory reachable after this call will not be deallocated until
+    * {@link #exit(Participant)} is invoked.
+    * @return the participant to pass to {@link #exit(Participant)}
+    */
+   Participant enter() {
+      Participant p = participant.get();
+      p.activeEpoch = epoch.get();
+      return p;
+   }
+
+   void exit(Participant p) {
+      p.activeEpoch = INACTIVE;
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      return allocator.allocate(memoryLength);
+   }
+
+   @Override
+   public void deallocate(long memoryAddress, long size) {
+      Participant p = participant.get();
+      boolean reclaim;
+      synchronized (p) {
+         p.retire(memoryAddress, size, epoch.get());
+         reclaim = p.retiredCount >= RECLAIM_THRESHOLD;
+      }
+      if (reclaim) {
+         reclaim(p);
+      }
+   }
+
+   @Override
+   public long getAllocatedAmount() {
+      return allocator.getAllocatedAmount();
+   }
+
+   /**
+    * Deallocates all retired memory after waiting for any reader that is still active. This must only be invoked
+    * once no new reader can reach the retired memory and while no other thread deallocates, such as while holding
+    * all the map locks.
+    */
+   void reclaimAll() {
+      for (Participant p : participants) {
+         // Wait for readers that began before the memory was made unreachable
+         while (p.activeEpoch != INACTIVE && p.isAlive()) {
+            Thread.yield();
+         }
+      }
+      freeAll(Long.MAX_VALUE);
+   }
+
+   /**
+    * Deallocates the memory retired by every thread that no active reader can reference anymore.
+    */
+   void reclaim() {
+      freeAll(minActiveEpoch());
+   }
+
+   /**
+    * @return how many deallocations are waiting for readers to complete
+    */
+   int retiredCount() {
+      int count = 0;
+      for (Participant p : participants) {
+         synchronized (p) {
+            count += p.retiredCount;
+         }
+      }
+      return count;
+   }
+
+   /**
+    * @return how many threads take part in the reclamation
+    */
+   int participantCount() {
+      return participants.size();
+   }
+
+   private void reclaim(Participant p) {
+      if (reclaiming.compareAndSet(false, true)) {
+         try {
+            reclaim();
+         } finally {
+            reclaiming.set(false);
+         }
+      } else {
+         // Another thread is reclaiming the memory of all the threads, only reclaim our own
+         long minActiveEpoch = minActiveEpoch();
+         synchronized (p) {
+            p.free(allocator, minActiveEpoch);
+         }
+      }
+   }
+
+   private long minActiveEpoch() {
+      // Anything retired before this increment can only be referenced by readers that entered with an older epoch
+      long minActiveEpoch = epoch.incrementAndGet();
+      for (Participant other : participants) {
+         long activeEpoch = other.activeEpoch;
+         if (activeEpoch != INACTIVE && activeEpoch < minActiveEpoch && other.isAlive()) {
+            minActiveEpoch = activeEpoch;
+         }
+      }
+      return minActiveEpoch;
+   }
+
+   private void freeAll(long beforeEpoch) {
+      for (Iterator<Participant> iterator = participants.iterator(); iterator.hasNext(); ) {
+         Participant p = iterator.next();
+         synchronized (p) {
+            p.free(allocator, beforeEpoch);
+            // A thread that is not alive can't retire anything else
+            if (p.retiredCount == 0 && !p.isAlive()) {
+               iterator.remove();
+            }
+         }
+      }
+   }
+
+   private Participant register() {
+      Participant p = new Participant(Thread.currentThread());
+      participants.add(p);
+      return p;
+   }
+
+   /**
+    * Per thread reader state and deallocations retired by that thread.
+    */
+   static final class Participant {
+      volatile long activeEpoch;
+      // The owner is only weakly referenced, so that the participant doesn't keep a terminated thread reachable
+      private final WeakReference<Thread> owner;
+      // Triples of address, size and retire epoch
+      @GuardedBy("this")
+      private long[] retired = new long[RECLAIM_THRESHOLD * 3];
+      @GuardedBy("this")
+      private int retiredCount;
+
+      Participant(Thread owner) {
+         this.owner = new WeakReference<>(owner);
+      }
+
+      boolean isAlive() {
+         Thread thread = owner.get();
+         return thread != null && thread.isAlive();
+      }
+
+      @GuardedBy("this")
+      void retire(long address, long size, long epoch) {
+         int offset = retiredCount * 3;
+         if (offset == retired.length) {
+            retired = Arrays.copyOf(retired, retired.length << 1);
+         }
+         retired[offset] = address;
+         retired[offset + 1] = size;
+         retired[offset + 2] = epoch;
+         retiredCount++;
+      }
+
+      /**
+       * Deallocates every retired region whose epoch is older than the provided one, keeping the rest.
+       */
+      @GuardedBy("this")
+      void free(OffHeapMemoryAllocator allocator, long beforeEpoch) {
+         int kept = 0;
+         for (int i = 0; i < retiredCount; ++i) {
+            int offset = i * 3;
+            if (retired[offset + 2] < beforeEpoch) {
+               allocator.deallocate(retired[offset], retired[offset + 1]);
+            } else {
+               int keptOffset = kept * 3;
+               retired[keptOffset] = retired[offset];
+               retired[keptOffset + 1] = retired[offset + 1];
+               retired[keptOffset + 2] = retired[offset + 2];
+               kept++;
+            }
+         }
+         retiredCount = kept;
+      }
+   }
+}
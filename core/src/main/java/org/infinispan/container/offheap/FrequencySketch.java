@@ -0,0 +1,113 @@
+package org.infinispan.container.offheap;
+
+import org.infinispan.commons.util.Util;
+
+/**
+ * Probabilistic estimate of how often a hash code was recorded, used by the TinyLFU admission policy.
+ * <p>
+ * This is a count-min sketch with a depth of 4 that stores 4 bit counters, 16 in each {@code long}. All four counters
+ * of a hash code are placed in the same {@code long} of each row, to limit the memory that is touched. Once the number
+ * of increments reaches 10 times the capacity, every counter is halved so that the sketch ages and old popularity
+ * eventually fades.
+ * <p>
+ * This class is not thread safe, the caller must provide the exclusion.
+ *
+ * @since 14.0
+ */
+final class FrequencySketch {
+   private static final long[] SEED = {
+         0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+   private static final long RESET_MASK = 0x7777777777777777L;
+   private static final long ONE_MASK = 0x1111111111111111L;
+   private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+   private long[] table;
+   private int tableMask;
+   private int sampleSize;
+   private int size;
+
+   FrequencySketch() {
+      ensureCapacity(1);
+   }
+
+   /**
+    * Increases the number of counters so that the sketch can estimate the frequency of the given number of elements
+    * accurately. If the sketch has to grow all current frequencies are discarded.
+    * @param expectedSize how many elements the sketch should be able to tell apart
+    */
+   void ensureCapacity(long expectedSize) {
+      int capacity = (int) Math.min(Math.max(expectedSize, 8), MAXIMUM_CAPACITY);
+      if (table != null && table.length >= capacity) {
+         return;
+      }
+      table = new long[Util.findNextHighestPowerOfTwo(capacity)];
+      tableMask = table.length - 1;
+      sampleSize = 10 * capacity;
+      size = 0;
+   }
+
+   /**
+    * @return the estimated number of occurrences of the hash code, up to 15
+    */
+   int frequency(int hashCode) {
+      int hash = spread(hashCode);
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; ++i) {
+         int index = indexOf(hash, i);
+         int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+         frequency = Math.min(frequency, count);
+      }
+      return frequency;
+   }
+
+   /**
+    * Records an occurrence of the hash code, unless its counters are all saturated.
+    */
+   void increment(int hashCode) {
+      int hash = spread(hashCode);
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; ++i) {
+         added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && ++size == sampleSize) {
+         reset();
+      }
+   }
+
+   private boolean incrementAt(int index, int counter) {
+      int offset = counter << 2;
+      long mask = 0xfL << offset;
+      if ((table[index] & mask) != mask) {
+         table[index] += 1L << offset;
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Halves every counter, the size is adjusted by the remainders lost to the integer division.
+    */
+   private void reset() {
+      int odd = 0;
+      for (int i = 0; i < table.length; ++i) {
+         odd += Long.bitCount(table[i] & ONE_MASK);
+         table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      size = (size - (odd >>> 2)) >>> 1;
+   }
+
+   private int indexOf(int hash, int depth) {
+      long index = (hash + SEED[depth]) * SEED[depth];
+      index += index >>> 32;
+      return ((int) index) & tableMask;
+   }
+
+   private static int spread(int hashCode) {
+      // Key hash codes are not guaranteed to be well distributed, so mix all the bits before indexing
+      int x = ((hashCode >>> 16) ^ hashCode) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+   }
+}
@@ -28,7 +28,8 @@ public MemoryAddressHash(int pointers, OffHeapMemoryAllocator allocator) {
    }
 
    public void putMemoryAddressOffset(int offset, long address) {
-      MEMORY.putLong(memory, offset << 3, address);
+      // Ordered so lock free readers never see the address before the entry contents
+      MEMORY.putLongOrdered(memory, ((long) offset) << 3, address);
    }
 
    public long getMemoryAddressOffset(int offset) {
@@ -10,22 +10,23 @@
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
-import java.util.PrimitiveIterator;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiFunction;
 import java.util.function.LongConsumer;
-import java.util.stream.LongStream;
 
+import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
-import org.infinispan.commons.util.IntSet;
-import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.IteratorMapper;
 import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.Util;
+import org.infinispan.container.entries.ImmortalCacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.impl.PeekableTouchableMap;
 import org.infinispan.util.logging.Log;
@@ -55,8 +56,11 @@
  * <p>
  * A map must be started after creating to create the initial memory lookup, which is also store in the native heap.
  * When the size of the map reaches the load factor, that is .75 times the capacity, the map will attempt to resize
- * by increasing its internal memory lookup to have an array of buckets twice as big. Normal operations can still
- * proceed during this, allowing for minimal downtime during a resize.
+ * by increasing its internal memory lookup to have an array of buckets twice as big. The entries are then migrated
+ * incrementally: a write first migrates the old bucket its key maps to, every insert migrates a small step of
+ * buckets and, if an {@link Executor} was provided, a background task migrates the remaining ones in steps. No
+ * operation ever holds a lock for more than a single step, which bounds the latency of a resize independently of the
+ * size of the map. Until all buckets are migrated reads look for the key in both the current and the old lookup.
  * <p>
  * This map is created assuming some knowledge of expiration in the Infinispan system. Thus operations that do not
  * expose this information via its APIs are not supported. These methods are {@code keySet}, {@code containsKey} and
@@ -70,6 +74,12 @@
  * write lock for the lock region, are ({@code put}, {@code remove}, {@code replace}, {@code compute}. A clear
  * will acquire all write locks when invoked. This allows the clear to also resize the map down to the initial size.
  * <p>
+ * When optimistic reads are enabled (the default), {@code peek} and {@code get} (if there is no {@link EntryListener})
+ * first read the entry without acquiring the read lock, using {@link StampedLock#tryOptimisticRead()}, and only use the
+ * read lock if a write happened to the lock region in the meantime. As such a reader can still be traversing memory
+ * that a concurrent writer removes, all deallocations are deferred through an {@link EpochDeferredMemoryAllocator}
+ * until no optimistic reader can reference them anymore.
+ * <p>
  * When this map is constructed it is also possible to provide an {@link EntryListener} that is invoked when various
  * operations are performed in the map. Note that the various modification callbacks <b>MUST</b> free the old address,
  * or else a memory leak will occur. Please see the various methods for clarification on these methods.
@@ -110,13 +120,26 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    // The number of bits required to shift to the right to get the bucket size from a given pointer address
    private final static int LOCK_REGION_SHIFT = Integer.numberOfTrailingZeros(LOCK_COUNT);
 
+   // How many buckets of the old memory lookup a single transfer step migrates while holding the lock
+   private final static int TRANSFER_STEP_SIZE = 1024;
+   // How many transfer steps a background task performs before giving the thread back to the executor
+   private final static int BACKGROUND_TRANSFER_STEPS = 16;
+
+   // Marker returned by an optimistic read that could not be validated
+   private static final InternalCacheEntry<WrappedBytes, WrappedBytes> RETRY_WITH_LOCK =
+         new ImmortalCacheEntry(WrappedByteArray.EMPTY_BYTES, WrappedByteArray.EMPTY_BYTES);
+
    private final AtomicLong size = new AtomicLong();
    private final StripedLock locks;
 
    private final OffHeapMemoryAllocator allocator;
+   // Non null when optimistic reads are enabled, in which case it is also the allocator
+   private final EpochDeferredMemoryAllocator deferredAllocator;
    private final OffHeapEntryFactory offHeapEntryFactory;
 
    private final EntryListener listener;
+   // Runs the background transfer steps of a resize, can be null in which case only writes migrate buckets
+   private final Executor transferExecutor;
 
    // Once this threshold size is met, the underlying buckets will be re-sized if possible
    // This variable can be read outside of locks - thus is volatile, however should only be modified while holding
@@ -124,18 +147,19 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    @GuardedBy("locks#lockAll")
    private volatile int sizeThreshold;
 
-   // Non null during a resize operation - this will be initialized to contain all of the numbers equal to how many
-   // locks we have - This and oldMemoryLookup should always be either both null or not null at the same time.
+   // Non null during a resize operation - tracks the progress of migrating the buckets from the old memory lookup.
+   // This can be read outside of locks - This and oldMemoryLookup should always be either both null or not null at
+   // the same time.
    @GuardedBy("locks")
-   private IntSet pendingBlocks;
+   private volatile Transfer transfer;
    // Always non null, unless map has been stopped
    @GuardedBy("locks")
    private MemoryAddressHash memoryLookup;
    @GuardedBy("locks")
    private int memoryShift;
-   // Non null during a resize operation - this will contain the previous old lookup and may or may not contain valid
-   // elements depending upon if a lock region is still pending transfer - This and pendingBlocks should always be
-   // either both null or not null at the same time.
+   // Non null during a resize operation - this will contain the previous old lookup and contains the entries of the
+   // buckets that were not migrated yet - This and transfer should always be either both null or not null at the
+   // same time.
    @GuardedBy("locks")
    private MemoryAddressHash oldMemoryLookup;
    @GuardedBy("locks")
@@ -143,9 +167,35 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    public OffHeapConcurrentMap(OffHeapMemoryAllocator allocator,
          OffHeapEntryFactory offHeapEntryFactory, EntryListener listener) {
-      this.allocator = Objects.requireNonNull(allocator);
+      this(allocator, offHeapEntryFactory, listener, true, null);
+   }
+
+   /**
+    * @param optimisticReads whether {@code get} and {@code peek} first try to read without acquiring the read lock
+    */
+   public OffHeapConcurrentMap(OffHeapMemoryAllocator allocator,
+         OffHeapEntryFactory offHeapEntryFactory, EntryListener listener, boolean optimisticReads) {
+      this(allocator, offHeapEntryFactory, listener, optimisticReads, null);
+   }
+
+   /**
+    * @param optimisticReads whether {@code get} and {@code peek} first try to read without acquiring the read lock
+    * @param transferExecutor executor that migrates buckets in the background after a resize, if null the buckets
+    *                         are only migrated by writes
+    */
+   public OffHeapConcurrentMap(OffHeapMemoryAllocator allocator, OffHeapEntryFactory offHeapEntryFactory,
+         EntryListener listener, boolean optimisticReads, Executor transferExecutor) {
+      Objects.requireNonNull(allocator);
+      if (optimisticReads) {
+         this.deferredAllocator = new EpochDeferredMemoryAllocator(allocator);
+         this.allocator = deferredAllocator;
+      } else {
+         this.deferredAllocator = null;
+         this.allocator = allocator;
+      }
       this.offHeapEntryFactory = Objects.requireNonNull(offHeapEntryFactory);
       this.listener = listener;
+      this.transferExecutor = transferExecutor;
 
       locks = new StripedLock(LOCK_COUNT);
 
@@ -171,13 +221,8 @@ public boolean touchKey(Object k, long currentTimeMillis) {
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         MemoryAddressHash memoryLookup;
-         if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
-            memoryLookup = this.oldMemoryLookup;
-         } else {
-            memoryLookup = this.memoryLookup;
-         }
-         return lockedTouch(memoryLookup, (WrappedBytes) k, hashCode, currentTimeMillis);
+         ensureTransferred(hashCode);
+         return lockedTouch((WrappedBytes) k, hashCode, currentTimeMillis);
       } finally {
          stampedLock.unlockWrite(writeStamp);
       }
@@ -195,8 +240,8 @@ public void touchAll(long currentTimeMillis) {
    }
 
    @GuardedBy("locks#writeLock")
-   private boolean lockedTouch(MemoryAddressHash memoryLookup, WrappedBytes k, int hashCode, long currentTimeMillis) {
-      int memoryOffset = getMemoryOffset(memoryLookup, hashCode);
+   private boolean lockedTouch(WrappedBytes k, int hashCode, long currentTimeMillis) {
+      int memoryOffset = getMemoryOffset(hashCode);
       long bucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
       if (bucketAddress == 0) {
          return false;
@@ -391,66 +436,44 @@ StripedLock getLocks() {
    }
 
    /**
-    * This method checks if the map must be resized and if so starts the operation. This caller <b>MUST NOT</b>
-    * hold any locks when invoked.
+    * This method checks if the map must be resized and if so starts the operation. If a resize is already in progress
+    * it instead helps by migrating a single step of buckets. This caller <b>MUST NOT</b> hold any locks when invoked.
     */
    private void checkResize() {
-      // We don't do a resize if we aren't to the boundary or if we are in a pending resize
-      if (size.get() < sizeThreshold || oldMemoryLookup != null) {
+      Transfer transfer = this.transfer;
+      if (transfer != null) {
+         // Every insert helps with a step, so a resize is always complete long before the map needs to grow again
+         transferStep(transfer);
+         return;
+      }
+      if (size.get() < sizeThreshold) {
          return;
       }
-      boolean onlyHelp = false;
-      IntSet localPendingBlocks;
       locks.lockAll();
       try {
          // Don't replace blocks if it was already done - means we had concurrent requests
          if (oldMemoryLookup != null) {
-            onlyHelp = true;
-            localPendingBlocks = this.pendingBlocks;
-         } else {
-            int newBucketCount = memoryLookup.getPointerCount() << 1;
-            if (newBucketCount == MAX_ADDRESS_COUNT) {
-               sizeThreshold = Integer.MAX_VALUE;
-            }
+            return;
+         }
+         int newBucketCount = memoryLookup.getPointerCount() << 1;
+         if (newBucketCount == MAX_ADDRESS_COUNT) {
+            sizeThreshold = Integer.MAX_VALUE;
+         }
 
-            // We couldn't resize
-            if (!sizeMemoryBuckets(newBucketCount)) {
-               return;
-            }
-            localPendingBlocks = IntSets.concurrentSet(LOCK_COUNT);
-            for (int i = 0; i < LOCK_COUNT; ++i) {
-               localPendingBlocks.set(i);
-            }
-            this.pendingBlocks = localPendingBlocks;
+         // We couldn't resize
+         if (!sizeMemoryBuckets(newBucketCount)) {
+            return;
          }
+         transfer = new Transfer(oldMemoryLookup.getPointerCount());
+         this.transfer = transfer;
       } finally {
          locks.unlockAll();
       }
 
-      // Try to complete without waiting if possible for locks
-      helpCompleteTransfer(localPendingBlocks, true);
-
-      if (!onlyHelp) {
-         if (!localPendingBlocks.isEmpty()) {
-            // We attempted to transfer without waiting on locks - but we didn't finish them all yet - so now we have
-            // to wait to ensure they are all transferred
-            helpCompleteTransfer(localPendingBlocks, false);
-            // Now everything should be empty for sure
-            assert localPendingBlocks.isEmpty();
-         }
-
-         // Now that all blocks have been transferred we can replace references
-         locks.lockAll();
-         try {
-            // This means that someone else completed the transfer for us - only clear can do that currently
-            if (this.pendingBlocks == null) {
-               return;
-            }
-            transferComplete();
-         } finally {
-            locks.unlockAll();
-         }
+      if (transferExecutor != null) {
+         scheduleBackgroundTransfer(transfer);
       }
+      transferStep(transfer);
    }
 
    /**
@@ -459,7 +482,7 @@ private void checkResize() {
    @GuardedBy("locks#lockAll")
    private void transferComplete() {
       MemoryAddressHash oldMemoryLookup = this.oldMemoryLookup;
-      this.pendingBlocks = null;
+      this.transfer = null;
       if (listener != null) {
          boolean resized = listener.resize(-oldMemoryLookup.getPointerCount());
          assert resized : "Resize of negative pointers should always work!";
@@ -469,78 +492,132 @@ private void transferComplete() {
       oldMemoryLookup.deallocate();
    }
 
+   private void scheduleBackgroundTransfer(Transfer transfer) {
+      try {
+         transferExecutor.execute(() -> backgroundTransfer(transfer));
+      } catch (RejectedExecutionException e) {
+         // The remaining buckets will be migrated by writes
+         log.tracef(e, "Unable to schedule background transfer of off-heap buckets");
+      }
+   }
+
    /**
-    * This <b>MUST NOT</b>  be invoked while holding any lock
-    * @param tryLock whether the lock acquisition only does a try, returning earlier with some lock segments not transferred possibly
+    * Performs a bounded amount of transfer steps and then schedules itself again, so the executor thread is not
+    * monopolized by a large resize.
     */
-   private void helpCompleteTransfer(IntSet pendingBlocks, boolean tryLock) {
-      if (pendingBlocks != null) {
-         PrimitiveIterator.OfInt iterator = pendingBlocks.iterator();
-         while (iterator.hasNext()) {
-            int offset = iterator.nextInt();
-            StampedLock lock = locks.getLockWithOffset(offset);
-
-            long stamp;
-            if (tryLock) {
-               // If we can't get it - just assume another person is working on it - so try next one
-               if ((stamp = lock.tryWriteLock()) == 0) {
-                  continue;
-               }
-            } else {
-               stamp = lock.writeLock();
+   private void backgroundTransfer(Transfer transfer) {
+      for (int i = 0; i < BACKGROUND_TRANSFER_STEPS; ++i) {
+         // Stop if the transfer was completed or the map was cleared or closed
+         if (this.transfer != transfer || !transferStep(transfer)) {
+            return;
+         }
+      }
+      scheduleBackgroundTransfer(transfer);
+   }
+
+   /**
+    * Migrates the next step of buckets that is not yet claimed by another thread. The thread that completes the last
+    * step also releases the old memory lookup. This <b>MUST NOT</b> be invoked while holding any lock.
+    * @param transfer the transfer to help with
+    * @return whether there was a step left to migrate
+    */
+   private boolean transferStep(Transfer transfer) {
+      int step = transfer.nextStep.getAndIncrement();
+      if (step >= transfer.stepCount) {
+         return false;
+      }
+      int bucketOffset = step * transfer.stepSize;
+      StampedLock lock = locks.getLockWithOffset(bucketOffset >>> transfer.regionShift);
+      long stamp = lock.writeLock();
+      try {
+         // A clear completes a transfer without migrating the buckets
+         if (this.transfer == transfer) {
+            for (int i = 0; i < transfer.stepSize; ++i) {
+               transferBucket(bucketOffset + i);
             }
-            try {
-               // Only run it now that we have lock if someone else just didn't finish it
-               if (pendingBlocks.remove(offset)) {
-                  transfer(offset);
-               }
-            } finally {
-               lock.unlockWrite(stamp);
+         }
+      } finally {
+         lock.unlockWrite(stamp);
+      }
+      if (transfer.completedSteps.incrementAndGet() == transfer.stepCount) {
+         // Now that all buckets have been transferred we can replace references
+         locks.lockAll();
+         try {
+            if (this.transfer == transfer) {
+               transferComplete();
             }
+         } finally {
+            locks.unlockAll();
          }
       }
+      return true;
    }
 
    /**
-    * Ensures that the block that maps to the given lock offset is transferred. This method <b>MUST</b> be invoked by
-    * any write operation before doing anything. This ensures that the write operation only needs to modify the
-    * current memory lookup.
-    * @param lockOffset the lock offset to confirm has been transferred
+    * Ensures that the bucket in the old memory lookup the given hash code maps to is transferred. This method
+    * <b>MUST</b> be invoked by any write operation before doing anything. This ensures that the write operation only
+    * needs to modify the current memory lookup.
+    * @param hashCode the hash code of the key that is going to be written
     */
    @GuardedBy("locks#writeLock")
-   private void ensureTransferred(int lockOffset) {
-      if (pendingBlocks != null) {
-         if (pendingBlocks.remove(lockOffset)) {
-            transfer(lockOffset);
-         }
+   private void ensureTransferred(int hashCode) {
+      if (oldMemoryLookup != null) {
+         transferBucket(getOffset(hashCode, oldMemoryShift));
       }
    }
 
    /**
-    * Transfers all the entries that map to the given lock offset position from the old lookup to the current one.
-    * @param lockOffset the offset in the lock array - this is the same between all memory lookups
+    * Transfers all the entries in the given bucket of the old lookup to the current one. As the current lookup is
+    * twice as big, they all end up in one of two adjacent buckets that belong to the same lock region.
+    * @param oldMemoryOffset the offset of the bucket in the old lookup
     */
    @GuardedBy("locks#writeLock")
-   private void transfer(int lockOffset) {
-      int pointerCount = oldMemoryLookup.getPointerCount();
-      int blockSize = getBucketRegionSize(pointerCount);
+   private void transferBucket(int oldMemoryOffset) {
+      long address = oldMemoryLookup.getMemoryAddressOffset(oldMemoryOffset);
+      if (address == 0) {
+         return;
+      }
+      oldMemoryLookup.putMemoryAddressOffset(oldMemoryOffset, 0);
+      while (address != 0) {
+         long nextAddress = offHeapEntryFactory.getNext(address);
+         offHeapEntryFactory.setNext(address, 0);
 
-      LongStream memoryLocations = oldMemoryLookup.removeAll(lockOffset * blockSize, blockSize);
-      memoryLocations.forEach(address -> {
-         while (address != 0) {
-            long nextAddress = offHeapEntryFactory.getNext(address);
-            offHeapEntryFactory.setNext(address, 0);
+         int hashCode = offHeapEntryFactory.getHashCode(address);
+         int memoryOffset = getMemoryOffset(hashCode);
+         long newBucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
 
-            int hashCode = offHeapEntryFactory.getHashCode(address);
-            int memoryOffset = getMemoryOffset(hashCode);
-            long newBucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
+         // We should be only inserting a new value - thus we don't worry about key or return value
+         performPut(newBucketAddress, address, address, null, memoryOffset,false, true);
 
-            // We should be only inserting a new value - thus we don't worry about key or return value
-            performPut(newBucketAddress, address, address, null, memoryOffset,false, true);
+         address = nextAddress;
+      }
+   }
 
-            address = nextAddress;
-         }
-      });
+   /**
+    * Progress of migrating the buckets of the old memory lookup after a resize. Buckets are migrated in steps of
+    * contiguous buckets that never cross a lock region, which threads claim in order.
+    */
+   private static final class Transfer {
+      final int stepSize;
+      final int stepCount;
+      // How many bits to shift a bucket offset of the old lookup to get its lock offset
+      final int regionShift;
+      final AtomicInteger nextStep = new AtomicInteger();
+      final AtomicInteger completedSteps = new AtomicInteger();
+
+      Transfer(int oldPointerCount) {
+         int regionSize = oldPointerCount >>> LOCK_REGION_SHIFT;
+         this.stepSize = Math.min(TRANSFER_STEP_SIZE, regionSize);
+         this.stepCount = oldPointerCount / stepSize;
+         this.regionShift = Integer.numberOfTrailingZeros(regionSize);
+      }
+   }
+
+   /**
+    * @return whether buckets of a previous resize are still being migrated
+    */
+   boolean isTransferring() {
+      return transfer != null;
    }
 
    @Override
@@ -550,6 +627,9 @@ public void close() {
          actualClear();
          memoryLookup.deallocate();
          memoryLookup = null;
+         if (deferredAllocator != null) {
+            deferredAllocator.reclaimAll();
+         }
       } finally {
          locks.unlockAll();
       }
@@ -577,7 +657,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
       try {
          checkDeallocation();
 
-         ensureTransferred(lockOffset);
+         ensureTransferred(hashCode);
 
          int memoryOffset = getMemoryOffset(hashCode);
          long bucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
@@ -622,21 +702,82 @@ private InternalCacheEntry<WrappedBytes, WrappedBytes> peekOrGet(WrappedBytes k,
       int hashCode = k.hashCode();
       int lockOffset = getLockOffset(hashCode);
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
+      // The listener must be notified of a retrieval while the entry is guaranteed to be present
+      if (deferredAllocator != null && (peek || listener == null)) {
+         InternalCacheEntry<WrappedBytes, WrappedBytes> ice = optimisticPeek(stampedLock, k, hashCode);
+         if (ice != RETRY_WITH_LOCK) {
+            return ice;
+         }
+      }
       long readStamp = stampedLock.readLock();
       try {
          checkDeallocation();
-         MemoryAddressHash memoryLookup;
-         if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
-            memoryLookup = this.oldMemoryLookup;
-         } else {
-            memoryLookup = this.memoryLookup;
+         InternalCacheEntry<WrappedBytes, WrappedBytes> ice = lockedPeekOrGet(memoryLookup, k, hashCode, peek);
+         if (ice == null && oldMemoryLookup != null) {
+            // The bucket for the key may not have been migrated yet
+            ice = lockedPeekOrGet(oldMemoryLookup, k, hashCode, peek);
          }
-         return lockedPeekOrGet(memoryLookup, k, hashCode, peek);
+         return ice;
       } finally {
          stampedLock.unlockRead(readStamp);
       }
    }
 
+   /**
+    * Reads the entry for the given key without acquiring the read lock. Memory deallocations are deferred while the
+    * read is in progress, so any address reachable from the memory lookup is safe to read, but the values read
+    * are only used if no write happened to the lock region in the meantime.
+    * @return the entry or null if it is not present, or {@link #RETRY_WITH_LOCK} if a concurrent write happened
+    */
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> optimisticPeek(StampedLock stampedLock, WrappedBytes k,
+         int hashCode) {
+      // The reader must be announced before the stamp is read, so that any write that is not visible to us
+      // happens after the announcement and cannot free memory we reach
+      EpochDeferredMemoryAllocator.Participant participant = deferredAllocator.enter();
+      try {
+         long stamp = stampedLock.tryOptimisticRead();
+         if (stamp == 0) {
+            return RETRY_WITH_LOCK;
+         }
+         MemoryAddressHash memoryLookup = this.memoryLookup;
+         MemoryAddressHash oldMemoryLookup = this.oldMemoryLookup;
+         if (memoryLookup == null) {
+            // Either the map was closed or we read the fields while a resize was updating them
+            return RETRY_WITH_LOCK;
+         }
+         long actualAddress = optimisticGet(memoryLookup, k, hashCode);
+         if (actualAddress == 0 && oldMemoryLookup != null) {
+            actualAddress = optimisticGet(oldMemoryLookup, k, hashCode);
+         }
+         // Only decode the entry if the address was read without a concurrent write, a torn read could point to
+         // lengths that make the decoding throw or allocate huge arrays
+         if (!stampedLock.validate(stamp)) {
+            return RETRY_WITH_LOCK;
+         }
+         if (actualAddress == 0) {
+            return null;
+         }
+         InternalCacheEntry<WrappedBytes, WrappedBytes> ice;
+         try {
+            ice = offHeapEntryFactory.fromMemory(actualAddress);
+         } catch (Throwable t) {
+            // A write may still happen while decoding, in which case the lock gives a consistent view
+            return RETRY_WITH_LOCK;
+         }
+         return stampedLock.validate(stamp) ? ice : RETRY_WITH_LOCK;
+      } finally {
+         // Must exit before falling back to the lock, as a close waits for readers while holding all locks
+         deferredAllocator.exit(participant);
+      }
+   }
+
+   private long optimisticGet(MemoryAddressHash memoryLookup, WrappedBytes k, int hashCode) {
+      // The shift must be derived from the lookup itself, as the shift fields may not match it
+      int shift = 31 - Integer.numberOfTrailingZeros(memoryLookup.getPointerCount());
+      long bucketAddress = memoryLookup.getMemoryAddressOffsetNoTraceIfAbsent(getOffset(hashCode, shift));
+      return bucketAddress == 0 ? 0 : performGet(bucketAddress, k, hashCode);
+   }
+
    @GuardedBy("locks#readLock")
    private InternalCacheEntry<WrappedBytes, WrappedBytes> lockedPeekOrGet(MemoryAddressHash memoryLookup,
          WrappedBytes k, int hashCode, boolean peek) {
@@ -702,7 +843,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> put(WrappedBytes key,
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         ensureTransferred(hashCode);
 
          int memoryOffset = getMemoryOffset(hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
@@ -810,7 +951,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> remove(Object key) {
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         ensureTransferred(hashCode);
 
          int memoryOffset = getMemoryOffset(hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
@@ -834,7 +975,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> remove(Object key) {
    @GuardedBy("locks#writeLock")
    void remove(WrappedBytes key, long address) {
       int hashCode = key.hashCode();
-      ensureTransferred(getLockOffset(hashCode));
+      ensureTransferred(hashCode);
 
       int memoryOffset = getMemoryOffset(hashCode);
       long bucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
@@ -939,6 +1080,10 @@ private void actualClear() {
       sizeMemoryBuckets(INITIAL_SIZE);
 
       size.set(0);
+      if (deferredAllocator != null) {
+         // No new reader can reach the removed entries, so release them now instead of waiting for later writes
+         deferredAllocator.reclaimAll();
+      }
       if (log.isTraceEnabled()) {
          log.trace("Cleared off-heap data");
       }
@@ -970,7 +1115,7 @@ public boolean remove(Object key, Object value) {
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         ensureTransferred(hashCode);
 
          int memoryOffset = getMemoryOffset(hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
@@ -989,7 +1134,7 @@ public boolean replace(WrappedBytes key, InternalCacheEntry<WrappedBytes, Wrappe
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         ensureTransferred(hashCode);
 
          int memoryOffset = getMemoryOffset(hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
@@ -1008,7 +1153,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> replace(WrappedBytes key,
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         ensureTransferred(lockOffset);
+         ensureTransferred(hashCode);
 
          int memoryOffset = getMemoryOffset(hashCode);
          long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
@@ -1116,6 +1261,11 @@ public boolean remove(Object o) {
     * over a lock region and that region is resized it must now extrapolate given by the size of the increase of size
     * which buckets the corresponding resize have moved to. Luckily this operation is still efficient as resized buckets
     * are stored contiguously.
+    * <p>
+    * While the buckets of a resize are being migrated an entry can either be in the old or in the current lookup. If
+    * the iteration positions are still those of the old lookup, a position covers the old bucket plus the two
+    * buckets in the current lookup its entries move to. Otherwise a position covers the bucket in the current lookup
+    * plus the entries of the old bucket that will move to it.
     */
    private class ValueIterator implements Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> {
       int bucketPosition;
@@ -1166,13 +1316,7 @@ boolean readNextBucket() {
          long readStamp = stampedLock.readLock();
          try {
             checkDeallocation();
-            MemoryAddressHash memoryAddressHash;
-            if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
-               memoryAddressHash = oldMemoryLookup;
-            } else {
-               memoryAddressHash = memoryLookup;
-            }
-            int pointerCount = memoryAddressHash.getPointerCount();
+            int pointerCount = memoryLookup.getPointerCount();
             if (bucketCount == -1) {
                bucketCount = pointerCount;
                bucketLockStop = getBucketRegionSize(bucketCount);
@@ -1182,21 +1326,18 @@ boolean readNextBucket() {
                // Just return without adding anymore values
                bucketPosition = bucketCount;
                return false;
-            } else if (bucketCount < pointerCount) {
+            } else if (bucketCount < pointerCount &&
+                  (oldMemoryLookup == null || bucketCount != oldMemoryLookup.getPointerCount())) {
                resizeIteration(pointerCount);
             }
+            // Whether the positions are those of the old lookup of a resize that is still migrating buckets
+            boolean oldPositions = bucketCount != pointerCount;
             boolean completedLockBucket;
             // Normal iteration just keep adding entries until either we complete the lock bucket region or
             // we read bytes over the read threshold
             while (!(completedLockBucket = bucketLockStop == bucketPosition)) {
-               long address = memoryAddressHash.getMemoryAddressOffsetNoTraceIfAbsent(bucketPosition++);
-               if (address != 0) {
-                  long nextAddress;
-                  do {
-                     nextAddress = offHeapEntryFactory.getNext(address);
-                     values.add(offHeapEntryFactory.fromMemory(address));
-                     foundValue = true;
-                  } while ((address = nextAddress) != 0);
+               if (readBucket(bucketPosition++, oldPositions)) {
+                  foundValue = true;
                   // We read a single bucket now return to get the value back
                   break;
                }
@@ -1212,6 +1353,48 @@ boolean readNextBucket() {
          return foundValue;
       }
 
+      /**
+       * Adds the entries found at the given iteration position.
+       * @param position the iteration position
+       * @param oldPositions whether the position is one of the old lookup
+       * @return whether any value has been read
+       */
+      @GuardedBy("locks#readLock")
+      private boolean readBucket(int position, boolean oldPositions) {
+         if (oldPositions) {
+            boolean found = addEntries(oldMemoryLookup.getMemoryAddressOffsetNoTraceIfAbsent(position), -1);
+            found |= addEntries(memoryLookup.getMemoryAddressOffsetNoTraceIfAbsent(position << 1), -1);
+            found |= addEntries(memoryLookup.getMemoryAddressOffsetNoTraceIfAbsent((position << 1) + 1), -1);
+            return found;
+         }
+         boolean found = addEntries(memoryLookup.getMemoryAddressOffsetNoTraceIfAbsent(position), -1);
+         if (oldMemoryLookup != null) {
+            // The old bucket is shared with the adjacent position, so only take the entries that move to this one
+            found |= addEntries(oldMemoryLookup.getMemoryAddressOffsetNoTraceIfAbsent(position >>> 1), position);
+         }
+         return found;
+      }
+
+      /**
+       * Adds all the entries in the linked list starting at the given address.
+       * @param address the head address of a bucket, can be 0
+       * @param memoryOffset if not negative, only entries mapping to this offset of the current lookup are added
+       * @return whether any value has been read
+       */
+      @GuardedBy("locks#readLock")
+      private boolean addEntries(long address, int memoryOffset) {
+         boolean found = false;
+         while (address != 0) {
+            long nextAddress = offHeapEntryFactory.getNext(address);
+            if (memoryOffset < 0 || getMemoryOffset(offHeapEntryFactory.getHashCode(address)) == memoryOffset) {
+               values.add(offHeapEntryFactory.fromMemory(address));
+               found = true;
+            }
+            address = nextAddress;
+         }
+         return found;
+      }
+
       /**
        * Invoked when the iteration saw a bucket size less than the current bucket size of the memory lookup. This
        * means we had a resize during iteration. We must update our bucket position, stop and counts properly based
@@ -2,6 +2,7 @@
 
 import java.util.Iterator;
 import java.util.Spliterator;
+import java.util.concurrent.Executor;
 import java.util.function.ObjIntConsumer;
 
 import org.infinispan.commons.marshall.WrappedBytes;
@@ -11,6 +12,8 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.impl.AbstractInternalDataContainer;
 import org.infinispan.container.impl.PeekableTouchableMap;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
@@ -22,12 +25,14 @@
 public class OffHeapDataContainer extends AbstractInternalDataContainer<WrappedBytes, WrappedBytes> {
    @Inject protected OffHeapMemoryAllocator allocator;
    @Inject protected OffHeapEntryFactory offHeapEntryFactory;
+   @Inject @ComponentName(KnownComponentNames.NON_BLOCKING_EXECUTOR)
+   protected Executor nonBlockingExecutor;
 
    private OffHeapConcurrentMap map;
 
    @Start
    public void start() {
-      map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null);
+      map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null, true, nonBlockingExecutor);
    }
 
    @Stop
@@ -1,7 +1,10 @@
 package org.infinispan.container.offheap;
 
 /**
- * Accessors for the fields of a native LRU list node.
+ * Accessors for the fields of a native eviction list node.
+ * <p>
+ * Entry addresses are always at least 8 byte aligned, so the lowest bits of the previous node pointer are used to
+ * store which eviction queue the node belongs to.
  *
  * @since 9.1
  */
@@ -13,6 +16,8 @@ class OffHeapLruNode {
    private static final int PREVIOUS_NODE_OFFSET = 0;
    private static final int NEXT_NODE_OFFSET = PREVIOUS_NODE_OFFSET + ADDRESS_SIZE;
 
+   private static final long QUEUE_MASK = 0x3;
+
    private OffHeapLruNode() {
    }
 
@@ -25,15 +30,29 @@ static void setNext(long lruNodeAddress, long nextAddress) {
    }
 
    static long getPrevious(long lruNodeAddress) {
-      return MEMORY.getLong(lruNodeAddress, PREVIOUS_NODE_OFFSET);
+      return MEMORY.getLong(lruNodeAddress, PREVIOUS_NODE_OFFSET) & ~QUEUE_MASK;
    }
 
    static void setPrevious(long lruNodeAddress, long previousAddress) {
-      MEMORY.putLong(lruNodeAddress, PREVIOUS_NODE_OFFSET, previousAddress);
+      long queue = MEMORY.getLong(lruNodeAddress, PREVIOUS_NODE_OFFSET) & QUEUE_MASK;
+      MEMORY.putLong(lruNodeAddress, PREVIOUS_NODE_OFFSET, previousAddress | queue);
+   }
+
+   static int getQueue(long lruNodeAddress) {
+      return (int) (MEMORY.getLong(lruNodeAddress, PREVIOUS_NODE_OFFSET) & QUEUE_MASK);
+   }
+
+   /**
+    * Initializes the node fields of a node that is going to be linked, as its memory may not be initialized.
+    */
+   static void initialize(long lruNodeAddress, long previousAddress, int queue) {
+      assert (lruNodeAddress & QUEUE_MASK) == 0 : "Unaligned entry address " + lruNodeAddress;
+      MEMORY.putLong(lruNodeAddress, PREVIOUS_NODE_OFFSET, previousAddress | queue);
+      MEMORY.putLong(lruNodeAddress, NEXT_NODE_OFFSET, 0);
    }
 
    static String debugString(long address) {
-      return String.format("0x%016x <-- entry 0x%016x --> 0x%016x", OffHeapLruNode.getPrevious(address), address,
-            OffHeapLruNode.getNext(address));
+      return String.format("0x%016x <-- entry 0x%016x (queue %d) --> 0x%016x", OffHeapLruNode.getPrevious(address),
+            address, OffHeapLruNode.getQueue(address), OffHeapLruNode.getNext(address));
    }
 }
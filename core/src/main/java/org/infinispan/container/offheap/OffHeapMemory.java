@@ -101,6 +101,18 @@ void putLong(long destAddress, long offset, long value) {
       UNSAFE.putLong(destAddress + offset, value);
    }
 
+   /**
+    * Same as {@link #putLong(long, long, long)} except that all prior writes are visible before this value, so it can
+    * be used to publish a pointer to memory that was just written to readers that don't hold a lock.
+    */
+   void putLongOrdered(long destAddress, long offset, long value) {
+      checkAddress(destAddress, offset + 8);
+      if (log.isTraceEnabled()) {
+         log.tracef("Wrote ordered long value 0x%016x to address 0x%016x+%d", value, destAddress, offset);
+      }
+      UNSAFE.putOrderedLong(null, destAddress + offset, value);
+   }
+
    void getBytes(long srcAddress, long srcOffset, byte[] destArray, long destOffset, long length) {
       checkAddress(srcAddress, srcOffset + length);
       if (log.isTraceEnabled()) {
@@ -168,4 +180,38 @@ void free(long address) {
       }
       UNSAFE.freeMemory(address);
    }
+
+   /**
+    * Allocates memory that is never accessed directly, but is instead split into blocks that are registered through
+    * {@link #trackBlock(long, long)}.
+    */
+   long allocateUntracked(long size) {
+      return UNSAFE.allocateMemory(size);
+   }
+
+   void freeUntracked(long address) {
+      UNSAFE.freeMemory(address);
+   }
+
+   /**
+    * Registers a block of memory carved out of a memory region allocated with {@link #allocateUntracked(long)}, so
+    * that accesses to it can be verified when trace is enabled.
+    */
+   void trackBlock(long address, long size) {
+      if (log.isTraceEnabled()) {
+         Long prev = allocatedBlocks.put(address, size);
+         if (prev != null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
+
+   void untrackBlock(long address) {
+      if (log.isTraceEnabled()) {
+         Long prev = allocatedBlocks.remove(address);
+         if (prev == null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
 }
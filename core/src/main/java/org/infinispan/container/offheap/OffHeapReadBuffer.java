@@ -0,0 +1,102 @@
+package org.infinispan.container.offheap;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+import org.infinispan.commons.util.ProcessorInfo;
+import org.infinispan.commons.util.Util;
+
+/**
+ * Lossy buffer that records the addresses of entries that were read, so that a read never has to acquire the lock
+ * protecting the eviction policy. The buffer is striped by thread and each stripe is a bounded ring. When a stripe is
+ * full the address is dropped, as the policy only needs a sample of the accesses.
+ * <p>
+ * The buffer stores raw addresses, so the caller must guarantee that a recorded entry is not freed before the
+ * buffer is drained. An address must only be recorded while holding the lock that prevents the entry from being
+ * removed, and every removal must first {@link #drainTo(LongConsumer, boolean) drain} the buffer waiting for the
+ * in-flight records.
+ * <p>
+ * Multiple threads may record concurrently, but draining must be done by one thread at a time.
+ *
+ * @since 14.0
+ */
+final class OffHeapReadBuffer {
+   private static final int STRIPE_SIZE = 64;
+   private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+   private final Stripe[] stripes;
+   private final int mask;
+
+   OffHeapReadBuffer() {
+      stripes = new Stripe[Util.findNextHighestPowerOfTwo(ProcessorInfo.availableProcessors())];
+      for (int i = 0; i < stripes.length; ++i) {
+         stripes[i] = new Stripe();
+      }
+      mask = stripes.length - 1;
+   }
+
+   /**
+    * Records the address of an entry that was read.
+    * @param address the entry address
+    * @return {@code true} if the stripe of the current thread is full and should be drained
+    */
+   boolean offer(long address) {
+      // Fibonacci hash of the thread id, so threads created one after another use different stripes
+      int index = (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+      return stripes[index].offer(address);
+   }
+
+   /**
+    * Passes all recorded addresses to the consumer and removes them from the buffer.
+    * @param consumer invoked with each recorded address
+    * @param waitForInFlight whether to wait for threads that claimed a slot but did not write their address yet. If
+    *                        false draining stops at the first such slot
+    */
+   void drainTo(LongConsumer consumer, boolean waitForInFlight) {
+      for (Stripe stripe : stripes) {
+         stripe.drainTo(consumer, waitForInFlight);
+      }
+   }
+
+   private static final class Stripe {
+      private final AtomicLongArray slots = new AtomicLongArray(STRIPE_SIZE);
+      private final AtomicLong writeCounter = new AtomicLong();
+      // Only written by the draining thread
+      private volatile long readCounter;
+
+      boolean offer(long address) {
+         long head = readCounter;
+         long tail = writeCounter.get();
+         if (tail - head >= STRIPE_SIZE) {
+            return true;
+         }
+         // Losing the race to another reader of the same stripe just drops the address
+         if (writeCounter.compareAndSet(tail, tail + 1)) {
+            slots.lazySet((int) tail & STRIPE_MASK, address);
+         }
+         return false;
+      }
+
+      void drainTo(LongConsumer consumer, boolean waitForInFlight) {
+         long head = readCounter;
+         long tail = writeCounter.get();
+         for (; head != tail; ++head) {
+            int index = (int) head & STRIPE_MASK;
+            long address = slots.get(index);
+            if (address == 0) {
+               if (!waitForInFlight) {
+                  break;
+               }
+               // The slot was claimed and the address is about to be written, the writer holds no lock in between
+               while ((address = slots.get(index)) == 0) {
+                  // spin
+               }
+            }
+            slots.lazySet(index, 0);
+            consumer.accept(address);
+         }
+         readCounter = head;
+      }
+   }
+}
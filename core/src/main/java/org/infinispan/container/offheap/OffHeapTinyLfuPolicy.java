@@ -0,0 +1,181 @@
+package org.infinispan.container.offheap;
+
+import java.util.function.LongUnaryOperator;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Window TinyLFU eviction policy for off-heap entries, which is the policy Caffeine provides to the heap containers.
+ * <p>
+ * New entries are added to a small admission window, an LRU queue holding 1% of the capacity. The rest of the
+ * capacity is a segmented LRU: entries admitted from the window start in the probation queue and are promoted to the
+ * protected queue, limited to 80% of the main space, when they are read again. Once the container is full, the least
+ * recently used entry of the window competes with the least recently used entry of the main space and the one with
+ * the lower access frequency, as estimated by a {@link FrequencySketch}, is evicted. This keeps entries that are read
+ * often from being flushed out by scans of entries that are read only once.
+ * <p>
+ * The queues are doubly linked lists using the node pointers at the beginning of each entry, see
+ * {@link OffHeapLruNode}. All methods must be invoked while holding the lock of the container that owns the policy.
+ *
+ * @since 14.0
+ */
+class OffHeapTinyLfuPolicy {
+   private static final int WINDOW = 0;
+   private static final int PROBATION = 1;
+   private static final int PROTECTED = 2;
+
+   private final OffHeapEntryFactory offHeapEntryFactory;
+   private final LongUnaryOperator weigher;
+   private final FrequencySketch sketch = new FrequencySketch();
+
+   private final long windowMaximum;
+   private final long mainMaximum;
+   private final long protectedMaximum;
+
+   @GuardedBy("lock")
+   private final long[] heads = new long[3];
+   @GuardedBy("lock")
+   private final long[] tails = new long[3];
+   @GuardedBy("lock")
+   private final long[] weights = new long[3];
+   @GuardedBy("lock")
+   private long entryCount;
+
+   /**
+    * @param offHeapEntryFactory factory to read the hash code of entries
+    * @param weigher returns the weight of the entry at the given address
+    * @param maximum the maximum total weight of the entries
+    */
+   OffHeapTinyLfuPolicy(OffHeapEntryFactory offHeapEntryFactory, LongUnaryOperator weigher, long maximum) {
+      this.offHeapEntryFactory = offHeapEntryFactory;
+      this.weigher = weigher;
+      this.windowMaximum = Math.max(1, maximum / 100);
+      this.mainMaximum = maximum - windowMaximum;
+      this.protectedMaximum = mainMaximum - mainMaximum / 5;
+   }
+
+   /**
+    * Adds a newly created entry to the window.
+    */
+   @GuardedBy("lock")
+   void onCreated(long address) {
+      sketch.increment(offHeapEntryFactory.getHashCode(address));
+      // The sketch grows with the entries, as memory based containers don't know how many entries fit upfront
+      sketch.ensureCapacity(++entryCount);
+      linkLast(WINDOW, address);
+      // Entries overflowing the window are admitted without competing while the main space is not full yet
+      while (weights[WINDOW] > windowMaximum) {
+         long candidate = heads[WINDOW];
+         if (weights[PROBATION] + weights[PROTECTED] + weigher.applyAsLong(candidate) > mainMaximum) {
+            break;
+         }
+         unlink(candidate);
+         linkLast(PROBATION, candidate);
+      }
+   }
+
+   /**
+    * Records a read of the entry, moving it to the end of its queue or promoting it if it was in probation.
+    */
+   @GuardedBy("lock")
+   void onAccess(long address) {
+      sketch.increment(offHeapEntryFactory.getHashCode(address));
+      int queue = OffHeapLruNode.getQueue(address);
+      if (queue != PROBATION && tails[queue] == address) {
+         return;
+      }
+      unlink(address);
+      if (queue == PROBATION) {
+         linkLast(PROTECTED, address);
+         // Demote the least recently used protected entries so the protected queue stays within its share
+         while (weights[PROTECTED] > protectedMaximum) {
+            long demoted = heads[PROTECTED];
+            unlink(demoted);
+            linkLast(PROBATION, demoted);
+         }
+      } else {
+         linkLast(queue, address);
+      }
+   }
+
+   /**
+    * Unlinks the entry, which is about to be freed.
+    */
+   @GuardedBy("lock")
+   void onRemoved(long address) {
+      unlink(address);
+      entryCount--;
+   }
+
+   /**
+    * Puts the new entry in the place of the old one, which is about to be freed, and records an access of it.
+    */
+   @GuardedBy("lock")
+   void onReplaced(long newAddress, long oldAddress) {
+      int queue = OffHeapLruNode.getQueue(oldAddress);
+      unlink(oldAddress);
+      linkLast(queue, newAddress);
+      onAccess(newAddress);
+   }
+
+   /**
+    * Returns the entry that should be evicted next. If the window is over its share, this decides whether its least
+    * recently used entry is admitted to the main space, in which case the entry is moved to the probation queue
+    * and the least recently used entry of the main space is returned instead.
+    * @return the address of the entry to evict or 0 if there are no entries
+    */
+   @GuardedBy("lock")
+   long selectVictim() {
+      if (weights[WINDOW] > windowMaximum) {
+         long candidate = heads[WINDOW];
+         long victim = heads[PROBATION] != 0 ? heads[PROBATION] : heads[PROTECTED];
+         if (victim == 0 || sketch.frequency(offHeapEntryFactory.getHashCode(candidate)) <=
+               sketch.frequency(offHeapEntryFactory.getHashCode(victim))) {
+            return candidate;
+         }
+         unlink(candidate);
+         linkLast(PROBATION, candidate);
+         return victim;
+      }
+      if (heads[PROBATION] != 0) {
+         return heads[PROBATION];
+      }
+      if (heads[PROTECTED] != 0) {
+         return heads[PROTECTED];
+      }
+      return heads[WINDOW];
+   }
+
+   @GuardedBy("lock")
+   private void linkLast(int queue, long address) {
+      long tail = tails[queue];
+      OffHeapLruNode.initialize(address, tail, queue);
+      if (tail == 0) {
+         heads[queue] = address;
+      } else {
+         OffHeapLruNode.setNext(tail, address);
+      }
+      tails[queue] = address;
+      weights[queue] += weigher.applyAsLong(address);
+   }
+
+   @GuardedBy("lock")
+   private void unlink(long address) {
+      int queue = OffHeapLruNode.getQueue(address);
+      long previous = OffHeapLruNode.getPrevious(address);
+      long next = OffHeapLruNode.getNext(address);
+      if (previous == 0) {
+         assert heads[queue] == address : OffHeapLruNode.debugString(address);
+         heads[queue] = next;
+      } else {
+         OffHeapLruNode.setNext(previous, next);
+      }
+      if (next == 0) {
+         assert tails[queue] == address : OffHeapLruNode.debugString(address);
+         tails[queue] = previous;
+      } else {
+         OffHeapLruNode.setPrevious(next, previous);
+      }
+      weights[queue] -= weigher.applyAsLong(address);
+   }
+}
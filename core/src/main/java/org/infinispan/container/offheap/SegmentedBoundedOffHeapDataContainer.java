@@ -1,6 +1,7 @@
 package org.infinispan.container.offheap;
 
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.Executor;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.StampedLock;
@@ -17,6 +18,8 @@
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.eviction.impl.PassivationManager;
 import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
@@ -30,6 +33,12 @@
 import org.infinispan.util.logging.LogFactory;
 
 /**
+ * Bounded off-heap data container that evicts entries using an {@link OffHeapTinyLfuPolicy}.
+ * <p>
+ * Reads only record the entry address in an {@link OffHeapReadBuffer}, which is applied to the policy while holding
+ * the eviction lock by a read that finds its stripe of the buffer full, if the lock is free, or before any entry is
+ * removed or replaced.
+ *
  * @author wburns
  * @since 9.4
  */
@@ -47,16 +56,19 @@ public class SegmentedBoundedOffHeapDataContainer extends AbstractDelegatingInte
    @Inject protected EvictionManager evictionManager;
    @Inject protected ComponentRef<PassivationManager> passivator;
    @Inject protected DataOperationOrderer orderer;
+   @Inject @ComponentName(KnownComponentNames.NON_BLOCKING_EXECUTOR)
+   protected Executor nonBlockingExecutor;
 
    protected final long maxSize;
-   protected final Lock lruLock;
+   protected final Lock evictionLock;
    protected final boolean useCount;
    protected final int numSegments;
+   protected final OffHeapReadBuffer readBuffer;
 
-   // Must be updated inside lruLock#writeLock - but can be read outside of lock
+   // Must be updated inside evictionLock - but can be read outside of lock
    protected volatile long currentSize;
-   protected long firstAddress;
-   protected long lastAddress;
+   // Only accessed while holding evictionLock
+   protected OffHeapTinyLfuPolicy policy;
 
    protected DefaultSegmentedDataContainer dataContainer;
 
@@ -67,14 +79,15 @@ public SegmentedBoundedOffHeapDataContainer(int numSegments, long maxSize, Evict
       this.maxSize = maxSize;
       this.useCount = type == EvictionType.COUNT;
       OffHeapMapSupplier offHeapMapSupplier = new OffHeapMapSupplier();
-      this.lruLock = new ReentrantLock();
-      firstAddress = 0;
+      this.evictionLock = new ReentrantLock();
+      this.readBuffer = new OffHeapReadBuffer();
 
       dataContainer = new DefaultSegmentedDataContainer<>(offHeapMapSupplier, numSegments);
    }
 
    @Start
    public void start() {
+      policy = new OffHeapTinyLfuPolicy(offHeapEntryFactory, this::getSize, maxSize);
       dataContainer.start();
    }
 
@@ -140,19 +153,19 @@ protected OffHeapConcurrentMap getMapThatContainsKey(byte[] key) {
    }
 
    /**
-    * This method repeatedly removes the head of the LRU list until there the current size is less than or equal to
-    * `maxSize`.
+    * This method repeatedly removes the victim selected by the eviction policy until there the current size is less
+    * than or equal to `maxSize`.
     * <p>
-    * We need to hold the LRU lock in order to check the current size and to read the head entry,
-    * and then we need to hold the head entry's write lock in order to remove it.
-    * The problem is that the correct acquisition order is entry write lock first, LRU lock second,
-    * and we need to hold the LRU lock so that we know which entry write lock to acquire.
+    * We need to hold the eviction lock in order to check the current size and to select the victim,
+    * and then we need to hold the victim entry's write lock in order to remove it.
+    * The problem is that the correct acquisition order is entry write lock first, eviction lock second,
+    * and we need to hold the eviction lock so that we know which entry write lock to acquire.
     * <p>
     * To work around it, we first try to acquire the entry write lock without blocking.
-    * If that fails, we release the LRU lock and we acquire the locks in the correct order, hoping that
-    * the LRU head doesn't change while we wait. Because the entry write locks are striped, we actually
-    * tolerate a LRU head change as long as the new head entry is in the same lock stripe.
-    * If the LRU list head changes, we release both locks and try again.
+    * If that fails, we release the eviction lock and we acquire the locks in the correct order, hoping that
+    * the victim doesn't change while we wait. Because the entry write locks are striped, we actually
+    * tolerate a victim change as long as the new victim is in the same lock stripe.
+    * If the victim changes to another stripe, we release both locks and try again.
     */
    private void ensureSize() {
       // Try reading outside of lock first to allow for less locking for insert that doesn't require eviction
@@ -165,24 +178,25 @@ private void ensureSize() {
          StampedLock stampedLock;
          long writeStamp;
          OffHeapConcurrentMap map;
-         lruLock.lock();
+         evictionLock.lock();
          try {
             if (currentSize <= maxSize) {
                break;
             }
+            long victimAddress = policy.selectVictim();
             // We shouldn't be able to get into this state
-            assert firstAddress > 0;
+            assert victimAddress != 0;
             // We read the key before hashCode due to how off-heap bytes are written (key requires reading metadata
             // which comes before hashCode, which should keep hashCode bytes in memory register in most cases)
-            byte[] key = offHeapEntryFactory.getKey(firstAddress);
+            byte[] key = offHeapEntryFactory.getKey(victimAddress);
 
             map = getMapThatContainsKey(key);
             if (map != null) {
-               int hashCode = offHeapEntryFactory.getHashCode(firstAddress);
+               int hashCode = offHeapEntryFactory.getHashCode(victimAddress);
                // This is always non null
                stampedLock = map.getStampedLock(hashCode);
                if ((writeStamp = stampedLock.tryWriteLock()) != 0) {
-                  addressToRemove = firstAddress;
+                  addressToRemove = victimAddress;
                } else {
                   addressToRemove = 0;
                }
@@ -192,33 +206,34 @@ private void ensureSize() {
                continue;
             }
          } finally {
-            lruLock.unlock();
+            evictionLock.unlock();
          }
 
          // If we got here it means we were unable to acquire the write lock, so we have to attempt a blocking
-         // write lock and then acquire the lruLock, since they have to be acquired in that order (exception using
-         // try lock as above)
+         // write lock and then acquire the evictionLock, since they have to be acquired in that order (exception
+         // using try lock as above)
          if (addressToRemove == 0) {
             writeStamp = stampedLock.writeLock();
             try {
-               lruLock.lock();
+               evictionLock.lock();
                try {
                   if (currentSize <= maxSize) {
                      break;
                   }
-                  // Now that we have locks we have to verify the first address is protected by the same lock still
-                  byte[] key = offHeapEntryFactory.getKey(firstAddress);
+                  // Now that we have locks we have to verify the victim is protected by the same lock still
+                  long victimAddress = policy.selectVictim();
+                  byte[] key = offHeapEntryFactory.getKey(victimAddress);
 
                   OffHeapConcurrentMap protectedMap = getMapThatContainsKey(key);
                   if (protectedMap == map) {
-                     int hashCode = offHeapEntryFactory.getHashCode(firstAddress);
+                     int hashCode = offHeapEntryFactory.getHashCode(victimAddress);
                      StampedLock innerLock = map.getStampedLock(hashCode);
                      if (innerLock == stampedLock) {
-                        addressToRemove = firstAddress;
+                        addressToRemove = victimAddress;
                      }
                   }
                } finally {
-                  lruLock.unlock();
+                  evictionLock.unlock();
                }
             } finally {
                if (addressToRemove == 0) {
@@ -232,15 +247,17 @@ private void ensureSize() {
                log.tracef("Removing entry: 0x%016x due to eviction due to size %d being larger than maximum of %d",
                      addressToRemove, currentSize, maxSize);
             }
+            InternalCacheEntry<WrappedBytes, WrappedBytes> ice;
             try {
-               InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(addressToRemove);
+               ice = offHeapEntryFactory.fromMemory(addressToRemove);
                map.remove(ice.getKey(), addressToRemove);
-               // Note this is non blocking now - this MUST be invoked after removing the entry from the
-               // underlying map
-               AbstractInternalDataContainer.handleEviction(ice, orderer, passivator.running(), evictionManager, this, null);
             } finally {
                stampedLock.unlockWrite(writeStamp);
             }
+            // Note this is non blocking now - this MUST be invoked after removing the entry from the
+            // underlying map. It is invoked outside of the write lock, as it may read the key from the map again
+            // and StampedLock is not reentrant
+            AbstractInternalDataContainer.handleEviction(ice, orderer, passivator.running(), evictionManager, this, null);
          }
       }
    }
@@ -249,7 +266,7 @@ private class OffHeapMapSupplier implements Supplier<PeekableTouchableMap<Wrappe
             WrappedBytes>> {
       @Override
       public PeekableTouchableMap<WrappedBytes, WrappedBytes> get() {
-         return new OffHeapConcurrentMap(allocator, offHeapEntryFactory, offHeapListener);
+         return new OffHeapConcurrentMap(allocator, offHeapEntryFactory, offHeapListener, true, nonBlockingExecutor);
       }
    }
 
@@ -260,7 +277,7 @@ public boolean resize(int pointerCount) {
          if (useCount) {
             return true;
          }
-         lruLock.lock();
+         evictionLock.lock();
          try {
             boolean isNegative = pointerCount < 0;
             long memoryUsed = ((long) Math.abs(pointerCount)) << 3;
@@ -280,7 +297,7 @@ public boolean resize(int pointerCount) {
                currentSize += change;
             }
          } finally {
-            lruLock.unlock();
+            evictionLock.unlock();
          }
          return true;
       }
@@ -288,25 +305,30 @@ public boolean resize(int pointerCount) {
       @Override
       public void entryCreated(long newAddress) {
          long newSize = getSize(newAddress);
-         lruLock.lock();
+         evictionLock.lock();
          try {
             currentSize += newSize;
-            addEntryAddressToEnd(newAddress);
+            if (log.isTraceEnabled()) {
+               log.tracef("Adding entry 0x%016x to the eviction window", newAddress);
+            }
+            policy.onCreated(newAddress);
          } finally {
-            lruLock.unlock();
+            evictionLock.unlock();
          }
       }
 
       @Override
       public void entryRemoved(long removedAddress) {
          long removedSize = getSize(removedAddress);
-         lruLock.lock();
+         evictionLock.lock();
          try {
+            // The buffer may contain the address, which is freed after this method
+            drainReadBuffer(true);
             // Current size has to be updated in the lock
             currentSize -=  removedSize;
-            removeNode(removedAddress);
+            policy.onRemoved(removedAddress);
          } finally {
-            lruLock.unlock();
+            evictionLock.unlock();
          }
       }
 
@@ -314,130 +336,38 @@ public void entryRemoved(long removedAddress) {
       public void entryReplaced(long newAddress, long oldAddress) {
          long oldSize = getSize(oldAddress);
          long newSize = getSize(newAddress);
-         lruLock.lock();
+         evictionLock.lock();
          try {
-            removeNode(oldAddress);
-            addEntryAddressToEnd(newAddress);
+            // The buffer may contain the old address, which is freed after this method
+            drainReadBuffer(true);
+            policy.onReplaced(newAddress, oldAddress);
 
             currentSize += newSize;
             currentSize -= oldSize;
          } finally {
-            lruLock.unlock();
+            evictionLock.unlock();
          }
       }
 
       @Override
       public void entryRetrieved(long entryAddress) {
-         lruLock.lock();
-         try {
-            if (log.isTraceEnabled()) {
-               log.tracef("Moving entry 0x%016x to the end of the LRU list", entryAddress);
-            }
-            moveToEnd(entryAddress);
-         } finally {
-            lruLock.unlock();
-         }
-      }
-
-      /**
-       * Method to be invoked when adding a new entry address to the end of the lru nodes.  This occurs for newly created
-       * entries.
-       * This method should only be invoked after acquiring the lruLock
-       *
-       * @param entryAddress the new entry address pointer *NOT* the lru node
-       */
-      private void addEntryAddressToEnd(long entryAddress) {
-         if (log.isTraceEnabled()) {
-            log.tracef("Adding entry 0x%016x to the end of the LRU list", entryAddress);
-         }
-         // This means it is the first entry
-         if (lastAddress == 0) {
-            firstAddress = entryAddress;
-            lastAddress = entryAddress;
-            // Have to make sure the memory is cleared so we don't use unitialized values
-            OffHeapLruNode.setPrevious(entryAddress, 0);
-         } else {
-            // Writes back pointer to the old lastAddress
-            OffHeapLruNode.setPrevious(entryAddress, lastAddress);
-            // Write the forward pointer in old lastAddress to point to us
-            OffHeapLruNode.setNext(lastAddress, entryAddress);
-            // Finally make us the last address
-            lastAddress = entryAddress;
-         }
-         // Since we are last there is no pointer after us
-         OffHeapLruNode.setNext(entryAddress, 0);
-      }
-
-      /**
-       * Removes the address node and updates previous and next lru node pointers properly
-       * The {@link BoundedOffHeapDataContainer#lruLock} <b>must</b> be held when invoking this
-       * @param address
-       */
-      private void removeNode(long address) {
-         boolean middleNode = true;
-         if (address == lastAddress) {
-            if (log.isTraceEnabled()) {
-               log.tracef("Removed entry 0x%016x from the end of the LRU list", address);
-            }
-            long previousLRUNode = OffHeapLruNode.getPrevious(address);
-            if (previousLRUNode != 0) {
-               OffHeapLruNode.setNext(previousLRUNode, 0);
-            }
-            lastAddress = previousLRUNode;
-            middleNode = false;
-         }
-         if (address == firstAddress) {
-            if (log.isTraceEnabled()) {
-               log.tracef("Removed entry 0x%016x from the beginning of the LRU list", address);
-            }
-            long nextLRUNode = OffHeapLruNode.getNext(address);
-            if (nextLRUNode != 0) {
-               OffHeapLruNode.setPrevious(nextLRUNode, 0);
-            }
-            firstAddress = nextLRUNode;
-            middleNode = false;
-         }
-         if (middleNode) {
-            if (log.isTraceEnabled()) {
-               log.tracef("Removed entry 0x%016x from the middle of the LRU list", address);
+         // The caller holds the read lock, so the entry can't be freed until the buffer is drained by its removal
+         if (readBuffer.offer(entryAddress) && evictionLock.tryLock()) {
+            try {
+               drainReadBuffer(false);
+            } finally {
+               evictionLock.unlock();
             }
-            // We are a middle pointer so both of these have to be non zero
-            long previousLRUNode = OffHeapLruNode.getPrevious(address);
-            long nextLRUNode = OffHeapLruNode.getNext(address);
-            assert previousLRUNode != 0;
-            assert nextLRUNode != 0;
-            OffHeapLruNode.setNext(previousLRUNode, nextLRUNode);
-            OffHeapLruNode.setPrevious(nextLRUNode, previousLRUNode);
          }
       }
 
       /**
-       * Method to be invoked when moving an existing lru node to the end.  This occurs when the entry is accessed for this
-       * node.
-       * This method should only be invoked after acquiring the lruLock.
-       *
-       * @param lruNode the node to move to the end
+       * Applies the recorded reads to the eviction policy. This method should only be invoked after acquiring the
+       * evictionLock.
+       * @param waitForInFlight whether reads that are being recorded concurrently must be applied too
        */
-      private void moveToEnd(long lruNode) {
-         if (lruNode != lastAddress) {
-            long nextLruNode = OffHeapLruNode.getNext(lruNode);
-            assert nextLruNode != 0;
-            if (lruNode == firstAddress) {
-               OffHeapLruNode.setPrevious(nextLruNode, 0);
-               firstAddress = nextLruNode;
-            } else {
-               long prevLruNode = OffHeapLruNode.getPrevious(lruNode);
-               assert prevLruNode != 0;
-               OffHeapLruNode.setNext(prevLruNode, nextLruNode);
-               OffHeapLruNode.setPrevious(nextLruNode, prevLruNode);
-            }
-            // Link the previous last node to our new last node
-            OffHeapLruNode.setNext(lastAddress, lruNode);
-            // Sets the previous node of our new tail node to the previous tail node
-            OffHeapLruNode.setPrevious(lruNode, lastAddress);
-            OffHeapLruNode.setNext(lruNode, 0);
-            lastAddress = lruNode;
-         }
+      private void drainReadBuffer(boolean waitForInFlight) {
+         readBuffer.drainTo(policy::onAccess, waitForInFlight);
       }
    }
 
@@ -445,7 +375,7 @@ public long getSize(long address) {
       if (useCount) {
          return 1;
       } else {
-         // Use size of entry plus 16 for our LRU pointers
+         // Use size of entry plus 16 for our eviction list pointers
          return offHeapEntryFactory.getSize(address, true);
       }
    }
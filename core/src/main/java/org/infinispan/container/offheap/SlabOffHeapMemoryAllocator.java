@@ -0,0 +1,516 @@
+package org.infinispan.container.offheap;
+
+import static org.infinispan.factories.impl.MBeanMetadata.AttributeMetadata;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.metrics.impl.CustomMetricsSupplier;
+import org.infinispan.metrics.impl.MetricUtils;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Memory allocator that carves allocations out of size-class slabs instead of going to the system allocator for
+ * every entry.
+ * <p>
+ * Native memory is reserved in arena chunks of {@link #ARENA_CHUNK_SIZE} bytes. Each chunk is split into slabs of
+ * {@link #SLAB_SIZE} bytes and every slab is dedicated to a single size class, whose blocks are all the same size.
+ * Size classes are 16 bytes apart up to 128 bytes and then 4 classes per power of two up to
+ * {@link #MAX_BLOCK_SIZE}. Allocations larger than that are delegated to the system allocator as in
+ * {@link UnpooledOffHeapMemoryAllocator}.
+ * <p>
+ * Freed blocks are kept in a per thread magazine for their size class, so the common allocate/deallocate path only
+ * needs an uncontended compare-and-set on the magazines of the current thread. Magazines exchange blocks with a shared
+ * free list per size class in batches when they become empty or full. Before a new slab is carved, the magazines of
+ * terminated threads and of threads that have not used the allocator since the previous attempt are moved back to the
+ * shared free lists. Reserved memory is never handed back to the system until the allocator is stopped.
+ *
+ * @since 14.0
+ */
+@Scope(Scopes.NAMED_CACHE)
+@MBean(objectName = "SlabOffHeapMemoryAllocator", description = "Allocates off-heap entries from size-class slabs")
+public class SlabOffHeapMemoryAllocator implements OffHeapMemoryAllocator, CustomMetricsSupplier {
+   private static final Log log = LogFactory.getLog(SlabOffHeapMemoryAllocator.class, Log.class);
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
+
+   static final int ARENA_CHUNK_SIZE = 4 * 1024 * 1024;
+   static final int SLAB_SIZE = 64 * 1024;
+   static final int MAX_BLOCK_SIZE = 8 * 1024;
+   static final int SIZE_CLASS_COUNT = sizeClass(MAX_BLOCK_SIZE) + 1;
+   // Amount of memory a single magazine caches, so magazines for large blocks hold fewer of them
+   private static final int MAGAZINE_BYTES = 16 * 1024;
+   private static final AtomicIntegerFieldUpdater<ThreadMagazines> MAGAZINES_IN_USE =
+         AtomicIntegerFieldUpdater.newUpdater(ThreadMagazines.class, "inUse");
+
+   private final SizeClass[] sizeClasses;
+   private final LongAdder directAllocated = new LongAdder();
+   private final List<Long> arenaChunks = new ArrayList<>();
+   private long arenaChunk;
+   private int arenaOffset = ARENA_CHUNK_SIZE;
+   // Incremented on stop so magazines referencing memory from released chunks are discarded
+   private volatile int generation;
+   private final ThreadLocal<ThreadMagazines> magazines = new ThreadLocal<>();
+   // The magazines of every thread, so that the blocks of terminated threads can be reused
+   private final Queue<ThreadMagazines> threadMagazines = new ConcurrentLinkedQueue<>();
+
+   public SlabOffHeapMemoryAllocator() {
+      sizeClasses = new SizeClass[SIZE_CLASS_COUNT];
+      for (int i = 0; i < SIZE_CLASS_COUNT; ++i) {
+         sizeClasses[i] = new SizeClass(blockSize(i));
+      }
+   }
+
+   /**
+    * Returns the size class an allocation of the given size belongs to.
+    * @param size the requested size
+    * @return the size class index
+    */
+   static int sizeClass(long size) {
+      if (size <= 128) {
+         return size <= 16 ? 0 : (int) ((size + 15) >>> 4) - 1;
+      }
+      // Group of the allocation, where each group spans (2^shift, 2^(shift + 1)] and is split in 4 classes
+      int shift = 63 - Long.numberOfLeadingZeros(size - 1);
+      int subClass = (int) ((size - 1) >>> (shift - 2)) & 3;
+      return 8 + ((shift - 7) << 2) + subClass;
+   }
+
+   /**
+    * Returns the size of every block in the given size class.
+    * @param sizeClass the size class index
+    * @return the block size in bytes
+    */
+   static int blockSize(int sizeClass) {
+      if (sizeClass < 8) {
+         return (sizeClass + 1) << 4;
+      }
+      int base = 128 << ((sizeClass - 8) >> 2);
+      return base + (((sizeClass - 8) & 3) + 1) * (base >> 2);
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      if (memoryLength > MAX_BLOCK_SIZE) {
+         long memoryLocation = MEMORY.allocate(memoryLength);
+         directAllocated.add(UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryLength));
+         if (log.isTraceEnabled()) {
+            log.tracef("Allocated off-heap memory outside of slabs at 0x%016x with %d bytes", memoryLocation,
+                  memoryLength);
+         }
+         return memoryLocation;
+      }
+      int sizeClassIndex = sizeClass(memoryLength);
+      SizeClass sizeClass = sizeClasses[sizeClassIndex];
+      ThreadMagazines owned = acquireMagazines();
+      long memoryLocation;
+      try {
+         Magazine magazine = owned.magazines[sizeClassIndex];
+         if (magazine.count == 0) {
+            if (!sizeClass.hasFreeBlocks()) {
+               // Reuse the blocks cached by terminated and idle threads before carving a new slab
+               reclaimMagazines();
+            }
+            sizeClass.refill(magazine);
+         }
+         memoryLocation = magazine.blocks[--magazine.count];
+      } finally {
+         owned.release();
+      }
+      sizeClass.liveBlocks.increment();
+      MEMORY.trackBlock(memoryLocation, sizeClass.blockSize);
+      if (log.isTraceEnabled()) {
+         log.tracef("Allocated off-heap memory at 0x%016x with %d bytes from slab of %d byte blocks", memoryLocation,
+               memoryLength, sizeClass.blockSize);
+      }
+      return memoryLocation;
+   }
+
+   @Override
+   public void deallocate(long memoryAddress, long size) {
+      if (size > MAX_BLOCK_SIZE) {
+         directAllocated.add(-UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size));
+         if (log.isTraceEnabled()) {
+            log.tracef("Deallocating off-heap memory outside of slabs at 0x%016x with %d bytes", memoryAddress, size);
+         }
+         MEMORY.free(memoryAddress);
+         return;
+      }
+      int sizeClassIndex = sizeClass(size);
+      SizeClass sizeClass = sizeClasses[sizeClassIndex];
+      if (log.isTraceEnabled()) {
+         log.tracef("Returning off-heap memory at 0x%016x with %d bytes to slab of %d byte blocks", memoryAddress,
+               size, sizeClass.blockSize);
+      }
+      MEMORY.untrackBlock(memoryAddress);
+      sizeClass.liveBlocks.decrement();
+      ThreadMagazines owned = acquireMagazines();
+      try {
+         Magazine magazine = owned.magazines[sizeClassIndex];
+         if (magazine.count == magazine.blocks.length) {
+            sizeClass.flush(magazine);
+         }
+         magazine.blocks[magazine.count++] = memoryAddress;
+      } finally {
+         owned.release();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p>
+    * This is the memory reserved from the system: the arena chunks, including the blocks that are free to be reused,
+    * plus the large allocations. See {@link #getUsedBytes()} for the size of the blocks holding entries.
+    */
+   @Override
+   public long getAllocatedAmount() {
+      return getReservedBytes() + directAllocated.sum();
+   }
+
+   @ManagedAttribute(description = "Amount of off-heap memory reserved for slabs (bytes)",
+         displayName = "Slab memory reserved")
+   public long getReservedBytes() {
+      synchronized (arenaChunks) {
+         return (long) arenaChunks.size() * ARENA_CHUNK_SIZE;
+      }
+   }
+
+   @ManagedAttribute(description = "Amount of slab memory currently holding entries (bytes)",
+         displayName = "Slab memory used")
+   public long getUsedBytes() {
+      long used = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+         used += sizeClass.usedBytes();
+      }
+      return used;
+   }
+
+   @ManagedAttribute(description = "Amount of off-heap memory allocated outside of slabs for large entries (bytes)",
+         displayName = "Large entry memory used")
+   public long getLargeAllocationBytes() {
+      return directAllocated.sum();
+   }
+
+   @ManagedAttribute(description = "Number of slabs assigned to a size class", displayName = "Slab count")
+   public long getSlabCount() {
+      long slabs = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+         slabs += sizeClass.slabs;
+      }
+      return slabs;
+   }
+
+   @ManagedAttribute(description = "Fraction of reserved slab memory not currently holding entries",
+         displayName = "Slab fragmentation")
+   public double getFragmentation() {
+      return fragmentation(getUsedBytes(), getReservedBytes());
+   }
+
+   @ManagedOperation(description = "Returns occupancy and fragmentation for every size class with slabs",
+         displayName = "Size class statistics")
+   public String sizeClassStatistics() {
+      StringBuilder sb = new StringBuilder();
+      for (SizeClass sizeClass : sizeClasses) {
+         if (sizeClass.slabs == 0)
+            continue;
+         sb.append("blockSize=").append(sizeClass.blockSize)
+               .append(", slabs=").append(sizeClass.slabs)
+               .append(", liveBlocks=").append(sizeClass.liveBlocks.sum())
+               .append(", occupancy=").append(sizeClass.occupancy())
+               .append('\n');
+      }
+      return sb.toString();
+   }
+
+   @Override
+   public Collection<AttributeMetadata> getCustomMetrics() {
+      List<AttributeMetadata> attributes = new ArrayList<>(SIZE_CLASS_COUNT * 2);
+      for (int i = 0; i < SIZE_CLASS_COUNT; ++i) {
+         int sizeClassIndex = i;
+         int blockSize = sizeClasses[i].blockSize;
+         attributes.add(MetricUtils.<SlabOffHeapMemoryAllocator>createGauge("SlabOccupancy_" + blockSize,
+               "Fraction of slab memory holding entries for blocks of " + blockSize + " bytes",
+               allocator -> allocator.sizeClasses[sizeClassIndex].occupancy()));
+         attributes.add(MetricUtils.<SlabOffHeapMemoryAllocator>createGauge("SlabCount_" + blockSize,
+               "Number of slabs for blocks of " + blockSize + " bytes",
+               allocator -> allocator.sizeClasses[sizeClassIndex].slabs));
+      }
+      return attributes;
+   }
+
+   @Stop
+   public void stop() {
+      synchronized (arenaChunks) {
+         generation++;
+         threadMagazines.clear();
+         for (SizeClass sizeClass : sizeClasses) {
+            sizeClass.reset();
+         }
+         for (long chunk : arenaChunks) {
+            MEMORY.freeUntracked(chunk);
+         }
+         arenaChunks.clear();
+         arenaChunk = 0;
+         arenaOffset = ARENA_CHUNK_SIZE;
+      }
+   }
+
+   /**
+    * Returns the magazines of the current thread, which must be {@link ThreadMagazines#release() released} after use.
+    */
+   private ThreadMagazines acquireMagazines() {
+      ThreadMagazines current = magazines.get();
+      int currentGeneration = generation;
+      if (current == null || current.generation != currentGeneration) {
+         current = new ThreadMagazines(Thread.currentThread(), currentGeneration);
+         magazines.set(current);
+         threadMagazines.add(current);
+      }
+      current.acquire();
+      return current;
+   }
+
+   /**
+    * Moves the blocks cached by terminated threads back to the shared free lists, as well as the blocks cached by the
+    * threads that have not allocated or deallocated since the previous invocation.
+    */
+   void reclaimMagazines() {
+      for (ThreadMagazines owned : threadMagazines) {
+         if (owned.isAlive()) {
+            trimIfIdle(owned);
+            continue;
+         }
+         // Only one thread can remove the magazines, and the owner can't use them anymore once terminated
+         if (!threadMagazines.remove(owned)) {
+            continue;
+         }
+         // Wait for a thread that started trimming them while the owner was alive
+         owned.acquire();
+         try {
+            // Otherwise the blocks belong to chunks that were already released
+            if (owned.generation == generation) {
+               releaseMagazines(owned);
+            }
+         } finally {
+            owned.release();
+         }
+         if (log.isTraceEnabled()) {
+            log.trace("Reclaimed the off-heap blocks cached by a terminated thread");
+         }
+      }
+   }
+
+   private void trimIfIdle(ThreadMagazines owned) {
+      // Skip the magazines in use, including the ones of the current thread
+      if (!owned.tryAcquire()) {
+         return;
+      }
+      try {
+         if (owned.used) {
+            // Give the owner until the next invocation to use its magazines
+            owned.used = false;
+         } else if (owned.generation == generation) {
+            releaseMagazines(owned);
+            if (log.isTraceEnabled()) {
+               log.trace("Trimmed the off-heap blocks cached by an idle thread");
+            }
+         }
+      } finally {
+         owned.release();
+      }
+   }
+
+   private void releaseMagazines(ThreadMagazines owned) {
+      for (int i = 0; i < SIZE_CLASS_COUNT; ++i) {
+         Magazine magazine = owned.magazines[i];
+         if (magazine.count > 0) {
+            sizeClasses[i].release(magazine);
+         }
+      }
+   }
+
+   /**
+    * Reserves a new slab from the current arena chunk, allocating a new chunk if it is exhausted.
+    */
+   private long reserveSlab() {
+      synchronized (arenaChunks) {
+         if (arenaOffset == ARENA_CHUNK_SIZE) {
+            arenaChunk = MEMORY.allocateUntracked(ARENA_CHUNK_SIZE);
+            arenaChunks.add(arenaChunk);
+            arenaOffset = 0;
+            if (log.isTraceEnabled()) {
+               log.tracef("Allocated off-heap arena chunk at 0x%016x, total chunks: %d", arenaChunk,
+                     arenaChunks.size());
+            }
+         }
+         long slab = arenaChunk + arenaOffset;
+         arenaOffset += SLAB_SIZE;
+         return slab;
+      }
+   }
+
+   private static double fragmentation(long used, long reserved) {
+      return reserved == 0 ? 0 : 1 - (double) used / reserved;
+   }
+
+   /**
+    * The magazines of a single thread for every size class.
+    * <p>
+    * The owner acquires them for every allocation and deallocation, which only contends with the threads moving the
+    * blocks of idle threads back to the shared free lists.
+    */
+   private final class ThreadMagazines {
+      // The owner is only weakly referenced, so that the magazines don't keep a terminated thread reachable
+      final WeakReference<Thread> owner;
+      final int generation;
+      final Magazine[] magazines = new Magazine[SIZE_CLASS_COUNT];
+      // 1 while the magazines are in use, package-private for MAGAZINES_IN_USE
+      volatile int inUse;
+      // Whether the owner used the magazines since the previous trim, guarded by inUse
+      boolean used;
+
+      ThreadMagazines(Thread owner, int generation) {
+         this.owner = new WeakReference<>(owner);
+         this.generation = generation;
+         for (int i = 0; i < SIZE_CLASS_COUNT; ++i) {
+            magazines[i] = new Magazine(sizeClasses[i].blockSize);
+         }
+      }
+
+      boolean isAlive() {
+         Thread thread = owner.get();
+         return thread != null && thread.isAlive();
+      }
+
+      void acquire() {
+         while (!MAGAZINES_IN_USE.compareAndSet(this, 0, 1)) {
+            // Another thread is trimming the magazines
+            Thread.yield();
+         }
+         used = true;
+      }
+
+      boolean tryAcquire() {
+         return MAGAZINES_IN_USE.compareAndSet(this, 0, 1);
+      }
+
+      void release() {
+         MAGAZINES_IN_USE.lazySet(this, 0);
+      }
+   }
+
+   /**
+    * Blocks cached by a single thread for one size class.
+    */
+   private static final class Magazine {
+      final long[] blocks;
+      int count;
+
+      Magazine(int blockSize) {
+         this.blocks = new long[Math.max(4, Math.min(64, MAGAZINE_BYTES / blockSize))];
+      }
+   }
+
+   /**
+    * Shared state of a size class: its free blocks that are not cached by any thread and the slab count.
+    */
+   private final class SizeClass {
+      final int blockSize;
+      final LongAdder liveBlocks = new LongAdder();
+      private long[] freeBlocks = new long[64];
+      // Volatile so that allocations can check for free blocks without the lock
+      private volatile int freeCount;
+      volatile int slabs;
+
+      SizeClass(int blockSize) {
+         this.blockSize = blockSize;
+      }
+
+      /**
+       * Moves up to half of a magazine worth of free blocks into the given empty magazine, carving a new slab
+       * if there are no free blocks left.
+       */
+      synchronized void refill(Magazine magazine) {
+         if (freeCount == 0) {
+            carveSlab();
+         }
+         int amount = Math.min(freeCount, Math.max(1, magazine.blocks.length >> 1));
+         freeCount -= amount;
+         System.arraycopy(freeBlocks, freeCount, magazine.blocks, 0, amount);
+         magazine.count = amount;
+      }
+
+      /**
+       * Moves half of the blocks of the given full magazine back to the shared free list.
+       */
+      synchronized void flush(Magazine magazine) {
+         int amount = magazine.blocks.length >> 1;
+         ensureCapacity(freeCount + amount);
+         magazine.count -= amount;
+         System.arraycopy(magazine.blocks, magazine.count, freeBlocks, freeCount, amount);
+         freeCount += amount;
+      }
+
+      /**
+       * Moves all the blocks of the given magazine back to the shared free list.
+       */
+      synchronized void release(Magazine magazine) {
+         ensureCapacity(freeCount + magazine.count);
+         System.arraycopy(magazine.blocks, 0, freeBlocks, freeCount, magazine.count);
+         freeCount += magazine.count;
+         magazine.count = 0;
+      }
+
+      boolean hasFreeBlocks() {
+         return freeCount > 0;
+      }
+
+      synchronized void reset() {
+         freeBlocks = new long[64];
+         freeCount = 0;
+         slabs = 0;
+         liveBlocks.reset();
+      }
+
+      long usedBytes() {
+         return liveBlocks.sum() * blockSize;
+      }
+
+      double occupancy() {
+         long reserved = (long) slabs * SLAB_SIZE;
+         return reserved == 0 ? 0 : (double) usedBytes() / reserved;
+      }
+
+      private void carveSlab() {
+         long slab = reserveSlab();
+         int blocks = SLAB_SIZE / blockSize;
+         ensureCapacity(freeCount + blocks);
+         int count = freeCount;
+         // Push in reverse so blocks are handed out in address order
+         for (int i = blocks - 1; i >= 0; --i) {
+            freeBlocks[count++] = slab + (long) i * blockSize;
+         }
+         freeCount = count;
+         slabs++;
+      }
+
+      private void ensureCapacity(int capacity) {
+         if (capacity > freeBlocks.length) {
+            freeBlocks = Arrays.copyOf(freeBlocks, Math.max(capacity, freeBlocks.length << 1));
+         }
+      }
+   }
+}
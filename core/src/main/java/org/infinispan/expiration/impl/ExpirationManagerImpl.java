@@ -2,6 +2,7 @@
 
 import static org.infinispan.util.logging.Log.CONTAINER;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -16,6 +17,7 @@
 import org.infinispan.AdvancedCache;
 import org.infinispan.cache.impl.AbstractDelegatingCache;
 import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -68,6 +70,10 @@
     */
    protected ConcurrentMap<K, CompletableFuture<Boolean>> expiring = new ConcurrentHashMap<>();
    protected ScheduledFuture<?> expirationTask;
+   /**
+    * Index of the entries by expiration time, only present if the reaper is enabled and the timing wheel configured.
+    */
+   protected ExpirationTimingWheel<K> timingWheel;
 
    private final List<ExpirationConsumer<K, V>> listeners = new CopyOnWriteArrayList<>();
 
@@ -83,6 +89,10 @@ public void start() {
             CONTAINER.notStartingEvictionThread();
             enabled = false;
          } else {
+            if (configuration.expiration().timingWheel()) {
+               // The data container depends on this component, so no entry can be written before the wheel exists
+               timingWheel = new ExpirationTimingWheel<>(timeService.wallClockTime());
+            }
             expirationTask = executor.scheduleWithFixedDelay(new ScheduledTask(),
                   expWakeUpInt, expWakeUpInt, TimeUnit.MILLISECONDS);
          }
@@ -92,6 +102,71 @@ public void start() {
       this.cacheName = cache.getName();
    }
 
+   @Override
+   public void entryWritten(K key, InternalCacheEntry<K, V> entry) {
+      ExpirationTimingWheel<K> timingWheel = this.timingWheel;
+      if (timingWheel != null) {
+         long expiryTime = entry.getExpiryTime();
+         if (expiryTime >= 0) {
+            timingWheel.schedule(key, expiryTime);
+         }
+      }
+   }
+
+   @Override
+   public void entryRemoved(K key, InternalCacheEntry<K, V> entry) {
+      ExpirationTimingWheel<K> timingWheel = this.timingWheel;
+      if (timingWheel != null) {
+         timingWheel.unschedule(key);
+      }
+   }
+
+   @Override
+   public void entriesUpdated() {
+      ExpirationTimingWheel<K> timingWheel = this.timingWheel;
+      if (timingWheel != null) {
+         timingWheel.tryDrainPending();
+      }
+   }
+
+   /**
+    * Returns the in memory entries that the reaper must check for expiration. Without a timing wheel these are all the
+    * entries of the data container, otherwise only the entries whose expiration time has passed.
+    * <p>
+    * The timing wheel is not updated when an entry is read, so an entry with max idle may not be expired yet when its
+    * key is due. Such keys are scheduled again with the current expiration time of the entry, which applies all the
+    * reads since the entry was written or last checked in a single batch. Keys of expired entries are also scheduled
+    * for the next run, in case the expiration does not remove them.
+    * @param segments the segments of the entries to check or {@code null} for all the segments
+    * @param currentTimeMillis the current wall clock time
+    */
+   protected Iterator<InternalCacheEntry<K, V>> purgeCandidates(IntSet segments, long currentTimeMillis) {
+      InternalDataContainer<K, V> container = dataContainer.running();
+      if (timingWheel == null) {
+         return segments == null ? container.iteratorIncludingExpired() : container.iteratorIncludingExpired(segments);
+      }
+      long wakeUpInterval = configuration.expiration().wakeUpInterval();
+      long retryTime = wakeUpInterval < Long.MAX_VALUE - currentTimeMillis ? currentTimeMillis + wakeUpInterval : Long.MAX_VALUE;
+      List<InternalCacheEntry<K, V>> candidates = new ArrayList<>();
+      timingWheel.advance(currentTimeMillis, key -> {
+         InternalCacheEntry<K, V> ice = container.peek(key);
+         if (ice == null || !ice.canExpire()) {
+            // The entry was removed or replaced by one that doesn't expire
+            return;
+         }
+         if (!ice.isExpired(currentTimeMillis)) {
+            entryWritten(key, ice);
+         } else if (segments == null || segments.contains(keyPartitioner.getSegment(key))) {
+            candidates.add(ice);
+            timingWheel.schedule(key, retryTime);
+         } else {
+            // Another node is responsible for expiring the entry
+            timingWheel.schedule(key, retryTime);
+         }
+      });
+      return candidates.iterator();
+   }
+
    @Override
    public void processExpiration() {
       long start = 0;
@@ -102,7 +177,7 @@ public void processExpiration() {
                start = timeService.time();
             }
             long currentTimeMillis = timeService.wallClockTime();
-            for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.running().iteratorIncludingExpired();
+            for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = purgeCandidates(null, currentTimeMillis);
                  purgeCandidates.hasNext();) {
                InternalCacheEntry<K, V> e = purgeCandidates.next();
                if (e.isExpired(currentTimeMillis)) {
@@ -255,6 +330,7 @@ public void stop() {
       if (expirationTask != null) {
          expirationTask.cancel(true);
       }
+      timingWheel = null;
    }
 
    @Override
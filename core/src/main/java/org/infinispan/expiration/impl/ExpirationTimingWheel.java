@@ -0,0 +1,210 @@
+package org.infinispan.expiration.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Hierarchical timing wheel that indexes keys by the wall clock time at which their entry expires, so that the reaper
+ * only has to visit the entries that are due instead of iterating over the whole data container.
+ * <p>
+ * The wheel has 4 levels of 64 buckets. A bucket of the first level spans about one second (1024 ms) and each level
+ * spans 64 times longer than the previous one, so the wheel covers about 200 days. Keys expiring later are kept in the
+ * last level and rescheduled every time their bucket is visited. When the wheel advances, the keys in the buckets of
+ * the higher levels that were passed either are due or are moved to a lower level.
+ * <p>
+ * Writers never touch the wheel directly: {@link #schedule(Object, long)} and {@link #unschedule(Object)} add the update
+ * to a concurrent queue that is drained into the wheel by {@link #advance(long, Consumer)}, or by {@link
+ * #tryDrainPending()} once enough updates are pending. The updates of a key are applied in the order they were queued,
+ * so the writers must queue them while holding the lock of the key. Each key is in the wheel at most once, scheduling
+ * it again replaces the previous expiration time. The index is not updated when entries are read: the caller must check
+ * the data container for every due key and reschedule the keys whose entry is still alive.
+ *
+ * @since 14.0
+ */
+final class ExpirationTimingWheel<K> {
+   private static final int BUCKETS = 64;
+   private static final int BUCKET_MASK = BUCKETS - 1;
+   private static final int[] SHIFT = {10, 16, 22, 28};
+   private static final int DRAIN_THRESHOLD = 1024;
+   // The expiration time of the pending nodes that remove their key from the wheel
+   private static final long UNSCHEDULED = Long.MIN_VALUE;
+
+   private final Queue<Node<K>> pending = new ConcurrentLinkedQueue<>();
+   private final AtomicInteger pendingCount = new AtomicInteger();
+   private final ReentrantLock lock = new ReentrantLock();
+
+   @GuardedBy("lock")
+   private final Map<K, Node<K>> nodes = new HashMap<>();
+   @GuardedBy("lock")
+   private final Node<K>[][] wheel;
+   @GuardedBy("lock")
+   private long time;
+
+   @SuppressWarnings("unchecked")
+   ExpirationTimingWheel(long currentTimeMillis) {
+      wheel = new Node[SHIFT.length][BUCKETS];
+      for (Node<K>[] level : wheel) {
+         for (int i = 0; i < BUCKETS; ++i) {
+            level[i] = new Node<>(null, 0);
+         }
+      }
+      time = currentTimeMillis;
+   }
+
+   /**
+    * Schedules the key to be returned by {@link #advance(long, Consumer)} once the expiration time has passed. This
+    * method never blocks.
+    * @param key the key of the entry
+    * @param expirationTime the wall clock time in milliseconds at which the entry expires
+    */
+   void schedule(K key, long expirationTime) {
+      assert expirationTime != UNSCHEDULED;
+      pending.offer(new Node<>(key, expirationTime));
+      pendingCount.incrementAndGet();
+   }
+
+   /**
+    * Removes the key from the wheel, it is not returned by {@link #advance(long, Consumer)} until it is scheduled
+    * again. This method never blocks.
+    * @param key the key of the removed entry
+    */
+   void unschedule(K key) {
+      pending.offer(new Node<>(key, UNSCHEDULED));
+      pendingCount.incrementAndGet();
+   }
+
+   /**
+    * Applies a batch of the pending updates if enough of them are waiting and no other thread is using the wheel, so
+    * that the queue does not grow until the next {@link #advance(long, Consumer)}. This method never blocks, but it
+    * should not be invoked while holding the lock of a key, as it may apply thousands of updates.
+    */
+   void tryDrainPending() {
+      if (pendingCount.get() >= DRAIN_THRESHOLD && lock.tryLock()) {
+         try {
+            drainPending(4 * DRAIN_THRESHOLD);
+         } finally {
+            lock.unlock();
+         }
+      }
+   }
+
+   /**
+    * Moves the wheel to the given time, passing every key that expired up to then to the consumer. The keys are removed
+    * from the wheel, the consumer can {@link #schedule(Object, long) schedule} them again.
+    * @param currentTimeMillis the current wall clock time in milliseconds
+    * @param dueKeys invoked with every key whose expiration time is not after the current time
+    */
+   void advance(long currentTimeMillis, Consumer<? super K> dueKeys) {
+      lock.lock();
+      try {
+         drainPending(Integer.MAX_VALUE);
+         long previousTime = time;
+         // The clock may not have moved, or moved back, but the keys that were already due when they were scheduled
+         // are in the current bucket and must still be returned
+         time = Math.max(currentTimeMillis, previousTime);
+         for (int level = 0; level < SHIFT.length; ++level) {
+            long previousTicks = previousTime >>> SHIFT[level];
+            long currentTicks = time >>> SHIFT[level];
+            // The current bucket of the first level is always visited, as its keys may expire before the next tick
+            if (level > 0 && currentTicks == previousTicks) {
+               break;
+            }
+            expire(level, previousTicks, currentTicks - previousTicks, dueKeys);
+         }
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * @return how many keys are in the wheel, plus the updates waiting to be applied
+    */
+   int size() {
+      lock.lock();
+      try {
+         return nodes.size() + pendingCount.get();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @GuardedBy("lock")
+   private void expire(int level, long previousTicks, long delta, Consumer<? super K> dueKeys) {
+      Node<K>[] buckets = wheel[level];
+      int start = (int) (previousTicks & BUCKET_MASK);
+      int steps = (int) Math.min(delta + 1, BUCKETS);
+      for (int i = start; i < start + steps; ++i) {
+         Node<K> sentinel = buckets[i & BUCKET_MASK];
+         // Detach the nodes first, as the ones that are not due yet may be linked to the same bucket again
+         Node<K> node = sentinel.next;
+         sentinel.previous = sentinel;
+         sentinel.next = sentinel;
+         while (node != sentinel) {
+            Node<K> next = node.next;
+            if (node.expirationTime <= time) {
+               nodes.remove(node.key);
+               dueKeys.accept(node.key);
+            } else {
+               link(node);
+            }
+            node = next;
+         }
+      }
+   }
+
+   @GuardedBy("lock")
+   private void drainPending(int max) {
+      Node<K> node;
+      for (int i = 0; i < max && (node = pending.poll()) != null; ++i) {
+         pendingCount.decrementAndGet();
+         boolean unschedule = node.expirationTime == UNSCHEDULED;
+         Node<K> previous = unschedule ? nodes.remove(node.key) : nodes.put(node.key, node);
+         if (previous != null) {
+            previous.previous.next = previous.next;
+            previous.next.previous = previous.previous;
+         }
+         if (!unschedule) {
+            link(node);
+         }
+      }
+   }
+
+   @GuardedBy("lock")
+   private void link(Node<K> node) {
+      long delay = node.expirationTime - time;
+      int level = 0;
+      while (level < SHIFT.length - 1 && delay >= 1L << SHIFT[level + 1]) {
+         level++;
+      }
+      // Keys that are already due go to the current bucket, which is the first one visited by the next advance
+      long bucketTime = Math.max(node.expirationTime, time);
+      Node<K> sentinel = wheel[level][(int) ((bucketTime >>> SHIFT[level]) & BUCKET_MASK)];
+      node.previous = sentinel.previous;
+      node.next = sentinel;
+      sentinel.previous.next = node;
+      sentinel.previous = node;
+   }
+
+   /**
+    * An element of the circular doubly linked list of a bucket. Each bucket has a sentinel node with a {@code null}
+    * key.
+    */
+   private static final class Node<K> {
+      final K key;
+      final long expirationTime;
+      Node<K> previous = this;
+      Node<K> next = this;
+
+      Node(K key, long expirationTime) {
+         this.key = key;
+         this.expirationTime = expirationTime;
+      }
+   }
+}
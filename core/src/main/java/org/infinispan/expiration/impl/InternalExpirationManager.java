@@ -35,6 +35,34 @@
     */
    CompletableFuture<Boolean> entryExpiredInMemory(InternalCacheEntry<K, V> entry, long currentTime, boolean isWrite);
 
+   /**
+    * This is invoked by the data container after an entry that can expire was written to it, so that the entry can be
+    * indexed by its expiration time. This method must not block.
+    * @param key the key of the entry
+    * @param entry the entry that was written
+    */
+   default void entryWritten(K key, InternalCacheEntry<K, V> entry) {
+      // Do nothing by default
+   }
+
+   /**
+    * This is invoked by the data container, while it holds the lock of the key, after an entry that can expire was
+    * removed from it, so that the entry is no longer indexed. This method must not block.
+    * @param key the key of the entry
+    * @param entry the entry that was removed
+    */
+   default void entryRemoved(K key, InternalCacheEntry<K, V> entry) {
+      // Do nothing by default
+   }
+
+   /**
+    * This is invoked by the data container after it wrote or removed entries, once it no longer holds the lock of any
+    * key, so that the index can apply the pending updates. This method must not block.
+    */
+   default void entriesUpdated() {
+      // Do nothing by default
+   }
+
    /**
     * This is to be invoked when a store entry expires.  This method may attempt to lock this key to preserve atomicity.
     * <p>
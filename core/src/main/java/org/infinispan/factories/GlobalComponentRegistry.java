@@ -40,6 +40,7 @@
 import org.infinispan.registry.InternalCacheRegistry;
 import org.infinispan.registry.impl.InternalCacheRegistryImpl;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.remoting.transport.impl.RpcCommandStatisticsCollector;
 import org.infinispan.stats.ClusterContainerStats;
 import org.infinispan.topology.ClusterTopologyManager;
 import org.infinispan.topology.LocalTopologyManager;
@@ -129,6 +130,7 @@ public GlobalComponentRegistry(GlobalConfiguration configuration,
          basicComponentRegistry.registerComponent(InternalCacheRegistry.class.getName(), new InternalCacheRegistryImpl(), true);
          basicComponentRegistry.registerComponent(EntryMergePolicyFactoryRegistry.class.getName(), new EntryMergePolicyFactoryRegistry(), true);
          basicComponentRegistry.registerComponent(GlobalXSiteAdminOperations.class.getName(), new GlobalXSiteAdminOperations(), true);
+         basicComponentRegistry.registerComponent(RpcCommandStatisticsCollector.class.getName(), new RpcCommandStatisticsCollector(), true);
 
          moduleProperties.loadModuleCommandHandlers(configuredClassLoader);
          Map<Byte, ModuleCommandFactory> factories = moduleProperties.moduleCommandFactories();
@@ -269,6 +271,8 @@ protected void preStart() {
 
    @Override
    protected void postStart() {
+      // The commands sent while starting could not be registered, as the JMX and metrics registrations were not running
+      basicComponentRegistry.getComponent(RpcCommandStatisticsCollector.class).running().registerPending();
       modulesManagerStarted();
    }
 
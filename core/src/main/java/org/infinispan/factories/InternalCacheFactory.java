@@ -45,6 +45,9 @@
 import org.infinispan.notifications.cachelistener.cluster.impl.ClusterEventManagerStub;
 import org.infinispan.partitionhandling.PartitionHandling;
 import org.infinispan.partitionhandling.impl.PartitionHandlingManager;
+import org.infinispan.persistence.async.AsyncStoreStatistics;
+import org.infinispan.persistence.sifs.SoftIndexFileStoreStatistics;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration;
 import org.infinispan.transaction.xa.recovery.RecoveryAdminOperations;
 import org.infinispan.upgrade.RollingUpgradeManager;
 import org.infinispan.util.concurrent.CompletionStages;
@@ -179,6 +182,12 @@ private void bootstrap(String cacheName, AdvancedCache<?, ?> cache, Configuratio
       if (configuration.sites().hasEnabledBackups()) {
          componentRegistry.registerComponent(new XSiteAdminOperations(), XSiteAdminOperations.class.getName(), true);
       }
+      if (configuration.persistence().stores().stream().anyMatch(SoftIndexFileStoreConfiguration.class::isInstance)) {
+         componentRegistry.registerComponent(new SoftIndexFileStoreStatistics(), SoftIndexFileStoreStatistics.class.getName(), true);
+      }
+      if (configuration.persistence().stores().stream().anyMatch(store -> store.async().enabled())) {
+         componentRegistry.registerComponent(new AsyncStoreStatistics(), AsyncStoreStatistics.class.getName(), true);
+      }
       // The RollingUpgradeManager should always be added so it is registered in JMX.
       componentRegistry.registerComponent(new RollingUpgradeManager(), RollingUpgradeManager.class.getName(), true);
    }
@@ -0,0 +1,101 @@
+package org.infinispan.factories.threads;
+
+import static org.infinispan.commons.logging.Log.CONFIG;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.infinispan.commons.executors.NonBlockingResource;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Executor Factory used for blocking executors that run each task in a new virtual thread.
+ * <p>
+ * Virtual threads are cheap to create and release their carrier thread while they wait for I/O, so a slow store does
+ * not exhaust a fixed set of threads. {@code maxThreads} limits the number of tasks running concurrently and
+ * {@code queueLength} the number of tasks waiting for one of them to complete. Components that need a lower limit of
+ * their own should use {@link org.infinispan.util.concurrent.BlockingManager#limitedBlockingExecutor(String, int)}.
+ * <p>
+ * Virtual threads require JDK 21 or later, on older JVMs the factory falls back to {@link EnhancedQueueExecutorFactory}.
+ *
+ * @since 14.0
+ */
+public class VirtualThreadExecutorFactory extends AbstractThreadPoolExecutorFactory<ExecutorService> {
+   private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+
+   protected VirtualThreadExecutorFactory(int maxThreads, int queueLength) {
+      super(maxThreads, maxThreads, queueLength, NonBlockingThreadPoolExecutorFactory.DEFAULT_KEEP_ALIVE_MILLIS);
+   }
+
+   public static VirtualThreadExecutorFactory create(int maxThreads, int queueLength) {
+      return new VirtualThreadExecutorFactory(maxThreads, queueLength);
+   }
+
+   /**
+    * @return {@code true} if the JVM supports virtual threads
+    */
+   public static boolean isSupported() {
+      try {
+         Thread.class.getMethod("ofVirtual");
+         return true;
+      } catch (NoSuchMethodException e) {
+         return false;
+      }
+   }
+
+   /**
+    * @return {@code true} if the current thread is a virtual thread created by an executor of this factory
+    */
+   public static boolean isCurrentThreadVirtualWorker() {
+      return VirtualThreadExecutorService.isWorkerThread();
+   }
+
+   @Override
+   public ExecutorService createExecutor(ThreadFactory factory) {
+      if (factory instanceof NonBlockingResource) {
+         throw new IllegalStateException("Executor factory configured to be blocking and received a thread" +
+               " factory that creates non-blocking threads!");
+      }
+      String threadPoolName = factory instanceof DefaultThreadFactory ?
+                              ((DefaultThreadFactory) factory).threadGroup().getName() : "blocking";
+      ExecutorService threadPerTaskExecutor = newThreadPerTaskExecutor(threadPoolName + "-virtual-");
+      if (threadPerTaskExecutor == null) {
+         log.virtualThreadsNotSupported(threadPoolName);
+         return new EnhancedQueueExecutorFactory(maxThreads, coreThreads, queueLength, keepAlive).createExecutor(factory);
+      }
+      return new VirtualThreadExecutorService(threadPerTaskExecutor, maxThreads, queueLength);
+   }
+
+   private static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+      // Thread.ofVirtual().name(prefix, 0).factory(), compiled for JDK 8
+      try {
+         Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+         Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+         builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+         ThreadFactory virtualThreadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+         return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+               .invoke(null, virtualThreadFactory);
+      } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException e) {
+         return null;
+      } catch (InvocationTargetException e) {
+         // Virtual threads are a preview feature before JDK 21
+         if (e.getCause() instanceof UnsupportedOperationException) {
+            return null;
+         }
+         throw new IllegalStateException(e.getCause());
+      }
+   }
+
+   @Override
+   public void validate() {
+      if (maxThreads <= 0)
+         throw CONFIG.illegalValueThreadPoolParameter("max threads", "> 0");
+
+      if (queueLength < 0)
+         throw CONFIG.illegalValueThreadPoolParameter("work queue length", ">= 0");
+   }
+}
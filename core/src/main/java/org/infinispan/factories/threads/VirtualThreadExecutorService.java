@@ -0,0 +1,180 @@
+package org.infinispan.factories.threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.commons.util.concurrent.BlockingRejectedExecutionHandler;
+
+/**
+ * Runs tasks in virtual threads, with at most {@code maxConcurrency} tasks running at the same time.
+ * <p>
+ * A virtual thread keeps running queued tasks until the queue is empty, so a busy executor does not start a thread per
+ * task. When {@code maxQueued} tasks are already waiting, new tasks are rejected with
+ * {@link BlockingRejectedExecutionHandler}, like the platform thread pools. The tasks queued before {@link #shutdown()}
+ * are still run, while {@link #shutdownNow()} returns them.
+ *
+ * @since 14.0
+ */
+final class VirtualThreadExecutorService extends AbstractExecutorService {
+   private static final ThreadLocal<Boolean> WORKER = new ThreadLocal<>();
+
+   private final ExecutorService threadPerTaskExecutor;
+   private final int maxConcurrency;
+   private final int maxQueued;
+   private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+   private final AtomicInteger queued = new AtomicInteger();
+   private final AtomicInteger workers = new AtomicInteger();
+   private volatile boolean shutdown;
+
+   VirtualThreadExecutorService(ExecutorService threadPerTaskExecutor, int maxConcurrency, int maxQueued) {
+      this.threadPerTaskExecutor = threadPerTaskExecutor;
+      this.maxConcurrency = maxConcurrency;
+      this.maxQueued = maxQueued;
+   }
+
+   /**
+    * @return {@code true} if the current thread was started by a {@code VirtualThreadExecutorService}
+    */
+   static boolean isWorkerThread() {
+      return WORKER.get() != null;
+   }
+
+   @Override
+   public void execute(Runnable task) {
+      if (isShutdown()) {
+         BlockingRejectedExecutionHandler.getInstance().rejectedExecution(task, this);
+         return;
+      }
+      try {
+         if (tryStartWorker(task)) {
+            return;
+         }
+      } catch (RejectedExecutionException e) {
+         // Shut down concurrently
+         BlockingRejectedExecutionHandler.getInstance().rejectedExecution(task, this);
+         return;
+      }
+      if (queued.incrementAndGet() > maxQueued) {
+         queued.decrementAndGet();
+         BlockingRejectedExecutionHandler.getInstance().rejectedExecution(task, this);
+         return;
+      }
+      queue.add(task);
+      try {
+         // All the workers may have stopped after tryStartWorker
+         tryStartWorker(null);
+      } catch (RejectedExecutionException e) {
+         // Shut down concurrently, reject the task unless a running worker already took it
+         if (queue.remove(task)) {
+            queued.decrementAndGet();
+            BlockingRejectedExecutionHandler.getInstance().rejectedExecution(task, this);
+         }
+      }
+   }
+
+   private boolean tryStartWorker(Runnable firstTask) {
+      if (!reserveWorker()) {
+         return false;
+      }
+      try {
+         threadPerTaskExecutor.execute(() -> runWorker(firstTask));
+      } catch (Throwable t) {
+         workers.decrementAndGet();
+         throw t;
+      }
+      return true;
+   }
+
+   private boolean reserveWorker() {
+      int current;
+      do {
+         current = workers.get();
+         if (current >= maxConcurrency) {
+            return false;
+         }
+      } while (!workers.compareAndSet(current, current + 1));
+      return true;
+   }
+
+   private void runWorker(Runnable firstTask) {
+      WORKER.set(Boolean.TRUE);
+      Runnable task = firstTask;
+      do {
+         try {
+            if (task != null) {
+               runTask(task);
+            }
+            while ((task = queue.poll()) != null) {
+               queued.decrementAndGet();
+               runTask(task);
+            }
+         } finally {
+            workers.decrementAndGet();
+         }
+         // A task may have been queued after the last poll, while this worker still counted as running. This thread
+         // keeps running it instead of starting a new worker, which is not possible after shutdown.
+      } while (!queue.isEmpty() && reserveWorker());
+   }
+
+   private static void runTask(Runnable task) {
+      try {
+         task.run();
+      } catch (Throwable t) {
+         Thread thread = Thread.currentThread();
+         thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+      }
+   }
+
+   @Override
+   public void shutdown() {
+      shutdown = true;
+      // The running workers complete the queued tasks, and the executor terminates when they are done
+      threadPerTaskExecutor.shutdown();
+   }
+
+   @Override
+   public List<Runnable> shutdownNow() {
+      shutdown = true;
+      // Take the queued tasks before interrupting the workers, so they don't run them
+      List<Runnable> tasks = new ArrayList<>();
+      Runnable task;
+      while ((task = queue.poll()) != null) {
+         queued.decrementAndGet();
+         tasks.add(task);
+      }
+      threadPerTaskExecutor.shutdownNow();
+      return tasks;
+   }
+
+   @Override
+   public boolean isShutdown() {
+      return shutdown;
+   }
+
+   @Override
+   public boolean isTerminated() {
+      return threadPerTaskExecutor.isTerminated();
+   }
+
+   @Override
+   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      return threadPerTaskExecutor.awaitTermination(timeout, unit);
+   }
+
+   @Override
+   public String toString() {
+      return "VirtualThreadExecutorService{" +
+            "maxConcurrency=" + maxConcurrency +
+            ", maxQueued=" + maxQueued +
+            ", workers=" + workers.get() +
+            ", queued=" + queued.get() +
+            '}';
+   }
+}
@@ -5,6 +5,7 @@
 import java.util.concurrent.CompletionStage;
 
 import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commons.util.Experimental;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.context.InvocationContext;
@@ -29,6 +30,9 @@ public abstract class BaseAsyncInterceptor implements AsyncInterceptor {
    @Inject protected Configuration cacheConfiguration;
    private AsyncInterceptor nextInterceptor;
    private DDAsyncInterceptor nextDDInterceptor;
+   // The next interceptor that does something with a GetKeyValueCommand
+   private AsyncInterceptor nextReadInterceptor;
+   private DDAsyncInterceptor nextReadDDInterceptor;
 
    /**
     * Used internally to set up the interceptor.
@@ -38,6 +42,33 @@ public final void setNextInterceptor(AsyncInterceptor nextInterceptor) {
       this.nextInterceptor = nextInterceptor;
       this.nextDDInterceptor =
             nextInterceptor instanceof DDAsyncInterceptor ? (DDAsyncInterceptor) nextInterceptor : null;
+      setNextReadInterceptor(nextInterceptor);
+   }
+
+   /**
+    * Used internally to set up the interceptor: sets the interceptor that receives a {@link GetKeyValueCommand},
+    * skipping the interceptors after {@link #setNextInterceptor(AsyncInterceptor) the next one} that would only
+    * pass it on.
+    */
+   public final void setNextReadInterceptor(AsyncInterceptor nextReadInterceptor) {
+      this.nextReadInterceptor = nextReadInterceptor;
+      this.nextReadDDInterceptor =
+            nextReadInterceptor instanceof DDAsyncInterceptor ? (DDAsyncInterceptor) nextReadInterceptor : null;
+   }
+
+   private Object visitNextInterceptor(InvocationContext ctx, VisitableCommand command) throws Throwable {
+      if (command instanceof GetKeyValueCommand) {
+         if (nextReadDDInterceptor != null) {
+            return command.acceptVisitor(ctx, nextReadDDInterceptor);
+         } else {
+            return nextReadInterceptor.visitCommand(ctx, command);
+         }
+      }
+      if (nextDDInterceptor != null) {
+         return command.acceptVisitor(ctx, nextDDInterceptor);
+      } else {
+         return nextInterceptor.visitCommand(ctx, command);
+      }
    }
 
    /**
@@ -55,11 +86,7 @@ public final void setNextInterceptor(AsyncInterceptor nextInterceptor) {
     */
    public final Object invokeNext(InvocationContext ctx, VisitableCommand command) {
       try {
-         if (nextDDInterceptor != null) {
-            return command.acceptVisitor(ctx, nextDDInterceptor);
-         } else {
-            return nextInterceptor.visitCommand(ctx, command);
-         }
+         return visitNextInterceptor(ctx, command);
       } catch (Throwable throwable) {
          return new ExceptionSyncInvocationStage(throwable);
       }
@@ -74,12 +101,7 @@ public final Object invokeNext(InvocationContext ctx, VisitableCommand command)
    public final <C extends VisitableCommand> Object invokeNextThenApply(InvocationContext ctx, C command,
                                            InvocationSuccessFunction<C> function) {
       try {
-         Object rv;
-         if (nextDDInterceptor != null) {
-            rv = command.acceptVisitor(ctx, nextDDInterceptor);
-         } else {
-            rv = nextInterceptor.visitCommand(ctx, command);
-         }
+         Object rv = visitNextInterceptor(ctx, command);
          if (rv instanceof InvocationStage) {
             return ((InvocationStage) rv).thenApply(ctx, command, function);
          }
@@ -98,12 +120,7 @@ public final <C extends VisitableCommand> Object invokeNextThenApply(InvocationC
    public final <C extends VisitableCommand> Object invokeNextThenAccept(InvocationContext ctx, C command,
                                            InvocationSuccessAction<C> action) {
       try {
-         Object rv;
-         if (nextDDInterceptor != null) {
-            rv = command.acceptVisitor(ctx, nextDDInterceptor);
-         } else {
-            rv = nextInterceptor.visitCommand(ctx, command);
-         }
+         Object rv = visitNextInterceptor(ctx, command);
          if (rv instanceof InvocationStage) {
             return ((InvocationStage) rv).thenAccept(ctx, command, action);
          }
@@ -123,12 +140,7 @@ public final <C extends VisitableCommand> Object invokeNextThenAccept(Invocation
    public final <C extends VisitableCommand> Object invokeNextAndExceptionally(InvocationContext ctx, C command,
                                                   InvocationExceptionFunction<C> function) {
       try {
-         Object rv;
-         if (nextDDInterceptor != null) {
-            rv = command.acceptVisitor(ctx, nextDDInterceptor);
-         } else {
-            rv = nextInterceptor.visitCommand(ctx, command);
-         }
+         Object rv = visitNextInterceptor(ctx, command);
          if (rv instanceof InvocationStage) {
             return ((InvocationStage) rv).andExceptionally(ctx, command, function);
          }
@@ -151,11 +163,7 @@ public final <C extends VisitableCommand> Object invokeNextAndFinally(Invocation
          Object rv;
          Throwable throwable;
          try {
-            if (nextDDInterceptor != null) {
-               rv = command.acceptVisitor(ctx, nextDDInterceptor);
-            } else {
-               rv = nextInterceptor.visitCommand(ctx, command);
-            }
+            rv = visitNextInterceptor(ctx, command);
             throwable = null;
 
             if (rv instanceof InvocationStage) {
@@ -184,11 +192,7 @@ public final <C extends VisitableCommand> Object invokeNextAndHandle(InvocationC
          Object rv;
          Throwable throwable;
          try {
-            if (nextDDInterceptor != null) {
-               rv = command.acceptVisitor(ctx, nextDDInterceptor);
-            } else {
-               rv = nextInterceptor.visitCommand(ctx, command);
-            }
+            rv = visitNextInterceptor(ctx, command);
             throwable = null;
 
             if (rv instanceof InvocationStage) {
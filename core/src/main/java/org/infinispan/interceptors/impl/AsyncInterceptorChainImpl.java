@@ -10,6 +10,7 @@
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.ImmutableListCopy;
@@ -19,6 +20,8 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.interceptors.AsyncInterceptor;
 import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.interceptors.BaseAsyncInterceptor;
+import org.infinispan.interceptors.DDAsyncInterceptor;
 import org.infinispan.interceptors.ExceptionSyncInvocationStage;
 import org.infinispan.interceptors.InvocationStage;
 import org.infinispan.util.concurrent.CompletableFutures;
@@ -243,23 +246,51 @@ public InvocationStage invokeStage(InvocationContext ctx, VisitableCommand comma
 
    @Override
    public Object invoke(InvocationContext ctx, VisitableCommand command) {
+      Object result = invokeOrGetStage(ctx, command);
+      if (result instanceof InvocationStage) {
+         return join((InvocationStage) result);
+      }
+      return result;
+   }
+
+   /**
+    * Same as {@link #invoke(InvocationContext, VisitableCommand)}, but returns an {@link InvocationStage} instead of
+    * waiting for the invocation if it does not complete synchronously.
+    * <p>
+    * The stage may still use the context and the command, so callers that reuse them after a synchronous invocation
+    * must not reuse them after an asynchronous one. Use {@link #join(InvocationStage)} to wait for the stage.
+    */
+   public Object invokeOrGetStage(InvocationContext ctx, VisitableCommand command) {
       try {
-         Object result = firstInterceptor.visitCommand(ctx, command);
-         if (result instanceof InvocationStage) {
-            return ((InvocationStage) result).get();
-         } else {
-            return result;
-         }
-      } catch (InterruptedException e) {
+         return firstInterceptor.visitCommand(ctx, command);
+      } catch (Throwable t) {
+         throw wrapException(t);
+      }
+   }
+
+   /**
+    * Waits for a stage returned by {@link #invokeOrGetStage(InvocationContext, VisitableCommand)}, throwing the
+    * same exceptions as {@link #invoke(InvocationContext, VisitableCommand)}.
+    */
+   public static Object join(InvocationStage stage) {
+      try {
+         return stage.get();
+      } catch (Throwable t) {
+         throw wrapException(t);
+      }
+   }
+
+   private static RuntimeException wrapException(Throwable t) {
+      if (t instanceof InterruptedException) {
          Thread.currentThread().interrupt();
-         throw new CacheException(e);
-      } catch (TimeoutException e) {
+         return new CacheException(t);
+      } else if (t instanceof TimeoutException) {
          // Create a new exception here for easier debugging
-         throw new TimeoutException(e.getMessage(), e);
-      } catch (RuntimeException e) {
-         throw e;
-      } catch (Throwable throwable) {
-         throw new CacheException(throwable);
+         return new TimeoutException(t.getMessage(), t);
+      } else if (t instanceof RuntimeException) {
+         return (RuntimeException) t;
+      } else {
+         return new CacheException(t);
       }
    }
 
@@ -340,11 +371,51 @@ private void rebuildInterceptors() {
       ListIterator<AsyncInterceptor> it = interceptors.listIterator(interceptors.size());
       // The CallInterceptor
       AsyncInterceptor nextInterceptor = it.previous();
+      AsyncInterceptor nextReadInterceptor = nextInterceptor;
       while (it.hasPrevious()) {
          AsyncInterceptor interceptor = it.previous();
          interceptor.setNextInterceptor(nextInterceptor);
+         if (interceptor instanceof BaseAsyncInterceptor) {
+            ((BaseAsyncInterceptor) interceptor).setNextReadInterceptor(nextReadInterceptor);
+         }
          nextInterceptor = interceptor;
+         if (!passesOnReads(interceptor)) {
+            nextReadInterceptor = interceptor;
+         }
       }
       this.firstInterceptor = nextInterceptor;
    }
+
+   /**
+    * @return {@code true} if the interceptor overrides neither {@link DDAsyncInterceptor#visitGetKeyValueCommand} nor
+    * {@code handleDefault}, so it only invokes the next interceptor with a {@link GetKeyValueCommand}
+    */
+   private static boolean passesOnReads(AsyncInterceptor interceptor) {
+      if (!(interceptor instanceof DDAsyncInterceptor)) {
+         return false;
+      }
+      Class<?> interceptorClass = interceptor.getClass();
+      try {
+         return declaringClass(interceptorClass, "visitGetKeyValueCommand", InvocationContext.class,
+                               GetKeyValueCommand.class) == DDAsyncInterceptor.class &&
+               declaringClass(interceptorClass, "handleDefault", InvocationContext.class,
+                              VisitableCommand.class) == DDAsyncInterceptor.class;
+      } catch (LinkageError e) {
+         // Some methods reference optional dependencies that are not on the classpath, e.g. the metrics types,
+         // so assume the interceptor handles reads
+         return false;
+      }
+   }
+
+   private static Class<?> declaringClass(Class<?> clazz, String methodName, Class<?>... parameterTypes) {
+      for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+         try {
+            c.getDeclaredMethod(methodName, parameterTypes);
+            return c;
+         } catch (NoSuchMethodException e) {
+            // Check the superclass
+         }
+      }
+      return null;
+   }
 }
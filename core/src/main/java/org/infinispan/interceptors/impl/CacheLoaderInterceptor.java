@@ -4,9 +4,13 @@
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.NOT_ASYNC;
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.SHARED;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -174,21 +178,84 @@ public Object visitComputeIfAbsentCommand(InvocationContext ctx, ComputeIfAbsent
 
    private Object visitManyDataCommand(InvocationContext ctx, FlagAffectedCommand command, Collection<?> keys) {
       AggregateCompletionStage<Void> stage = null;
+      // Keys that are not in memory are loaded from the stores with a single request per store
+      Map<Integer, List<Object>> keysToLoad = null;
+      Map<Object, CompletableFuture<InternalCacheEntry<K, V>>> pendingBatchLoads = null;
       for (Object key : keys) {
-         CompletionStage<?> innerStage = loadIfNeeded(ctx, key, command);
-         if (innerStage != null && !CompletionStages.isCompletedSuccessfully(innerStage)) {
+         int segment = SegmentSpecificCommand.extractSegment(command, key, partitioner);
+         if (skipLoad(ctx, key, segment, command)) {
+            continue;
+         }
+         CompletionStage<?> innerStage;
+         if (dataContainer.peek(segment, key) != null) {
+            innerStage = loadInContext(ctx, key, segment, command);
+         } else {
+            CompletableFuture<InternalCacheEntry<K, V>> cf = new CompletableFuture<>();
+            CompletionStage<InternalCacheEntry<K, V>> otherCF = pendingLoads.putIfAbsent(key, cf);
+            if (otherCF != null) {
+               innerStage = piggybackLoad(ctx, key, command, otherCF);
+            } else {
+               if (keysToLoad == null) {
+                  keysToLoad = new HashMap<>();
+                  pendingBatchLoads = new HashMap<>();
+               }
+               keysToLoad.computeIfAbsent(segment, s -> new ArrayList<>()).add(key);
+               pendingBatchLoads.put(key, cf);
+               innerStage = cf;
+            }
+         }
+         if (!CompletionStages.isCompletedSuccessfully(innerStage)) {
             if (stage == null) {
                stage = CompletionStages.aggregateCompletionStage();
             }
             stage.dependsOn(innerStage);
          }
       }
+      if (keysToLoad != null) {
+         loadAllInContext(ctx, command, keysToLoad, pendingBatchLoads);
+      }
       if (stage != null) {
          return asyncInvokeNext(ctx, command, stage.freeze());
       }
       return invokeNext(ctx, command);
    }
 
+   private void loadAllInContext(InvocationContext ctx, FlagAffectedCommand cmd, Map<Integer, List<Object>> keysToLoad,
+                                 Map<Object, CompletableFuture<InternalCacheEntry<K, V>>> pendingBatchLoads) {
+      if (log.isTraceEnabled()) {
+         log.tracef("Loading entries for keys %s", pendingBatchLoads.keySet());
+      }
+      CompletionStage<Map<Object, InternalCacheEntry<K, V>>> loadStage;
+      try {
+         loadStage = loadAllAndStoreInDataContainer(ctx, keysToLoad);
+      } catch (Throwable t) {
+         // Fail the pending loads below, otherwise they would never be removed
+         loadStage = CompletableFutures.completedExceptionFuture(t);
+      }
+      loadStage.whenComplete((entries, throwable) -> {
+         for (List<Object> keys : keysToLoad.values()) {
+            for (Object key : keys) {
+               CompletableFuture<InternalCacheEntry<K, V>> cf = pendingBatchLoads.get(key);
+               if (throwable != null) {
+                  finishLoadInContext(ctx, key, cmd, cf, null, throwable);
+                  continue;
+               }
+               CompletionStage<InternalCacheEntry<K, V>> result;
+               try {
+                  result = notifyLoaded(ctx, key, cmd, CompletableFuture.completedFuture(entries.get(key)));
+               } catch (Throwable t) {
+                  result = CompletableFutures.completedExceptionFuture(t);
+               }
+               if (CompletionStages.isCompletedSuccessfully(result)) {
+                  finishLoadInContext(ctx, key, cmd, cf, CompletionStages.join(result), null);
+               } else {
+                  result.whenComplete((value, t) -> finishLoadInContext(ctx, key, cmd, cf, value, t));
+               }
+            }
+         }
+      });
+   }
+
    private Object visitDataCommand(InvocationContext ctx, AbstractDataCommand command) {
       Object key;
       CompletionStage<?> stage = null;
@@ -340,12 +407,7 @@ protected CompletionStage<?> loadInContext(InvocationContext ctx, Object key, in
 
       CompletionStage<InternalCacheEntry<K, V>> otherCF = pendingLoads.putIfAbsent(key, cf);
       if (otherCF != null) {
-         // Nothing to clean up, just put the entry from the other load in the context
-         if (log.isTraceEnabled()) {
-            log.tracef("Piggybacking on concurrent load for key %s", key);
-         }
-         // Resume on a different CPU thread so we don't have to wait until the other command completes
-         return otherCF.thenAcceptAsync(entry -> putInContext(ctx, key, cmd, entry), nonBlockingExecutor);
+         return piggybackLoad(ctx, key, cmd, otherCF);
       }
 
       CompletionStage<InternalCacheEntry<K, V>> result = loadAndStoreInDataContainer(ctx, key, segment, cmd);
@@ -357,6 +419,16 @@ protected CompletionStage<?> loadInContext(InvocationContext ctx, Object key, in
       return cf;
    }
 
+   private CompletionStage<?> piggybackLoad(InvocationContext ctx, Object key, FlagAffectedCommand cmd,
+                                            CompletionStage<InternalCacheEntry<K, V>> otherCF) {
+      // Nothing to clean up, just put the entry from the other load in the context
+      if (log.isTraceEnabled()) {
+         log.tracef("Piggybacking on concurrent load for key %s", key);
+      }
+      // Resume on a different CPU thread so we don't have to wait until the other command completes
+      return otherCF.thenAcceptAsync(entry -> putInContext(ctx, key, cmd, entry), nonBlockingExecutor);
+   }
+
    private void finishLoadInContext(InvocationContext ctx, Object key, FlagAffectedCommand cmd, CompletableFuture<InternalCacheEntry<K, V>> cf, InternalCacheEntry<K, V> value, Throwable throwable) {
       // Make sure we clean up our pendingLoads properly and before completing any responses
       pendingLoads.remove(key);
@@ -394,41 +466,88 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
          log.tracef("Loading entry for key %s", key);
       }
       CompletionStage<InternalCacheEntry<K, V>> resultStage = persistenceManager.<K, V>loadFromAllStores(key, segment,
-            ctx.isOriginLocal(), includeStores).thenApply(me -> {
-         if (me != null) {
-            InternalCacheEntry<K, V> ice = PersistenceUtil.convert(me, iceFactory);
-            if (getStatisticsEnabled()) {
-               cacheLoads.incrementAndGet();
+            ctx.isOriginLocal(), includeStores).thenApply(me -> storeLoadedEntry(key, segment, me));
+      return notifyLoaded(ctx, key, cmd, resultStage);
+   }
+
+   /**
+    * Loads the given keys, grouped by segment, with a single request per store and stores the loaded entries in the
+    * data container. This is the batched counterpart of {@link #loadAndStoreInDataContainer(InvocationContext, Object,
+    * int, FlagAffectedCommand)}, subclasses overriding one should override the other as well.
+    * <p>
+    * Listeners are not notified of the loaded entries, that is done by the caller.
+    * @return a stage with the loaded entries by key, the keys not found in any store are not in the map
+    */
+   protected CompletionStage<Map<Object, InternalCacheEntry<K, V>>> loadAllAndStoreInDataContainer(
+         InvocationContext ctx, Map<Integer, List<Object>> keysToLoad) {
+      Map<Object, InternalCacheEntry<K, V>> result = new HashMap<>();
+      Map<Integer, List<Object>> missingKeys = new HashMap<>();
+      for (Map.Entry<Integer, List<Object>> segmentKeys : keysToLoad.entrySet()) {
+         int segment = segmentKeys.getKey();
+         for (Object key : segmentKeys.getValue()) {
+            InternalCacheEntry<K, V> entry = dataContainer.peek(segment, key);
+            if (entry != null && (!entry.canExpire() || !entry.isExpired(timeService.wallClockTime()))) {
+               result.put(key, entry);
+            } else {
+               missingKeys.computeIfAbsent(segment, s -> new ArrayList<>()).add(key);
             }
-            if (log.isTraceEnabled()) {
-               log.tracef("Loaded entry: %s for key %s from store and attempting to insert into data container",
-                     ice, key);
+         }
+      }
+      if (missingKeys.isEmpty()) {
+         return CompletableFuture.completedFuture(result);
+      }
+      return persistenceManager.<K, V>loadAllFromAllStores(missingKeys, ctx.isOriginLocal(), true).thenApply(entries -> {
+         for (Map.Entry<Integer, List<Object>> segmentKeys : missingKeys.entrySet()) {
+            int segment = segmentKeys.getKey();
+            for (Object key : segmentKeys.getValue()) {
+               InternalCacheEntry<K, V> ice = storeLoadedEntry(key, segment, entries.get(key));
+               if (ice != null) {
+                  result.put(key, ice);
+               }
             }
+         }
+         return result;
+      });
+   }
 
-            DataContainer.ComputeAction<K, V> putIfAbsentOrExpired = (k, oldEntry, factory) -> {
-               if (oldEntry != null &&
-                     (!oldEntry.canExpire() || !oldEntry.isExpired(timeService.wallClockTime()))) {
-                  return oldEntry;
-               }
-               if (ice.canExpire()) {
-                  ice.touch(timeService.wallClockTime());
-               }
-               return ice;
-            };
+   private InternalCacheEntry<K, V> storeLoadedEntry(Object key, int segment, MarshallableEntry<K, V> me) {
+      if (me != null) {
+         InternalCacheEntry<K, V> ice = PersistenceUtil.convert(me, iceFactory);
+         if (getStatisticsEnabled()) {
+            cacheLoads.incrementAndGet();
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Loaded entry: %s for key %s from store and attempting to insert into data container",
+                  ice, key);
+         }
 
-            dataContainer.compute(segment, (K) key, putIfAbsentOrExpired);
-            return ice;
-         } else {
-            if (log.isTraceEnabled()) {
-               log.tracef("Missed entry load for key %s from store", key);
+         DataContainer.ComputeAction<K, V> putIfAbsentOrExpired = (k, oldEntry, factory) -> {
+            if (oldEntry != null &&
+                  (!oldEntry.canExpire() || !oldEntry.isExpired(timeService.wallClockTime()))) {
+               return oldEntry;
             }
-            if (getStatisticsEnabled()) {
-               cacheMisses.incrementAndGet();
+            if (ice.canExpire()) {
+               ice.touch(timeService.wallClockTime());
             }
-            return null;
+            return ice;
+         };
+
+         dataContainer.compute(segment, (K) key, putIfAbsentOrExpired);
+         return ice;
+      } else {
+         if (log.isTraceEnabled()) {
+            log.tracef("Missed entry load for key %s from store", key);
          }
-      });
+         if (getStatisticsEnabled()) {
+            cacheMisses.incrementAndGet();
+         }
+         return null;
+      }
+   }
 
+   private CompletionStage<InternalCacheEntry<K, V>> notifyLoaded(InvocationContext ctx, Object key,
+                                                                   FlagAffectedCommand cmd,
+                                                                   CompletionStage<InternalCacheEntry<K, V>> resultStage) {
       if (notifier.hasListener(CacheEntryLoaded.class) || notifier.hasListener(CacheEntryActivated.class)) {
          return resultStage.thenCompose(ice -> {
             if (ice != null) {
@@ -1,14 +1,23 @@
 package org.infinispan.interceptors.impl;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.eviction.impl.ActivationManager;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
+import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.concurrent.DataOperationOrderer;
 import org.infinispan.util.concurrent.DataOperationOrderer.Operation;
@@ -44,6 +53,72 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
       }
    }
 
+   @Override
+   protected CompletionStage<Map<Object, InternalCacheEntry<K, V>>> loadAllAndStoreInDataContainer(
+         InvocationContext ctx, Map<Integer, List<Object>> keysToLoad) {
+      return loadAllAndActivate(keysToLoad, orderer, activationManager,
+            keys -> super.loadAllAndStoreInDataContainer(ctx, keys));
+   }
+
+   /**
+    * Batched version of the ordering and activation done around a single key load. The keys without a pending
+    * operation are loaded with a single call to {@code loader}, while each key with a pending operation is loaded on
+    * its own once that operation completes: waiting for all of them before loading could deadlock with another batch
+    * ordered on the same keys.
+    */
+   static <K, V> CompletionStage<Map<Object, InternalCacheEntry<K, V>>> loadAllAndActivate(
+         Map<Integer, List<Object>> keysToLoad, DataOperationOrderer orderer, ActivationManager activationManager,
+         Function<Map<Integer, List<Object>>, CompletionStage<Map<Object, InternalCacheEntry<K, V>>>> loader) {
+      Map<Object, InternalCacheEntry<K, V>> result = new ConcurrentHashMap<>();
+      AggregateCompletionStage<Map<Object, InternalCacheEntry<K, V>>> aggregateStage =
+            CompletionStages.aggregateCompletionStage(result);
+      Map<Integer, List<Object>> readyKeys = new HashMap<>();
+      Map<Object, CompletableFuture<Operation>> readyFutures = new HashMap<>();
+      for (Map.Entry<Integer, List<Object>> segmentKeys : keysToLoad.entrySet()) {
+         int segment = segmentKeys.getKey();
+         for (Object key : segmentKeys.getValue()) {
+            CompletableFuture<Operation> future = new CompletableFuture<>();
+            CompletionStage<Operation> delayStage = orderer.orderOn(key, future);
+            if (delayStage != null && !CompletionStages.isCompletedSuccessfully(delayStage)) {
+               Map<Integer, List<Object>> singleKey = Collections.singletonMap(segment, Collections.singletonList(key));
+               aggregateStage.dependsOn(delayStage.thenCompose(ignore -> loader.apply(singleKey))
+                     .whenComplete((loaded, t) -> {
+                        InternalCacheEntry<K, V> ice = loaded != null ? loaded.get(key) : null;
+                        if (ice != null) {
+                           result.put(key, ice);
+                        }
+                        activateAfterLoad(key, segment, orderer, activationManager, future, ice, t);
+                     }));
+            } else {
+               readyKeys.computeIfAbsent(segment, s -> new ArrayList<>()).add(key);
+               readyFutures.put(key, future);
+            }
+         }
+      }
+      if (!readyKeys.isEmpty()) {
+         CompletionStage<Map<Object, InternalCacheEntry<K, V>>> loadStage;
+         try {
+            loadStage = loader.apply(readyKeys);
+         } catch (Throwable t) {
+            // The orderer futures must be completed even if the load fails
+            loadStage = CompletableFutures.completedExceptionFuture(t);
+         }
+         aggregateStage.dependsOn(loadStage.whenComplete((loaded, t) -> {
+            for (Map.Entry<Integer, List<Object>> segmentKeys : readyKeys.entrySet()) {
+               int segment = segmentKeys.getKey();
+               for (Object key : segmentKeys.getValue()) {
+                  InternalCacheEntry<K, V> ice = loaded != null ? loaded.get(key) : null;
+                  if (ice != null) {
+                     result.put(key, ice);
+                  }
+                  activateAfterLoad(key, segment, orderer, activationManager, readyFutures.get(key), ice, t);
+               }
+            }
+         }));
+      }
+      return aggregateStage.freeze();
+   }
+
    static <K, V> void activateAfterLoad(Object key, int segment, DataOperationOrderer orderer, ActivationManager activationManager, CompletableFuture<Operation> future, InternalCacheEntry<K, V> value, Throwable t) {
       if (value != null) {
          if (log.isTraceEnabled()) {
@@ -1,7 +1,10 @@
 package org.infinispan.interceptors.impl;
 
 import static org.infinispan.interceptors.impl.PassivationCacheLoaderInterceptor.activateAfterLoad;
+import static org.infinispan.interceptors.impl.PassivationCacheLoaderInterceptor.loadAllAndActivate;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
@@ -39,4 +42,11 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
            });
        }
    }
+
+   @Override
+   protected CompletionStage<Map<Object, InternalCacheEntry<K, V>>> loadAllAndStoreInDataContainer(
+         InvocationContext ctx, Map<Integer, List<Object>> keysToLoad) {
+      return loadAllAndActivate(keysToLoad, orderer, activationManager,
+            keys -> super.loadAllAndStoreInDataContainer(ctx, keys));
+   }
 }
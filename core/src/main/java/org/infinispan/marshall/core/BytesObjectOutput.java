@@ -15,10 +15,13 @@ final class BytesObjectOutput implements ObjectOutput {
 
    byte bytes[];
    int pos;
+   // Size of all the arrays allocated by this output, used by BytesObjectOutputPool
+   long allocatedBytes;
 
    BytesObjectOutput(int size, GlobalMarshaller marshaller) {
       this.bytes = new byte[size];
       this.marshaller = marshaller;
+      this.allocatedBytes = size;
    }
 
    @Override
@@ -238,6 +241,7 @@ private int ensureCapacity(int len) {
       int newcount = pos + len;
       if (newcount > bytes.length) {
          byte newbuf[] = new byte[getNewBufferSize(bytes.length, newcount)];
+         allocatedBytes += newbuf.length;
          System.arraycopy(bytes, 0, newbuf, 0, pos);
          bytes = newbuf;
       } else if (newcount < 0) {
@@ -0,0 +1,61 @@
+package org.infinispan.marshall.core;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.util.ProcessorInfo;
+
+/**
+ * Pool of {@link BytesObjectOutput}s used to marshall objects into byte arrays of the exact size, so that marshalling
+ * an object allocates a single array instead of a growing buffer that is then trimmed.
+ * <p>
+ * Each thread uses the slot chosen by its id. When the slot is empty, because another thread or a reentrant call on
+ * the same thread is using its output, a new output is created and it is only kept if the slot is empty again when
+ * it is released. Outputs that grew beyond {@link #MAX_POOLED_SIZE} are discarded, so a large object does not keep
+ * its buffer alive.
+ *
+ * @since 14.0
+ */
+final class BytesObjectOutputPool {
+   static final int MAX_POOLED_SIZE = 64 * 1024;
+
+   private final GlobalMarshaller marshaller;
+   private final AtomicReferenceArray<BytesObjectOutput> slots;
+   private final int mask;
+   private final LongAdder allocatedBytes = new LongAdder();
+
+   BytesObjectOutputPool(GlobalMarshaller marshaller) {
+      this.marshaller = marshaller;
+      int size = Integer.highestOneBit(ProcessorInfo.availableProcessors() * 2 - 1) << 1;
+      this.slots = new AtomicReferenceArray<>(size);
+      this.mask = size - 1;
+   }
+
+   /**
+    * @return an empty output with at least {@code estimatedSize} bytes, which must be returned with {@link #release}
+    */
+   BytesObjectOutput acquire(int estimatedSize) {
+      int slot = (int) Thread.currentThread().getId() & mask;
+      BytesObjectOutput out = slots.getAndSet(slot, null);
+      if (out == null) {
+         return new BytesObjectOutput(Math.min(estimatedSize, MAX_POOLED_SIZE), marshaller);
+      }
+      out.pos = 0;
+      return out;
+   }
+
+   void release(BytesObjectOutput out) {
+      allocatedBytes.add(out.allocatedBytes);
+      out.allocatedBytes = 0;
+      if (out.bytes.length <= MAX_POOLED_SIZE) {
+         slots.compareAndSet((int) Thread.currentThread().getId() & mask, null, out);
+      }
+   }
+
+   /**
+    * @return the bytes allocated for the pooled outputs, not including the arrays returned to the callers
+    */
+   long getAllocatedBytes() {
+      return allocatedBytes.sum();
+   }
+}
@@ -104,6 +104,7 @@ public class GlobalMarshaller implements StreamingMarshaller {
 
 
    private final MarshallableTypeHints marshallableTypeHints = new MarshallableTypeHints();
+   private final BytesObjectOutputPool outputPool = new BytesObjectOutputPool(this);
 
    @Inject GlobalComponentRegistry gcr;
    @Inject RemoteCommandsFactory cmdFactory;
@@ -159,15 +160,28 @@ public PersistenceMarshaller getPersistenceMarshaller() {
 
    @Override
    public byte[] objectToByteBuffer(Object obj) throws IOException, InterruptedException {
+      BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(obj);
+      BytesObjectOutput out = outputPool.acquire(sizePredictor.nextSize(obj));
       try {
-         BytesObjectOutput out = writeObjectOutput(obj);
-         return out.toBytes(); // trim out unused bytes
+         writeNullableObject(obj, out);
+         sizePredictor.recordSize(out.pos);
+         return out.toBytes(); // copy only the used bytes, the output is reused
       } catch (java.io.NotSerializableException nse) {
          if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
          throw new NotSerializableException(nse.getMessage(), nse.getCause());
+      } finally {
+         outputPool.release(out);
       }
    }
 
+   /**
+    * @return the number of bytes allocated for the reusable buffers of {@link #objectToByteBuffer(Object)} and
+    * {@link #objectToByteBuffer(Object, int)}, not including the returned arrays.
+    */
+   public long getPooledBufferAllocatedBytes() {
+      return outputPool.getAllocatedBytes();
+   }
+
    private BytesObjectOutput writeObjectOutput(Object obj) throws IOException {
       BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(obj);
       BytesObjectOutput out = writeObjectOutput(obj, sizePredictor.nextSize(obj));
@@ -308,12 +322,15 @@ public ByteBuffer objectToBuffer(Object o) throws IOException, InterruptedExcept
 
    @Override
    public byte[] objectToByteBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
+      BytesObjectOutput out = outputPool.acquire(estimatedSize);
       try {
-         BytesObjectOutput out = writeObjectOutput(obj, estimatedSize);
+         writeNullableObject(obj, out);
          return out.toBytes();
       } catch (java.io.NotSerializableException nse) {
          if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
          throw new NotSerializableException(nse.getMessage(), nse.getCause());
+      } finally {
+         outputPool.release(out);
       }
    }
 
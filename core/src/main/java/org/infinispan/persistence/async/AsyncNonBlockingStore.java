@@ -2,8 +2,11 @@
 
 import java.lang.invoke.MethodHandles;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -18,6 +21,7 @@
 import org.infinispan.commons.IllegalLifecycleStateException;
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.reactive.RxJavaInterop;
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
@@ -43,15 +47,23 @@
 
 /**
  * A delegating NonBlockingStore implementation that batches write operations and runs the resulting batches on the
- * delegate store in a non overlapping manner. That is that only a single batch will be running at a time.
+ * delegate store.
  * <p>
- * Whenever a write operation is performed it will also attempt to start a batch write immediately to the delegate store.
- * Any concurrent writes during this time may be included in the batch. Any additional writes will be enqueued until
- * the batch completes in which case it will automatically submit the pending batch, if there is one.  Write operations
- * to the same key in the same batch will be coalesced with only the last write being written to the underlying store.
- * If the number of enqueued pending write operations becomes equal or larger than the modification queue, then any
- * subsequent write will be added to the queue, but the returned Stage will not complete until the current batch completes
- * in an attempt to provide some backpressure to slow writes.
+ * The modifications are partitioned by segment into {@link AsyncStoreConfiguration#concurrencyLevel()} queues, and
+ * only a single batch from each queue will be running at a time. As a key always maps to the same segment, the writes
+ * to a key are still applied to the delegate store in order, while the batches of different queues may overlap.
+ * <p>
+ * Whenever a write operation is performed it will also attempt to start a batch write of its queue immediately to the
+ * delegate store. Any concurrent writes to the same queue during this time may be included in the batch. Any
+ * additional writes will be enqueued until the batch completes in which case it will automatically submit the pending
+ * batch, if there is one.  Write operations to the same key in the same batch will be coalesced with only the last
+ * write being written to the underlying store. If the number of enqueued pending write operations becomes equal or
+ * larger than the modification queue, then any subsequent write will be added to the queue, but the returned Stage will
+ * not complete until the current batch of its queue completes in an attempt to provide some backpressure to slow
+ * writes.
+ * <p>
+ * A clear is not partitioned: it waits for all the running batches to complete, and no batch is started until the
+ * clear completes.
  * <p>
  * Read operations may be resolved by this store immediately if the given key is still being updated in the
  * delegate store or if it is enqueued for the next batch. If the key is in neither it will query the underlying store
@@ -66,6 +78,8 @@
    private final NonBlockingStore<K, V> actual;
 
    private Executor nonBlockingExecutor;
+   private TimeService timeService;
+   private AsyncStoreStatistics statistics;
    private int segmentCount;
    private int modificationQueueSize;
    private PersistenceConfiguration persistenceConfiguration;
@@ -74,33 +88,30 @@
    // "Non blocking" scheduler used for the purpose of delaying retry batch operations on failures
    private ScheduledExecutorService scheduler;
 
-   // This variable will be non null if there is a pending batch being sent to the underlying store
-   // If a request causes the modification queue to overflow it will receive a stage back that is only complete
-   // when this future is completed (aka. previous replication has completed)
-   @GuardedBy("this")
-   private CompletableFuture<Void> batchFuture;
-
    // This variable will be non null if the underlying store has been found to be not available
    // Note that the async store will still be available as long as the queue size (ie. modificationMap.size) is not
    // greater than the configured modificationQueueSize
    @GuardedBy("this")
    private CompletableFuture<Void> delegateAvailableFuture;
 
-   // Any pending modifications will be enqueued in this map
+   // The modifications are partitioned by segment in these queues
    @GuardedBy("this")
-   private Map<Object, Modification> pendingModifications = new HashMap<>();
+   private ModificationQueue[] queues;
+   // Number of modifications pending or replicating in all the queues
+   @GuardedBy("this")
+   private int queueSize;
+   // Number of batches currently being sent to the underlying store
+   @GuardedBy("this")
+   private int replicatingBatches;
    // If there is a pending clear this will be true
    @GuardedBy("this")
    private boolean hasPendingClear;
-   // The next two variables are held temporarily until a replication of the values is complete. We need to retain
-   // these values until we are sure the entries are actually in the store - note these variables are only written to
-   // via reference (thus the map is safe to read outside of this lock, but the reference must be read in synchronized)
-   // This map contains all the modifications currently being replicated to the delegating store
-   @GuardedBy("this")
-   private Map<Object, Modification> replicatingModifications = Collections.emptyMap();
    // True if there is an outstanding clear that is being ran on the delegating store
    @GuardedBy("this")
    private boolean isReplicatingClear;
+   // This variable will be non null if there is a pending or replicating clear
+   @GuardedBy("this")
+   private CompletableFuture<Void> clearFuture;
    private volatile boolean stopped = true;
 
    public AsyncNonBlockingStore(NonBlockingStore<K, V> actual) {
@@ -119,10 +130,26 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       asyncConfiguration = storeConfiguration.async();
       modificationQueueSize = asyncConfiguration.modificationQueueSize();
       nonBlockingExecutor = ctx.getNonBlockingExecutor();
+      timeService = ctx.getTimeService();
+      statistics = statistics(ctx);
+      synchronized (this) {
+         queues = new ModificationQueue[asyncConfiguration.concurrencyLevel()];
+         for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ModificationQueue();
+         }
+      }
+      statistics.registerStore(this);
       stopped = false;
       return actual.start(ctx);
    }
 
+   private static AsyncStoreStatistics statistics(InitializationContext ctx) {
+      AsyncStoreStatistics statistics = ctx.getCache().getAdvancedCache().getComponentRegistry()
+            .getComponent(AsyncStoreStatistics.class);
+      // Stores added after the cache was created are not tracked
+      return statistics != null ? statistics : new AsyncStoreStatistics();
+   }
+
    @Override
    public CompletionStage<Void> stop() {
       CompletionStage<Void> asyncStage;
@@ -135,6 +162,7 @@ public CompletionStage<Void> stop() {
             log.tracef("Stopping store %s from async store", actual);
          }
          stopped = true;
+         statistics.unregisterStore(this);
          return actual.stop();
       });
    }
@@ -143,9 +171,18 @@ public CompletionStage<Void> stop() {
     * Returns a stage that when complete, this store has submitted and completed all pending modifications
     */
    private CompletionStage<Void> awaitQuiescence() {
-      CompletionStage<Void> stage;
+      CompletionStage<Void> stage = null;
       synchronized (this) {
-         stage = batchFuture;
+         if (clearFuture != null) {
+            stage = clearFuture;
+         } else {
+            for (ModificationQueue queue : queues) {
+               if (queue.batchFuture != null) {
+                  stage = queue.batchFuture;
+                  break;
+               }
+            }
+         }
       }
       if (stage == null) {
          return CompletableFutures.completedNull();
@@ -156,94 +193,178 @@ private CompletionStage<Void> awaitQuiescence() {
       return stage.thenCompose(ignore -> awaitQuiescence());
    }
 
+   synchronized int getQueueSize() {
+      return queueSize;
+   }
+
+   synchronized int getReplicatingBatches() {
+      return replicatingBatches;
+   }
+
+   private ModificationQueue queueFor(int segment) {
+      return queues[segment % queues.length];
+   }
+
    void putModification(Object key, Modification modification) {
-      pendingModifications.put(key, modification);
+      if (queueFor(modification.getSegment()).pendingModifications.put(key, modification) == null) {
+         queueSize++;
+      }
    }
 
    void putClearModification() {
-      pendingModifications.clear();
+      for (ModificationQueue queue : queues) {
+         queueSize -= queue.pendingModifications.size();
+         queue.pendingModifications.clear();
+      }
       hasPendingClear = true;
+      if (clearFuture == null) {
+         clearFuture = new CompletableFuture<>();
+      }
    }
 
    /**
-    * This method submits a batch of modifications to the underlying store and completes {@code batchFuture}
+    * Moves the pending modifications of the queue to its replicating modifications. The caller must hold the lock,
+    * check that the queue has no running batch and that no clear is pending or running, then invoke
+    * {@link #submitBatch(ModificationQueue, Map)} with the returned modifications after releasing the lock.
+    */
+   @GuardedBy("this")
+   private Map<Object, Modification> startBatch(ModificationQueue queue) {
+      assert queue.replicatingModifications.isEmpty() && !hasPendingClear && !isReplicatingClear;
+      Map<Object, Modification> modifications = queue.pendingModifications;
+      queue.replicatingModifications = modifications;
+      queue.pendingModifications = new HashMap<>();
+      replicatingBatches++;
+      return modifications;
+   }
+
+   /**
+    * Marks the pending clear as replicating. The caller must hold the lock and check that no batch is running, then
+    * invoke {@link #submitClear()} after releasing the lock.
+    */
+   @GuardedBy("this")
+   private void startClear() {
+      assert hasPendingClear && !isReplicatingClear && replicatingBatches == 0;
+      isReplicatingClear = true;
+      hasPendingClear = false;
+   }
+
+   /**
+    * Submits a batch of modifications to the underlying store and completes the {@code batchFuture} of the queue
     * when the modifications are done.
-    *
-    * If there are any pending modifications at that time, it automatically submits a new batch,
-    * otherwise it sets {@code batchFuture} to null.
-    *
-    * Callers must atomically check that {@code batchFuture} is null and set it to a non-null value,
-    * to ensure that only one batch is being processed at any time.
+    * <p>
+    * If the queue has any pending modifications at that time, it automatically submits a new batch, otherwise it sets
+    * its {@code batchFuture} to null. If a clear was submitted in the meantime, the new batch is only submitted
+    * after the clear completes, and the clear is submitted once all the running batches complete.
     */
-   private void submitTask() {
-      Map<Object, Modification> newMap = new HashMap<>();
+   private void submitBatch(ModificationQueue queue, Map<Object, Modification> modifications) {
       if (log.isTraceEnabled()) {
-         log.tracef("Starting new batch with id %s", System.identityHashCode(newMap));
-      }
-      boolean ourClearToReplicate;
-      Map<Object, Modification> ourModificationsToReplicate;
-      synchronized (this) {
-         // The isReplicatingClear would be true or replicatingModifications non empty if an update was currently pending
-         // But we should only allow one at a time
-         assert replicatingModifications.isEmpty() && !isReplicatingClear;
-         replicatingModifications = pendingModifications;
-         ourModificationsToReplicate = pendingModifications;
-         pendingModifications = newMap;
-         isReplicatingClear = hasPendingClear;
-         ourClearToReplicate = hasPendingClear;
-         hasPendingClear = false;
+         log.tracef("Sending batch of %d write/remove operations to underlying store with id %s", modifications.size(),
+               System.identityHashCode(modifications));
       }
-
       CompletionStage<Void> asyncBatchStage;
-      if (ourClearToReplicate) {
-         if (log.isTraceEnabled()) {
-            log.tracef("Sending clear to underlying store for id %s", System.identityHashCode(ourModificationsToReplicate));
-         }
-         asyncBatchStage = retry(actual::clear, persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
-            synchronized (this) {
-               isReplicatingClear = false;
-            }
-         });
-      } else {
+      long start = timeService.time();
+      if (modifications.isEmpty()) {
+         // The modifications were removed by a clear or a segment removal
          asyncBatchStage = CompletableFutures.completedNull();
-      }
-
-      if (!ourModificationsToReplicate.isEmpty()) {
-         asyncBatchStage = asyncBatchStage.thenCompose(ignore -> {
-            if (log.isTraceEnabled()) {
-               log.tracef("Sending batch of %d write/remove operations to underlying store with id %s", ourModificationsToReplicate.size(),
-                     System.identityHashCode(ourModificationsToReplicate));
-            }
-            return retry(() -> replicateModifications(ourModificationsToReplicate), persistenceConfiguration.connectionAttempts())
-                  .whenComplete((ignore2, t) -> {
-               synchronized (this) {
-                  replicatingModifications = Collections.emptyMap();
-               }
-            });
-         });
+      } else {
+         statistics.recordBatch(modifications.size());
+         asyncBatchStage = retry(() -> replicateModifications(modifications), persistenceConfiguration.connectionAttempts());
       }
 
       asyncBatchStage.whenComplete((ignore, t) -> {
          if (log.isTraceEnabled()) {
-            log.tracef("Async operations completed for id %s", System.identityHashCode(ourModificationsToReplicate));
+            log.tracef("Async operations completed for id %s", System.identityHashCode(modifications));
+         }
+         if (!modifications.isEmpty()) {
+            statistics.recordFlush(timeService.timeDuration(start, TimeUnit.NANOSECONDS));
          }
-         boolean submitNewBatch;
          CompletableFuture<Void> future;
+         Map<Object, Modification> nextBatch = null;
+         boolean submitClear = false;
          synchronized (this) {
-            submitNewBatch = !pendingModifications.isEmpty() || hasPendingClear;
-            future = batchFuture;
-            batchFuture = submitNewBatch ? new CompletableFuture<>() : null;
+            queue.replicatingModifications = Collections.emptyMap();
+            queueSize -= modifications.size();
+            replicatingBatches--;
+            future = queue.batchFuture;
+            boolean hasPendingModifications = !queue.pendingModifications.isEmpty();
+            queue.batchFuture = hasPendingModifications ? new CompletableFuture<>() : null;
+            if (hasPendingClear || isReplicatingClear) {
+               // The pending modifications are submitted after the clear
+               if (hasPendingClear && !isReplicatingClear && replicatingBatches == 0) {
+                  startClear();
+                  submitClear = true;
+               }
+            } else if (hasPendingModifications) {
+               nextBatch = startBatch(queue);
+            }
          }
          if (t != null) {
             future.completeExceptionally(t);
          } else {
             future.complete(null);
          }
-         if (submitNewBatch) {
+         if (nextBatch != null) {
             if (log.isTraceEnabled()) {
                log.trace("Submitting new batch after completion of prior");
             }
-            submitTask();
+            submitBatch(queue, nextBatch);
+         }
+         if (submitClear) {
+            submitClear();
+         }
+      });
+   }
+
+   /**
+    * Submits a clear to the underlying store. When the clear is done, it submits a batch for each queue that received
+    * modifications in the meantime, or another clear if one was submitted in the meantime.
+    */
+   @SuppressWarnings("unchecked")
+   private void submitClear() {
+      if (log.isTraceEnabled()) {
+         log.tracef("Sending clear to underlying store");
+      }
+      retry(actual::clear, persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
+         CompletableFuture<Void> future = null;
+         boolean submitClear = false;
+         ModificationQueue[] batchQueues = null;
+         Map<Object, Modification>[] batches = null;
+         synchronized (this) {
+            isReplicatingClear = false;
+            if (hasPendingClear) {
+               startClear();
+               submitClear = true;
+            } else {
+               future = clearFuture;
+               clearFuture = null;
+               for (int i = 0; i < queues.length; i++) {
+                  ModificationQueue queue = queues[i];
+                  if (queue.batchFuture != null) {
+                     if (batches == null) {
+                        batchQueues = new ModificationQueue[queues.length];
+                        batches = new Map[queues.length];
+                     }
+                     batchQueues[i] = queue;
+                     batches[i] = startBatch(queue);
+                  }
+               }
+            }
+         }
+         if (future != null) {
+            if (t != null) {
+               future.completeExceptionally(t);
+            } else {
+               future.complete(null);
+            }
+         }
+         if (submitClear) {
+            submitClear();
+         } else if (batches != null) {
+            for (int i = 0; i < batches.length; i++) {
+               if (batches[i] != null) {
+                  submitBatch(batchQueues[i], batches[i]);
+               }
+            }
          }
       });
    }
@@ -384,40 +505,84 @@ private <E> Publisher<E> abstractPublish(IntSet segments, Predicate<? super K> f
       return modPublisher.concatWith(publisherFunction.apply(segments, combinedPredicate));
    }
 
+   @SuppressWarnings("unchecked")
    private Map.Entry<Boolean, Map<Object, Modification>> flattenModificationMaps() {
-      Map<Object, Modification> modificationCopy;
-      Map<Object, Modification> modificationsToReplicate;
+      Map<Object, Modification> modificationCopy = new HashMap<>();
+      Map<Object, Modification>[] modificationsToReplicate;
       boolean clearToReplicate;
       synchronized (this) {
-         modificationCopy = new HashMap<>(pendingModifications);
          if (hasPendingClear) {
+            for (ModificationQueue queue : queues) {
+               modificationCopy.putAll(queue.pendingModifications);
+            }
             return new AbstractMap.SimpleImmutableEntry<>(Boolean.TRUE, modificationCopy);
          }
-         modificationsToReplicate = this.replicatingModifications;
+         modificationsToReplicate = new Map[queues.length * 2];
+         for (int i = 0; i < queues.length; i++) {
+            // The replicating maps are never written to, the pending maps must be copied
+            modificationsToReplicate[2 * i] = queues[i].replicatingModifications;
+            modificationsToReplicate[2 * i + 1] = new HashMap<>(queues[i].pendingModifications);
+         }
          clearToReplicate = this.isReplicatingClear;
       }
 
-      modificationCopy.putAll(modificationsToReplicate);
+      // Pending modifications override the replicating modifications of the same key
+      for (Map<Object, Modification> modifications : modificationsToReplicate) {
+         modificationCopy.putAll(modifications);
+      }
       return new AbstractMap.SimpleImmutableEntry<>(clearToReplicate, modificationCopy);
    }
 
    @Override
    public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       assertNotStopped();
-      CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(key);
+      CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(segment, key);
       if (pendingStage != null) {
          return pendingStage;
       }
       return actual.load(segment, key);
    }
 
-   private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key) {
+   @Override
+   public CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAll(Map<Integer, ? extends Collection<?>> keysBySegment) {
+      assertNotStopped();
+      Map<Object, MarshallableEntry<K, V>> pendingEntries = new HashMap<>();
+      Map<Integer, List<Object>> keysToLoad = new HashMap<>();
+      for (Map.Entry<Integer, ? extends Collection<?>> segmentKeys : keysBySegment.entrySet()) {
+         int segment = segmentKeys.getKey();
+         for (Object key : segmentKeys.getValue()) {
+            CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(segment, key);
+            if (pendingStage == null) {
+               keysToLoad.computeIfAbsent(segment, s -> new ArrayList<>()).add(key);
+            } else {
+               // The pending modifications are always completed
+               MarshallableEntry<K, V> entry = CompletionStages.join(pendingStage);
+               if (entry != null) {
+                  pendingEntries.put(key, entry);
+               }
+            }
+         }
+      }
+      if (keysToLoad.isEmpty()) {
+         return CompletableFuture.completedFuture(pendingEntries);
+      }
+      return actual.loadAll(keysToLoad).thenApply(entries -> {
+         if (pendingEntries.isEmpty()) {
+            return entries;
+         }
+         pendingEntries.putAll(entries);
+         return pendingEntries;
+      });
+   }
+
+   private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(int segment, Object key) {
       Object wrappedKey = wrapKeyIfNeeded(key);
       Map<Object, Modification> modificationsToReplicate;
       boolean clearToReplicate;
       synchronized (this) {
+         ModificationQueue queue = queueFor(segment);
          // Note that writes to this map are done only in synchronized block, so we have to do same for get
-         Modification modification = pendingModifications.get(wrappedKey);
+         Modification modification = queue.pendingModifications.get(wrappedKey);
          if (modification != null) {
             if (log.isTraceEnabled()) {
                log.tracef("Found entry was pending write in async store: %s", modification);
@@ -431,7 +596,7 @@ private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key)
             return CompletableFutures.completedNull();
          }
          // This map is never written to so just reading reference in synchronized block is sufficient
-         modificationsToReplicate = this.replicatingModifications;
+         modificationsToReplicate = queue.replicatingModifications;
          clearToReplicate = this.isReplicatingClear;
       }
       Modification modification = modificationsToReplicate.get(wrappedKey);
@@ -465,34 +630,47 @@ public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublis
 
    CompletionStage<Void> submitModification(Modification modification) {
       boolean isTraceEnabled = log.isTraceEnabled();
-      boolean startNewBatch;
+      Map<Object, Modification> newBatch = null;
+      boolean submitClear = false;
+      ModificationQueue queue;
       CompletionStage<Void> submitStage;
       synchronized (this) {
-         int previousBatchId;
          if (isTraceEnabled) {
-            previousBatchId = System.identityHashCode(replicatingModifications);
-            int currentBatchId = System.identityHashCode(pendingModifications);
-            log.tracef("Adding modification %s to batch %s", modification, currentBatchId);
-         } else {
-            previousBatchId = 0;
+            log.tracef("Adding modification %s to async store queue", modification);
          }
          modification.apply(this);
 
-         startNewBatch = batchFuture == null;
-         if (startNewBatch) {
-            batchFuture = new CompletableFuture<>();
-         }
+         if (modification instanceof ClearModification) {
+            queue = null;
+            submitStage = null;
+            // The clear must wait for the running batches to complete
+            if (!isReplicatingClear && replicatingBatches == 0) {
+               startClear();
+               submitClear = true;
+            }
+         } else {
+            queue = queueFor(modification.getSegment());
+            if (queue.batchFuture == null) {
+               queue.batchFuture = new CompletableFuture<>();
+               // The modification must wait for a pending or replicating clear to complete
+               if (!hasPendingClear && !isReplicatingClear) {
+                  newBatch = startBatch(queue);
+               }
+            }
 
-         int queueSize = pendingModifications.size() + replicatingModifications.size();
-         submitStage = queueSize > modificationQueueSize ? batchFuture : null;
-         if (submitStage != null && isTraceEnabled) {
-            log.tracef("Too many modifications queued (%d), operation must wait until previous batch %d completes",
-                       queueSize, previousBatchId);
+            submitStage = queueSize > modificationQueueSize ? queue.batchFuture : null;
+            if (submitStage != null && isTraceEnabled) {
+               log.tracef("Too many modifications queued (%d), operation must wait until previous batch completes",
+                          queueSize);
+            }
          }
       }
 
-      if (startNewBatch) {
-         submitTask();
+      if (newBatch != null) {
+         submitBatch(queue, newBatch);
+      }
+      if (submitClear) {
+         submitClear();
       }
       return submitStage == null ? CompletableFutures.completedNull() :
              submitStage.thenApplyAsync(CompletableFutures.toNullFunction(), nonBlockingExecutor);
@@ -538,7 +716,11 @@ public CompletionStage<Void> addSegments(IntSet segments) {
    public CompletionStage<Void> removeSegments(IntSet segments) {
       assertNotStopped();
       synchronized (this) {
-         pendingModifications.values().removeIf(modification -> segments.contains(modification.getSegment()));
+         for (ModificationQueue queue : queues) {
+            int sizeBefore = queue.pendingModifications.size();
+            queue.pendingModifications.values().removeIf(modification -> segments.contains(modification.getSegment()));
+            queueSize -= sizeBefore - queue.pendingModifications.size();
+         }
       }
       return actual.removeSegments(segments);
    }
@@ -585,8 +767,8 @@ public CompletionStage<Boolean> isAvailable() {
          boolean isReplicating;
          int queueSize;
          synchronized (this) {
-            isReplicating = !replicatingModifications.isEmpty() || isReplicatingClear;
-            queueSize = pendingModifications.size();
+            isReplicating = replicatingBatches > 0 || isReplicatingClear;
+            queueSize = this.queueSize;
             if (delegateUnavailable = delegateAvailableFuture == null) {
                delegateAvailableFuture = new CompletableFuture<>();
             }
@@ -608,6 +790,19 @@ private void assertNotStopped() throws CacheException {
          throw new IllegalLifecycleStateException("AsyncCacheWriter stopped; no longer accepting more entries.");
    }
 
+   private static class ModificationQueue {
+      // Any pending modifications will be enqueued in this map
+      Map<Object, Modification> pendingModifications = new HashMap<>();
+      // This map contains all the modifications currently being replicated to the delegating store. We need to retain
+      // these values until we are sure the entries are actually in the store - note the map is only written to via
+      // reference (thus the map is safe to read outside of the store lock, but the reference must be read in synchronized)
+      Map<Object, Modification> replicatingModifications = Collections.emptyMap();
+      // This variable will be non null if there is a batch of this queue being sent to the underlying store, or waiting
+      // for a clear to complete. If a request causes the modification queue to overflow it will receive a stage back
+      // that is only complete when this future is completed
+      CompletableFuture<Void> batchFuture;
+   }
+
    /**
     * Wraps the provided key if necessary to provide equals to work properly
     * @param key the key to wrap
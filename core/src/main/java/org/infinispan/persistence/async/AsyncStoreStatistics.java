@@ -0,0 +1,115 @@
+package org.infinispan.persistence.async;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.Timer;
+import org.infinispan.commons.stat.SimpleHistogram;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Statistics of the write-behind stores of a cache. The component is registered when the cache configuration contains
+ * a write-behind store; stores that are added later keep their statistics unregistered.
+ *
+ * @since 14.0
+ */
+@Scope(Scopes.NAMED_CACHE)
+@MBean(objectName = "AsyncStore", description = "Statistics of the write-behind stores")
+public class AsyncStoreStatistics {
+   private final SimpleHistogram batchSizes = new SimpleHistogram();
+   private final SimpleHistogram flushTimes = new SimpleHistogram();
+   private volatile Timer flushTimer;
+   private final Set<AsyncNonBlockingStore<?, ?>> stores = new CopyOnWriteArraySet<>();
+
+   void registerStore(AsyncNonBlockingStore<?, ?> store) {
+      stores.add(store);
+   }
+
+   void unregisterStore(AsyncNonBlockingStore<?, ?> store) {
+      stores.remove(store);
+   }
+
+   void recordBatch(int modifications) {
+      batchSizes.record(modifications);
+   }
+
+   void recordFlush(long nanos) {
+      flushTimes.record(nanos);
+      Timer timer = flushTimer;
+      if (timer != null) {
+         timer.update(Duration.ofNanos(nanos));
+      }
+   }
+
+   @ManagedAttribute(description = "Flush times", displayName = "Flush times", dataType = DataType.TIMER, units = Units.NANOSECONDS)
+   public void setFlushTimes(Timer flushTimer) {
+      this.flushTimer = flushTimer;
+   }
+
+   @ManagedAttribute(description = "Number of modifications waiting to be written or being written to the underlying stores", displayName = "Queue size")
+   public int getQueueSize() {
+      int queueSize = 0;
+      for (AsyncNonBlockingStore<?, ?> store : stores) {
+         queueSize += store.getQueueSize();
+      }
+      return queueSize;
+   }
+
+   @ManagedAttribute(description = "Number of batches being written to the underlying stores", displayName = "Replicating batches")
+   public int getReplicatingBatches() {
+      int batches = 0;
+      for (AsyncNonBlockingStore<?, ?> store : stores) {
+         batches += store.getReplicatingBatches();
+      }
+      return batches;
+   }
+
+   @ManagedAttribute(description = "Number of batches of modifications written to the underlying stores", displayName = "Batches")
+   public long getBatches() {
+      return batchSizes.count();
+   }
+
+   @ManagedAttribute(description = "Average number of modifications written to the underlying store with a single batch", displayName = "Average batch size")
+   public double getAverageBatchSize() {
+      return batchSizes.getAverage();
+   }
+
+   @ManagedAttribute(description = "Largest number of modifications written to the underlying store with a single batch", displayName = "Maximum batch size")
+   public long getMaxBatchSize() {
+      return batchSizes.getMax();
+   }
+
+   @ManagedAttribute(description = "Average time to write a batch to the underlying store, including retries", displayName = "Average flush time", units = Units.MICROSECONDS)
+   public long getAverageFlushTime() {
+      return TimeUnit.NANOSECONDS.toMicros((long) flushTimes.getAverage());
+   }
+
+   @ManagedAttribute(description = "Median time to write a batch to the underlying store, including retries", displayName = "Median flush time", units = Units.MICROSECONDS)
+   public long getFlushTimeP50() {
+      return TimeUnit.NANOSECONDS.toMicros(flushTimes.getPercentile(50));
+   }
+
+   @ManagedAttribute(description = "99th percentile of the time to write a batch to the underlying store, including retries", displayName = "99th percentile flush time", units = Units.MICROSECONDS)
+   public long getFlushTimeP99() {
+      return TimeUnit.NANOSECONDS.toMicros(flushTimes.getPercentile(99));
+   }
+
+   @ManagedAttribute(description = "Longest time to write a batch to the underlying store, including retries", displayName = "Maximum flush time", units = Units.MICROSECONDS)
+   public long getMaxFlushTime() {
+      return TimeUnit.NANOSECONDS.toMicros(flushTimes.getMax());
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      batchSizes.reset();
+      flushTimes.reset();
+   }
+}
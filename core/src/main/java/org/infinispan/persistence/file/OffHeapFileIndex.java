@@ -0,0 +1,258 @@
+package org.infinispan.persistence.file;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongFunction;
+
+import org.infinispan.persistence.internal.DirectBufferCleaner;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Open addressing hash table that maps the hash code of a key to the position of its entry in the file, stored outside
+ * of the Java heap.
+ * <p>
+ * Each slot holds the file offset of the entry, its expiration time and the hash code of its key, so the heap usage
+ * does not depend on the number of keys. As different keys may have the same hash code, the hash code is only a
+ * fingerprint: lookups verify the key of each matching slot with the provided matcher, which reads the entry from the
+ * file and returns it if it has the key.
+ * <p>
+ * The slots are stored in direct buffers of at most {@link #MAX_CHUNK_SLOTS} slots each, so a table is not limited to
+ * the size of a single buffer. The buffers are released as soon as they are replaced, and by {@link #free()}, instead
+ * of waiting for the garbage collector.
+ *
+ * @since 14.0
+ */
+@NotThreadSafe
+final class OffHeapFileIndex {
+   private static final long EMPTY = 0;
+   // Entries start after the magic header, so no entry has offset 1
+   private static final long REMOVED = 1;
+
+   private static final int OFFSET_POS = 0;
+   private static final int EXPIRY_POS = 8;
+   private static final int HASH_POS = 16;
+   private static final int SLOT_SIZE = 20;
+
+   private static final int MIN_CAPACITY = 16;
+   private static final int MAX_CHUNK_SLOTS = 1 << 16;
+   private static final float LOAD_FACTOR = 0.75f;
+
+   private ByteBuffer[] chunks;
+   private int capacity;
+   private int chunkShift;
+   // Number of entries
+   private int size;
+   // Number of entries and removed slots
+   private int used;
+
+   OffHeapFileIndex() {
+      allocate(MIN_CAPACITY);
+   }
+
+   private ByteBuffer[] allocate(int capacity) {
+      ByteBuffer[] oldChunks = chunks;
+      this.capacity = capacity;
+      int chunkSlots = Math.min(capacity, MAX_CHUNK_SLOTS);
+      chunkShift = Integer.numberOfTrailingZeros(chunkSlots);
+      chunks = new ByteBuffer[capacity / chunkSlots];
+      for (int i = 0; i < chunks.length; i++) {
+         chunks[i] = ByteBuffer.allocateDirect(chunkSlots * SLOT_SIZE);
+      }
+      size = 0;
+      used = 0;
+      return oldChunks;
+   }
+
+   private static void release(ByteBuffer[] chunks) {
+      if (chunks != null) {
+         for (ByteBuffer chunk : chunks) {
+            DirectBufferCleaner.release(chunk);
+         }
+      }
+   }
+
+   int size() {
+      return size;
+   }
+
+   /**
+    * @param keyMatcher returns the entry at the given file offset if it has the key, or {@code null}
+    * @return the entry with the given key, or {@code null} if there is none
+    */
+   <E> E get(int hash, LongFunction<E> keyMatcher) {
+      for (int slot = candidate(hash, firstSlot(hash)); slot >= 0; slot = candidate(hash, probe(slot))) {
+         E entry = keyMatcher.apply(offset(slot));
+         if (entry != null) {
+            return entry;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Maps the key to a new entry.
+    *
+    * @param keyMatcher returns the entry at the given file offset if it has the key, or {@code null}
+    * @return the previous entry of the key, or {@code null} if there was none
+    */
+   <E> E put(int hash, long offset, long expiryTime, LongFunction<E> keyMatcher) {
+      assert offset > REMOVED;
+      for (int slot = candidate(hash, firstSlot(hash)); slot >= 0; slot = candidate(hash, probe(slot))) {
+         E previous = keyMatcher.apply(offset(slot));
+         if (previous != null) {
+            writeSlot(slot, offset, expiryTime, hash);
+            return previous;
+         }
+      }
+      if (used + 1 > capacity * LOAD_FACTOR) {
+         // Only grow if the entries fill half of the table, otherwise dropping the removed slots is enough
+         resize(size + 1 > capacity / 2 ? capacity << 1 : capacity);
+      }
+      insert(hash, offset, expiryTime);
+      return null;
+   }
+
+   /**
+    * @param keyMatcher returns the entry at the given file offset if it has the key, or {@code null}
+    * @return the removed entry, or {@code null} if the key had no entry
+    */
+   <E> E remove(int hash, LongFunction<E> keyMatcher) {
+      for (int slot = candidate(hash, firstSlot(hash)); slot >= 0; slot = candidate(hash, probe(slot))) {
+         E removed = keyMatcher.apply(offset(slot));
+         if (removed != null) {
+            removeSlot(slot);
+            return removed;
+         }
+      }
+      return null;
+   }
+
+   void clear() {
+      release(allocate(MIN_CAPACITY));
+   }
+
+   /**
+    * Releases the memory of the table. The table must not be used afterwards.
+    */
+   void free() {
+      release(chunks);
+      chunks = null;
+      capacity = 0;
+      size = 0;
+      used = 0;
+   }
+
+   /**
+    * @return the first slot holding an entry, starting from {@code slot} included, or {@code -1} if there is none
+    */
+   int nextSlot(int slot) {
+      for (; slot < capacity; slot++) {
+         if (offset(slot) > REMOVED) {
+            return slot;
+         }
+      }
+      return -1;
+   }
+
+   long offset(int slot) {
+      return chunk(slot).getLong(position(slot) + OFFSET_POS);
+   }
+
+   long expiryTime(int slot) {
+      return chunk(slot).getLong(position(slot) + EXPIRY_POS);
+   }
+
+   /**
+    * Removes the entry of the slot. The slots are not moved, so it is safe to remove entries while iterating.
+    */
+   void removeSlot(int slot) {
+      chunk(slot).putLong(position(slot) + OFFSET_POS, REMOVED);
+      size--;
+   }
+
+   private int firstSlot(int hash) {
+      return spread(hash) & (capacity - 1);
+   }
+
+   private int probe(int slot) {
+      return (slot + 1) & (capacity - 1);
+   }
+
+   /**
+    * @return the first slot with an entry with the given hash code, starting from {@code slot} included, or {@code -1}
+    * if the probing reaches an empty slot first
+    */
+   private int candidate(int hash, int slot) {
+      for (; ; slot = probe(slot)) {
+         long offset = offset(slot);
+         if (offset == EMPTY) {
+            return -1;
+         }
+         if (offset != REMOVED && hash(slot) == hash) {
+            return slot;
+         }
+      }
+   }
+
+   private void insert(int hash, long offset, long expiryTime) {
+      int slot = firstSlot(hash);
+      long current;
+      while ((current = offset(slot)) != EMPTY && current != REMOVED) {
+         slot = probe(slot);
+      }
+      if (current == EMPTY) {
+         used++;
+      }
+      size++;
+      writeSlot(slot, offset, expiryTime, hash);
+   }
+
+   private void resize(int newCapacity) {
+      ByteBuffer[] oldChunks = chunks;
+      int oldCapacity = capacity;
+      int oldChunkShift = chunkShift;
+      allocate(newCapacity);
+      try {
+         reinsert(oldChunks, oldCapacity, oldChunkShift);
+      } finally {
+         release(oldChunks);
+      }
+   }
+
+   private void reinsert(ByteBuffer[] oldChunks, int oldCapacity, int oldChunkShift) {
+      int oldChunkMask = (1 << oldChunkShift) - 1;
+      for (int slot = 0; slot < oldCapacity; slot++) {
+         ByteBuffer chunk = oldChunks[slot >>> oldChunkShift];
+         int position = (slot & oldChunkMask) * SLOT_SIZE;
+         long offset = chunk.getLong(position + OFFSET_POS);
+         if (offset > REMOVED) {
+            insert(chunk.getInt(position + HASH_POS), offset, chunk.getLong(position + EXPIRY_POS));
+         }
+      }
+   }
+
+   private int hash(int slot) {
+      return chunk(slot).getInt(position(slot) + HASH_POS);
+   }
+
+   private void writeSlot(int slot, long offset, long expiryTime, int hash) {
+      ByteBuffer chunk = chunk(slot);
+      int position = position(slot);
+      chunk.putLong(position + OFFSET_POS, offset);
+      chunk.putLong(position + EXPIRY_POS, expiryTime);
+      chunk.putInt(position + HASH_POS, hash);
+   }
+
+   private ByteBuffer chunk(int slot) {
+      return chunks[slot >>> chunkShift];
+   }
+
+   private int position(int slot) {
+      return (slot & ((1 << chunkShift) - 1)) * SLOT_SIZE;
+   }
+
+   private static int spread(int hash) {
+      // Mix the high bits into the low bits, as the slot only depends on the low bits
+      return hash ^ (hash >>> 16);
+   }
+}
@@ -11,6 +11,8 @@
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -22,11 +24,14 @@
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.PrimitiveIterator;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -134,6 +139,8 @@
    // bytes required by created and lastUsed timestamps
    private static final int TIMESTAMP_BYTES = 8 + 8;
    private static final int SMALLEST_ENTRY_SIZE = 128;
+   // Number of key bytes read together with the header when the off-heap index verifies a key
+   private static final int INDEX_KEY_READ_BYTES = 128;
 
    private SingleFileStoreConfiguration configuration;
 
@@ -155,6 +162,11 @@
    private boolean segmented;
    private int actualNumSegments;
    private int maxEntries;
+   private boolean offHeapIndex;
+   // The entries locked by readers, only used with the off-heap index
+   private final ConcurrentMap<Long, FileEntry> readingEntries = new ConcurrentHashMap<>();
+   // The file the off-heap index reads the keys from while migrating the data to a new file
+   private FileChannel migrationChannel;
 
    public static File getStoreFile(String directoryPath, String cacheName) {
       return new File(new File(directoryPath), cacheName + ".dat");
@@ -170,6 +182,7 @@ public CompletionStage<Void> start(InitializationContext ctx) {
 
       keyPartitioner = ctx.getKeyPartitioner();
       maxEntries = configuration.maxEntries();
+      offHeapIndex = configuration.offHeapIndex();
       segmented = configuration.segmented();
       if (segmented) {
          actualNumSegments = ctx.getCache().getCacheConfiguration().clustering().hash().numSegments();
@@ -288,6 +301,17 @@ private void migrateNonSegmented(byte[] magicHeader, boolean removeOnly) throws
 
    private void copyEntriesFromOldFile(byte[] magicHeader, FileChannel destChannel, FileChannel sourceChannel,
                                        String sourcePath) throws Exception {
+      // The entries are indexed with their position in the new file
+      migrationChannel = destChannel;
+      try {
+         copyEntriesToNewFile(magicHeader, destChannel, sourceChannel, sourcePath);
+      } finally {
+         migrationChannel = null;
+      }
+   }
+
+   private void copyEntriesToNewFile(byte[] magicHeader, FileChannel destChannel, FileChannel sourceChannel,
+                                     String sourcePath) throws Exception {
       if (magicHeader == null) {
          // The segment file has the 12.1 magic header
          copyEntriesFromV12_0(destChannel, sourceChannel, sourcePath);
@@ -339,6 +363,11 @@ private void blockingStop() {
             // reset state
             channel.close();
             channel = null;
+            if (offHeapIndex) {
+               for (Map<K, FileEntry> segmentEntries : entries) {
+                  freeOffHeapIndex(segmentEntries);
+               }
+            }
             entries = null;
             freeList = null;
          }
@@ -543,14 +572,14 @@ private void copyEntriesFromV12_0(FileChannel destChannel, FileChannel sourceCha
 
             // Update the entry with the destination filePos
             FileEntry newFe = new FileEntry(this.filePos, oldFe.size, oldFe.keyLen, oldFe.dataLen, oldFe.metadataLen, oldFe.internalMetadataLen, oldFe.expiryTime);
-            // Put the updated entry in the entries map so we don't need to rebuild the index later
-            Map<K, FileEntry> segmentEntries = getSegmentEntries(getSegment(key));
-            segmentEntries.put(key, newFe);
-
             buf.flip();
             destChannel.write(buf, this.filePos);
             bodyBuf.flip();
             destChannel.write(bodyBuf, this.filePos + KEY_POS_LATEST);
+
+            // Put the updated entry in the entries map so we don't need to rebuild the index later
+            Map<K, FileEntry> segmentEntries = getSegmentEntries(getSegment(key));
+            segmentEntries.put(key, newFe);
             this.filePos += newFe.size;
             if (log.isTraceEnabled())
                log.tracef("Recovered entry %s at %d:%d", key, newFe.size, newFe.offset, newFe.size);
@@ -814,7 +843,7 @@ private ByteBuffer allocate(ByteBuffer buf, int length) {
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       // Avoid switching threads if there is nothing to load
-      long stamp = resizeLock.tryReadLock();
+      long stamp = tryReadLockWithoutIO();
       if (stamp != 0) {
          // Acquires the FileEntry lock and releases the read lock
          FileEntry fe = getFileEntryWithReadLock(segment, key, stamp, false);
@@ -824,6 +853,17 @@ public CompletionStage<Boolean> containsKey(int segment, Object key) {
       return blockingManager.supplyBlocking(() -> blockingContainsKey(segment, key), "sfs-containsKey");
    }
 
+   /**
+    * Acquires the read lock if it is available and the entries can be looked up without blocking.
+    * <p>
+    * The off-heap index reads the keys from the file, so the lookups must always run on a blocking thread.
+    *
+    * @return the read lock stamp, or {@code 0} if the lookup must run on a blocking thread
+    */
+   private long tryReadLockWithoutIO() {
+      return offHeapIndex ? 0 : resizeLock.tryReadLock();
+   }
+
    private boolean blockingContainsKey(int segment, Object key) {
       long stamp = resizeLock.readLock();
       FileEntry fe = getFileEntryWithReadLock(segment, key, stamp, false);
@@ -914,7 +954,7 @@ private void addNewFreeEntry(FileEntry fe) throws IOException {
    private void free(FileEntry fe) throws IOException {
       if (fe != null) {
          // Wait for any reader to finish
-         fe.waitUnlocked();
+         waitForReaders(fe);
 
          // Invalidate entry on disk (by setting keyLen field to 0)
          // No need to wait for readers to unlock here, the FileEntry instance is not modified,
@@ -1033,12 +1073,17 @@ private void blockingClear() {
                continue;
 
             synchronized (segmentEntries) {
-               for (FileEntry fe : segmentEntries.values())
-                  fe.waitUnlocked();
+               if (!offHeapIndex) {
+                  for (FileEntry fe : segmentEntries.values())
+                     fe.waitUnlocked();
+               }
 
                segmentEntries.clear();
             }
          }
+         // The off-heap index does not keep the entries in memory, only the entries being read
+         for (FileEntry fe : readingEntries.values())
+            fe.waitUnlocked();
 
          // Then free entries that others might still be reading
          synchronized (freeList) {
@@ -1063,7 +1108,7 @@ private void blockingClear() {
 
    @Override
    public CompletionStage<Boolean> delete(int segment, Object key) {
-      long stamp = resizeLock.tryReadLock();
+      long stamp = tryReadLockWithoutIO();
       if (stamp != 0) {
          FileEntry fe = deleteWithReadLock(segment, key);
          if (fe == null) {
@@ -1110,7 +1155,7 @@ private FileEntry deleteWithReadLock(int segment, Object key) {
    @Override
    public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       // Avoid switching threads if there is nothing to load
-      long stamp = resizeLock.tryReadLock();
+      long stamp = tryReadLockWithoutIO();
       if (stamp != 0) {
          // Acquires the FileEntry lock and releases the read lock
          FileEntry fe = getFileEntryWithReadLock(segment, key, stamp, true);
@@ -1139,7 +1184,7 @@ private MarshallableEntry<K, V> blockingLoad(int segment, Object key, boolean lo
     * Get the file entry from the segment map and release the read lock
     */
    private FileEntry getFileEntryWithReadLock(int segment, Object key, long stamp, boolean lockFileEntry) {
-      final FileEntry fe;
+      FileEntry fe;
       try {
          Map<K, FileEntry> segmentEntries = getSegmentEntries(segment);
          if (segmentEntries == null)
@@ -1156,7 +1201,7 @@ private FileEntry getFileEntryWithReadLock(int segment, Object key, long stamp,
                return null;
             } else if (lockFileEntry) {
                // lock entry for reading before releasing entries monitor
-               fe.lock();
+               fe = lockForRead(fe);
             }
          }
       } finally {
@@ -1173,7 +1218,7 @@ private MarshallableEntry<K, V> readFromDisk(FileEntry fe, Object key, boolean l
          try {
             return entryFactory.create(key);
          } finally {
-            fe.unlock();
+            unlockAfterRead(fe);
          }
       }
 
@@ -1188,7 +1233,7 @@ private MarshallableEntry<K, V> readFromDisk(FileEntry fe, Object key, boolean l
       } finally {
          // No need to keep the lock for deserialization.
          // FileEntry is immutable, so its members can't be changed by another thread.
-         fe.unlock();
+         unlockAfterRead(fe);
       }
 
       if (log.isTraceEnabled()) log.tracef("Read entry %s at %d:%d", key, fe.offset, fe.actualSize());
@@ -1254,7 +1299,7 @@ public Publisher<K> publishKeys(IntSet segments, Predicate<? super K> filter) {
    }
 
    private Publisher<K> publishSegmentKeys(Predicate<? super K> filter, int segment) {
-      long stamp = resizeLock.tryReadLock();
+      long stamp = tryReadLockWithoutIO();
       if (stamp != 0) {
          return publishSegmentKeysWithReadLock(filter, segment, stamp);
       } else {
@@ -1531,6 +1576,10 @@ private void purgeExpiredEntries(long now, UnicastProcessor<MarshallableEntry<K,
    private List<KeyValuePair<Object, FileEntry>> collectExpiredEntries(long now, Map<K, FileEntry> segmentEntries) {
       List<KeyValuePair<Object, FileEntry>> entriesToPurge = new ArrayList<>();
       synchronized (segmentEntries) {
+         if (segmentEntries instanceof SingleFileStore.OffHeapSegmentEntries) {
+            ((OffHeapSegmentEntries) segmentEntries).removeExpired(now, entriesToPurge);
+            return entriesToPurge;
+         }
          for (Iterator<Map.Entry<K, FileEntry>> it = segmentEntries.entrySet().iterator(); it.hasNext(); ) {
             Map.Entry<K, FileEntry> next = it.next();
             FileEntry fe = next.getValue();
@@ -1538,8 +1587,7 @@ private List<KeyValuePair<Object, FileEntry>> collectExpiredEntries(long now, Ma
                it.remove();
                // We don't have to worry about other operations freeing the entry while we are reading it,
                // but we have to lock because readFromDisk() unlocks
-               fe.lock();
-               entriesToPurge.add(new KeyValuePair<>(next.getKey(), fe));
+               entriesToPurge.add(new KeyValuePair<>(next.getKey(), lockForRead(fe)));
             }
          }
       }
@@ -1620,6 +1668,10 @@ private void blockingAddSegments(IntSet segments) {
             if (entries[segment] != null)
                continue;
 
+            if (offHeapIndex) {
+               entries[segment] = new OffHeapSegmentEntries();
+               continue;
+            }
             // Only use LinkedHashMap (LRU) for entries when cache store is bounded
             Map<K, FileEntry> entryMap = configuration.maxEntries() > 0 ?
                                          new LinkedHashMap<>(16, 0.75f, true) :
@@ -1659,6 +1711,7 @@ private void blockingRemoveSegments(IntSet segments) {
             for (FileEntry fileEntry : removedSegment.values()) {
                free(fileEntry);
             }
+            freeOffHeapIndex(removedSegment);
          }
       } catch (IOException e) {
          throw new PersistenceException(e);
@@ -1668,6 +1721,184 @@ private void blockingRemoveSegments(IntSet segments) {
       processFreeEntries();
    }
 
+   private void freeOffHeapIndex(Map<K, FileEntry> segmentEntries) {
+      if (segmentEntries instanceof SingleFileStore.OffHeapSegmentEntries) {
+         ((OffHeapSegmentEntries) segmentEntries).free();
+      }
+   }
+
+   /**
+    * Locks the entry for reading, so that its space is not reused until {@link #unlockAfterRead(FileEntry)}.
+    *
+    * @return the instance to unlock after reading
+    */
+   private FileEntry lockForRead(FileEntry fe) {
+      if (!offHeapIndex) {
+         fe.lock();
+         return fe;
+      }
+      // The off-heap index creates a new instance on each lookup, so all the readers must lock the same instance
+      return readingEntries.compute(fe.offset, (offset, reading) -> {
+         FileEntry locked = reading != null ? reading : fe;
+         locked.lock();
+         return locked;
+      });
+   }
+
+   private void unlockAfterRead(FileEntry fe) {
+      if (!offHeapIndex) {
+         fe.unlock();
+         return;
+      }
+      readingEntries.computeIfPresent(fe.offset, (offset, reading) -> {
+         reading.unlock();
+         return reading.isLocked() ? reading : null;
+      });
+   }
+
+   private void waitForReaders(FileEntry fe) {
+      FileEntry reading = offHeapIndex ? readingEntries.get(fe.offset) : fe;
+      if (reading != null) {
+         reading.waitUnlocked();
+      }
+   }
+
+   /**
+    * Reads the header and the key of an entry.
+    */
+   private KeyValuePair<K, FileEntry> readIndexedEntry(long offset) {
+      FileChannel indexChannel = migrationChannel != null ? migrationChannel : channel;
+      try {
+         // Read the key together with the header, most keys are small
+         ByteBuffer buf = readChannel(ByteBuffer.allocate(KEY_POS_LATEST + INDEX_KEY_READ_BYTES), offset,
+               KEY_POS_LATEST + INDEX_KEY_READ_BYTES, indexChannel);
+         buf.flip();
+         FileEntry fe = new FileEntry(offset, buf);
+         if (fe.keyLen > buf.remaining()) {
+            buf = readChannel(ByteBuffer.allocate(fe.keyLen), offset + KEY_POS_LATEST, fe.keyLen, indexChannel);
+            buf.flip();
+         }
+         K key = (K) ctx.getPersistenceMarshaller().objectFromByteBuffer(buf.array(), buf.position(), fe.keyLen);
+         return new KeyValuePair<>(key, fe);
+      } catch (IOException | ClassNotFoundException e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   /**
+    * The entries of a segment, indexed with an {@link OffHeapFileIndex}.
+    * <p>
+    * Only the position and the expiration time of the entries are kept in memory, the keys and the other fields are
+    * read from the file on each lookup. Like the {@link Collections#synchronizedMap(Map)} used for the heap index, the
+    * operations synchronize on the map, and iterating requires holding the map monitor.
+    */
+   private class OffHeapSegmentEntries extends AbstractMap<K, FileEntry> {
+      private final OffHeapFileIndex index = new OffHeapFileIndex();
+
+      @Override
+      public synchronized FileEntry get(Object key) {
+         return index.get(key.hashCode(), offset -> readIfMatches(key, offset));
+      }
+
+      @Override
+      public synchronized boolean containsKey(Object key) {
+         return get(key) != null;
+      }
+
+      @Override
+      public synchronized FileEntry put(K key, FileEntry fe) {
+         return index.put(key.hashCode(), fe.offset, fe.expiryTime, offset -> readIfMatches(key, offset));
+      }
+
+      @Override
+      public synchronized FileEntry remove(Object key) {
+         return index.remove(key.hashCode(), offset -> readIfMatches(key, offset));
+      }
+
+      @Override
+      public synchronized int size() {
+         return index.size();
+      }
+
+      @Override
+      public synchronized void clear() {
+         index.clear();
+      }
+
+      @Override
+      public Set<Entry<K, FileEntry>> entrySet() {
+         return new AbstractSet<Entry<K, FileEntry>>() {
+            @Override
+            public Iterator<Entry<K, FileEntry>> iterator() {
+               return new SlotIterator();
+            }
+
+            @Override
+            public int size() {
+               return OffHeapSegmentEntries.this.size();
+            }
+         };
+      }
+
+      /**
+       * Releases the off-heap memory of the index. The map must not be used afterwards.
+       */
+      synchronized void free() {
+         index.free();
+      }
+
+      /**
+       * Removes the expired entries and adds them to {@code expired}, locked for reading.
+       * <p>
+       * Only the expired entries are read from the file.
+       */
+      synchronized void removeExpired(long now, List<KeyValuePair<Object, FileEntry>> expired) {
+         for (int slot = index.nextSlot(0); slot >= 0; slot = index.nextSlot(slot + 1)) {
+            long expiryTime = index.expiryTime(slot);
+            if (expiryTime > 0 && expiryTime < now) {
+               KeyValuePair<K, FileEntry> entry = readIndexedEntry(index.offset(slot));
+               index.removeSlot(slot);
+               expired.add(new KeyValuePair<>(entry.getKey(), lockForRead(entry.getValue())));
+            }
+         }
+      }
+
+      private FileEntry readIfMatches(Object key, long offset) {
+         KeyValuePair<K, FileEntry> entry = readIndexedEntry(offset);
+         return key.equals(entry.getKey()) ? entry.getValue() : null;
+      }
+
+      private class SlotIterator implements Iterator<Entry<K, FileEntry>> {
+         private int nextSlot = index.nextSlot(0);
+         private int currentSlot = -1;
+
+         @Override
+         public boolean hasNext() {
+            return nextSlot >= 0;
+         }
+
+         @Override
+         public Entry<K, FileEntry> next() {
+            if (nextSlot < 0)
+               throw new NoSuchElementException();
+
+            currentSlot = nextSlot;
+            nextSlot = index.nextSlot(currentSlot + 1);
+            KeyValuePair<K, FileEntry> entry = readIndexedEntry(index.offset(currentSlot));
+            return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+         }
+
+         @Override
+         public void remove() {
+            if (currentSlot < 0)
+               throw new IllegalStateException();
+
+            index.removeSlot(currentSlot);
+            currentSlot = -1;
+         }
+      }
+   }
+
    /**
     * Helper class to represent an entry in the cache file.
     * <p/>
@@ -0,0 +1,62 @@
+package org.infinispan.persistence.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Releases the memory of direct buffers and memory mappings without waiting for the garbage collector, e.g. so that a
+ * mapped file can be deleted right away. The buffer must not be accessed after it was released.
+ *
+ * @since 14.0
+ */
+public final class DirectBufferCleaner {
+   private static final Log log = LogFactory.getLog(DirectBufferCleaner.class);
+   private static final MethodHandle CLEANER = SecurityActions.doPrivileged(DirectBufferCleaner::lookupCleaner);
+
+   private DirectBufferCleaner() { }
+
+   private static MethodHandle lookupCleaner() {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      try {
+         // Java 9+
+         Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+         Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+         unsafeField.setAccessible(true);
+         return lookup.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+               .bindTo(unsafeField.get(null));
+      } catch (ReflectiveOperationException | RuntimeException e) {
+         // Java 8
+         try {
+            Class<?> directBufferClass = Class.forName("sun.nio.ch.DirectBuffer");
+            Class<?> cleanerClass = Class.forName("sun.misc.Cleaner");
+            MethodHandle cleaner = lookup.findVirtual(directBufferClass, "cleaner", MethodType.methodType(cleanerClass));
+            MethodHandle clean = lookup.findVirtual(cleanerClass, "clean", MethodType.methodType(void.class));
+            return MethodHandles.filterReturnValue(cleaner, clean)
+                  .asType(MethodType.methodType(void.class, ByteBuffer.class));
+         } catch (ReflectiveOperationException | RuntimeException e2) {
+            log.debug("Direct buffers cannot be released explicitly, they are released by the garbage collector", e2);
+            return null;
+         }
+      }
+   }
+
+   /**
+    * Releases the memory of a direct or mapped buffer. Slices and duplicates can't be released, only the buffer that
+    * was allocated.
+    */
+   public static void release(ByteBuffer buffer) {
+      if (CLEANER != null && buffer.isDirect()) {
+         try {
+            CLEANER.invokeExact(buffer);
+         } catch (Throwable t) {
+            log.debug("Cannot release direct buffer", t);
+         }
+      }
+   }
+}
@@ -1,8 +1,10 @@
 package org.infinispan.persistence.manager;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 
@@ -17,7 +19,9 @@
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.transaction.impl.AbstractCacheTransaction;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
 import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.reactivestreams.Publisher;
 
 import io.reactivex.rxjava3.core.Flowable;
@@ -193,6 +197,34 @@ default <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
       return loadFromAllStores(key, localInvocation, includeStores);
    }
 
+   /**
+    * Loads the entries of several keys from the persistence stores. Each store is asked for all the keys not found in
+    * the previous stores with a single {@link org.infinispan.persistence.spi.NonBlockingStore#loadAll(Map)} invocation. The returned entries are
+    * guaranteed to not be expired when they were returned.
+    * @param keysBySegment keys to read the entries from, grouped by segment
+    * @param localInvocation whether this invocation is a local invocation. Some loaders may be ignored if it is not local
+    * @param includeStores if a loader that is also a store can be loaded from
+    * @return the entries that were found, mapped by key
+    * @implSpec default implementation invokes {@link #loadFromAllStores(Object, int, boolean, boolean)} for each key
+    */
+   default <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAllFromAllStores(
+         Map<Integer, ? extends Collection<?>> keysBySegment, boolean localInvocation, boolean includeStores) {
+      Map<Object, MarshallableEntry<K, V>> entries = new ConcurrentHashMap<>();
+      AggregateCompletionStage<Map<Object, MarshallableEntry<K, V>>> stage =
+            CompletionStages.aggregateCompletionStage(entries);
+      for (Map.Entry<Integer, ? extends Collection<?>> segmentKeys : keysBySegment.entrySet()) {
+         int segment = segmentKeys.getKey();
+         for (Object key : segmentKeys.getValue()) {
+            stage.dependsOn(this.<K, V>loadFromAllStores(key, segment, localInvocation, includeStores).thenAccept(entry -> {
+               if (entry != null) {
+                  entries.put(key, entry);
+               }
+            }));
+         }
+      }
+      return stage.freeze();
+   }
+
    default CompletionStage<Long> size() {
        return size(AccessMode.BOTH);
    }
@@ -8,9 +8,12 @@
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -835,6 +838,75 @@ private <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromStoresIterator(O
       return CompletableFutures.completedNull();
    }
 
+   @Override
+   public <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAllFromAllStores(
+         Map<Integer, ? extends Collection<?>> keysBySegment, boolean localInvocation, boolean includeStores) {
+      long stamp = acquireReadLock();
+      boolean release = true;
+      try {
+         checkStoreAvailability();
+         if (log.isTraceEnabled()) {
+            log.tracef("Loading entries for keys %s", keysBySegment);
+         }
+         Iterator<StoreStatus> iterator = stores.iterator();
+         CompletionStage<Map<Object, MarshallableEntry<K, V>>> stage =
+               loadAllFromStoresIterator(keysBySegment, new HashMap<>(), iterator, localInvocation, includeStores);
+         if (CompletionStages.isCompletedSuccessfully(stage)) {
+            return stage;
+         } else {
+            release = false;
+            return stage.whenComplete((e, throwable) -> releaseReadLock(stamp));
+         }
+      } finally {
+         if (release) {
+            releaseReadLock(stamp);
+         }
+      }
+   }
+
+   private <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAllFromStoresIterator(
+         Map<Integer, ? extends Collection<?>> keysBySegment, Map<Object, MarshallableEntry<K, V>> entries,
+         Iterator<StoreStatus> iterator, boolean localInvocation, boolean includeStores) {
+      while (iterator.hasNext()) {
+         StoreStatus storeStatus = iterator.next();
+         NonBlockingStore<K, V> store = storeStatus.store();
+         if (!allowLoad(storeStatus, localInvocation, includeStores)) {
+            continue;
+         }
+         Map<Integer, ? extends Collection<?>> storeKeys;
+         if (storeStatus.characteristics.contains(Characteristic.SEGMENTABLE)) {
+            storeKeys = keysBySegment;
+         } else if (keysBySegment.size() == 1) {
+            // Non segmented stores always expect segment 0, same as segmentOrZero
+            storeKeys = Collections.singletonMap(0, keysBySegment.values().iterator().next());
+         } else {
+            List<Object> keys = new ArrayList<>();
+            keysBySegment.values().forEach(keys::addAll);
+            storeKeys = Collections.singletonMap(0, keys);
+         }
+         return store.loadAll(storeKeys).thenCompose(found -> {
+            if (found.isEmpty()) {
+               return loadAllFromStoresIterator(keysBySegment, entries, iterator, localInvocation, includeStores);
+            }
+            entries.putAll(found);
+            // Only ask the next stores for the keys that were not found
+            Map<Integer, List<Object>> missingKeys = new HashMap<>();
+            for (Map.Entry<Integer, ? extends Collection<?>> segmentKeys : keysBySegment.entrySet()) {
+               for (Object key : segmentKeys.getValue()) {
+                  if (!found.containsKey(key)) {
+                     missingKeys.computeIfAbsent(segmentKeys.getKey(), segment -> new ArrayList<>()).add(key);
+                  }
+               }
+            }
+            if (missingKeys.isEmpty()) {
+               return CompletableFuture.completedFuture(entries);
+            }
+            return loadAllFromStoresIterator(missingKeys, entries, iterator, localInvocation, includeStores);
+         });
+      }
+      return CompletableFuture.completedFuture(entries);
+   }
+
    private boolean allowLoad(StoreStatus storeStatus, boolean localInvocation, boolean includeStores) {
       return !storeStatus.characteristics.contains(Characteristic.WRITE_ONLY) && (localInvocation || !isLocalOnlyLoader(storeStatus.store)) &&
              (includeStores || storeStatus.characteristics.contains(Characteristic.READ_ONLY) || storeStatus.config.ignoreModifications());
@@ -0,0 +1,56 @@
+package org.infinispan.persistence.sifs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.time.TimeService;
+
+/**
+ * Limits the rate at which the compactor reads and writes data files, so that compaction does not compete with the
+ * log appender for disk bandwidth. The limit is shared by all the compactor threads.
+ * <p>
+ * Each caller reserves the time needed to process its bytes at the configured rate and waits until the reservation
+ * ends. Up to one second of unused time is kept, so short bursts after an idle period are not delayed.
+ *
+ * @since 14.0
+ */
+final class CompactionThrottle {
+   private static final long MAX_BURST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+   private final TimeService timeService;
+   private final long bytesPerSecond;
+   private long nextFreeTime;
+
+   CompactionThrottle(TimeService timeService, long bytesPerSecond) {
+      assert bytesPerSecond > 0;
+      this.timeService = timeService;
+      this.bytesPerSecond = bytesPerSecond;
+      this.nextFreeTime = timeService.time() - MAX_BURST_NANOS;
+   }
+
+   /**
+    * Blocks the caller until the given number of bytes can be processed without exceeding the rate limit. If the
+    * thread is interrupted it returns immediately, keeping the interrupt flag set.
+    */
+   void acquire(int bytes) {
+      long waitNanos = reserve(bytes);
+      if (waitNanos > 0) {
+         try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+   /**
+    * Reserves the time needed to process the given number of bytes.
+    *
+    * @return how many nanoseconds the caller must wait before processing them, not positive if it can process them now
+    */
+   synchronized long reserve(int bytes) {
+      long now = timeService.time();
+      long start = Math.max(nextFreeTime, now - MAX_BURST_NANOS);
+      nextFreeTime = start + bytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+      return nextFreeTime - now;
+   }
+}
@@ -2,12 +2,18 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -35,6 +41,11 @@
  * Component keeping the data about log file usage - as soon as entries from some file are overwritten so that the file
  * becomes cluttered with old records, the valid records are moved to another file and the old ones are dropped.
  * Expired records are moved as tombstones without values (records of entry removal).
+ * <p>
+ * Files that reached the compaction threshold are kept in a backlog. The compactor picks the files with the highest
+ * ratio of unused space first, and compacts up to {@code compactionThreads} of them concurrently, each thread moving
+ * the records to its own log file. The reads and writes of all the threads can be limited to a number of bytes per
+ * second, so that compaction does not take the disk bandwidth from the writes.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -51,6 +62,13 @@ class Compactor implements Consumer<Object> {
    private final int maxFileSize;
    private final double compactionThreshold;
    private final FlowableProcessor<Object> processor;
+   private final Executor blockingExecutor;
+   private final CompactionThrottle throttle;
+   private final SoftIndexFileStoreStatistics statistics;
+   // Files that reached the compaction threshold and were not compacted yet
+   private final Set<Integer> scheduledFiles = ConcurrentHashMap.newKeySet();
+   // The state of each compactor thread, only the first one is used to remove expired entries
+   private final Worker[] workers;
 
    private Index index;
    // as processing single scheduled compaction takes a lot of time, we don't use the queue to signalize
@@ -58,22 +76,17 @@ class Compactor implements Consumer<Object> {
    private volatile boolean terminateSignal = false;
 
    private CompletableFuture<Void> paused = CompletableFutures.completedNull();
+   // Completes when all the workers are done with their files, written only by the compactor pipeline
+   private volatile CompletionStage<Void> compacting = CompletableFutures.completedNull();
 
    // Special object used solely for the purpose of resuming the compactor after compacting a file and waiting for
    // all indices to be updated
    private static final Object RESUME_PILL = new Object();
 
-   // This buffer is used by the compactor thread to avoid allocating buffers per entry written that are smaller
-   // than the header size
-   private final java.nio.ByteBuffer REUSED_BUFFER = java.nio.ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
-
-   FileProvider.Log logFile = null;
-   long nextExpirationTime = -1;
-   int currentOffset = 0;
-
    public Compactor(NonBlockingManager nonBlockingManager, FileProvider fileProvider, TemporaryTable temporaryTable,
          Marshaller marshaller, TimeService timeService, KeyPartitioner keyPartitioner, int maxFileSize,
-         double compactionThreshold, Executor blockingExecutor) {
+         double compactionThreshold, int compactionThreads, long compactionRateLimit, Executor blockingExecutor,
+         SoftIndexFileStoreStatistics statistics) {
       this.nonBlockingManager = nonBlockingManager;
       this.fileProvider = fileProvider;
       this.temporaryTable = temporaryTable;
@@ -82,6 +95,14 @@ public Compactor(NonBlockingManager nonBlockingManager, FileProvider fileProvide
       this.keyPartitioner = keyPartitioner;
       this.maxFileSize = maxFileSize;
       this.compactionThreshold = compactionThreshold;
+      this.blockingExecutor = blockingExecutor;
+      this.throttle = compactionRateLimit > 0 ? new CompactionThrottle(timeService, compactionRateLimit) : null;
+      this.statistics = statistics;
+      this.workers = new Worker[compactionThreads];
+      for (int i = 0; i < compactionThreads; ++i) {
+         workers[i] = new Worker();
+      }
+      statistics.registerCompactor(this);
 
       processor = UnicastProcessor.create();
       Scheduler scheduler = Schedulers.from(blockingExecutor);
@@ -170,10 +191,58 @@ private void schedule(int file, Stats stats) {
          }
       }
       if (shouldSchedule) {
+         scheduledFiles.add(file);
          processor.onNext(file);
       }
    }
 
+   /**
+    * @return how many files wait to be compacted
+    */
+   int getBacklogFiles() {
+      return scheduledFiles.size();
+   }
+
+   /**
+    * @return the unused space in the files that wait to be compacted
+    */
+   long getBacklogBytes() {
+      long bytes = 0;
+      for (Integer file : scheduledFiles) {
+         Stats stats = fileStats.get(file);
+         if (stats != null) {
+            bytes += stats.getFree();
+         }
+      }
+      return bytes;
+   }
+
+   private static double garbageRatio(Stats stats) {
+      if (stats == null) {
+         return 0;
+      }
+      int total = stats.getTotal();
+      return total > 0 ? (double) stats.getFree() / total : 0;
+   }
+
+   /**
+    * Removes from the backlog the files with the highest ratio of unused space, at most one per compactor thread.
+    */
+   private List<Integer> nextFilesToCompact() {
+      List<Integer> files = new ArrayList<>(scheduledFiles);
+      if (files.size() > workers.length) {
+         // Compute the ratios once, as the free space keeps changing while sorting
+         Map<Integer, Double> ratios = new HashMap<>();
+         for (Integer file : files) {
+            ratios.put(file, garbageRatio(fileStats.get(file)));
+         }
+         files.sort(Comparator.comparing(ratios::get, Comparator.reverseOrder()));
+         files = files.subList(0, workers.length);
+      }
+      scheduledFiles.removeAll(files);
+      return files;
+   }
+
    /**
     * Immediately sends a request to pause the compactor. The returned stage will complete when the
     * compactor is actually paused. To resume the compactor the {@link #resumeAfterClear()} method
@@ -207,8 +276,14 @@ private void resumeAfterPause() {
    public void stopOperations() {
       terminateSignal = true;
       processor.onComplete();
-      Util.close(logFile);
-      logFile = null;
+      // The workers stop after their current record, wait for them before closing their log files. A compaction that
+      // starts later sees the terminate signal before reading any record. The failures are logged by pauseUntilMoved
+      CompletionStages.join(compacting.handle((ignore, t) -> null));
+      for (Worker worker : workers) {
+         Util.close(worker.logFile);
+         worker.logFile = null;
+      }
+      statistics.unregisterCompactor(this);
    }
 
    @Override
@@ -227,16 +302,22 @@ public void accept(Object o) throws Throwable {
       // any other threads decrementing clear signal. However, another thread can increment, that is okay for us
       if (clearSignal.get()) {
          // We ignore any entries since it was last cleared
+         scheduledFiles.clear();
          if (o instanceof CompletableFuture) {
             log.tracef("Compactor ignoring all future compactions until resumed");
 
-            if (logFile != null) {
-               logFile.close();
-               logFile = null;
-               nextExpirationTime = -1;
-            }
-
-            nonBlockingManager.complete((CompletableFuture<?>) o, null);
+            // The other workers may still be writing to their log files, they stop once they see the clear signal
+            compacting.whenComplete((ignore, t) -> {
+               try {
+                  for (Worker worker : workers) {
+                     // The stats are cleared, the file must not be scheduled for compaction
+                     worker.closeLogFile(false);
+                  }
+                  nonBlockingManager.complete((CompletableFuture<?>) o, null);
+               } catch (IOException e) {
+                  ((CompletableFuture<?>) o).completeExceptionally(e);
+               }
+            });
          } else {
             log.tracef("Ignoring compaction request for %s as compactor is being cleared", o);
          }
@@ -245,6 +326,9 @@ public void accept(Object o) throws Throwable {
 
       if (o instanceof CompactionExpirationSubscriber) {
          CompactionExpirationSubscriber subscriber = (CompactionExpirationSubscriber) o;
+         AggregateCompletionStage<Void> moves = CompletionStages.aggregateCompletionStage();
+         CompletableFuture<Void> expiring = new CompletableFuture<>();
+         compacting = CompletionStages.allOf(compacting, expiring);
          try {
             for (CloseableIterator<Integer> iter = fileProvider.getFileIterator(); iter.hasNext(); ) {
                int fileId = iter.next();
@@ -260,17 +344,91 @@ public void accept(Object o) throws Throwable {
                      continue;
                   }
                }
-               compactSingleFile(fileId, isLogFile, subscriber, currentTimeMilliseconds);
+               if (!isLogFile) {
+                  // The file is going to be deleted
+                  scheduledFiles.remove(fileId);
+               }
+               CompletionStage<Void> fileMoves = compactSingleFile(workers[0], fileId, isLogFile, subscriber, currentTimeMilliseconds);
+               if (fileMoves != null) {
+                  moves.dependsOn(fileMoves);
+               }
             }
             subscriber.onComplete();
          } catch (Throwable t) {
             subscriber.onError(t);
+         } finally {
+            expiring.complete(null);
          }
+         pauseUntilMoved(moves.freeze(), "expired entries");
          return;
       }
 
-      // Any other type submitted has to be a positive integer
-      compactSingleFile((int) o, false, null, timeService.wallClockTime());
+      // Any other type submitted has to be a positive integer, however the files are compacted in order of their
+      // unused space: the file might have been compacted already or it might be compacted later
+      List<Integer> files = nextFilesToCompact();
+      if (files.isEmpty()) {
+         return;
+      }
+      long start = timeService.time();
+      long currentTimeMilliseconds = timeService.wallClockTime();
+      AggregateCompletionStage<Void> moves = CompletionStages.aggregateCompletionStage();
+      AggregateCompletionStage<Void> compactions = CompletionStages.aggregateCompletionStage();
+      for (int i = 1; i < files.size(); ++i) {
+         Worker worker = workers[i];
+         int file = files.get(i);
+         // This thread doesn't wait for the other files, as their tasks could be queued behind it in the same executor.
+         // The next compaction is paused until their moves complete instead
+         CompletableFuture<CompletionStage<Void>> compaction = CompletableFuture.supplyAsync(() -> {
+            try {
+               return compactSingleFile(worker, file, false, null, currentTimeMilliseconds);
+            } catch (Throwable t) {
+               throw new CompletionException(t);
+            }
+         }, blockingExecutor);
+         compactions.dependsOn(compaction);
+         moves.dependsOn(compaction.thenCompose(fileMoves -> fileMoves != null ? fileMoves :
+                                                             CompletableFutures.completedNull()));
+      }
+      CompletableFuture<Void> firstCompaction = new CompletableFuture<>();
+      compactions.dependsOn(firstCompaction);
+      compacting = compactions.freeze();
+      Throwable failure = null;
+      try {
+         // The first file is compacted by this thread
+         CompletionStage<Void> fileMoves = compactSingleFile(workers[0], files.get(0), false, null, currentTimeMilliseconds);
+         if (fileMoves != null) {
+            moves.dependsOn(fileMoves);
+         }
+      } catch (Throwable t) {
+         failure = t;
+      } finally {
+         firstCompaction.complete(null);
+      }
+      compacting.whenComplete((ignore, t) ->
+            statistics.recordCompactionTime(timeService.timeDuration(start, TimeUnit.NANOSECONDS)));
+      // The failures of the other workers are logged once all the moves complete
+      pauseUntilMoved(moves.freeze(), files);
+      if (failure != null) {
+         throw failure;
+      }
+   }
+
+   private void pauseUntilMoved(CompletionStage<Void> moves, Object files) {
+      if (clearSignal.get()) {
+         return;
+      }
+      // We delay the next operation until all prior moves are done. By moving it can trigger another
+      // compaction before the index has been fully updated. Thus we block any other compaction events
+      // until all entries have been moved for these files
+      paused = new CompletableFuture<>();
+      // We resume after completed, Note that we must complete the {@code paused} variable inside the compactor
+      // execution pipeline otherwise we can invoke compactor operations in the wrong thread
+      moves.whenComplete((ignore, t) -> {
+         resumeAfterPause();
+         if (t != null) {
+            log.error("There was a problem moving indexes for compactor with files " + files, t);
+         }
+      });
    }
 
    /**
@@ -280,15 +438,18 @@ public void accept(Object o) throws Throwable {
     * moved to the new log file and the current file is deleted afterwards. If an expired entry is found during compaction
     * of a non log file the expiration listener is notified and the entry is not moved, however if no expiration listener
     * is provided the expired entry is moved to the new file as is still expired.
+    * @param worker        the state of the compactor thread
     * @param scheduledFile the file identifier to compact
     * @param isLogFile     whether the provided file as a log file, which means we only notify and compact expired
     *                      entries (ignore others)
     * @param subscriber    the subscriber that is notified of various entries being expired
+    * @return a stage that completes when the index is updated for all the moved entries, or {@code null} if the
+    *         compactor was cleared
     * @throws IOException            thrown if there was an issue with reading or writing to a file
     * @throws ClassNotFoundException thrown if there is an issue deserializing the key for an entry
     */
-   private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionExpirationSubscriber subscriber,
-         long currentTimeMilliseconds) throws IOException, ClassNotFoundException {
+   private CompletionStage<Void> compactSingleFile(Worker worker, int scheduledFile, boolean isLogFile,
+         CompactionExpirationSubscriber subscriber, long currentTimeMilliseconds) throws IOException, ClassNotFoundException {
       assert scheduledFile >= 0;
       if (subscriber == null) {
          log.tracef("Compacting file %d", scheduledFile);
@@ -296,6 +457,8 @@ private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionE
          log.tracef("Removing expired entries from file %d", scheduledFile);
       }
       int scheduledOffset = 0;
+      long writtenBytes = 0;
+      CompletionStage<Void> moves = null;
       // Store expired entries to remove after we update the index
       List<EntryPosition> expiredTemp = subscriber != null ? new ArrayList<>() : null;
       List<EntryRecord> expiredIndex = subscriber != null ? new ArrayList<>() : null;
@@ -310,6 +473,9 @@ private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionE
             if (header == null) {
                break;
             }
+            if (throttle != null) {
+               throttle.acquire(header.totalLength());
+            }
             byte[] serializedKey = EntryRecord.readKey(handle, header, scheduledOffset);
             if (serializedKey == null) {
                throw new IllegalStateException("End of file reached when reading key on "
@@ -365,8 +531,13 @@ private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionE
                // we could remove the entry and delete would not find it
                drop = false;
             } else {
-               EntryInfo info = index.getInfo(key, serializedKey);
-               assert info != null : "No index info found for key: " + key;
+               EntryInfo info = index.getInfo(key, segment, serializedKey);
+               if (info == null) {
+                  // The segment was removed from the index, the record is dropped with the file
+                  log.tracef("Key for %d:%d was not found in index, its segment %d was removed", scheduledFile, scheduledOffset, segment);
+                  scheduledOffset += header.totalLength();
+                  continue;
+               }
                assert info.numRecords > 0;
                if (info.file == scheduledFile && info.offset == scheduledOffset) {
                   assert header.valueLength() > 0;
@@ -375,7 +546,7 @@ private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionE
                   if (entryExpiryTime >= 0 && entryExpiryTime <= currentTimeMilliseconds) {
                      // We can only truncate expired entries if this was compacted with purge expire
                      if (expiredIndex != null) {
-                        EntryRecord record = index.getRecordEvenIfExpired(key, serializedKey);
+                        EntryRecord record = index.getRecordEvenIfExpired(key, segment, serializedKey);
                         truncate = true;
                         expiredIndex.add(record);
                         // If there are more entries we cannot drop the index as we need a tombstone
@@ -417,15 +588,10 @@ private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionE
                }
                index.handleRequest(IndexRequest.dropped(segment, key, serializedKey, scheduledFile, scheduledOffset));
             } else {
-               if (logFile == null || currentOffset + header.totalLength() > maxFileSize) {
-                  if (logFile != null) {
-                     logFile.close();
-                     completeFile(logFile.fileId, currentOffset, nextExpirationTime);
-                     nextExpirationTime = -1;
-                  }
-                  currentOffset = 0;
-                  logFile = fileProvider.getFileForLog();
-                  log.debugf("Compacting to %d", (Object) logFile.fileId);
+               if (worker.logFile == null || worker.currentOffset + header.totalLength() > maxFileSize) {
+                  worker.closeLogFile(true);
+                  worker.logFile = fileProvider.getFileForLog();
+                  log.debugf("Compacting to %d", (Object) worker.logFile.fileId);
                }
 
                byte[] serializedValue = null;
@@ -441,16 +607,19 @@ private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionE
                   if (header.internalMetadataLength() > 0) {
                      serializedInternalMetadata = EntryRecord.readInternalMetadata(handle, header, scheduledOffset);
                   }
-                  entryOffset = currentOffset;
+                  entryOffset = worker.currentOffset;
                   writtenLength = header.totalLength();
                   // Update the next expiration time only for entries that are not removed
-                  nextExpirationTime = ExpiryHelper.mostRecentExpirationTime(nextExpirationTime, header.expiryTime());
+                  worker.nextExpirationTime = ExpiryHelper.mostRecentExpirationTime(worker.nextExpirationTime, header.expiryTime());
                } else {
-                  entryOffset = ~currentOffset;
+                  entryOffset = ~worker.currentOffset;
                   writtenLength = header.getHeaderLength() + header.keyLength();
                }
-               EntryRecord.writeEntry(logFile.fileChannel, REUSED_BUFFER, serializedKey, metadata, serializedValue, serializedInternalMetadata, header.seqId(), header.expiryTime());
-               TemporaryTable.LockedEntry lockedEntry = temporaryTable.replaceOrLock(segment, key, logFile.fileId, entryOffset, scheduledFile, indexedOffset);
+               if (throttle != null) {
+                  throttle.acquire(writtenLength);
+               }
+               EntryRecord.writeEntry(worker.logFile.fileChannel, worker.buffer, serializedKey, metadata, serializedValue, serializedInternalMetadata, header.seqId(), header.expiryTime());
+               TemporaryTable.LockedEntry lockedEntry = temporaryTable.replaceOrLock(segment, key, worker.logFile.fileId, entryOffset, scheduledFile, indexedOffset);
                if (lockedEntry == null) {
                   if (log.isTraceEnabled()) {
                      log.trace("Found entry in temporary table");
@@ -458,19 +627,19 @@ private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionE
                } else {
                   boolean update = false;
                   try {
-                     EntryInfo info = index.getInfo(key, serializedKey);
+                     EntryInfo info = index.getInfo(key, segment, serializedKey);
                      if (info == null) {
-                        throw new IllegalStateException(String.format(
-                              "%s was not found in index but it was not in temporary table and there's entry on %d:%d", key, scheduledFile, indexedOffset));
+                        // The segment was removed from the index concurrently, the moved record is freed by the index
+                        log.tracef("%s was not found in index, its segment %d was removed", key, segment);
                      } else {
                         update = info.file == scheduledFile && info.offset == indexedOffset;
-                     }
-                     if (log.isTraceEnabled()) {
-                        log.tracef("In index the key is on %d:%d (%s)", info.file, info.offset, String.valueOf(update));
+                        if (log.isTraceEnabled()) {
+                           log.tracef("In index the key is on %d:%d (%s)", info.file, info.offset, String.valueOf(update));
+                        }
                      }
                   } finally {
                      if (update) {
-                        temporaryTable.updateAndUnlock(lockedEntry, logFile.fileId, entryOffset);
+                        temporaryTable.updateAndUnlock(lockedEntry, worker.logFile.fileId, entryOffset);
                      } else {
                         temporaryTable.removeAndUnlock(lockedEntry, segment, key);
                      }
@@ -478,39 +647,31 @@ private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionE
                }
                if (log.isTraceEnabled()) {
                   log.tracef("Update %d:%d -> %d:%d | %d,%d", scheduledFile, indexedOffset,
-                        logFile.fileId, entryOffset, logFile.fileChannel.position(), logFile.fileChannel.size());
+                        worker.logFile.fileId, entryOffset, worker.logFile.fileChannel.position(), worker.logFile.fileChannel.size());
                }
                IndexRequest indexRequest;
                if (isLogFile) {
                   // When it is a log file we are still keeping the original entry, we are just updating it to say
                   // it was expired
-                  indexRequest = IndexRequest.update(segment, key, serializedKey, logFile.fileId, entryOffset, writtenLength);
+                  indexRequest = IndexRequest.update(segment, key, serializedKey, worker.logFile.fileId, entryOffset, writtenLength);
                } else {
                   // entryFile cannot be used as we have to report the file due to free space statistics
-                  indexRequest = IndexRequest.moved(segment, key, serializedKey, logFile.fileId, entryOffset, writtenLength,
+                  indexRequest = IndexRequest.moved(segment, key, serializedKey, worker.logFile.fileId, entryOffset, writtenLength,
                         scheduledFile, indexedOffset);
                }
                index.handleRequest(indexRequest);
                aggregateCompletionStage.dependsOn(indexRequest);
 
-               currentOffset += writtenLength;
+               worker.currentOffset += writtenLength;
+               writtenBytes += writtenLength;
             }
             scheduledOffset += header.totalLength();
          }
          if (!clearSignal.get()) {
-            // We delay the next operation until all prior moves are done. By moving it can trigger another
-            // compaction before the index has been fully updated. Thus we block any other compaction events
-            // until all entries have been moved for this file
-            CompletionStage<Void> aggregate = aggregateCompletionStage.freeze();
-            paused = new CompletableFuture<>();
-            // We resume after completed, Note that we must complete the {@code paused} variable inside the compactor
-            // execution pipeline otherwise we can invoke compactor operations in the wrong thread
-            aggregate.whenComplete((ignore, t) -> {
-               resumeAfterPause();
-               if (t != null) {
-                  log.error("There was a problem moving indexes for compactor with file " + logFile.fileId, t);
-               }
-            });
+            moves = aggregateCompletionStage.freeze();
+         }
+         if (!isLogFile && !terminateSignal && !clearSignal.get()) {
+            statistics.recordCompactedFile(scheduledOffset, writtenBytes);
          }
       } finally {
          handle.close();
@@ -535,6 +696,30 @@ private void compactSingleFile(int scheduledFile, boolean isLogFile, CompactionE
          }
          index.deleteFileAsync(scheduledFile);
       }
+      return moves;
+   }
+
+   /**
+    * The log file and the buffers of a compactor thread.
+    */
+   private class Worker {
+      // This buffer is used to avoid allocating buffers per entry written that are smaller than the header size
+      final java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
+      FileProvider.Log logFile;
+      long nextExpirationTime = -1;
+      int currentOffset;
+
+      void closeLogFile(boolean complete) throws IOException {
+         if (logFile != null) {
+            logFile.close();
+            if (complete) {
+               completeFile(logFile.fileId, currentOffset, nextExpirationTime);
+            }
+            logFile = null;
+            nextExpirationTime = -1;
+            currentOffset = 0;
+         }
+      }
    }
 
 
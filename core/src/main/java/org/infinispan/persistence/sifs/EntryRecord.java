@@ -10,6 +10,10 @@
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 public class EntryRecord {
+   /**
+    * Maximum number of buffers {@link #gatherEntry} adds for an entry.
+    */
+   static final int MAX_GATHERED_BUFFERS = 6;
 
    private final EntryHeader header;
    private final byte[] key;
@@ -82,11 +86,15 @@ public EntryRecord loadMetadata(FileProvider.Handle handle, int offset) throws I
    }
 
    public static EntryHeader readEntryHeader(FileProvider.Handle handle, long offset) throws IOException {
-      ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
-      if (read(handle, header, offset, EntryHeader.HEADER_SIZE_11_0) < 0) {
-         return null;
+      // Decode the header straight from the memory mapping when there is one
+      ByteBuffer header = handle.mapped(offset, EntryHeader.HEADER_SIZE_11_0);
+      if (header == null) {
+         header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
+         if (read(handle, header, offset, EntryHeader.HEADER_SIZE_11_0) < 0) {
+            return null;
+         }
+         header.flip();
       }
-      header.flip();
       try {
          return new EntryHeader(header);
       } catch (IllegalStateException e) {
@@ -127,12 +135,15 @@ public static EntryMetadata readMetadata(FileProvider.Handle handle, EntryHeader
       }
 
       offset += metaLength;
-      ByteBuffer buffer = ByteBuffer.allocate(EntryMetadata.TIMESTAMP_BYTES);
-      if (read(handle, buffer, offset, EntryMetadata.TIMESTAMP_BYTES) < 0) {
-         throw new IllegalStateException("End of file reached when reading timestamps on "
-               + handle.getFileId() + ":" + offset + ": " + header);
+      ByteBuffer buffer = handle.mapped(offset, EntryMetadata.TIMESTAMP_BYTES);
+      if (buffer == null) {
+         buffer = ByteBuffer.allocate(EntryMetadata.TIMESTAMP_BYTES);
+         if (read(handle, buffer, offset, EntryMetadata.TIMESTAMP_BYTES) < 0) {
+            throw new IllegalStateException("End of file reached when reading timestamps on "
+                  + handle.getFileId() + ":" + offset + ": " + header);
+         }
+         buffer.flip();
       }
-      buffer.flip();
       return new EntryMetadata(metadata, buffer.getLong(), buffer.getLong());
    }
 
@@ -194,30 +205,62 @@ public static void writeEntry(FileChannel fileChannel, ByteBuffer reusedBuffer,
       }
    }
 
-   static void writeEntry(FileChannel fileChannel, ByteBuffer reusedBuffer, ByteBuffer serializedKey,
-                                 ByteBuffer serializedMetadata,
-                                 ByteBuffer serializedInternalMetadata,
-                                 ByteBuffer serializedValue,
-                                 long seqId, long expiration, long created, long lastUsed) throws IOException {
-      assert reusedBuffer.limit() == EntryHeader.HEADER_SIZE_11_0;
-      assert reusedBuffer.position() == 0;
-      EntryHeader.writeHeader(reusedBuffer, (short) serializedKey.remaining(), EntryMetadata.size(serializedMetadata),
+   /**
+    * Adds the buffers holding an entry to an array, so that several entries can be written with a single gathering
+    * write. The header and the timestamps are written to {@code headerBuffer}, the serialized buffers are added as they
+    * are without copying them.
+    * @param buffers the array to add the buffers to
+    * @param offset the index of the first buffer to add
+    * @param headerBuffer buffer with at least {@link EntryHeader#HEADER_SIZE_11_0} + {@link EntryMetadata#TIMESTAMP_BYTES}
+    *                     bytes remaining
+    * @return the number of buffers added, at most {@link #MAX_GATHERED_BUFFERS}
+    */
+   static int gatherEntry(ByteBuffer[] buffers, int offset, ByteBuffer headerBuffer, ByteBuffer serializedKey,
+                          ByteBuffer serializedMetadata,
+                          ByteBuffer serializedInternalMetadata,
+                          ByteBuffer serializedValue,
+                          long seqId, long expiration, long created, long lastUsed) {
+      int count = 0;
+      int headerStart = headerBuffer.position();
+      EntryHeader.writeHeader(headerBuffer, (short) serializedKey.remaining(), EntryMetadata.size(serializedMetadata),
             serializedValue == null ? 0 : serializedValue.remaining(),
             serializedInternalMetadata == null ? 0 : (short) serializedInternalMetadata.remaining(),
             seqId, expiration);
-      reusedBuffer.flip();
-      write(fileChannel, reusedBuffer);
-      reusedBuffer.position(0);
-      write(fileChannel, serializedKey);
+      buffers[offset + count++] = slice(headerBuffer, headerStart);
+      buffers[offset + count++] = serializedKey;
       if (serializedMetadata != null) {
-         write(fileChannel, serializedMetadata);
-         writeTimestamps(fileChannel, reusedBuffer, created, lastUsed);
+         buffers[offset + count++] = serializedMetadata;
+         int timestampsStart = headerBuffer.position();
+         headerBuffer.putLong(created);
+         headerBuffer.putLong(lastUsed);
+         buffers[offset + count++] = slice(headerBuffer, timestampsStart);
       }
       if (serializedValue != null) {
-         write(fileChannel, serializedValue);
+         buffers[offset + count++] = serializedValue;
       }
       if (serializedInternalMetadata != null) {
-         write(fileChannel, serializedInternalMetadata);
+         buffers[offset + count++] = serializedInternalMetadata;
+      }
+      return count;
+   }
+
+   private static ByteBuffer slice(ByteBuffer buffer, int start) {
+      ByteBuffer slice = buffer.duplicate();
+      slice.position(start);
+      slice.limit(buffer.position());
+      return slice;
+   }
+
+   /**
+    * Writes all the remaining bytes of the given buffers to the channel.
+    */
+   static void write(FileChannel fileChannel, ByteBuffer[] buffers, int offset, int length) throws IOException {
+      int end = offset + length;
+      while (offset < end) {
+         fileChannel.write(buffers, offset, end - offset);
+         while (offset < end && !buffers[offset].hasRemaining()) {
+            offset++;
+         }
       }
    }
 
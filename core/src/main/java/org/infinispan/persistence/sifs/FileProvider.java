@@ -8,6 +8,7 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -20,16 +21,22 @@
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.persistence.internal.DirectBufferCleaner;
 import org.infinispan.persistence.sifs.pmem.PmemUtilWrapper;
 import org.infinispan.util.logging.LogFactory;
 
 /**
  * Provides resource management for files - only limited amount of files may be opened in one moment, and opened file
  * should not be deleted. Also allows to generate file indexes.
+ * <p>
+ * If memory mapping is enabled the files that are no longer written to are mapped when they are opened, and reads are
+ * served from the mapping. The mapping is released when the file is closed, which happens only once there are no
+ * handles to it, so that the file can be deleted.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -50,6 +57,9 @@ public class FileProvider {
    private final Set<FileIterator> iterators = ConcurrentHashMap.newKeySet();
    private final String prefix;
    private final int maxFileSize;
+   private final boolean memoryMapped;
+   // How many reads were served from a mapping, for tests
+   private final LongAdder mappedReads = new LongAdder();
 
    private int nextFileId = 0;
 
@@ -66,7 +76,12 @@ public class FileProvider {
    }
 
    public FileProvider(Path dataDir, int openFileLimit, String prefix, int maxFileSize) {
+      this(dataDir, openFileLimit, prefix, maxFileSize, false);
+   }
+
+   public FileProvider(Path dataDir, int openFileLimit, String prefix, int maxFileSize, boolean memoryMapped) {
       this.openFileLimit = openFileLimit;
+      this.memoryMapped = memoryMapped;
       this.recordQueue = new ArrayBlockingQueue<>(openFileLimit);
       this.dataDir = dataDir.toFile();
       this.prefix = prefix;
@@ -112,10 +127,10 @@ public Handle getFile(int fileId) throws IOException {
                      log.debugf(e, "File %d was not found", fileId);
                      return null;
                   }
-                  Record newRecord = new Record(fileChannel, fileId);
+                  Record newRecord = new Record(fileChannel, fileId, map(fileId, fileChannel));
                   Record other = openFiles.putIfAbsent(fileId, newRecord);
                   if (other != null) {
-                     fileChannel.close();
+                     newRecord.close();
                      synchronized (other) {
                         if (other.isOpen()) {
                            // we have allocated opening a new file but then we use an old one
@@ -143,6 +158,10 @@ public Handle getFile(int fileId) throws IOException {
             }
             synchronized (record) {
                if (record.isOpen()) {
+                  if (record.mapped == null) {
+                     // The file may have been opened while it was still written to
+                     record.mapped = map(fileId, record.fileChannel);
+                  }
                   return new Handle(record);
                }
             }
@@ -152,6 +171,33 @@ public Handle getFile(int fileId) throws IOException {
       }
    }
 
+   /**
+    * Maps the file if memory mapping is enabled and the file is no longer written to, as a mapping does not grow with
+    * the file. Must be invoked while holding the read lock.
+    */
+   private MappedByteBuffer map(int fileId, FileChannel fileChannel) {
+      if (!memoryMapped || logFiles.contains(fileId)) {
+         return null;
+      }
+      try {
+         long size = fileChannel.size();
+         if (size == 0 || size > Integer.MAX_VALUE) {
+            return null;
+         }
+         return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      } catch (IOException | UnsupportedOperationException e) {
+         log.debugf(e, "Cannot map file %d, reading it through the file channel", fileId);
+         return null;
+      }
+   }
+
+   /**
+    * @return how many reads were served from the memory mapping of a file
+    */
+   long getMappedReads() {
+      return mappedReads.sum();
+   }
+
    public long getFileSize(int file) {
       lock.readLock().lock();
       try {
@@ -380,17 +426,51 @@ public void close() throws IOException {
    public static final class Handle implements Closeable {
       private boolean usable = true;
       private final Record record;
+      // The mapping can't be released while there are handles to the record
+      private final MappedByteBuffer mapped;
 
       private Handle(Record record) {
          this.record = record;
+         this.mapped = record.mapped;
          record.increaseHandleCount();
       }
 
       public int read(ByteBuffer buffer, long offset) throws IOException {
          if (!usable) throw new IllegalStateException();
+         if (mapped != null) {
+            if (offset >= mapped.limit()) {
+               return -1;
+            }
+            int length = (int) Math.min(buffer.remaining(), mapped.limit() - offset);
+            ByteBuffer source = mapped.duplicate();
+            source.position((int) offset);
+            source.limit((int) offset + length);
+            buffer.put(source);
+            record.mappedRead();
+            return length;
+         }
          return record.getFileChannel().read(buffer, offset);
       }
 
+      /**
+       * Returns a read only view of a part of the file, if the file is memory mapped. The view must not be used after
+       * the handle is closed.
+       * @param offset the position of the first byte in the file
+       * @param length how many bytes the view has
+       * @return the view, or {@code null} if the file is not mapped or does not have enough bytes
+       */
+      public ByteBuffer mapped(long offset, int length) {
+         if (!usable) throw new IllegalStateException();
+         if (mapped == null || offset + length > mapped.limit()) {
+            return null;
+         }
+         ByteBuffer view = mapped.asReadOnlyBuffer();
+         view.position((int) offset);
+         view.limit((int) offset + length);
+         record.mappedRead();
+         return view.slice();
+      }
+
       @Override
       public void close() throws IOException {
          usable = false;
@@ -411,18 +491,28 @@ public int getFileId() {
    private class Record {
       private final int fileId;
       private FileChannel fileChannel;
+      private MappedByteBuffer mapped;
       private int handleCount;
       private boolean deleteOnClose = false;
 
       private Record(FileChannel fileChannel, int fileId) {
+         this(fileChannel, fileId, null);
+      }
+
+      private Record(FileChannel fileChannel, int fileId, MappedByteBuffer mapped) {
          this.fileChannel = fileChannel;
          this.fileId = fileId;
+         this.mapped = mapped;
       }
 
       FileChannel getFileChannel() {
          return fileChannel;
       }
 
+      void mappedRead() {
+         mappedReads.increment();
+      }
+
       void increaseHandleCount() {
          handleCount++;
       }
@@ -432,8 +522,7 @@ void decreaseHandleCount() throws IOException {
          if (handleCount == 0 && deleteOnClose) {
             // we cannot easily remove the record from queue - keep it there until collection,
             // but physically close and delete the file
-            fileChannel.close();
-            fileChannel = null;
+            closeChannel();
             openFiles.remove(fileId, this);
             delete();
          }
@@ -452,13 +541,21 @@ public int getFileId() {
       }
 
       public void close() throws IOException {
-         fileChannel.close();
-         fileChannel = null;
+         closeChannel();
          if (deleteOnClose) {
             delete();
          }
       }
 
+      private void closeChannel() throws IOException {
+         if (mapped != null) {
+            DirectBufferCleaner.release(mapped);
+            mapped = null;
+         }
+         fileChannel.close();
+         fileChannel = null;
+      }
+
       public void delete() throws IOException {
          log.debugf("Deleting file %s", fileIdToString(fileId));
          //noinspection ResultOfMethodCallIgnored
@@ -468,8 +565,7 @@ public void delete() throws IOException {
       public void deleteOnClose() throws IOException {
          if (handleCount == 0) {
             if (fileChannel != null) {
-               fileChannel.close();
-               fileChannel = null;
+               closeChannel();
             }
             openFiles.remove(fileId, this);
             delete();
@@ -9,6 +9,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -34,24 +35,31 @@
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
- * Keeps the entry positions persisted in a file. It consists of couple of segments, each for one modulo-range of key's
- * hashcodes (according to DataContainer's key equivalence configuration) - writes to each index segment are performed
- * by single thread, having multiple segments spreads the load between them.
+ * Keeps the entry positions persisted in a file. It consists of one segment for each cache segment, with its own tree,
+ * so that a segment can be iterated by reading only its own nodes and it can be dropped without touching the others.
+ * Writes to the index segments are performed by a fixed number of updater threads, each index segment always being
+ * updated by the same thread, so having multiple threads spreads the load between them. The segments updated by the
+ * same thread share one index file, which keeps the number of open files bounded by the number of threads.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 class Index {
    private static final Log log = LogFactory.getLog(Index.class, Log.class);
    // PRE ISPN 13 GRACEFULLY VALUE = 0x512ACEF0;
-   private static final int GRACEFULLY = 0x512ACEF1;
+   // PRE ISPN 14 GRACEFULLY VALUE = 0x512ACEF1, when the index segments were not cache segments
+   // PRE ISPN 14 GRACEFULLY VALUE = 0x512ACEF2, when each cache segment had its own index file
+   private static final int GRACEFULLY = 0x512ACEF3;
    private static final int DIRTY = 0xD112770C;
    // 4 bytes for graceful shutdown
    // 4 bytes for segment max (this way the index can be regenerated if number of segments change
+   // 4 bytes for the number of index files (the segments stored in each file depend on it)
+   // 8 bytes free block offset
+   private static final int INDEX_FILE_HEADER_SIZE = 20;
+   // followed by this for each segment stored in the file:
    // 8 bytes root offset
    // 2 bytes root occupied
-   // 8 bytes free block offset
    // 8 bytes number of elements
-   private static final int INDEX_FILE_HEADER_SIZE = 34;
+   private static final int SEGMENT_HEADER_SIZE = 18;
 
    private final NonBlockingManager nonBlockingManager;
    private final FileProvider fileProvider;
@@ -61,12 +69,13 @@ class Index {
    private final int maxNodeSize;
    private final ReadWriteLock lock = new ReentrantReadWriteLock();
    private final Segment[] segments;
+   private final IndexFile[] indexFiles;
    private final TimeService timeService;
 
    private final FlowableProcessor<IndexRequest>[] flowableProcessors;
 
-   public Index(NonBlockingManager nonBlockingManager, FileProvider fileProvider, Path indexDir, int segments,
-                int minNodeSize, int maxNodeSize, TemporaryTable temporaryTable, Compactor compactor,
+   public Index(NonBlockingManager nonBlockingManager, FileProvider fileProvider, Path indexDir, int cacheSegments,
+                int updaterThreads, int minNodeSize, int maxNodeSize, TemporaryTable temporaryTable, Compactor compactor,
                 TimeService timeService) throws IOException {
       this.nonBlockingManager = nonBlockingManager;
       this.fileProvider = fileProvider;
@@ -77,24 +86,44 @@ public Index(NonBlockingManager nonBlockingManager, FileProvider fileProvider, P
       this.maxNodeSize = maxNodeSize;
       indexDir.toFile().mkdirs();
 
-      this.segments = new Segment[segments];
-      this.flowableProcessors = new FlowableProcessor[segments];
-      for (int i = 0; i < segments; ++i) {
+      // Each updater thread has its own index file
+      this.indexFiles = new IndexFile[Math.min(updaterThreads, cacheSegments)];
+      for (int i = 0; i < indexFiles.length; ++i) {
+         this.indexFiles[i] = new IndexFile(i, temporaryTable.getSegmentMax());
+      }
+      this.segments = new Segment[cacheSegments];
+      for (int i = 0; i < cacheSegments; ++i) {
+         this.segments[i] = new Segment(i, indexFiles[processor(i)], temporaryTable);
+      }
+      for (IndexFile indexFile : indexFiles) {
+         indexFile.segmentsLoaded();
+      }
+      if (!isLoaded()) {
+         // The whole index is rebuilt from the data files, so the files that were loaded must be emptied first
+         for (IndexFile indexFile : indexFiles) {
+            if (indexFile.loaded) {
+               indexFile.reset();
+            }
+         }
+      }
+      this.flowableProcessors = new FlowableProcessor[indexFiles.length];
+      for (int i = 0; i < flowableProcessors.length; ++i) {
          UnicastProcessor<IndexRequest> flowableProcessor = UnicastProcessor.create();
-         Segment segment = new Segment(i, temporaryTable);
-
-         this.segments[i] = segment;
          // It is possible to write from multiple threads
          this.flowableProcessors[i] = flowableProcessor.toSerialized();
       }
    }
 
+   private int processor(int cacheSegment) {
+      return cacheSegment % indexFiles.length;
+   }
+
    /**
     * @return True if the index was loaded from well persisted state
     */
    public boolean isLoaded() {
-      for (Segment segment : segments) {
-         if (!segment.loaded) return false;
+      for (IndexFile indexFile : indexFiles) {
+         if (!indexFile.loaded) return false;
       }
       return true;
    }
@@ -102,19 +131,18 @@ public boolean isLoaded() {
    /**
     * Get record or null if expired
     */
-   public EntryRecord getRecord(Object key, byte[] serializedKey) throws IOException {
-      return getRecord(key, serializedKey, IndexNode.ReadOperation.GET_RECORD);
+   public EntryRecord getRecord(Object key, int cacheSegment, byte[] serializedKey) throws IOException {
+      return getRecord(key, cacheSegment, serializedKey, IndexNode.ReadOperation.GET_RECORD);
    }
 
    /**
     * Get record (even if expired) or null if not present
     */
-   public EntryRecord getRecordEvenIfExpired(Object key, byte[] serializedKey) throws IOException {
-      return getRecord(key, serializedKey, IndexNode.ReadOperation.GET_EXPIRED_RECORD);
+   public EntryRecord getRecordEvenIfExpired(Object key, int cacheSegment, byte[] serializedKey) throws IOException {
+      return getRecord(key, cacheSegment, serializedKey, IndexNode.ReadOperation.GET_EXPIRED_RECORD);
    }
 
-   private EntryRecord getRecord(Object key, byte[] serializedKey, IndexNode.ReadOperation readOperation) throws IOException {
-      int segment = (key.hashCode() & Integer.MAX_VALUE) % segments.length;
+   private EntryRecord getRecord(Object key, int segment, byte[] serializedKey, IndexNode.ReadOperation readOperation) throws IOException {
       lock.readLock().lock();
       try {
          return IndexNode.applyOnLeaf(segments[segment], serializedKey, segments[segment].rootReadLock(), readOperation);
@@ -126,8 +154,7 @@ private EntryRecord getRecord(Object key, byte[] serializedKey, IndexNode.ReadOp
    /**
     * Get position or null if expired
     */
-   public EntryPosition getPosition(Object key, byte[] serializedKey) throws IOException {
-      int segment = (key.hashCode() & Integer.MAX_VALUE) % segments.length;
+   public EntryPosition getPosition(Object key, int segment, byte[] serializedKey) throws IOException {
       lock.readLock().lock();
       try {
          return IndexNode.applyOnLeaf(segments[segment], serializedKey, segments[segment].rootReadLock(), IndexNode.ReadOperation.GET_POSITION);
@@ -139,8 +166,7 @@ public EntryPosition getPosition(Object key, byte[] serializedKey) throws IOExce
    /**
     * Get position + numRecords, without expiration
     */
-   public EntryInfo getInfo(Object key, byte[] serializedKey) throws IOException {
-      int segment = (key.hashCode() & Integer.MAX_VALUE) % segments.length;
+   public EntryInfo getInfo(Object key, int segment, byte[] serializedKey) throws IOException {
       lock.readLock().lock();
       try {
          return IndexNode.applyOnLeaf(segments[segment], serializedKey, segments[segment].rootReadLock(), IndexNode.ReadOperation.GET_INFO);
@@ -164,9 +190,24 @@ public CompletionStage<Void> clear() {
       }
    }
 
+   /**
+    * Drops the index of the given segments. The returned stage completes as soon as the segments are empty, their old
+    * trees are then released by the updater threads: the entries are left in the data files, but they are reported
+    * as free space, so that the files are compacted.
+    */
+   public CompletionStage<Void> removeSegments(IntSet cacheSegments) {
+      AggregateCompletionStage<Void> stage = CompletionStages.aggregateCompletionStage();
+      for (PrimitiveIterator.OfInt iter = cacheSegments.iterator(); iter.hasNext(); ) {
+         int segment = iter.nextInt();
+         IndexRequest clearRequest = IndexRequest.clearSegmentRequest(segment);
+         flowableProcessors[processor(segment)].onNext(clearRequest);
+         stage.dependsOn(clearRequest);
+      }
+      return stage.freeze();
+   }
+
    public CompletionStage<Object> handleRequest(IndexRequest indexRequest) {
-      int processor = (indexRequest.getKey().hashCode() & Integer.MAX_VALUE) % segments.length;
-      flowableProcessors[processor].onNext(indexRequest);
+      flowableProcessors[processor(indexRequest.getSegment())].onNext(indexRequest);
       return indexRequest;
    }
 
@@ -198,21 +239,21 @@ public CompletionStage<Void> stop() throws InterruptedException {
       return aggregateCompletionStage.freeze();
    }
 
-   public CompletionStage<Long> size() {
+   public CompletionStage<Long> size(IntSet cacheSegments) {
       AtomicLong size = new AtomicLong();
       AggregateCompletionStage<AtomicLong> aggregateCompletionStage = CompletionStages.aggregateCompletionStage(size);
       for (FlowableProcessor<IndexRequest> flowableProcessor : flowableProcessors) {
-         IndexRequest request = IndexRequest.sizeRequest();
+         IndexRequest request = IndexRequest.sizeRequest(cacheSegments);
          flowableProcessor.onNext(request);
          aggregateCompletionStage.dependsOn(request.thenAccept(count -> size.addAndGet((long) count)));
       }
       return aggregateCompletionStage.freeze().thenApply(AtomicLong::get);
    }
 
-   public long approximateSize() {
+   public long approximateSize(IntSet cacheSegments) {
       long size = 0;
-      for (Segment seg : segments) {
-         size += seg.size.get();
+      for (PrimitiveIterator.OfInt iter = cacheSegments.iterator(); iter.hasNext(); ) {
+         size += segments[iter.nextInt()].size.get();
          if (size < 0) {
             return Long.MAX_VALUE;
          }
@@ -234,52 +275,115 @@ public long getMaxSeqId() throws IOException {
    }
 
    public void start(Executor executor) {
-      for (int i = 0; i < segments.length; ++i) {
-         Segment segment = segments[i];
+      for (int i = 0; i < flowableProcessors.length; ++i) {
+         IndexUpdater updater = new IndexUpdater(i);
          flowableProcessors[i]
                .observeOn(Schedulers.from(executor))
-               .subscribe(segment, segment::completeExceptionally, segment);
+               .subscribe(updater, updater::completeExceptionally, updater);
       }
    }
 
-   class Segment extends CompletableFuture<Void> implements Consumer<IndexRequest>, Action {
-      private final TemporaryTable temporaryTable;
+   /**
+    * Applies the requests of the index segments assigned to one updater thread.
+    */
+   private class IndexUpdater implements Consumer<IndexRequest>, Action {
+      private final int processor;
+
+      private IndexUpdater(int processor) {
+         this.processor = processor;
+      }
+
+      @Override
+      public void accept(IndexRequest request) throws Throwable {
+         switch (request.getType()) {
+            case CLEAR:
+               if (request.getSegment() >= 0) {
+                  if (log.isTraceEnabled()) log.tracef("Dropping index segment %d", request.getSegment());
+                  IndexNode oldRoot = segments[request.getSegment()].drop();
+                  // The segment is already empty, the space of the old tree is released after completing the request
+                  nonBlockingManager.complete(request, null);
+                  oldRoot.free();
+               } else {
+                  indexFiles[processor].reset();
+                  nonBlockingManager.complete(request, null);
+               }
+               break;
+            case SYNC_REQUEST:
+               Runnable runnable = (Runnable) request.getKey();
+               runnable.run();
+               nonBlockingManager.complete(request, null);
+               break;
+            case SIZE:
+               IntSet cacheSegments = (IntSet) request.getKey();
+               long size = 0;
+               for (Segment segment : indexFiles[processor].segments) {
+                  if (cacheSegments.contains(segment.id)) {
+                     size += segment.size.get();
+                  }
+               }
+               nonBlockingManager.complete(request, size);
+               break;
+            default:
+               segments[request.getSegment()].accept(request);
+         }
+      }
+
+      // This is ran when the flowable ends either via normal termination or error
+      @Override
+      public void run() throws IOException {
+         indexFiles[processor].run();
+      }
+
+      void completeExceptionally(Throwable t) {
+         for (Segment segment : indexFiles[processor].segments) {
+            segment.completeExceptionally(t);
+         }
+      }
+   }
+
+   /**
+    * An index file shared by the segments of one updater thread. It holds the nodes of all their trees, so the space
+    * in the file is managed here.
+    */
+   private class IndexFile {
+      private final int id;
+      private final int segmentMax;
+      private final List<Segment> segments = new ArrayList<>();
       private final TreeMap<Short, List<IndexSpace>> freeBlocks = new TreeMap<>();
-      private final ReadWriteLock rootLock = new ReentrantReadWriteLock();
-      private final boolean loaded;
       private final FileChannel indexFile;
+      private final boolean loaded;
       private long indexFileSize;
-      private final AtomicLong size = new AtomicLong();
-
-      private volatile IndexNode root;
+      // the headers of the segments, only kept until the segments are loaded
+      private ByteBuffer segmentHeaders;
 
+      private IndexFile(int id, int segmentMax) throws IOException {
+         this.id = id;
+         this.segmentMax = segmentMax;
 
-      private Segment(int id, TemporaryTable temporaryTable) throws IOException {
-         this.temporaryTable = temporaryTable;
-
-         int segmentMax = temporaryTable.getSegmentMax();
+         int numSegments = (segmentMax - id + indexFiles.length - 1) / indexFiles.length;
          File indexFileFile = new File(indexDir.toFile(), "index." + id);
          this.indexFile = new RandomAccessFile(indexFileFile, "rw").getChannel();
          indexFile.position(0);
          ByteBuffer buffer = ByteBuffer.allocate(INDEX_FILE_HEADER_SIZE);
-         int gracefulValue = -1, segmentValue = -1;
-         if (indexFile.size() >= INDEX_FILE_HEADER_SIZE && read(indexFile, buffer)
-               && (gracefulValue = buffer.getInt(0)) == GRACEFULLY && (segmentValue = buffer.getInt(4)) == segmentMax) {
-            long rootOffset = buffer.getLong(8);
-            short rootOccupied = buffer.getShort(16);
-            long freeBlocksOffset = buffer.getLong(18);
-            size.set(buffer.getLong(26));
-            root = new IndexNode(this, rootOffset, rootOccupied);
+         int gracefulValue = -1, segmentValue = -1, filesValue = -1;
+         if (indexFile.size() >= headerSize(numSegments) && read(indexFile, buffer)
+               && (gracefulValue = buffer.getInt(0)) == GRACEFULLY && (segmentValue = buffer.getInt(4)) == segmentMax
+               && (filesValue = buffer.getInt(8)) == indexFiles.length) {
+            long freeBlocksOffset = buffer.getLong(12);
+            segmentHeaders = ByteBuffer.allocate(numSegments * SEGMENT_HEADER_SIZE);
+            if (!read(indexFile, segmentHeaders)) {
+               throw new IOException("Cannot read segment headers!");
+            }
             loadFreeBlocks(freeBlocksOffset);
             indexFileSize = freeBlocksOffset;
             loaded = true;
          } else {
-            log.tracef("Index %d is not valid must rebuild, gracefulValue=%s segments=%d", id, gracefulValue, segmentValue);
+            log.tracef("Index %d is not valid must rebuild, gracefulValue=%s segments=%d files=%d", id, gracefulValue,
+                  segmentValue, filesValue);
             this.indexFile.truncate(0);
-            root = IndexNode.emptyWithLeaves(this);
             loaded = false;
             // reserve space for shutdown
-            indexFileSize = INDEX_FILE_HEADER_SIZE;
+            indexFileSize = headerSize(numSegments);
          }
          buffer.putInt(0, DIRTY);
          buffer.position(0);
@@ -288,107 +392,36 @@ private Segment(int id, TemporaryTable temporaryTable) throws IOException {
          write(indexFile, buffer);
       }
 
-      private void write(FileChannel indexFile, ByteBuffer buffer) throws IOException {
-         do {
-            int written = indexFile.write(buffer);
-            if (written < 0) {
-               throw new IllegalStateException("Cannot write to index file!");
-            }
-         } while (buffer.position() < buffer.limit());
+      private int headerSize(int numSegments) {
+         return INDEX_FILE_HEADER_SIZE + numSegments * SEGMENT_HEADER_SIZE;
       }
 
-      private boolean read(FileChannel indexFile, ByteBuffer buffer) throws IOException {
-         do {
-            int read = indexFile.read(buffer);
-            if (read < 0) {
-               return false;
-            }
-         } while (buffer.position() < buffer.limit());
-         return true;
+      private int add(Segment segment) {
+         segments.add(segment);
+         return segments.size() - 1;
       }
 
-      @Override
-      public void accept(IndexRequest request) throws Throwable {
-         if (log.isTraceEnabled()) log.trace("Indexing " + request);
-         IndexNode.OverwriteHook overwriteHook;
-         IndexNode.RecordChange recordChange;
-         switch (request.getType()) {
-            case CLEAR:
-               root = IndexNode.emptyWithLeaves(this);
-               indexFile.truncate(0);
-               indexFileSize = INDEX_FILE_HEADER_SIZE;
-               freeBlocks.clear();
-               size.set(0);
-               nonBlockingManager.complete(request,null);
-               return;
-            case SYNC_REQUEST:
-               Runnable runnable = (Runnable) request.getKey();
-               runnable.run();
-               nonBlockingManager.complete(request, null);
-               return;
-            case MOVED:
-               recordChange = IndexNode.RecordChange.MOVE;
-               overwriteHook = new IndexNode.OverwriteHook() {
-                  @Override
-                  public boolean check(int oldFile, int oldOffset) {
-                     return oldFile == request.getPrevFile() && oldOffset == request.getPrevOffset();
-                  }
+      void segmentsLoaded() {
+         segmentHeaders = null;
+      }
 
-                  @Override
-                  public void setOverwritten(boolean overwritten, int prevFile, int prevOffset) {
-                     if (overwritten && request.getOffset() < 0 && request.getPrevOffset() >= 0) {
-                        size.decrementAndGet();
-                     }
-                  }
-               };
-               break;
-            case UPDATE:
-               recordChange = IndexNode.RecordChange.INCREASE;
-               overwriteHook = (overwritten, prevFile, prevOffset) -> {
-                  nonBlockingManager.complete(request, overwritten);
-                  if (request.getOffset() >= 0 && prevOffset < 0) {
-                     size.incrementAndGet();
-                  } else if (request.getOffset() < 0 && prevOffset >= 0) {
-                     size.decrementAndGet();
-                  }
-               };
-               break;
-            case DROPPED:
-               recordChange = IndexNode.RecordChange.DECREASE;
-               overwriteHook = (overwritten, prevFile, prevOffset) -> {
-                  if (request.getPrevFile() == prevFile && request.getPrevOffset() == prevOffset) {
-                     size.decrementAndGet();
-                  }
-               };
-               break;
-            case FOUND_OLD:
-               recordChange = IndexNode.RecordChange.INCREASE_FOR_OLD;
-               overwriteHook = IndexNode.NOOP_HOOK;
-               break;
-            case SIZE:
-               nonBlockingManager.complete(request, size.get());
-               return;
-            default:
-               throw new IllegalArgumentException(request.toString());
-         }
-         try {
-            IndexNode.setPosition(root, request.getSegment(), request.getSerializedKey(), request.getFile(), request.getOffset(),
-                  request.getSize(), overwriteHook, recordChange);
-         } catch (IllegalStateException e) {
-            request.completeExceptionally(e);
-         }
-         temporaryTable.removeConditionally(request.getSegment(), request.getKey(), request.getFile(), request.getOffset());
-         if (request.getType() != IndexRequest.Type.UPDATE) {
-            // The update type will complete it in the switch statement above
-            nonBlockingManager.complete(request, null);
+      // this should be accessed only from the updater thread, or before the updater threads are started
+      void reset() throws IOException {
+         for (Segment segment : segments) {
+            segment.reset();
          }
+         indexFile.truncate(0);
+         indexFileSize = headerSize(segments.size());
+         freeBlocks.clear();
       }
 
-      // This is ran when the flowable ends either via normal termination or error
-      @Override
-      public void run() throws IOException {
-         IndexSpace rootSpace = allocateIndexSpace(root.length());
-         root.store(rootSpace);
+      void run() throws IOException {
+         IndexSpace[] rootSpaces = new IndexSpace[segments.size()];
+         for (int i = 0; i < rootSpaces.length; ++i) {
+            IndexNode root = segments.get(i).root;
+            rootSpaces[i] = allocateIndexSpace(root.length());
+            root.store(rootSpaces[i]);
+         }
          indexFile.position(indexFileSize);
          ByteBuffer buffer = ByteBuffer.allocate(4);
          buffer.putInt(0, freeBlocks.size());
@@ -409,25 +442,31 @@ public void run() throws IOException {
             buffer.flip();
             write(indexFile, buffer);
          }
-         int headerWithoutMagic = INDEX_FILE_HEADER_SIZE - 8;
+         int headerWithoutMagic = headerSize(segments.size()) - 8;
          buffer = buffer.capacity() < headerWithoutMagic ? ByteBuffer.allocate(headerWithoutMagic) : buffer;
          buffer.position(0);
          // we need to set limit ahead, otherwise the putLong could throw IndexOutOfBoundsException
          buffer.limit(headerWithoutMagic);
-         buffer.putLong(0, rootSpace.offset);
-         buffer.putShort(8, rootSpace.length);
-         buffer.putLong(10, indexFileSize);
-         buffer.putLong(18, size.get());
+         buffer.putInt(indexFiles.length);
+         buffer.putLong(indexFileSize);
+         for (int i = 0; i < rootSpaces.length; ++i) {
+            buffer.putLong(rootSpaces[i].offset);
+            buffer.putShort(rootSpaces[i].length);
+            buffer.putLong(segments.get(i).size.get());
+         }
+         buffer.flip();
          indexFile.position(8);
          write(indexFile, buffer);
          buffer.position(0);
          buffer.limit(8);
          buffer.putInt(0, GRACEFULLY);
-         buffer.putInt(4, temporaryTable.getSegmentMax());
+         buffer.putInt(4, segmentMax);
          indexFile.position(0);
          write(indexFile, buffer);
 
-         complete(null);
+         for (Segment segment : segments) {
+            segment.complete(null);
+         }
       }
 
       private void loadFreeBlocks(long freeBlocksOffset) throws IOException {
@@ -464,8 +503,164 @@ private void loadFreeBlocks(long freeBlocksOffset) throws IOException {
          }
       }
 
+      // this should be accessed only from the updater thread
+      IndexSpace allocateIndexSpace(short length) {
+         Map.Entry<Short, List<IndexSpace>> entry = freeBlocks.ceilingEntry(length);
+         if (entry == null || entry.getValue().isEmpty()) {
+            long oldSize = indexFileSize;
+            indexFileSize += length;
+            return new IndexSpace(oldSize, length);
+         } else {
+            return entry.getValue().remove(entry.getValue().size() - 1);
+         }
+      }
+
+      // this should be accessed only from the updater thread
+      void freeIndexSpace(long offset, short length) {
+         if (length <= 0) throw new IllegalArgumentException("Offset=" + offset + ", length=" + length);
+         // TODO: fragmentation!
+         // TODO: memory bounds!
+         if (offset + length < indexFileSize) {
+            freeBlocks.computeIfAbsent(length, k -> new ArrayList<>()).add(new IndexSpace(offset, length));
+         } else {
+            indexFileSize -= length;
+            try {
+               indexFile.truncate(indexFileSize);
+            } catch (IOException e) {
+               log.cannotTruncateIndex(e);
+            }
+         }
+      }
+   }
+
+   private static void write(FileChannel indexFile, ByteBuffer buffer) throws IOException {
+      do {
+         int written = indexFile.write(buffer);
+         if (written < 0) {
+            throw new IllegalStateException("Cannot write to index file!");
+         }
+      } while (buffer.position() < buffer.limit());
+   }
+
+   private static boolean read(FileChannel indexFile, ByteBuffer buffer) throws IOException {
+      do {
+         int read = indexFile.read(buffer);
+         if (read < 0) {
+            return false;
+         }
+      } while (buffer.position() < buffer.limit());
+      return true;
+   }
+
+   class Segment extends CompletableFuture<Void> {
+      private final int id;
+      private final IndexFile indexFile;
+      private final TemporaryTable temporaryTable;
+      private final ReadWriteLock rootLock = new ReentrantReadWriteLock();
+      private final AtomicLong size = new AtomicLong();
+
+      private volatile IndexNode root;
+
+
+      private Segment(int id, IndexFile indexFile, TemporaryTable temporaryTable) throws IOException {
+         this.id = id;
+         this.indexFile = indexFile;
+         this.temporaryTable = temporaryTable;
+
+         int position = indexFile.add(this) * SEGMENT_HEADER_SIZE;
+         if (indexFile.loaded) {
+            ByteBuffer buffer = indexFile.segmentHeaders;
+            long rootOffset = buffer.getLong(position);
+            short rootOccupied = buffer.getShort(position + 8);
+            size.set(buffer.getLong(position + 10));
+            root = new IndexNode(this, rootOffset, rootOccupied);
+         } else {
+            root = IndexNode.emptyWithLeaves(this);
+         }
+      }
+
+      // this should be accessed only from the updater thread, or before the updater threads are started
+      void reset() {
+         root = IndexNode.emptyWithLeaves(this);
+         size.set(0);
+      }
+
+      /**
+       * Empties this segment and returns its old tree. The caller must {@link IndexNode#free() free} the old tree to
+       * release the space of its nodes in the index file and to report its records as free space to the compactor.
+       * This cannot be done at once: the index file is shared with the other segments of the updater thread, so the
+       * space of every node goes back to the free blocks list, and the size of every record is only known from its
+       * header in the data file. This should be accessed only from the updater thread.
+       */
+      IndexNode drop() {
+         IndexNode oldRoot = root;
+         setRoot(IndexNode.emptyWithLeaves(this));
+         size.set(0);
+         return oldRoot;
+      }
+
+      void accept(IndexRequest request) throws Throwable {
+         if (log.isTraceEnabled()) log.trace("Indexing " + request);
+         IndexNode.OverwriteHook overwriteHook;
+         IndexNode.RecordChange recordChange;
+         switch (request.getType()) {
+            case MOVED:
+               recordChange = IndexNode.RecordChange.MOVE;
+               overwriteHook = new IndexNode.OverwriteHook() {
+                  @Override
+                  public boolean check(int oldFile, int oldOffset) {
+                     return oldFile == request.getPrevFile() && oldOffset == request.getPrevOffset();
+                  }
+
+                  @Override
+                  public void setOverwritten(boolean overwritten, int prevFile, int prevOffset) {
+                     if (overwritten && request.getOffset() < 0 && request.getPrevOffset() >= 0) {
+                        size.decrementAndGet();
+                     }
+                  }
+               };
+               break;
+            case UPDATE:
+               recordChange = IndexNode.RecordChange.INCREASE;
+               overwriteHook = (overwritten, prevFile, prevOffset) -> {
+                  nonBlockingManager.complete(request, overwritten);
+                  if (request.getOffset() >= 0 && prevOffset < 0) {
+                     size.incrementAndGet();
+                  } else if (request.getOffset() < 0 && prevOffset >= 0) {
+                     size.decrementAndGet();
+                  }
+               };
+               break;
+            case DROPPED:
+               recordChange = IndexNode.RecordChange.DECREASE;
+               overwriteHook = (overwritten, prevFile, prevOffset) -> {
+                  if (request.getPrevFile() == prevFile && request.getPrevOffset() == prevOffset) {
+                     size.decrementAndGet();
+                  }
+               };
+               break;
+            case FOUND_OLD:
+               recordChange = IndexNode.RecordChange.INCREASE_FOR_OLD;
+               overwriteHook = IndexNode.NOOP_HOOK;
+               break;
+            default:
+               throw new IllegalArgumentException(request.toString());
+         }
+         try {
+            IndexNode.setPosition(root, request.getSegment(), request.getSerializedKey(), request.getFile(), request.getOffset(),
+                  request.getSize(), overwriteHook, recordChange);
+         } catch (IllegalStateException e) {
+            request.completeExceptionally(e);
+         }
+         temporaryTable.removeConditionally(request.getSegment(), request.getKey(), request.getFile(), request.getOffset());
+         if (request.getType() != IndexRequest.Type.UPDATE) {
+            // The update type will complete it in the switch statement above
+            nonBlockingManager.complete(request, null);
+         }
+      }
+
       public FileChannel getIndexFile() {
-         return indexFile;
+         return indexFile.indexFile;
       }
 
       public FileProvider getFileProvider() {
@@ -497,31 +692,12 @@ public int getMinNodeSize() {
 
       // this should be accessed only from the updater thread
       IndexSpace allocateIndexSpace(short length) {
-         Map.Entry<Short, List<IndexSpace>> entry = freeBlocks.ceilingEntry(length);
-         if (entry == null || entry.getValue().isEmpty()) {
-            long oldSize = indexFileSize;
-            indexFileSize += length;
-            return new IndexSpace(oldSize, length);
-         } else {
-            return entry.getValue().remove(entry.getValue().size() - 1);
-         }
+         return indexFile.allocateIndexSpace(length);
       }
 
       // this should be accessed only from the updater thread
       void freeIndexSpace(long offset, short length) {
-         if (length <= 0) throw new IllegalArgumentException("Offset=" + offset + ", length=" + length);
-         // TODO: fragmentation!
-         // TODO: memory bounds!
-         if (offset + length < indexFileSize) {
-            freeBlocks.computeIfAbsent(length, k -> new ArrayList<>()).add(new IndexSpace(offset, length));
-         } else {
-            indexFileSize -= length;
-            try {
-               indexFile.truncate(indexFileSize);
-            } catch (IOException e) {
-               log.cannotTruncateIndex(e);
-            }
-         }
+         indexFile.freeIndexSpace(offset, length);
       }
 
       Lock rootReadLock() {
@@ -569,7 +745,8 @@ public String toString() {
    }
 
    <V> Flowable<EntryRecord> publish(IntSet cacheSegments, boolean loadValues) {
-      return Flowable.fromArray(segments)
-            .concatMap(segment -> segment.root.publish(cacheSegments, loadValues));
+      // Only the index files of the requested segments are read
+      return Flowable.fromIterable(cacheSegments)
+            .concatMap(segment -> segments[segment].root.publish(cacheSegments, loadValues));
    }
 }
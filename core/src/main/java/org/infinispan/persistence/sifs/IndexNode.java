@@ -344,8 +344,12 @@ private static long calculateMaxSeqId(IndexNode node, Index.Segment segment) thr
    }
 
    private void updateFileOffsetInFile(int leafOffset, int newFile, int newOffset) throws IOException {
-      // Root is -1, so that means the beginning of the file
-      long offset = this.offset >= 0 ? this.offset : 0;
+      // A root that was not stored yet (offset -1) is written as a whole on shutdown, and the beginning of the file
+      // holds the header and the nodes of other segments
+      if (this.offset < 0) {
+         return;
+      }
+      long offset = this.offset;
       offset += headerLength();
       for (byte[] keyPart : this.keyParts) {
          offset += 2 + keyPart.length;
@@ -451,6 +455,40 @@ public static void setPosition(IndexNode root, int segment, byte[] key, int file
       }
    }
 
+   /**
+    * Releases the space of this node and of all the nodes below it in the index file and reports the records they
+    * point to as free space to the compactor. Called from the updater thread on the old root of a dropped segment.
+    */
+   void free() throws IOException {
+      if (innerNodes != null) {
+         for (InnerNode innerNode : innerNodes) {
+            IndexNode node = innerNode.getIndexNode(segment);
+            if (node != null) {
+               node.free();
+            }
+         }
+      } else {
+         for (LeafNode leafNode : leafNodes) {
+            try {
+               EntryRecord hak = leafNode.loadHeaderAndKey(segment.getFileProvider());
+               segment.getCompactor().free(leafNode.file, hak.getHeader().totalLength());
+            } catch (IndexNodeOutdatedException e) {
+               // the file was already deleted, there is nothing to compact
+            }
+         }
+      }
+      lock.writeLock().lock();
+      try {
+         if (offset >= 0) {
+            segment.freeIndexSpace(offset, occupiedSpace);
+            offset = -1;
+            occupiedSpace = -1;
+         }
+      } finally {
+         lock.writeLock().unlock();
+      }
+   }
+
    private static class JoinSplitResult {
       public final int from;
       public final int to;
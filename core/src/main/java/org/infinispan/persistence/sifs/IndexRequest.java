@@ -3,6 +3,7 @@
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
+import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.Util;
 
 /**
@@ -64,6 +65,15 @@ public static IndexRequest clearRequest() {
       return new IndexRequest(Type.CLEAR, -1, null, null, -1, -1, -1, -1, -1);
    }
 
+   /**
+    * Drops the index of a single cache segment.
+    * @param segment the cache segment
+    * @return the request
+    */
+   public static IndexRequest clearSegmentRequest(int segment) {
+      return new IndexRequest(Type.CLEAR, segment, null, null, -1, -1, -1, -1, -1);
+   }
+
    /**
     * Allows for an index request that will be ran in the index thread. This can be useful to run something after all
     * pending index updates have been applied.
@@ -74,8 +84,13 @@ public static IndexRequest syncRequest(Runnable runnable) {
       return new IndexRequest(Type.SYNC_REQUEST, -1, runnable, null, -1, -1, -1, -1, -1);
    }
 
-   public static IndexRequest sizeRequest() {
-      return new IndexRequest(Type.SIZE, -1,null, null, -1, -1, -1, -1, -1);
+   /**
+    * Counts the entries in the index.
+    * @param segments the cache segments to count the entries of
+    * @return the request
+    */
+   public static IndexRequest sizeRequest(IntSet segments) {
+      return new IndexRequest(Type.SIZE, -1, segments, null, -1, -1, -1, -1, -1);
    }
 
 
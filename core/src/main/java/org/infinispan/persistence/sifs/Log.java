@@ -84,4 +84,10 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Index looks corrupt.", id = 29020)
    PersistenceException indexLooksCorrupt(@Cause Exception e);
+
+   @Message(value = "Compaction threads (%d) should be at least 1.", id = 29021)
+   CacheConfigurationException invalidCompactionThreads(int value);
+
+   @Message(value = "Compaction rate limit (%d) should not be negative.", id = 29022)
+   CacheConfigurationException invalidCompactionRateLimit(long value);
 }
@@ -1,15 +1,18 @@
 package org.infinispan.persistence.sifs;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.Util;
 import org.infinispan.container.entries.ExpiryHelper;
 import org.infinispan.persistence.spi.MarshallableEntry;
@@ -21,9 +24,21 @@
 import io.reactivex.rxjava3.processors.UnicastProcessor;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
+/**
+ * Appends the entries to the log files.
+ * <p>
+ * The writes are group committed: while more requests are queued, the entries are gathered in a batch that is then
+ * written with a single gathering write and, with sync writes, forced to disk once. The requests are completed after
+ * the batch is written. The batch is written as soon as there are no more queued requests, so a single writer does not
+ * wait, or when it reaches {@link #MAX_BATCH_ENTRIES} entries or {@link #MAX_BATCH_BYTES} bytes.
+ */
 public class LogAppender implements Consumer<LogAppender.WriteOperation> {
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass(), Log.class);
 
+   static final int MAX_BATCH_ENTRIES = 1000;
+   static final int MAX_BATCH_BYTES = 4 * 1024 * 1024;
+   private static final int ENTRY_HEADERS_SIZE = EntryHeader.HEADER_SIZE_11_0 + EntryMetadata.TIMESTAMP_BYTES;
+
    private final NonBlockingManager nonBlockingManager;
    private final Index index;
    private final TemporaryTable temporaryTable;
@@ -31,22 +46,26 @@ public class LogAppender implements Consumer<LogAppender.WriteOperation> {
    private final FileProvider fileProvider;
    private final boolean syncWrites;
    private final int maxFileSize;
+   private final TimeService timeService;
+   private final SoftIndexFileStoreStatistics statistics;
    // Used to keep track of how many log requests have been submitted. This way if the blocking thread has consumed
-   // the same number of log requests it can immediately flush.
+   // the same number of log requests it can immediately write the batch.
    private final AtomicInteger submittedCount = new AtomicInteger();
-   // This variable is null unless sync writes are enabled. When sync writes are enabled this list holds
-   // all the log requests that should be completed when the disk is ensured to be flushed
-   private final List<LogRequest> toSyncLogRequests;
-
-   // This buffer is used by the log appender thread to avoid allocating buffers per entry written that are smaller
-   // than the header size
-   private final java.nio.ByteBuffer REUSED_BUFFER = java.nio.ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
+   // The log requests whose entries are in the current batch, they are completed once the batch is written
+   private final List<LogRequest> batchLogRequests = new ArrayList<>();
+   // The buffers of the entries in the current batch
+   private final java.nio.ByteBuffer[] batchBuffers =
+         new java.nio.ByteBuffer[MAX_BATCH_ENTRIES * EntryRecord.MAX_GATHERED_BUFFERS];
+   // Holds the headers and timestamps of the entries in the current batch, so they are not allocated per entry
+   private final java.nio.ByteBuffer batchHeaders = java.nio.ByteBuffer.allocate(MAX_BATCH_ENTRIES * ENTRY_HEADERS_SIZE);
 
    // These variables are only ever read from the provided executor and rxjava guarantees visibility
    // to it so they don't need to be volatile or synchronized
    private int currentOffset = 0;
    private long seqId = 0;
    private int receivedCount = 0;
+   private int batchBufferCount = 0;
+   private int batchBytes = 0;
    private List<LogRequest> delayedLogRequests;
    private FileProvider.Log logFile;
    private long nextExpirationTime = -1;
@@ -58,7 +77,8 @@ public class LogAppender implements Consumer<LogAppender.WriteOperation> {
 
    public LogAppender(NonBlockingManager nonBlockingManager, Index index,
                       TemporaryTable temporaryTable, Compactor compactor,
-                      FileProvider fileProvider, boolean syncWrites, int maxFileSize) {
+                      FileProvider fileProvider, boolean syncWrites, int maxFileSize, TimeService timeService,
+                      SoftIndexFileStoreStatistics statistics) {
       this.nonBlockingManager = nonBlockingManager;
       this.index = index;
       this.temporaryTable = temporaryTable;
@@ -66,8 +86,8 @@ public LogAppender(NonBlockingManager nonBlockingManager, Index index,
       this.fileProvider = fileProvider;
       this.syncWrites = syncWrites;
       this.maxFileSize = maxFileSize;
-
-      this.toSyncLogRequests = syncWrites ? new ArrayList<>() : null;
+      this.timeService = timeService;
+      this.statistics = statistics;
    }
 
    public synchronized void start(Executor executor) {
@@ -209,10 +229,8 @@ private void callerAccept(LogRequest request) {
    }
 
    private void sendToWriteProcessor(LogRequest request) {
-      // Write requests must be synced - so keep track of count to compare later
-      if (syncWrites && request.getKey() != null) {
-         submittedCount.incrementAndGet();
-      }
+      // Keep track of count so the write processor knows when there are no more requests to add to the batch
+      submittedCount.incrementAndGet();
 
       writeProcessor.onNext(WriteOperation.fromLogRequest(request));
    }
@@ -220,6 +238,7 @@ private void sendToWriteProcessor(LogRequest request) {
    @Override
    public void accept(WriteOperation writeOperation) {
       LogRequest actualRequest = writeOperation.logRequest;
+      receivedCount++;
       try {
          if (logFile == null) {
             logFile = fileProvider.getFileForLog();
@@ -227,8 +246,8 @@ public void accept(WriteOperation writeOperation) {
          }
 
          if (actualRequest.isClear()) {
+            writeBatch();
             logFile.close();
-            completePendingLogRequests();
             nextExpirationTime = -1;
             currentOffset = 0;
             logFile = null;
@@ -238,9 +257,9 @@ public void accept(WriteOperation writeOperation) {
          int actualLength = actualRequest.length();
          if (currentOffset != 0 && currentOffset + actualLength > maxFileSize) {
             // switch to next file
+            writeBatch();
             logFile.close();
             compactor.completeFile(logFile.fileId, currentOffset, nextExpirationTime);
-            completePendingLogRequests();
             logFile = fileProvider.getFileForLog();
             nextExpirationTime = -1;
             currentOffset = 0;
@@ -248,41 +267,62 @@ public void accept(WriteOperation writeOperation) {
          }
          long seqId = nextSeqId();
          log.tracef("Appending record to %s:%s", logFile.fileId, currentOffset);
+         batchBufferCount += EntryRecord.gatherEntry(batchBuffers, batchBufferCount, batchHeaders,
+               writeOperation.serializedKey, writeOperation.serializedMetadata,
+               writeOperation.serializedInternalMetadata, writeOperation.serializedValue, seqId,
+               actualRequest.getExpiration(), actualRequest.getCreated(), actualRequest.getLastUsed());
          nextExpirationTime = ExpiryHelper.mostRecentExpirationTime(nextExpirationTime, actualRequest.getExpiration());
-         EntryRecord.writeEntry(logFile.fileChannel, REUSED_BUFFER, writeOperation.serializedKey,
-               writeOperation.serializedMetadata, writeOperation.serializedInternalMetadata,
-               writeOperation.serializedValue, seqId, actualRequest.getExpiration(), actualRequest.getCreated(),
-               actualRequest.getLastUsed());
          actualRequest.setFile(logFile.fileId);
          actualRequest.setFileOffset(currentOffset);
-
-         if (!syncWrites) {
-            completeRequest(actualRequest);
-         } else {
-            // This cannot be null when sync writes is true
-            toSyncLogRequests.add(actualRequest);
-            if (submittedCount.get() == ++receivedCount || toSyncLogRequests.size() == 1000) {
-               logFile.fileChannel.force(false);
-               completePendingLogRequests();
-            }
-         }
+         batchLogRequests.add(actualRequest);
+         batchBytes += actualLength;
          currentOffset += actualLength;
       } catch (Exception e) {
          log.debugf("Exception encountered while processing log request %s", actualRequest);
          actualRequest.completeExceptionally(e);
       }
+      if (submittedCount.get() == receivedCount || batchLogRequests.size() == MAX_BATCH_ENTRIES ||
+            batchBytes >= MAX_BATCH_BYTES) {
+         try {
+            writeBatch();
+         } catch (Exception e) {
+            // writeBatch already failed the requests
+            log.debugf(e, "Exception encountered while writing log requests");
+         }
+      }
    }
 
    /**
-    * Must only be invoked by {@link #accept(WriteOperation)} method.
+    * Writes the entries of the current batch to the log file with a single write, forces it to disk if sync writes
+    * are enabled and completes the requests. If the write fails the requests are completed exceptionally and the
+    * exception is rethrown. Must only be invoked by {@link #accept(WriteOperation)} method.
     */
-   private void completePendingLogRequests() {
-      if (toSyncLogRequests != null) {
-         for (Iterator<LogRequest> iter = toSyncLogRequests.iterator(); iter.hasNext(); ) {
-            LogRequest logRequest = iter.next();
-            iter.remove();
+   private void writeBatch() throws IOException {
+      if (batchLogRequests.isEmpty()) {
+         return;
+      }
+      try {
+         EntryRecord.write(logFile.fileChannel, batchBuffers, 0, batchBufferCount);
+         statistics.recordWriteBatch(batchLogRequests.size());
+         if (syncWrites) {
+            long start = timeService.time();
+            logFile.fileChannel.force(false);
+            statistics.recordFsync(timeService.timeDuration(start, TimeUnit.NANOSECONDS));
+         }
+         for (LogRequest logRequest : batchLogRequests) {
             completeRequest(logRequest);
          }
+      } catch (IOException | RuntimeException e) {
+         for (LogRequest logRequest : batchLogRequests) {
+            logRequest.completeExceptionally(e);
+         }
+         throw e;
+      } finally {
+         batchLogRequests.clear();
+         Arrays.fill(batchBuffers, 0, batchBufferCount, null);
+         batchBufferCount = 0;
+         batchBytes = 0;
+         batchHeaders.clear();
       }
    }
 
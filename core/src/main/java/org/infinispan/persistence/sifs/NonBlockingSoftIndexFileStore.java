@@ -14,6 +14,7 @@
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
@@ -30,6 +31,7 @@
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.ExpiryHelper;
@@ -52,8 +54,10 @@
 
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.processors.FlowableProcessor;
 import io.reactivex.rxjava3.processors.UnicastProcessor;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * Local file-based cache store, optimized for write-through use with strong consistency guarantees
@@ -95,9 +99,14 @@
  * - Index:          B+-tree of IndexNodes. The tree is dropped and built a new if the process
  *                   crashes, it does not need to flush disk operations. On disk it is kept as single random-accessed file, with free blocks list stored in memory.
  *
- * As IndexUpdater may easily become a bottleneck under heavy load, the IndexUpdater thread,
- * UpdateQueue and tree of IndexNodes may be multiplied several times - the Index is divided
- * into Segments. Each segment owns keys according to the hashCode() of the key.
+ * The Index is divided into Segments, one for each cache segment, each with its own tree of
+ * IndexNodes. This way the index of a segment can be iterated on its own, and it is emptied
+ * at once when the segment is removed; its old tree is then walked to release the nodes and
+ * to report the records as free space. As IndexUpdater may easily become a bottleneck under
+ * heavy load, the IndexUpdater thread and UpdateQueue may be multiplied several times, each
+ * thread updating a fixed subset of the Segments. The Segments of one thread share a single
+ * index file and its free blocks list. When the index is rebuilt from the data files, the
+ * Segments are rebuilt in parallel as well.
  *
  * Amount of entries in IndexNode is limited by the size it occupies on disk. This size is
  * limited by configurable nodeSize (4096 bytes by default?), only in case that the node
@@ -169,7 +178,8 @@ public CompletionStage<Void> addSegments(IntSet segments) {
    @Override
    public CompletionStage<Void> removeSegments(IntSet segments) {
       temporaryTable.removeSegments(segments);
-      return CompletableFutures.completedNull();
+      // Each segment has its own tree in the index, the nodes and records of the dropped tree are freed afterwards
+      return index.removeSegments(segments);
    }
 
    @Override
@@ -193,12 +203,15 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       temporaryTable.addSegments(IntSets.immutableRangeSet(cacheConfig.clustering().hash().numSegments()));
 
       fileProvider = new FileProvider(getDataLocation(), configuration.openFilesLimit(), PREFIX_LATEST,
-            configuration.maxFileSize());
+            configuration.maxFileSize(), configuration.data().memoryMapped());
+      SoftIndexFileStoreStatistics statistics = statistics(ctx);
       compactor = new Compactor(ctx.getNonBlockingManager(), fileProvider, temporaryTable, marshaller, timeService,
             keyPartitioner, configuration.maxFileSize(), configuration.compactionThreshold(),
-            blockingManager.asExecutor("sifs-compactor"));
+            configuration.compactionThreads(), configuration.compactionRateLimit(),
+            blockingManager.asExecutor("sifs-compactor"), statistics);
       try {
-         index = new Index(ctx.getNonBlockingManager(), fileProvider, getIndexLocation(), configuration.indexSegments(),
+         index = new Index(ctx.getNonBlockingManager(), fileProvider, getIndexLocation(),
+               cacheConfig.clustering().hash().numSegments(), configuration.indexSegments(),
                configuration.minNodeSize(), configuration.maxNodeSize(),
                temporaryTable, compactor, timeService);
       } catch (IOException e) {
@@ -206,7 +219,7 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       }
       compactor.setIndex(index);
       logAppender = new LogAppender(ctx.getNonBlockingManager(), index, temporaryTable, compactor, fileProvider,
-            configuration.syncWrites(), configuration.maxFileSize());
+            configuration.syncWrites(), configuration.maxFileSize(), timeService, statistics);
       logAppender.start(blockingManager.asExecutor("sifs-log-processor"));
       startIndex();
       final AtomicLong maxSeqId = new AtomicLong(0);
@@ -366,8 +379,11 @@ private <T> T unmarshallLegacy(ByteBuffer buf, boolean allowInternal) throws Cla
    }
 
    private void buildIndex(final AtomicLong maxSeqId) {
-      Flowable<Integer> filePublisher = filePublisher();
-      CompletionStage<Void> stage = filePublisher.flatMap(outerFile -> {
+      int parallelism = ProcessorInfo.availableProcessors();
+      Scheduler scheduler = Schedulers.from(blockingManager.asExecutor("sifs-index-build"));
+      // The files can only be compacted once all their records are indexed
+      Map<Integer, Long> completedFiles = new ConcurrentHashMap<>();
+      CompletionStage<Void> stage = filePublisher().concatMap(outerFile -> {
          ByRef.Long nextExpirationTime = new ByRef.Long(-1);
          return handleFilePublisher(outerFile, false, false,
                (file, offset, size, serializedKey, entryMetadata, serializedValue, serializedInternalMetadata, seqId, expiration) -> {
@@ -380,19 +396,48 @@ private void buildIndex(final AtomicLong maxSeqId) {
                   }
                   // Make sure to keep track of the lowest expiration that isn't -1
                   nextExpirationTime.set(ExpiryHelper.mostRecentExpirationTime(nextExpirationTime.get(), expiration));
-                  int segment = keyPartitioner.getSegment(key);
-                  // We may check the seqId safely as we are the only thread writing to index
-                  if (isSeqIdOld(seqId, segment, key, serializedKey)) {
-                     index.handleRequest(IndexRequest.foundOld(segment, key, serializedKey, file, offset));
-                     return null;
-                  }
-                  if (temporaryTable.set(segment, key, file, offset)) {
-                     index.handleRequest(IndexRequest.update(segment, key, serializedKey, file, offset, size));
-                  }
-                  return null;
-               }).doOnComplete(() -> compactor.completeFile(outerFile, -1, nextExpirationTime.get()));
-      }).ignoreElements().toCompletionStage(null);
+                  return new LoadedRecord(keyPartitioner.getSegment(key), key, serializedKey, file, offset, size, seqId);
+               }).doOnComplete(() -> completedFiles.put(outerFile, nextExpirationTime.get()));
+      })
+            // The records of a segment are always indexed by the same thread, in the order the files were read, so
+            // different segments are indexed in parallel
+            .groupBy(record -> record.segment % parallelism)
+            .flatMap(records -> records.observeOn(scheduler).doOnNext(this::indexLoadedRecord), parallelism)
+            .ignoreElements().toCompletionStage(null);
       CompletionStages.join(stage);
+      completedFiles.forEach((file, nextExpirationTime) -> compactor.completeFile(file, -1, nextExpirationTime));
+   }
+
+   private void indexLoadedRecord(LoadedRecord record) throws IOException {
+      // We may check the seqId safely as we are the only thread writing to index for this segment
+      if (isSeqIdOld(record.seqId, record.segment, record.key, record.serializedKey)) {
+         index.handleRequest(IndexRequest.foundOld(record.segment, record.key, record.serializedKey, record.file, record.offset));
+      } else if (temporaryTable.set(record.segment, record.key, record.file, record.offset)) {
+         index.handleRequest(IndexRequest.update(record.segment, record.key, record.serializedKey, record.file, record.offset, record.size));
+      }
+   }
+
+   /**
+    * A record read from a data file while building the index.
+    */
+   private static final class LoadedRecord {
+      final int segment;
+      final Object key;
+      final byte[] serializedKey;
+      final int file;
+      final int offset;
+      final int size;
+      final long seqId;
+
+      LoadedRecord(int segment, Object key, byte[] serializedKey, int file, int offset, int size, long seqId) {
+         this.segment = segment;
+         this.key = key;
+         this.serializedKey = serializedKey;
+         this.file = file;
+         this.offset = offset;
+         this.size = size;
+         this.seqId = seqId;
+      }
    }
 
    // Package protected for tests only
@@ -412,7 +457,7 @@ protected boolean isSeqIdOld(long seqId, int segment, Object key, byte[] seriali
       for (; ; ) {
          EntryPosition entry = temporaryTable.get(segment, key);
          if (entry == null) {
-            entry = index.getInfo(key, serializedKey);
+            entry = index.getInfo(key, segment, serializedKey);
          }
          if (entry == null) {
             if (log.isTraceEnabled()) {
@@ -442,6 +487,13 @@ protected boolean isSeqIdOld(long seqId, int segment, Object key, byte[] seriali
       }
    }
 
+   private static SoftIndexFileStoreStatistics statistics(InitializationContext ctx) {
+      SoftIndexFileStoreStatistics statistics = ctx.getCache().getAdvancedCache().getComponentRegistry()
+            .getComponent(SoftIndexFileStoreStatistics.class);
+      // Stores added after the cache was created are not tracked
+      return statistics != null ? statistics : new SoftIndexFileStoreStatistics();
+   }
+
    protected void startIndex() {
       // this call is extracted for better testability
       index.start(blockingManager.asExecutor("sifs-index"));
@@ -502,7 +554,7 @@ public CompletionStage<Void> clear() {
    public CompletionStage<Long> size(IntSet segments) {
       return sizeAndClearSequencer.orderOnKey(this, () ->
             logAppender.pause()
-                  .thenCompose(ignore -> index.size())
+                  .thenCompose(ignore -> index.size(segments))
                   .thenCompose(v -> logAppender.resume().thenApply(ignore -> v))
       );
    }
@@ -510,7 +562,7 @@ public CompletionStage<Long> size(IntSet segments) {
    @Override
    public CompletionStage<Long> approximateSize(IntSet segments) {
       // Approximation doesn't pause the appender so the index can be slightly out of sync
-      return CompletableFuture.completedFuture(index.approximateSize());
+      return CompletableFuture.completedFuture(index.approximateSize(segments));
    }
 
    @Override
@@ -564,7 +616,7 @@ public CompletionStage<Boolean> containsKey(int segment, Object key) {
                   }, "soft-index-containsKey");
                }
             } else {
-               EntryPosition position = index.getPosition(key, marshaller.objectToByteBuffer(key));
+               EntryPosition position = index.getPosition(key, segment, marshaller.objectToByteBuffer(key));
                return CompletableFutures.booleanStage(position != null);
             }
          }
@@ -589,7 +641,7 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
                      return marshallableEntry;
                   }
                } else {
-                  EntryRecord record = index.getRecord(key, marshaller.objectToByteBuffer(key));
+                  EntryRecord record = index.getRecord(key, segment, marshaller.objectToByteBuffer(key));
                   if (record == null) {
                      log.tracef("Entry for key=%s not found in index, returning null", key);
                      return null;
@@ -0,0 +1,164 @@
+package org.infinispan.persistence.sifs;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.microprofile.metrics.Timer;
+import org.infinispan.commons.stat.SimpleHistogram;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Statistics of the soft index file stores of a cache. The component is registered when the cache configuration
+ * contains a soft index file store; stores that are added later keep their statistics unregistered.
+ *
+ * @since 14.0
+ */
+@Scope(Scopes.NAMED_CACHE)
+@MBean(objectName = "SoftIndexFileStore", description = "Statistics of the soft index file store")
+public class SoftIndexFileStoreStatistics {
+   private final SimpleHistogram writeBatchSizes = new SimpleHistogram();
+   private final SimpleHistogram fsyncTimes = new SimpleHistogram();
+   private volatile Timer fsyncTimer;
+   private final LongAdder compactedFiles = new LongAdder();
+   private final LongAdder compactedBytes = new LongAdder();
+   private final LongAdder reclaimedBytes = new LongAdder();
+   private final LongAdder compactionTime = new LongAdder();
+   private volatile Compactor compactor;
+
+   void recordWriteBatch(int entries) {
+      writeBatchSizes.record(entries);
+   }
+
+   void recordFsync(long nanos) {
+      fsyncTimes.record(nanos);
+      Timer timer = fsyncTimer;
+      if (timer != null) {
+         timer.update(Duration.ofNanos(nanos));
+      }
+   }
+
+   void registerCompactor(Compactor compactor) {
+      this.compactor = compactor;
+   }
+
+   void unregisterCompactor(Compactor compactor) {
+      if (this.compactor == compactor) {
+         this.compactor = null;
+      }
+   }
+
+   void recordCompactedFile(long fileSize, long writtenBytes) {
+      compactedFiles.increment();
+      compactedBytes.add(fileSize);
+      reclaimedBytes.add(fileSize - writtenBytes);
+   }
+
+   void recordCompactionTime(long nanos) {
+      compactionTime.add(nanos);
+   }
+
+   @ManagedAttribute(description = "Fsync times", displayName = "Fsync times", dataType = DataType.TIMER, units = Units.NANOSECONDS)
+   public void setFsyncTimes(Timer fsyncTimer) {
+      this.fsyncTimer = fsyncTimer;
+   }
+
+   @ManagedAttribute(description = "Number of batches of entries written to the log", displayName = "Write batches")
+   public long getWriteBatches() {
+      return writeBatchSizes.count();
+   }
+
+   @ManagedAttribute(description = "Average number of entries written to the log with a single write", displayName = "Average write batch size")
+   public double getAverageWriteBatchSize() {
+      return writeBatchSizes.getAverage();
+   }
+
+   @ManagedAttribute(description = "Median number of entries written to the log with a single write", displayName = "Median write batch size")
+   public long getWriteBatchSizeP50() {
+      return writeBatchSizes.getPercentile(50);
+   }
+
+   @ManagedAttribute(description = "99th percentile of the number of entries written to the log with a single write", displayName = "99th percentile write batch size")
+   public long getWriteBatchSizeP99() {
+      return writeBatchSizes.getPercentile(99);
+   }
+
+   @ManagedAttribute(description = "Largest number of entries written to the log with a single write", displayName = "Maximum write batch size")
+   public long getMaxWriteBatchSize() {
+      return writeBatchSizes.getMax();
+   }
+
+   @ManagedAttribute(description = "Number of times the log was forced to disk", displayName = "Fsyncs")
+   public long getFsyncs() {
+      return fsyncTimes.count();
+   }
+
+   @ManagedAttribute(description = "Average time to force the log to disk", displayName = "Average fsync time", units = Units.MICROSECONDS)
+   public long getAverageFsyncTime() {
+      return TimeUnit.NANOSECONDS.toMicros((long) fsyncTimes.getAverage());
+   }
+
+   @ManagedAttribute(description = "Median time to force the log to disk", displayName = "Median fsync time", units = Units.MICROSECONDS)
+   public long getFsyncTimeP50() {
+      return TimeUnit.NANOSECONDS.toMicros(fsyncTimes.getPercentile(50));
+   }
+
+   @ManagedAttribute(description = "99th percentile of the time to force the log to disk", displayName = "99th percentile fsync time", units = Units.MICROSECONDS)
+   public long getFsyncTimeP99() {
+      return TimeUnit.NANOSECONDS.toMicros(fsyncTimes.getPercentile(99));
+   }
+
+   @ManagedAttribute(description = "Longest time to force the log to disk", displayName = "Maximum fsync time", units = Units.MICROSECONDS)
+   public long getMaxFsyncTime() {
+      return TimeUnit.NANOSECONDS.toMicros(fsyncTimes.getMax());
+   }
+
+   @ManagedAttribute(description = "Number of data files compacted", displayName = "Compacted files")
+   public long getCompactedFiles() {
+      return compactedFiles.sum();
+   }
+
+   @ManagedAttribute(description = "Size of the data files compacted", displayName = "Compacted bytes", units = Units.BYTES)
+   public long getCompactedBytes() {
+      return compactedBytes.sum();
+   }
+
+   @ManagedAttribute(description = "Disk space freed by compacting data files", displayName = "Reclaimed bytes", units = Units.BYTES)
+   public long getReclaimedBytes() {
+      return reclaimedBytes.sum();
+   }
+
+   @ManagedAttribute(description = "Average number of bytes compacted per second while the compactor was running", displayName = "Compaction throughput", units = Units.PER_SECOND)
+   public long getCompactionThroughput() {
+      long nanos = compactionTime.sum();
+      return nanos == 0 ? 0 : (long) (compactedBytes.sum() * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+   }
+
+   @ManagedAttribute(description = "Number of data files waiting to be compacted", displayName = "Compaction backlog files")
+   public int getCompactionBacklogFiles() {
+      Compactor compactor = this.compactor;
+      return compactor == null ? 0 : compactor.getBacklogFiles();
+   }
+
+   @ManagedAttribute(description = "Unused space in the data files waiting to be compacted", displayName = "Compaction backlog bytes", units = Units.BYTES)
+   public long getCompactionBacklogBytes() {
+      Compactor compactor = this.compactor;
+      return compactor == null ? 0 : compactor.getBacklogBytes();
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      writeBatchSizes.reset();
+      fsyncTimes.reset();
+      compactedFiles.reset();
+      compactedBytes.reset();
+      reclaimedBytes.reset();
+      compactionTime.reset();
+   }
+}
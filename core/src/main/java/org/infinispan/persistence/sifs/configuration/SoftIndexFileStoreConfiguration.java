@@ -18,11 +18,14 @@ public class SoftIndexFileStoreConfiguration extends AbstractStoreConfiguration
 
    public static final AttributeDefinition<Integer> OPEN_FILES_LIMIT = AttributeDefinition.builder(Attribute.OPEN_FILES_LIMIT, 1000).immutable().build();
    public static final AttributeDefinition<Double> COMPACTION_THRESHOLD = AttributeDefinition.builder(Attribute.COMPACTION_THRESHOLD, 0.5d).immutable().build();
+   public static final AttributeDefinition<Integer> COMPACTION_THREADS = AttributeDefinition.builder(Attribute.COMPACTION_THREADS, 1).immutable().build();
+   public static final AttributeDefinition<Long> COMPACTION_RATE_LIMIT = AttributeDefinition.builder(Attribute.COMPACTION_RATE_LIMIT, 0L).immutable().build();
    private final IndexConfiguration index;
    private final DataConfiguration data;
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(SoftIndexFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), OPEN_FILES_LIMIT, COMPACTION_THRESHOLD);
+      return new AttributeSet(SoftIndexFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), OPEN_FILES_LIMIT, COMPACTION_THRESHOLD,
+            COMPACTION_THREADS, COMPACTION_RATE_LIMIT);
    }
 
    public SoftIndexFileStoreConfiguration(AttributeSet attributes,
@@ -74,6 +77,14 @@ public double compactionThreshold() {
       return attributes.attribute(COMPACTION_THRESHOLD).get();
    }
 
+   public int compactionThreads() {
+      return attributes.attribute(COMPACTION_THREADS).get();
+   }
+
+   public long compactionRateLimit() {
+      return attributes.attribute(COMPACTION_RATE_LIMIT).get();
+   }
+
    public IndexConfiguration index() {
       return index;
    }
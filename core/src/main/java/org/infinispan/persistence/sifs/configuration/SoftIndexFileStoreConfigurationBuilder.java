@@ -1,6 +1,8 @@
 package org.infinispan.persistence.sifs.configuration;
 
 import static org.infinispan.configuration.cache.AbstractStoreConfiguration.SEGMENTED;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_RATE_LIMIT;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THREADS;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.OPEN_FILES_LIMIT;
 
@@ -60,7 +62,9 @@ public SoftIndexFileStoreConfigurationBuilder indexLocation (String indexLocatio
       }
 
       /**
-       * Number of index segment files. Increasing this value improves throughput but requires more threads to be spawned.
+       * Number of threads updating the index. The index has one segment file for each cache segment, and the segments
+       * are spread across these threads. Increasing this value improves throughput but requires more threads to be
+       * spawned.
        * <p>
        * Defaults to <code>16</code>.
        */
@@ -120,6 +124,18 @@ public SoftIndexFileStoreConfigurationBuilder syncWrites ( boolean syncWrites){
          return this;
       }
 
+      /**
+       * Sets whether entries are read through memory mappings of the data files that are no longer written to, instead
+       * of file reads. This avoids a system call and a copy per read, but the mappings use address space and page
+       * cache outside of the heap.
+       *
+       * Defaults to <code>false</code>.
+       */
+      public SoftIndexFileStoreConfigurationBuilder memoryMapped ( boolean memoryMapped){
+         data.memoryMapped(memoryMapped);
+         return this;
+      }
+
       /**
        * Sets the maximum number of open files.
        *
@@ -140,6 +156,28 @@ public SoftIndexFileStoreConfigurationBuilder compactionThreshold ( double compa
          return this;
       }
 
+      /**
+       * Sets the maximum number of data files that are compacted concurrently. The files with the most unused space
+       * are compacted first.
+       *
+       * Defaults to <code>1</code>.
+       */
+      public SoftIndexFileStoreConfigurationBuilder compactionThreads ( int compactionThreads){
+         attributes.attribute(COMPACTION_THREADS).set(compactionThreads);
+         return this;
+      }
+
+      /**
+       * Limits the number of bytes per second that the compaction reads from the data files, so that it does not
+       * take the disk bandwidth from the writes. A value of <code>0</code> means no limit.
+       *
+       * Defaults to <code>0</code>.
+       */
+      public SoftIndexFileStoreConfigurationBuilder compactionRateLimit ( long bytesPerSecond){
+         attributes.attribute(COMPACTION_RATE_LIMIT).set(bytesPerSecond);
+         return this;
+      }
+
       @Override
       public SoftIndexFileStoreConfiguration create () {
          return new SoftIndexFileStoreConfiguration(attributes.protect(), async.create(), index.create(), data.create());
@@ -170,6 +208,14 @@ protected void validate ( boolean skipClassChecks){
          if (compactionThreshold <= 0 || compactionThreshold > 1) {
             throw log.invalidCompactionThreshold(compactionThreshold);
          }
+         int compactionThreads = attributes.attribute(COMPACTION_THREADS).get();
+         if (compactionThreads < 1) {
+            throw log.invalidCompactionThreads(compactionThreads);
+         }
+         long compactionRateLimit = attributes.attribute(COMPACTION_RATE_LIMIT).get();
+         if (compactionRateLimit < 0) {
+            throw log.invalidCompactionRateLimit(compactionRateLimit);
+         }
       }
 
       @Override
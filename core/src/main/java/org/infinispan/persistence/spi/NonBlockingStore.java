@@ -1,9 +1,12 @@
 package org.infinispan.persistence.spi;
 
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -15,7 +18,9 @@
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.configuration.cache.PersistenceConfiguration;
 import org.infinispan.configuration.cache.StoreConfiguration;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
 import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 
@@ -317,6 +322,62 @@ default CompletionStage<Boolean> containsKey(int segment, Object key) {
             .thenApply(Objects::nonNull);
    }
 
+   /**
+    * Returns a stage that will contain the entries of the given keys that are present in the store.
+    * <p>
+    * Stores that can read several keys with a single request, like a database query or a bulk remote operation,
+    * should implement this method to avoid a round trip per key. The keys are grouped by segment, all the keys are in
+    * segment 0 if the store is not segmented.
+    * <p>
+    * <h4>Summary of Characteristics Effects</h4>
+    * <table border="1" cellpadding="1" cellspacing="1" summary="Summary of Characteristics Effects">
+    *    <tr>
+    *       <th bgcolor="#CCCCFF" align="left">Characteristic</th>
+    *       <th bgcolor="#CCCCFF" align="left">Effect</th>
+    *    </tr>
+    *    <tr>
+    *       <td valign="top">{@link Characteristic#WRITE_ONLY}</td>
+    *       <td valign="top">This method will never be invoked.</td>
+    *    </tr>
+    *    <tr>
+    *       <td valign="top">{@link Characteristic#EXPIRATION}</td>
+    *       <td valign="top">When set this method must not return expired entries.</td>
+    *    </tr>
+    *    <tr>
+    *       <td valign="top">{@link Characteristic#SEGMENTABLE}</td>
+    *       <td valign="top">When this is not set or segmentation is disabled in the
+    *       {@link StoreConfiguration#segmented() configuration},
+    *       all the keys are in segment 0.</td>
+    *    </tr>
+    * </table>
+    * <p>
+    * If a problem is encountered, it is recommended to wrap any created/caught Throwable in a
+    * {@link PersistenceException} and the stage be completed exceptionally.
+    * <p>
+    * @implSpec
+    * A default implementation is provided that invokes {@link #load(int, Object)} for each key concurrently and
+    * collects the entries that are not null.
+    * @param keysBySegment the keys to load, grouped by segment.
+    * @return a stage that, when complete, contains the entries that were found, mapped by key. Keys that are not in
+    * the store are not in the map.
+    */
+   default CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAll(Map<Integer, ? extends Collection<?>> keysBySegment) {
+      Map<Object, MarshallableEntry<K, V>> entries = new ConcurrentHashMap<>();
+      AggregateCompletionStage<Map<Object, MarshallableEntry<K, V>>> stage =
+            CompletionStages.aggregateCompletionStage(entries);
+      for (Map.Entry<Integer, ? extends Collection<?>> segmentKeys : keysBySegment.entrySet()) {
+         int segment = segmentKeys.getKey();
+         for (Object key : segmentKeys.getValue()) {
+            stage.dependsOn(load(segment, key).thenAccept(entry -> {
+               if (entry != null) {
+                  entries.put(key, entry);
+               }
+            }));
+         }
+      }
+      return stage.freeze();
+   }
+
    /**
     * Writes the entry to the store for the given segment returning a stage that completes normally when it is finished.
     * <p>
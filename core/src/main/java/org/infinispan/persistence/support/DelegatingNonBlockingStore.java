@@ -1,5 +1,7 @@
 package org.infinispan.persistence.support;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
@@ -45,6 +47,11 @@ public CompletionStage<Boolean> containsKey(int segment, Object key) {
       return delegate().containsKey(segment, key);
    }
 
+   @Override
+   public CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAll(Map<Integer, ? extends Collection<?>> keysBySegment) {
+      return delegate().loadAll(keysBySegment);
+   }
+
    @Override
    public CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> entry) {
       return delegate().write(segment, entry);
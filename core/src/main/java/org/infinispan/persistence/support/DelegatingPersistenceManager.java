@@ -1,6 +1,7 @@
 package org.infinispan.persistence.support;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.function.BiPredicate;
@@ -230,6 +231,12 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
       return persistenceManager.loadFromAllStores(key, segment, localInvocation, includeStores);
    }
 
+   @Override
+   public <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAllFromAllStores(
+         Map<Integer, ? extends Collection<?>> keysBySegment, boolean localInvocation, boolean includeStores) {
+      return persistenceManager.loadAllFromAllStores(keysBySegment, localInvocation, includeStores);
+   }
+
    @Override
    public CompletionStage<Long> size() {
       return persistenceManager.size();
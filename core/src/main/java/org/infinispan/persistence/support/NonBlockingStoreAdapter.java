@@ -1,8 +1,11 @@
 package org.infinispan.persistence.support;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -216,6 +219,24 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
             isSegmented() ? segmentedStore().get(segment, key) : loader().loadEntry(key), nextTraceId("load"));
    }
 
+   @Override
+   public CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAll(Map<Integer, ? extends Collection<?>> keysBySegment) {
+      // Load all the keys with a single blocking task
+      return blockingManager.supplyBlocking(() -> {
+         Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>();
+         for (Map.Entry<Integer, ? extends Collection<?>> segmentKeys : keysBySegment.entrySet()) {
+            int segment = segmentKeys.getKey();
+            for (Object key : segmentKeys.getValue()) {
+               MarshallableEntry<K, V> entry = isSegmented() ? segmentedStore().get(segment, key) : loader().loadEntry(key);
+               if (entry != null) {
+                  entries.put(key, entry);
+               }
+            }
+         }
+         return entries;
+      }, nextTraceId("loadAll"));
+   }
+
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       return blockingManager.supplyBlocking(() ->
@@ -31,6 +31,7 @@
 import org.infinispan.commons.util.logging.TraceException;
 import org.infinispan.configuration.cache.ClusteringConfiguration;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ReadRouting;
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.Inject;
@@ -98,6 +99,7 @@ public class RpcManagerImpl implements RpcManager, JmxStatisticsExposer, CustomM
    private final LongAdder totalReplicationTime = new LongAdder();
 
    private boolean statisticsEnabled = false; // by default, don't gather statistics.
+   private boolean adaptiveReads;
 
    private volatile RpcOptions syncRpcOptions;
 
@@ -131,6 +133,8 @@ public Collection<AttributeMetadata> getCustomMetrics() {
    @Start(priority = 9)
    void start() {
       statisticsEnabled = configuration.statistics().enabled();
+      adaptiveReads = configuration.clustering().cacheMode().isDistributed() &&
+                      configuration.clustering().hash().readRouting() == ReadRouting.ADAPTIVE;
 
       configuration.clustering()
                    .attributes().attribute(ClusteringConfiguration.REMOTE_TIMEOUT)
@@ -262,21 +266,30 @@ public <T> CompletionStage<T> invokeCommandStaggered(Collection<Address> targets
       CacheRpcCommand cacheRpc = toCacheRpcCommand(command);
 
       if (!statisticsEnabled) {
-         return t.invokeCommandStaggered(targets, cacheRpc, collector, rpcOptions.deliverOrder(), rpcOptions.timeout(),
-                                         rpcOptions.timeUnit());
+         return invokeStaggered(targets, cacheRpc, collector, rpcOptions);
       }
 
       long startTimeNanos = timeService.time();
       CompletionStage<T> invocation;
       try {
-         invocation = t.invokeCommandStaggered(targets, cacheRpc, collector, rpcOptions.deliverOrder(),
-                                               rpcOptions.timeout(), rpcOptions.timeUnit());
+         invocation = invokeStaggered(targets, cacheRpc, collector, rpcOptions);
       } catch (Exception e) {
          return errorReplicating(e);
       }
       return invocation.handle((response, throwable) -> updateStatistics(startTimeNanos, response, throwable));
    }
 
+   private <T> CompletionStage<T> invokeStaggered(Collection<Address> targets, CacheRpcCommand command,
+                                                  ResponseCollector<T> collector, RpcOptions rpcOptions) {
+      // Only reads are staggered, so the adaptive routing applies to all the staggered commands
+      if (adaptiveReads) {
+         return t.invokeCommandAdaptive(targets, command, collector, rpcOptions.deliverOrder(), rpcOptions.timeout(),
+                                        rpcOptions.timeUnit());
+      }
+      return t.invokeCommandStaggered(targets, command, collector, rpcOptions.deliverOrder(), rpcOptions.timeout(),
+                                      rpcOptions.timeUnit());
+   }
+
    @Override
    public <T> CompletionStage<T> invokeCommands(Collection<Address> targets,
                                                 Function<Address, ReplicableCommand> commandGenerator,
@@ -215,6 +215,13 @@ public <T> CompletionStage<T> invokeCommandStaggered(Collection<Address> targets
       return actual.invokeCommandStaggered(targets, command, collector, deliverOrder, timeout, unit);
    }
 
+   @Override
+   public <T> CompletionStage<T> invokeCommandAdaptive(Collection<Address> targets, ReplicableCommand command,
+                                                       ResponseCollector<T> collector, DeliverOrder deliverOrder,
+                                                       long timeout, TimeUnit unit) {
+      return actual.invokeCommandAdaptive(targets, command, collector, deliverOrder, timeout, unit);
+   }
+
    @Override
    public <T> CompletionStage<T> invokeCommands(Collection<Address> targets,
                                                 Function<Address, ReplicableCommand> commandGenerator,
@@ -7,8 +7,10 @@
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.remoting.transport.impl.Request;
 import org.infinispan.remoting.transport.impl.RequestRepository;
+import org.infinispan.remoting.transport.impl.RpcCommandStatistics;
 
 /**
  * A remote invocation request.
@@ -25,6 +27,9 @@
    protected final RequestRepository repository;
 
    private volatile Future<?> timeoutFuture = null;
+   private RpcCommandStatistics statistics;
+   private TimeService timeService;
+   private long startTime;
 
    protected AbstractRequest(long requestId, ResponseCollector<T> responseCollector, RequestRepository repository) {
       this.responseCollector = responseCollector;
@@ -55,6 +60,17 @@ public void setTimeout(ScheduledExecutorService timeoutExecutor, long timeout, T
       setTimeoutFuture(timeoutFuture);
    }
 
+   /**
+    * Records the time between this call and the completion of the request in the statistics of the command.
+    * <p>
+    * Must be called before the request is added to the {@link RequestRepository}.
+    */
+   public void recordRoundTripTime(RpcCommandStatistics statistics, TimeService timeService) {
+      this.statistics = statistics;
+      this.timeService = timeService;
+      this.startTime = timeService.time();
+   }
+
    public void cancel(Exception exception) {
       completeExceptionally(exception);
    }
@@ -64,21 +80,21 @@ public void cancel(Exception exception) {
    public boolean complete(T value) {
       cancelTimeoutTask();
       repository.removeRequest(requestId);
-      return super.complete(value);
+      return onCompletion(super.complete(value));
    }
 
    @Override
    public boolean completeExceptionally(Throwable ex) {
       cancelTimeoutTask();
       repository.removeRequest(requestId);
-      return super.completeExceptionally(ex);
+      return onCompletion(super.completeExceptionally(ex));
    }
 
    @Override
    public boolean cancel(boolean mayInterruptIfRunning) {
       cancelTimeoutTask();
       repository.removeRequest(requestId);
-      return super.cancel(mayInterruptIfRunning);
+      return onCompletion(super.cancel(mayInterruptIfRunning));
    }
 
    // Implement Callable for the timeout task
@@ -88,6 +104,13 @@ public final Void call() throws Exception {
       return null;
    }
 
+   private boolean onCompletion(boolean completed) {
+      if (completed && statistics != null) {
+         statistics.recordRoundTripTime(timeService.timeDuration(startTime, TimeUnit.NANOSECONDS));
+      }
+      return completed;
+   }
+
    private void setTimeoutFuture(Future<?> timeoutFuture) {
       this.timeoutFuture = timeoutFuture;
       if (isDone()) {
@@ -442,6 +442,25 @@ public boolean needMoreResponses() {
       }
    }
 
+   /**
+    * Invoke a command on a collection of nodes and pass the responses to a {@link ResponseCollector}.
+    * <p>
+    * Like {@link #invokeCommandStaggered(Collection, ReplicableCommand, ResponseCollector, DeliverOrder, long, TimeUnit)},
+    * but the command is sent first to the target that is likely to respond first, based on the recent response times
+    * of the targets and the number of requests in progress. The command is sent to the next target only if the
+    * current target takes longer than usual to respond.
+    * <p>
+    * The default implementation is the same as {@code invokeCommandStaggered}.
+    *
+    * @since 14.0
+    */
+   @Experimental
+   default <T> CompletionStage<T> invokeCommandAdaptive(Collection<Address> targets, ReplicableCommand command,
+                                                        ResponseCollector<T> collector, DeliverOrder deliverOrder,
+                                                        long timeout, TimeUnit unit) {
+      return invokeCommandStaggered(targets, command, collector, deliverOrder, timeout, unit);
+   }
+
    /**
     * Invoke different commands on a collection of nodes and pass the responses to a {@link ResponseCollector}.
     * <p>
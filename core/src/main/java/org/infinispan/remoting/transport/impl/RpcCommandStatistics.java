@@ -0,0 +1,150 @@
+package org.infinispan.remoting.transport.impl;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.Timer;
+import org.infinispan.commons.stat.SimpleHistogram;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Statistics of the remote invocations of a single command type.
+ * <p>
+ * Recording a value does not allocate, so the statistics are always collected. The instances are created by
+ * {@link RpcCommandStatisticsCollector} the first time a command type is sent or received.
+ *
+ * @since 14.0
+ */
+@MBean(objectName = "RpcCommandStatistics", description = "Statistics of the remote invocations of a command type")
+public class RpcCommandStatistics {
+   private final String commandName;
+   private final SimpleHistogram sentRequestSizes = new SimpleHistogram();
+   private final SimpleHistogram marshallTimes = new SimpleHistogram();
+   private final SimpleHistogram receivedRequestSizes = new SimpleHistogram();
+   private final SimpleHistogram unmarshallTimes = new SimpleHistogram();
+   private final SimpleHistogram sentResponseSizes = new SimpleHistogram();
+   private final SimpleHistogram roundTripTimes = new SimpleHistogram();
+   private volatile Timer roundTripTimer;
+
+   RpcCommandStatistics(String commandName) {
+      this.commandName = commandName;
+   }
+
+   public String getCommandName() {
+      return commandName;
+   }
+
+   public void recordRequestSent(int bytes, long marshallNanos) {
+      sentRequestSizes.record(bytes);
+      marshallTimes.record(marshallNanos);
+   }
+
+   public void recordRequestReceived(int bytes, long unmarshallNanos) {
+      receivedRequestSizes.record(bytes);
+      unmarshallTimes.record(unmarshallNanos);
+   }
+
+   public void recordResponseSent(int bytes) {
+      sentResponseSizes.record(bytes);
+   }
+
+   /**
+    * Records the time between sending a request and receiving all the responses, or the request failing.
+    */
+   public void recordRoundTripTime(long nanos) {
+      roundTripTimes.record(nanos);
+      Timer timer = roundTripTimer;
+      if (timer != null) {
+         timer.update(Duration.ofNanos(nanos));
+      }
+   }
+
+   @ManagedAttribute(description = "Round trip times", displayName = "Round trip times", dataType = DataType.TIMER, units = Units.NANOSECONDS)
+   public void setRoundTripTimes(Timer roundTripTimer) {
+      this.roundTripTimer = roundTripTimer;
+   }
+
+   @ManagedAttribute(description = "Number of requests marshalled, a request sent to several nodes is only marshalled once", displayName = "Sent requests")
+   public long getSentRequests() {
+      return sentRequestSizes.count();
+   }
+
+   @ManagedAttribute(description = "Average size of a marshalled request", displayName = "Average sent request size", units = Units.BYTES)
+   public double getAverageSentRequestSize() {
+      return sentRequestSizes.getAverage();
+   }
+
+   @ManagedAttribute(description = "Size of the largest marshalled request", displayName = "Maximum sent request size", units = Units.BYTES)
+   public long getMaxSentRequestSize() {
+      return sentRequestSizes.getMax();
+   }
+
+   @ManagedAttribute(description = "Average time to marshall a request", displayName = "Average marshall time", units = Units.NANOSECONDS)
+   public long getAverageMarshallTime() {
+      return (long) marshallTimes.getAverage();
+   }
+
+   @ManagedAttribute(description = "Number of requests received from other nodes", displayName = "Received requests")
+   public long getReceivedRequests() {
+      return receivedRequestSizes.count();
+   }
+
+   @ManagedAttribute(description = "Average size of a received request", displayName = "Average received request size", units = Units.BYTES)
+   public double getAverageReceivedRequestSize() {
+      return receivedRequestSizes.getAverage();
+   }
+
+   @ManagedAttribute(description = "Size of the largest received request", displayName = "Maximum received request size", units = Units.BYTES)
+   public long getMaxReceivedRequestSize() {
+      return receivedRequestSizes.getMax();
+   }
+
+   @ManagedAttribute(description = "Average time to unmarshall a received request", displayName = "Average unmarshall time", units = Units.NANOSECONDS)
+   public long getAverageUnmarshallTime() {
+      return (long) unmarshallTimes.getAverage();
+   }
+
+   @ManagedAttribute(description = "Number of responses sent for received requests", displayName = "Sent responses")
+   public long getSentResponses() {
+      return sentResponseSizes.count();
+   }
+
+   @ManagedAttribute(description = "Average size of a response sent for a received request", displayName = "Average sent response size", units = Units.BYTES)
+   public double getAverageSentResponseSize() {
+      return sentResponseSizes.getAverage();
+   }
+
+   @ManagedAttribute(description = "Average time between sending a request and receiving all the responses", displayName = "Average round trip time", units = Units.MICROSECONDS)
+   public long getAverageRoundTripTime() {
+      return TimeUnit.NANOSECONDS.toMicros((long) roundTripTimes.getAverage());
+   }
+
+   @ManagedAttribute(description = "99th percentile of the time between sending a request and receiving all the responses", displayName = "99th percentile round trip time", units = Units.MICROSECONDS)
+   public long getRoundTripTimeP99() {
+      return TimeUnit.NANOSECONDS.toMicros(roundTripTimes.getPercentile(99));
+   }
+
+   @ManagedAttribute(description = "Longest time between sending a request and receiving all the responses", displayName = "Maximum round trip time", units = Units.MICROSECONDS)
+   public long getMaxRoundTripTime() {
+      return TimeUnit.NANOSECONDS.toMicros(roundTripTimes.getMax());
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      sentRequestSizes.reset();
+      marshallTimes.reset();
+      receivedRequestSizes.reset();
+      unmarshallTimes.reset();
+      sentResponseSizes.reset();
+      roundTripTimes.reset();
+   }
+
+   @Override
+   public String toString() {
+      return "RpcCommandStatistics{" + commandName + '}';
+   }
+}
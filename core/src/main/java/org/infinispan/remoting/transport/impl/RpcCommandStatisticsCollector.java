@@ -0,0 +1,123 @@
+package org.infinispan.remoting.transport.impl;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.impl.ComponentRef;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.CacheManagerJmxRegistration;
+import org.infinispan.metrics.impl.CacheManagerMetricsRegistration;
+import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Keeps the {@link RpcCommandStatistics} of each command type sent or received by the transport.
+ * <p>
+ * Commands wrapped in a {@link SingleRpcCommand} are counted with the type of the wrapped command, named after its fully
+ * qualified class name. The statistics of a command type are registered with JMX and metrics, if enabled, in a blocking
+ * thread after the type is first used, so the registration does not delay the invocation. The types used before the
+ * JMX and metrics registrations start are registered when the cache manager finishes starting, see
+ * {@link #registerPending()}.
+ *
+ * @since 14.0
+ */
+@Scope(Scopes.GLOBAL)
+public class RpcCommandStatisticsCollector {
+   private static final Log log = LogFactory.getLog(RpcCommandStatisticsCollector.class);
+
+   // The metrics registration depends on the transport, which depends on this component
+   @Inject ComponentRef<CacheManagerJmxRegistration> jmxRegistration;
+   @Inject ComponentRef<CacheManagerMetricsRegistration> metricsRegistration;
+   @Inject BlockingManager blockingManager;
+
+   private final ConcurrentMap<Class<?>, RpcCommandStatistics> statistics = new ConcurrentHashMap<>();
+   private final Queue<RpcCommandStatistics> unregistered = new ConcurrentLinkedQueue<>();
+   // Whether a task registering the pending statistics was submitted and has not started yet
+   private final AtomicBoolean registrationScheduled = new AtomicBoolean();
+
+   @Start
+   void start() {
+      // The JMX and metrics registrations forget the statistics on restart
+      statistics.clear();
+      unregistered.clear();
+   }
+
+   /**
+    * @return the statistics of the command type
+    */
+   public RpcCommandStatistics get(ReplicableCommand command) {
+      Class<?> commandClass = command instanceof SingleRpcCommand ?
+                              ((SingleRpcCommand) command).getCommand().getClass() :
+                              command.getClass();
+      RpcCommandStatistics commandStatistics = statistics.get(commandClass);
+      if (commandStatistics != null) {
+         return commandStatistics;
+      }
+      commandStatistics = new RpcCommandStatistics(commandClass.getName());
+      RpcCommandStatistics existing = statistics.putIfAbsent(commandClass, commandStatistics);
+      if (existing != null) {
+         return existing;
+      }
+      unregistered.add(commandStatistics);
+      if (jmxRegistration.isRunning() && metricsRegistration.isRunning() &&
+            registrationScheduled.compareAndSet(false, true)) {
+         blockingManager.runBlocking(() -> {
+            registrationScheduled.set(false);
+            registerPending();
+         }, "rpc-command-statistics");
+      }
+      return commandStatistics;
+   }
+
+   /**
+    * @return the statistics of all the command types sent or received so far
+    */
+   public Collection<RpcCommandStatistics> getAll() {
+      return statistics.values();
+   }
+
+   public void resetStatistics() {
+      statistics.values().forEach(RpcCommandStatistics::resetStatistics);
+   }
+
+   /**
+    * Registers the statistics of the command types that are not registered yet, if the JMX and metrics registrations
+    * are running.
+    */
+   public void registerPending() {
+      if (!jmxRegistration.isRunning() || !metricsRegistration.isRunning())
+         return;
+
+      CacheManagerJmxRegistration jmx = jmxRegistration.running();
+      CacheManagerMetricsRegistration metrics = metricsRegistration.running();
+      RpcCommandStatistics next;
+      while ((next = unregistered.poll()) != null) {
+         register(next, jmx, metrics);
+      }
+   }
+
+   private void register(RpcCommandStatistics commandStatistics, CacheManagerJmxRegistration jmx,
+                         CacheManagerMetricsRegistration metrics) {
+      String commandName = commandStatistics.getCommandName();
+      try {
+         if (jmx.enabled()) {
+            jmx.registerMBean(commandStatistics, jmx.getGroupName() + ",command=" + commandName);
+         }
+         if (metrics.metricsEnabled()) {
+            metrics.registerMetrics(commandStatistics, commandName, null);
+         }
+      } catch (Exception e) {
+         log.warnf(e, "Could not register the statistics of command %s", commandName);
+      }
+   }
+}
@@ -28,6 +28,7 @@
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -37,10 +38,11 @@
 import javax.management.ObjectName;
 
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.IllegalLifecycleStateException;
-import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.ByRef;
@@ -61,6 +63,12 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.jmx.CacheManagerJmxRegistration;
 import org.infinispan.jmx.ObjectNameKeys;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.Parameter;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.marshall.core.GlobalMarshaller;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.inboundhandler.InboundInvocationHandler;
@@ -83,6 +91,7 @@
 import org.infinispan.remoting.transport.impl.MultiTargetRequest;
 import org.infinispan.remoting.transport.impl.Request;
 import org.infinispan.remoting.transport.impl.RequestRepository;
+import org.infinispan.remoting.transport.impl.RpcCommandStatisticsCollector;
 import org.infinispan.remoting.transport.impl.SingleResponseCollector;
 import org.infinispan.remoting.transport.impl.SingleTargetRequest;
 import org.infinispan.remoting.transport.impl.SingletonMapResponseCollector;
@@ -135,6 +144,7 @@
  * @since 4.0
  */
 @Scope(Scopes.GLOBAL)
+@MBean(objectName = "Transport", description = "Transport statistics")
 public class JGroupsTransport implements Transport {
    public static final String CONFIGURATION_STRING = "configurationString";
    public static final String CONFIGURATION_XML = "configurationXml";
@@ -142,6 +152,17 @@ public class JGroupsTransport implements Transport {
    public static final String CHANNEL_LOOKUP = "channelLookup";
    public static final String CHANNEL_CONFIGURATOR = "channelConfigurator";
    public static final String SOCKET_FACTORY = "socketFactory";
+   /**
+    * Transport property that enables coalescing the non-transactional write requests sent to the same node into a
+    * single message. Disabled by default; all the nodes in the cluster must be able to read coalesced requests.
+    */
+   public static final String COALESCE_REQUESTS = "coalesceRequests";
+   /**
+    * Transport property with the percentile of a node's recent response times after which an adaptive read is also
+    * sent to the next owner. Defaults to {@value #DEFAULT_READ_HEDGE_PERCENTILE}.
+    */
+   public static final String READ_HEDGE_PERCENTILE = "readHedgePercentile";
+   public static final double DEFAULT_READ_HEDGE_PERCENTILE = 95;
    public static final short REQUEST_FLAGS_UNORDERED =
          (short) (Message.Flag.OOB.value() | Message.Flag.NO_TOTAL_ORDER.value() |
                   Message.Flag.DONT_BUNDLE.value());
@@ -158,6 +179,7 @@ public class JGroupsTransport implements Transport {
    private static final byte REQUEST = 0;
    private static final byte RESPONSE = 1;
    private static final byte SINGLE_MESSAGE = 2;
+   private static final byte COALESCED_REQUESTS = 3;
 
    @Inject protected GlobalConfiguration configuration;
    @Inject @ComponentName(KnownComponentNames.INTERNAL_MARSHALLER)
@@ -171,6 +193,7 @@ public class JGroupsTransport implements Transport {
    protected ExecutorService nonBlockingExecutor;
    @Inject protected CacheManagerJmxRegistration jmxRegistration;
    @Inject protected GlobalXSiteAdminOperations globalXSiteAdminOperations;
+   @Inject protected RpcCommandStatisticsCollector rpcStatistics;
 
    private final Lock viewUpdateLock = new ReentrantLock();
    private final Condition viewUpdateCondition = viewUpdateLock.newCondition();
@@ -188,6 +211,11 @@ public class JGroupsTransport implements Transport {
    private CompletableFuture<Void> nextViewFuture = new CompletableFuture<>();
    private RequestRepository requests;
    private final Map<String, SiteUnreachableReason> unreachableSites;
+   private final LongAdder marshalledMessages = new LongAdder();
+   private final LongAdder marshalledBytes = new LongAdder();
+   private volatile long pooledBufferAllocatedBytesAtReset;
+   private RequestCoalescer requestCoalescer;
+   private ResponseTimeTracker responseTimes;
 
    // ------------------------------------------------------------------------------------------------------------------
    // Lifecycle and setup stuff
@@ -452,6 +480,12 @@ public void start() {
       probeHandler.updateThreadPool(nonBlockingExecutor);
       props = TypedProperties.toTypedProperties(configuration.transport().properties());
       requests = new RequestRepository();
+      if (props.getBooleanProperty(COALESCE_REQUESTS, false)) {
+         requestCoalescer = new RequestCoalescer(this, nonBlockingExecutor);
+      }
+      double hedgePercentile = Double.parseDouble(props.getProperty(READ_HEDGE_PERCENTILE,
+                                                                    String.valueOf(DEFAULT_READ_HEDGE_PERCENTILE)));
+      responseTimes = new ResponseTimeTracker(hedgePercentile, timeService);
 
       String stack = configuration.transport().stack();
       if (stack != null) {
@@ -744,6 +778,10 @@ protected void receiveClusterView(View newView) {
          }
 
          this.clusterView = new ClusterView((int) viewId, members, address);
+         if (requestCoalescer != null) {
+            requestCoalescer.viewAccepted(newView);
+         }
+         responseTimes.viewAccepted(clusterView.getMembersSet());
 
          // Create a completable future for the new view
          oldFuture = nextViewFuture;
@@ -850,6 +888,95 @@ private void unregisterMBeansIfNeeded(String clusterName) throws Exception {
       }
    }
 
+   @ManagedAttribute(description = "Number of requests and responses marshalled into messages", displayName = "Marshalled messages")
+   public long getMarshalledMessages() {
+      return marshalledMessages.sum();
+   }
+
+   @ManagedAttribute(description = "Size of the requests and responses marshalled into messages", displayName = "Marshalled bytes", units = Units.BYTES)
+   public long getMarshalledBytes() {
+      return marshalledBytes.sum();
+   }
+
+   @ManagedAttribute(description = "Average size of a marshalled request or response", displayName = "Average message size", units = Units.BYTES)
+   public long getAverageMessageSize() {
+      long messages = marshalledMessages.sum();
+      return messages == 0 ? 0 : marshalledBytes.sum() / messages;
+   }
+
+   @ManagedAttribute(description = "Average number of bytes allocated to marshall a request or response, including the marshaller's reusable buffers", displayName = "Allocated bytes per message", units = Units.BYTES)
+   public long getAllocatedBytesPerMessage() {
+      long messages = marshalledMessages.sum();
+      if (messages == 0) {
+         return 0;
+      }
+      long bufferBytes = 0;
+      if (marshaller instanceof GlobalMarshaller) {
+         bufferBytes = ((GlobalMarshaller) marshaller).getPooledBufferAllocatedBytes() - pooledBufferAllocatedBytesAtReset;
+      }
+      return (marshalledBytes.sum() + bufferBytes) / messages;
+   }
+
+   @ManagedAttribute(description = "Number of messages containing several coalesced requests", displayName = "Coalesced messages")
+   public long getCoalescedMessages() {
+      RequestCoalescer coalescer = requestCoalescer;
+      return coalescer == null ? 0 : coalescer.getCoalescedMessages();
+   }
+
+   @ManagedAttribute(description = "Number of requests sent in coalesced messages", displayName = "Coalesced requests")
+   public long getCoalescedRequests() {
+      RequestCoalescer coalescer = requestCoalescer;
+      return coalescer == null ? 0 : coalescer.getCoalescedRequests();
+   }
+
+   @ManagedAttribute(description = "Average number of requests in a coalesced message", displayName = "Average coalesced requests")
+   public double getAverageCoalescedRequests() {
+      RequestCoalescer coalescer = requestCoalescer;
+      if (coalescer == null) {
+         return 0;
+      }
+      long messages = coalescer.getCoalescedMessages();
+      return messages == 0 ? 0 : (double) coalescer.getCoalescedRequests() / messages;
+   }
+
+   @ManagedAttribute(description = "Number of adaptive reads also sent to another owner because the first owner was slow to respond", displayName = "Hedged reads")
+   public long getHedgedReads() {
+      ResponseTimeTracker tracker = responseTimes;
+      return tracker == null ? 0 : tracker.getHedgedRequests();
+   }
+
+   @ManagedOperation(description = "Returns the average response time, in microseconds, of a node to adaptive reads, or -1 if unknown",
+         displayName = "Average read response time of a node",
+         name = "AverageReadResponseTime")
+   public long getAverageReadResponseTime(@Parameter(name = "node", description = "Node name") String node) {
+      ResponseTimeTracker tracker = responseTimes;
+      if (tracker == null) {
+         return -1;
+      }
+      for (Address member : clusterView.getMembers()) {
+         if (member.toString().equals(node)) {
+            double nanos = tracker.getAverageResponseTimeNanos(member);
+            return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMicros((long) nanos);
+         }
+      }
+      return -1;
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      marshalledMessages.reset();
+      marshalledBytes.reset();
+      if (requestCoalescer != null) {
+         requestCoalescer.resetStatistics();
+      }
+      if (responseTimes != null) {
+         responseTimes.resetStatistics();
+      }
+      if (marshaller instanceof GlobalMarshaller) {
+         pooledBufferAllocatedBytesAtReset = ((GlobalMarshaller) marshaller).getPooledBufferAllocatedBytes();
+      }
+   }
+
    @Override
    public int getViewId() {
       if (channel == null)
@@ -939,10 +1066,15 @@ public <T> CompletionStage<T> invokeCommand(Address target, ReplicableCommand co
       long requestId = requests.newRequestId();
       logRequest(requestId, command, target, "single");
       SingleTargetRequest<T> request = new SingleTargetRequest<>(collector, requestId, requests, target);
+      request.recordRoundTripTime(rpcStatistics.get(command), timeService);
       addRequest(request);
       boolean invalidTarget = request.onNewView(clusterView.getMembersSet());
       if (!invalidTarget) {
-         sendCommand(target, command, requestId, deliverOrder, true, false);
+         if (requestCoalescer != null && deliverOrder == DeliverOrder.NONE && isCoalescable(command)) {
+            coalesceCommand(target, command, requestId);
+         } else {
+            sendCommand(target, command, requestId, deliverOrder, true, false);
+         }
       }
       if (timeout > 0) {
          request.setTimeout(timeoutExecutor, timeout, unit);
@@ -967,6 +1099,7 @@ public <T> CompletionStage<T> invokeCommand(Collection<Address> targets, Replica
          return request;
       }
       try {
+         request.recordRoundTripTime(rpcStatistics.get(command), timeService);
          addRequest(request);
          boolean checkView = request.onNewView(clusterView.getMembersSet());
          sendCommand(targets, command, requestId, deliverOrder, checkView);
@@ -993,6 +1126,7 @@ public <T> CompletionStage<T> invokeCommandOnAll(ReplicableCommand command, Resp
          return request;
       }
       try {
+         request.recordRoundTripTime(rpcStatistics.get(command), timeService);
          addRequest(request);
          request.onNewView(clusterView.getMembersSet());
          sendCommandToAll(command, requestId, deliverOrder);
@@ -1020,6 +1154,7 @@ public <T> CompletionStage<T> invokeCommandOnAll(Collection<Address> requiredTar
          return request;
       }
       try {
+         request.recordRoundTripTime(rpcStatistics.get(command), timeService);
          addRequest(request);
          request.onNewView(clusterView.getMembersSet());
          sendCommandToAll(command, requestId, deliverOrder);
@@ -1043,6 +1178,29 @@ public <T> CompletionStage<T> invokeCommandStaggered(Collection<Address> targets
             new StaggeredRequest<>(collector, requestId, requests, targets, getAddress(), command, deliverOrder,
                                    timeout, unit, this);
       try {
+         request.recordRoundTripTime(rpcStatistics.get(command), timeService);
+         addRequest(request);
+         request.onNewView(clusterView.getMembersSet());
+         request.sendNextMessage();
+      } catch (Throwable t) {
+         request.cancel(true);
+         throw t;
+      }
+      return request;
+   }
+
+   @Override
+   public <T> CompletionStage<T> invokeCommandAdaptive(Collection<Address> targets, ReplicableCommand command,
+                                                       ResponseCollector<T> collector, DeliverOrder deliverOrder,
+                                                       long timeout, TimeUnit unit) {
+      long requestId = requests.newRequestId();
+      List<Address> orderedTargets = responseTimes.orderTargets(targets);
+      logRequest(requestId, command, orderedTargets, "adaptive");
+      StaggeredRequest<T> request =
+            new StaggeredRequest<>(collector, requestId, requests, orderedTargets, getAddress(), command, deliverOrder,
+                                   timeout, unit, this, responseTimes);
+      try {
+         request.recordRoundTripTime(rpcStatistics.get(command), timeService);
          addRequest(request);
          request.onNewView(clusterView.getMembersSet());
          request.sendNextMessage();
@@ -1114,14 +1272,58 @@ void sendCommand(Address target, ReplicableCommand command, long requestId, Deli
       send(message);
    }
 
+   /**
+    * Only non-transactional writes are coalesced: they are sent to the primary owner of the key by many threads at
+    * the same time, and each of them is small.
+    */
+   private static boolean isCoalescable(ReplicableCommand command) {
+      return command instanceof SingleRpcCommand && ((SingleRpcCommand) command).getCommand() instanceof WriteCommand;
+   }
+
+   private void coalesceCommand(Address target, ReplicableCommand command, long requestId) {
+      byte[] payload;
+      try {
+         payload = marshallCommand(command);
+      } catch (RuntimeException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new RuntimeException("Failure to marshal argument(s)", e);
+      }
+      if (payload.length > RequestCoalescer.MAX_REQUEST_SIZE) {
+         sendCoalescedRequest(toJGroupsAddress(target), requestId, payload);
+      } else {
+         requestCoalescer.send(toJGroupsAddress(target), requestId, payload);
+      }
+   }
+
+   void sendCoalescedRequest(org.jgroups.Address target, long requestId, byte[] payload) {
+      Message message = new Message(target);
+      message.setBuffer(payload);
+      addRequestHeader(message, requestId);
+      setMessageFlags(message, DeliverOrder.NONE, true);
+      send(message);
+   }
+
+   void sendCoalescedRequests(org.jgroups.Address target, byte[] payload) {
+      Message message = new Message(target);
+      message.setBuffer(payload);
+      message.putHeader(HEADER_ID, new RequestCorrelator.Header(COALESCED_REQUESTS, Request.NO_REQUEST_ID, CORRELATOR_ID));
+      setMessageFlags(message, DeliverOrder.NONE, true);
+      send(message);
+   }
+
+   void failRequest(org.jgroups.Address target, long requestId, Throwable t) {
+      Exception e = t instanceof Exception ? (Exception) t : new CacheException(t);
+      requests.addResponse(requestId, fromJGroupsAddress(target), new ExceptionResponse(e));
+   }
+
    private static org.jgroups.Address toJGroupsAddress(Address address) {
       return ((JGroupsAddress) address).getJGroupsAddress();
    }
 
    private void marshallRequest(Message message, ReplicableCommand command, long requestId) {
       try {
-         ByteBuffer bytes = marshaller.objectToBuffer(command);
-         message.setBuffer(bytes.getBuf(), bytes.getOffset(), bytes.getLength());
+         message.setBuffer(marshallCommand(command));
          addRequestHeader(message, requestId);
       } catch (RuntimeException e) {
          throw e;
@@ -1130,6 +1332,26 @@ private void marshallRequest(Message message, ReplicableCommand command, long re
       }
    }
 
+   /**
+    * Marshalls a command or a response into an array of the exact size.
+    * <p>
+    * The array can't be recycled after the message is sent, because the reliable delivery protocols keep the message
+    * until the destination acknowledges it, but the marshaller reuses the buffer it writes to.
+    */
+   private byte[] marshall(Object object) throws IOException, InterruptedException {
+      byte[] bytes = marshaller.objectToByteBuffer(object);
+      marshalledMessages.increment();
+      marshalledBytes.add(bytes.length);
+      return bytes;
+   }
+
+   private byte[] marshallCommand(ReplicableCommand command) throws IOException, InterruptedException {
+      long startTime = timeService.time();
+      byte[] bytes = marshall(command);
+      rpcStatistics.get(command).recordRequestSent(bytes.length, timeService.timeDuration(startTime, TimeUnit.NANOSECONDS));
+      return bytes;
+   }
+
    private static void setMessageFlags(Message message, DeliverOrder deliverOrder, boolean noRelay) {
       if (noRelay) {
          message.setFlag(Message.Flag.NO_RELAY.value());
@@ -1372,6 +1594,8 @@ private void processMessage(Message message) {
             log.tracef("Ignoring message received before start or after stop");
          if (type == REQUEST) {
             sendResponse(src, CacheNotFoundResponse.INSTANCE, requestId, null);
+         } else if (type == COALESCED_REQUESTS) {
+            processCoalescedRequests(src, flags, buffer, offset, length, false);
          }
          return;
       }
@@ -1380,6 +1604,9 @@ private void processMessage(Message message) {
          case REQUEST:
             processRequest(src, flags, buffer, offset, length, requestId);
             break;
+         case COALESCED_REQUESTS:
+            processCoalescedRequests(src, flags, buffer, offset, length, true);
+            break;
          case RESPONSE:
             processResponse(src, buffer, offset, length, requestId);
             break;
@@ -1391,19 +1618,19 @@ private void processMessage(Message message) {
    private void sendResponse(org.jgroups.Address target, Response response, long requestId, ReplicableCommand command) {
       if (log.isTraceEnabled())
          log.tracef("%s sending response for request %d to %s: %s", getAddress(), requestId, target, response);
-      ByteBuffer bytes;
+      byte[] bytes;
       JChannel channel = this.channel;
       if (channel == null) {
          // Avoid NPEs during stop()
          return;
       }
       try {
-         bytes = marshaller.objectToBuffer(response);
+         bytes = marshall(response);
       } catch (Throwable t) {
          try {
             // this call should succeed (all exceptions are serializable)
             Exception e = t instanceof Exception ? ((Exception) t) : new CacheException(t);
-            bytes = marshaller.objectToBuffer(new ExceptionResponse(e));
+            bytes = marshall(new ExceptionResponse(e));
          } catch (Throwable tt) {
             if (channel.isConnected()) {
                CLUSTER.errorSendingResponse(requestId, target, command);
@@ -1412,9 +1639,13 @@ private void sendResponse(org.jgroups.Address target, Response response, long re
          }
       }
 
+      if (command != null) {
+         rpcStatistics.get(command).recordResponseSent(bytes.length);
+      }
+
       try {
          Message message = new Message(target).setFlag(REPLY_FLAGS);
-         message.setBuffer(bytes.getBuf(), bytes.getOffset(), bytes.getLength());
+         message.setBuffer(bytes);
          RequestCorrelator.Header header = new RequestCorrelator.Header(RESPONSE, requestId,
                                                                         CORRELATOR_ID);
          message.putHeader(HEADER_ID, header);
@@ -1438,7 +1669,9 @@ private void processRequest(org.jgroups.Address src, short flags, byte[] buffer,
             return;
          }
 
+         long startTime = timeService.time();
          ReplicableCommand command = (ReplicableCommand) marshaller.objectFromByteBuffer(buffer, offset, length);
+         rpcStatistics.get(command).recordRequestReceived(length, timeService.timeDuration(startTime, TimeUnit.NANOSECONDS));
          Reply reply;
          if (requestId != Request.NO_REQUEST_ID) {
             if (log.isTraceEnabled())
@@ -1464,6 +1697,23 @@ private void processRequest(org.jgroups.Address src, short flags, byte[] buffer,
       }
    }
 
+   private void processCoalescedRequests(org.jgroups.Address src, short flags, byte[] buffer, int offset, int length,
+                                         boolean process) {
+      java.nio.ByteBuffer requestsBuffer = java.nio.ByteBuffer.wrap(buffer, offset, length);
+      int count = requestsBuffer.getInt();
+      for (int i = 0; i < count; i++) {
+         long requestId = requestsBuffer.getLong();
+         int requestLength = requestsBuffer.getInt();
+         int requestOffset = requestsBuffer.position();
+         requestsBuffer.position(requestOffset + requestLength);
+         if (process) {
+            processRequest(src, flags, buffer, requestOffset, requestLength, requestId);
+         } else {
+            sendResponse(src, CacheNotFoundResponse.INSTANCE, requestId, null);
+         }
+      }
+   }
+
    private void processResponse(org.jgroups.Address src, byte[] buffer, int offset, int length, long requestId) {
       try {
          Response response;
@@ -0,0 +1,157 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.jgroups.Address;
+import org.jgroups.View;
+
+/**
+ * Coalesces the requests sent to the same node into a single message.
+ * <p>
+ * The requests are queued per target and a task running on the non-blocking executor drains the queue, so the
+ * requests sent while the task is scheduled or while it is sending the previous message share the same message. There
+ * is no timer: when a single thread sends requests, each request is sent on its own, only later than without
+ * coalescing.
+ * <p>
+ * The message contains the number of requests followed by the id, length and payload of each request. The receiver
+ * handles each request separately and sends one response per request id, so the responses are matched to their
+ * requests by the {@link org.infinispan.remoting.transport.impl.RequestRepository} as usual.
+ *
+ * @since 14.0
+ */
+final class RequestCoalescer {
+   private static final Log log = LogFactory.getLog(RequestCoalescer.class);
+
+   /**
+    * Larger requests are sent on their own.
+    */
+   static final int MAX_REQUEST_SIZE = 8 * 1024;
+   static final int MAX_MESSAGE_SIZE = 60 * 1024;
+   private static final int REQUEST_HEADER_SIZE = 8 + 4;
+
+   private final JGroupsTransport transport;
+   private final Executor executor;
+   private final ConcurrentMap<Address, TargetQueue> queues = new ConcurrentHashMap<>();
+   private final LongAdder coalescedMessages = new LongAdder();
+   private final LongAdder coalescedRequests = new LongAdder();
+
+   RequestCoalescer(JGroupsTransport transport, Executor executor) {
+      this.transport = transport;
+      this.executor = executor;
+   }
+
+   /**
+    * Queues a marshalled request, to be sent with the other requests queued for the same target.
+    */
+   void send(Address target, long requestId, byte[] payload) {
+      TargetQueue queue = queues.computeIfAbsent(target, TargetQueue::new);
+      queue.requests.offer(new QueuedRequest(requestId, payload));
+      if (queue.scheduled.compareAndSet(false, true)) {
+         executor.execute(queue);
+      }
+   }
+
+   /**
+    * Drops the queues of the nodes that left, there are no requests left in them because the requests are
+    * completed when the target leaves.
+    */
+   void viewAccepted(View view) {
+      queues.keySet().removeIf(address -> !view.containsMember(address));
+   }
+
+   long getCoalescedMessages() {
+      return coalescedMessages.sum();
+   }
+
+   long getCoalescedRequests() {
+      return coalescedRequests.sum();
+   }
+
+   void resetStatistics() {
+      coalescedMessages.reset();
+      coalescedRequests.reset();
+   }
+
+   private static final class QueuedRequest {
+      final long requestId;
+      final byte[] payload;
+
+      QueuedRequest(long requestId, byte[] payload) {
+         this.requestId = requestId;
+         this.payload = payload;
+      }
+   }
+
+   private final class TargetQueue implements Runnable {
+      final Address target;
+      final Queue<QueuedRequest> requests = new ConcurrentLinkedQueue<>();
+      final AtomicBoolean scheduled = new AtomicBoolean();
+      // Only used by the thread running the task
+      final List<QueuedRequest> batch = new ArrayList<>();
+      int batchBytes = 4;
+
+      TargetQueue(Address target) {
+         this.target = target;
+      }
+
+      @Override
+      public void run() {
+         do {
+            QueuedRequest request;
+            while ((request = requests.poll()) != null) {
+               int size = REQUEST_HEADER_SIZE + request.payload.length;
+               if (!batch.isEmpty() && batchBytes + size > MAX_MESSAGE_SIZE) {
+                  flush();
+               }
+               batch.add(request);
+               batchBytes += size;
+            }
+            flush();
+            scheduled.set(false);
+            // A request may have been added after the queue was drained, but before the task was unscheduled
+         } while (!requests.isEmpty() && scheduled.compareAndSet(false, true));
+      }
+
+      private void flush() {
+         if (batch.isEmpty()) {
+            return;
+         }
+         try {
+            if (batch.size() == 1) {
+               QueuedRequest request = batch.get(0);
+               transport.sendCoalescedRequest(target, request.requestId, request.payload);
+            } else {
+               ByteBuffer buffer = ByteBuffer.allocate(batchBytes);
+               buffer.putInt(batch.size());
+               for (QueuedRequest request : batch) {
+                  buffer.putLong(request.requestId);
+                  buffer.putInt(request.payload.length);
+                  buffer.put(request.payload);
+               }
+               transport.sendCoalescedRequests(target, buffer.array());
+               coalescedMessages.increment();
+               coalescedRequests.add(batch.size());
+            }
+         } catch (Throwable t) {
+            log.tracef(t, "Failed to send %d requests to %s", batch.size(), target);
+            for (QueuedRequest request : batch) {
+               transport.failRequest(target, request.requestId, t);
+            }
+         } finally {
+            batch.clear();
+            batchBytes = 4;
+         }
+      }
+   }
+}
@@ -0,0 +1,182 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.stat.SimpleHistogram;
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.remoting.transport.Address;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Tracks the response times and the number of requests in progress for each node, so that the adaptive staggered
+ * requests are sent first to the target that is likely to reply first.
+ * <p>
+ * The response time of a node is an exponentially weighted moving average, so a node that slows down, e.g. because of
+ * a long GC pause, stops receiving requests after a few slow responses, and receives them again once its responses
+ * are fast again. The targets are ordered by their average response time multiplied by the number of requests in
+ * progress plus one. Nodes without responses yet are tried first, so that every node gets an estimate. A node without
+ * responses in the last {@value #PROBE_INTERVAL_MILLIS} milliseconds is tried first once, so that a node that was slow
+ * can show that it recovered.
+ * <p>
+ * The hedge delay, after which the request is also sent to the next target, is a percentile of the recent response
+ * times of the target. The percentile is recomputed every {@value #PERCENTILE_INTERVAL} responses from the last
+ * {@value #WINDOW} responses at most.
+ *
+ * @since 14.0
+ */
+final class ResponseTimeTracker {
+   /**
+    * The weight of a new response time in the average.
+    */
+   static final double AVERAGE_WEIGHT = 0.2;
+   static final int WINDOW = 1024;
+   static final int PERCENTILE_INTERVAL = 64;
+   /**
+    * The number of responses needed before hedging.
+    */
+   static final int MIN_SAMPLES = 16;
+   static final long PROBE_INTERVAL_MILLIS = 1000;
+
+   private final double hedgePercentile;
+   private final TimeService timeService;
+   private final long probeIntervalNanos = TimeUnit.MILLISECONDS.toNanos(PROBE_INTERVAL_MILLIS);
+   private final ConcurrentMap<Address, NodeResponseTimes> nodes = new ConcurrentHashMap<>();
+   private final LongAdder hedgedRequests = new LongAdder();
+
+   ResponseTimeTracker(double hedgePercentile, TimeService timeService) {
+      this.hedgePercentile = hedgePercentile;
+      this.timeService = timeService;
+   }
+
+   /**
+    * @return the targets, the target likely to reply first first. Ties keep the order of {@code targets}.
+    */
+   List<Address> orderTargets(Collection<Address> targets) {
+      long now = timeService.time();
+      int size = targets.size();
+      Address[] ordered = new Address[size];
+      double[] scores = new double[size];
+      int count = 0;
+      // Insertion sort, there are only a few owners
+      for (Address target : targets) {
+         double score = node(target).score(now);
+         int i = count++;
+         while (i > 0 && scores[i - 1] > score) {
+            ordered[i] = ordered[i - 1];
+            scores[i] = scores[i - 1];
+            i--;
+         }
+         ordered[i] = target;
+         scores[i] = score;
+      }
+      return Arrays.asList(ordered);
+   }
+
+   /**
+    * @return the time to wait for a response from {@code target} before sending the request to the next target, or
+    * {@code -1} if there are not enough responses from {@code target} yet.
+    */
+   long hedgeDelayNanos(Address target) {
+      return node(target).hedgeDelayNanos;
+   }
+
+   void requestSent(Address target) {
+      node(target).inFlight.incrementAndGet();
+   }
+
+   void requestHedged() {
+      hedgedRequests.increment();
+   }
+
+   void responseReceived(Address target, long nanos) {
+      NodeResponseTimes node = node(target);
+      node.inFlight.decrementAndGet();
+      node.record(nanos);
+   }
+
+   /**
+    * The request was completed by another target before {@code target} replied. The elapsed time is only a lower
+    * bound of the response time, so it is only recorded when it increases the average.
+    */
+   void requestAbandoned(Address target, long elapsedNanos) {
+      NodeResponseTimes node = node(target);
+      node.inFlight.decrementAndGet();
+      if (elapsedNanos > node.averageNanos) {
+         node.record(elapsedNanos);
+      }
+   }
+
+   void viewAccepted(Set<Address> members) {
+      nodes.keySet().retainAll(members);
+   }
+
+   long getHedgedRequests() {
+      return hedgedRequests.sum();
+   }
+
+   void resetStatistics() {
+      hedgedRequests.reset();
+   }
+
+   double getAverageResponseTimeNanos(Address target) {
+      NodeResponseTimes node = nodes.get(target);
+      return node == null ? -1 : node.averageNanos;
+   }
+
+   private NodeResponseTimes node(Address target) {
+      NodeResponseTimes node = nodes.get(target);
+      return node != null ? node : nodes.computeIfAbsent(target, a -> new NodeResponseTimes());
+   }
+
+   private final class NodeResponseTimes {
+      final AtomicInteger inFlight = new AtomicInteger();
+      // The time of the last response or probe
+      final AtomicLong lastSampleTime = new AtomicLong(timeService.time());
+      @GuardedBy("this")
+      final SimpleHistogram window = new SimpleHistogram();
+      @GuardedBy("this")
+      int windowSamples;
+      volatile double averageNanos = -1;
+      volatile long hedgeDelayNanos = -1;
+
+      double score(long now) {
+         double average = averageNanos;
+         if (average < 0) {
+            return 0;
+         }
+         long lastSample = lastSampleTime.get();
+         if (now - lastSample > probeIntervalNanos && lastSampleTime.compareAndSet(lastSample, now)) {
+            // Probe the node
+            return 0;
+         }
+         return average * (Math.max(inFlight.get(), 0) + 1);
+      }
+
+      synchronized void record(long nanos) {
+         lastSampleTime.set(timeService.time());
+         double average = averageNanos;
+         averageNanos = average < 0 ? nanos : average + AVERAGE_WEIGHT * (nanos - average);
+
+         // Keep the previous hedge delay until the new window has enough samples
+         if (windowSamples == WINDOW) {
+            window.reset();
+            windowSamples = 0;
+         }
+         window.record(nanos);
+         windowSamples++;
+         if (windowSamples == MIN_SAMPLES || windowSamples % PERCENTILE_INTERVAL == 0) {
+            hedgeDelayNanos = window.getPercentile(hedgePercentile);
+         }
+      }
+   }
+}
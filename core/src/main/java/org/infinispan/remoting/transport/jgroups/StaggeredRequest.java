@@ -15,6 +15,13 @@
 import net.jcip.annotations.GuardedBy;
 
 /**
+ * Request sent to one target at a time, until a target returns a valid response.
+ * <p>
+ * By default the request is sent to the next target after a tenth of the timeout, divided by the number of targets.
+ * With a {@link ResponseTimeTracker}, the targets are already ordered by their recent response times, and the request
+ * is sent to the next target only after the hedge delay of the current target, so slow targets don't delay the
+ * response.
+ *
  * @author Dan Berindei
  * @since 9.1
  */
@@ -22,22 +29,45 @@
    private final ReplicableCommand command;
    private final DeliverOrder deliverOrder;
    private final JGroupsTransport transport;
+   private final ResponseTimeTracker responseTimes;
 
    @GuardedBy("responseCollector")
    private long deadline;
    @GuardedBy("responseCollector")
    private int targetIndex;
+   // The targets that were sent the request and have not replied yet, only used with responseTimes
+   @GuardedBy("responseCollector")
+   private final Address[] pendingTargets;
+   @GuardedBy("responseCollector")
+   private final long[] sendTimes;
 
    StaggeredRequest(ResponseCollector<T> responseCollector, long requestId, RequestRepository repository,
                     Collection<Address> targets, Address excludedTarget, ReplicableCommand command,
                     DeliverOrder deliverOrder, long timeout, TimeUnit unit, JGroupsTransport transport) {
+      this(responseCollector, requestId, repository, targets, excludedTarget, command, deliverOrder, timeout, unit,
+           transport, null);
+   }
+
+   StaggeredRequest(ResponseCollector<T> responseCollector, long requestId, RequestRepository repository,
+                    Collection<Address> targets, Address excludedTarget, ReplicableCommand command,
+                    DeliverOrder deliverOrder, long timeout, TimeUnit unit, JGroupsTransport transport,
+                    ResponseTimeTracker responseTimes) {
       super(responseCollector, requestId, repository, targets, excludedTarget);
 
       this.command = command;
       this.deliverOrder = deliverOrder;
       this.transport = transport;
+      this.responseTimes = responseTimes;
 
       this.deadline = transport.timeService.expectedEndTime(timeout, unit);
+      if (responseTimes != null) {
+         pendingTargets = new Address[getTargetsSize()];
+         sendTimes = new long[getTargetsSize()];
+         whenComplete((result, throwable) -> abandonPendingTargets());
+      } else {
+         pendingTargets = null;
+         sendTimes = null;
+      }
    }
 
    @Override
@@ -47,6 +77,9 @@ public void setTimeout(ScheduledExecutorService timeoutExecutor, long timeout, T
 
    @Override
    public synchronized void onResponse(Address sender, Response response) {
+      if (responseTimes != null) {
+         recordResponseTime(sender);
+      }
       super.onResponse(sender, response);
 
       sendNextMessage();
@@ -63,11 +96,15 @@ protected void onTimeout() {
       if (isFinalTimeout) {
          super.onTimeout();
       } else {
-         sendNextMessage();
+         sendNextMessage(true);
       }
    }
 
    void sendNextMessage() {
+      sendNextMessage(false);
+   }
+
+   private void sendNextMessage(boolean hedge) {
       try {
          Address target = null;
          boolean isFinalTarget;
@@ -93,6 +130,14 @@ void sendNextMessage() {
             }
 
             isFinalTarget = targetIndex >= getTargetsSize();
+            if (responseTimes != null) {
+               pendingTargets[targetIndex - 1] = target;
+               sendTimes[targetIndex - 1] = transport.getTimeService().time();
+               responseTimes.requestSent(target);
+               if (hedge) {
+                  responseTimes.requestHedged();
+               }
+            }
          }
 
          // Sending may block in flow-control or even in TCP, so we must do it outside the critical section
@@ -103,11 +148,37 @@ void sendNextMessage() {
          // Otherwise, schedule a timeout task to send a staggered request to the next target
          long delayNanos = transport.getTimeService().remainingTime(deadline, TimeUnit.NANOSECONDS);
          if (!isFinalTarget) {
-            delayNanos = delayNanos / 10 / getTargetsSize();
+            long staggerNanos = delayNanos / 10 / getTargetsSize();
+            long hedgeNanos = responseTimes != null ? responseTimes.hedgeDelayNanos(target) : -1;
+            delayNanos = hedgeNanos >= 0 ? Math.min(hedgeNanos, staggerNanos) : staggerNanos;
          }
          super.setTimeout(transport.getTimeoutExecutor(), delayNanos, TimeUnit.NANOSECONDS);
       } catch (Exception e) {
          completeExceptionally(e);
       }
    }
+
+   private void recordResponseTime(Address sender) {
+      synchronized (responseCollector) {
+         for (int i = 0; i < pendingTargets.length; i++) {
+            if (sender.equals(pendingTargets[i])) {
+               pendingTargets[i] = null;
+               responseTimes.responseReceived(sender, transport.getTimeService().timeDuration(sendTimes[i], TimeUnit.NANOSECONDS));
+               return;
+            }
+         }
+      }
+   }
+
+   private void abandonPendingTargets() {
+      synchronized (responseCollector) {
+         for (int i = 0; i < pendingTargets.length; i++) {
+            Address target = pendingTargets[i];
+            if (target != null) {
+               pendingTargets[i] = null;
+               responseTimes.requestAbandoned(target, transport.getTimeService().timeDuration(sendTimes[i], TimeUnit.NANOSECONDS));
+            }
+         }
+      }
+   }
 }
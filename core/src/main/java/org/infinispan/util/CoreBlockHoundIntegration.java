@@ -14,6 +14,7 @@
 import org.infinispan.manager.DefaultCacheManager;
 import org.infinispan.marshall.protostream.impl.SerializationContextRegistryImpl;
 import org.infinispan.persistence.manager.PersistenceManagerImpl;
+import org.infinispan.persistence.sifs.TemporaryTable;
 import org.infinispan.scattered.impl.ScatteredStateConsumerImpl;
 import org.infinispan.statetransfer.StateTransferLockImpl;
 import org.infinispan.topology.ClusterTopologyManagerImpl;
@@ -41,7 +42,9 @@ public void applyTo(BlockHound.Builder builder) {
       // Block designates methods that should only hold a lock very briefly
       {
          CommonsBlockHoundIntegration.allowPublicMethodsToBlock(builder, OffHeapConcurrentMap.class);
-         // This acquires the lruLock and also OffHeapConcurrentMap stampedLocks when processing eviction
+         // Background migration of buckets after a resize acquires the stampedLocks
+         builder.allowBlockingCallsInside(OffHeapConcurrentMap.class.getName(), "backgroundTransfer");
+         // This acquires the evictionLock and also OffHeapConcurrentMap stampedLocks when processing eviction
          builder.allowBlockingCallsInside(SegmentedBoundedOffHeapDataContainer.class.getName(), "ensureSize");
          CommonsBlockHoundIntegration.allowPublicMethodsToBlock(builder, StateTransferLockImpl.class);
 
@@ -62,6 +65,10 @@ public void applyTo(BlockHound.Builder builder) {
          builder.allowBlockingCallsInside(ClusterTopologyManagerImpl.class.getName(), "acquireUpdateLock");
 
          builder.allowBlockingCallsInside(PersistenceManagerImpl.class.getName(), "acquireReadLock");
+
+         // The soft index file store compactor locks a temporary table entry only while it moves the entry to its
+         // log file, the log appender waits for it when it completes a write of the same key
+         builder.allowBlockingCallsInside(TemporaryTable.class.getName(), "set");
       }
       // This invokes the actual runnable - we have to make sure it doesn't block as normal
       builder.disallowBlockingCallsInside(LimitedExecutor.class.getName(), "actualRun");
@@ -20,6 +20,7 @@
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.factories.threads.VirtualThreadExecutorFactory;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.reactivestreams.Publisher;
@@ -336,6 +337,7 @@ public <V> CompletionStage<V> supply(Supplier<V> supplier, Object traceId) {
 
    // This method is designed to be overridden for testing purposes
    protected boolean isCurrentThreadBlocking() {
-      return Thread.currentThread().getThreadGroup() instanceof BlockingResource;
+      return Thread.currentThread().getThreadGroup() instanceof BlockingResource ||
+            VirtualThreadExecutorFactory.isCurrentThreadVirtualWorker();
    }
 }
@@ -2245,4 +2245,17 @@ CacheConfigurationException storeConfiguredHasBothReadAndWriteOnly(String storeC
    @LogMessage(level = ERROR)
    @Message(value = "%s start failed, stopping any running components", id = 660)
    void startFailure(String registryName, @Cause Throwable t);
+
+   @Message(value = "The write-behind concurrency level must be greater than 0, but was %d", id = 661)
+   CacheConfigurationException invalidAsyncStoreConcurrencyLevel(int concurrencyLevel);
+
+   @Message(value = "SingleFileStore does not support max-entries with an off-heap index", id = 662)
+   CacheConfigurationException offHeapIndexSingleFileStoreDoesNotSupportMaxEntries();
+
+   @LogMessage(level = WARN)
+   @Message(value = "Virtual threads are not supported by this JVM, thread pool '%s' uses platform threads", id = 663)
+   void virtualThreadsNotSupported(String threadPoolName);
+
+   @Message(value = "Virtual threads cannot be used by non-blocking thread pool '%s'", id = 664)
+   CacheConfigurationException virtualThreadsNonBlockingThreadPool(String threadPoolName);
 }
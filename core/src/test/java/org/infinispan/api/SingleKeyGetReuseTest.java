@@ -0,0 +1,140 @@
+package org.infinispan.api;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.test.Exceptions;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.DDAsyncInterceptor;
+import org.infinispan.interceptors.impl.CallInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryVisited;
+import org.infinispan.notifications.cachelistener.event.CacheEntryVisitedEvent;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that {@link org.infinispan.Cache#get(Object)} reuses its command only when it is safe to do so.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "api.SingleKeyGetReuseTest")
+public class SingleKeyGetReuseTest extends SingleCacheManagerTest {
+   private final CommandRecordingInterceptor interceptor = new CommandRecordingInterceptor();
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(new ConfigurationBuilder());
+      cache = cm.getCache();
+      interceptor.cache = cache;
+      TestingUtil.extractInterceptorChain(cache).addInterceptorBefore(interceptor, CallInterceptor.class);
+      return cm;
+   }
+
+   @BeforeMethod
+   public void clearCommands() {
+      interceptor.commands.clear();
+      interceptor.keys.clear();
+   }
+
+   public void testCommandReused() {
+      cache.put("k1", "v1");
+      cache.put("k2", "v2");
+
+      assertEquals("v1", cache.get("k1"));
+      assertEquals("v2", cache.get("k2"));
+      assertNull(cache.get("k3"));
+
+      assertEquals(3, interceptor.commands.size());
+      assertSame(interceptor.commands.get(0), interceptor.commands.get(1));
+      assertSame(interceptor.commands.get(0), interceptor.commands.get(2));
+      assertEquals(Arrays.asList("k1", "k2", "k3"), interceptor.keys);
+      // The reused command doesn't keep the last key
+      assertNull(interceptor.commands.get(2).getKey());
+   }
+
+   public void testNestedRead() {
+      cache.put("inner", "innerValue");
+      cache.put("outer", "outerValue");
+
+      assertEquals("outerValue", cache.get("outer"));
+      assertEquals("innerValue", interceptor.nestedValue);
+
+      // The nested read must not use the command of the outer read
+      assertEquals(2, interceptor.commands.size());
+      assertEquals(Arrays.asList("outer", "inner"), interceptor.keys);
+      assertNotSame(interceptor.commands.get(0), interceptor.commands.get(1));
+   }
+
+   public void testCommandNotReusedAfterException() {
+      cache.put("k1", "v1");
+
+      Exceptions.expectException(CacheException.class, IllegalStateException.class, () -> cache.get("fail"));
+      assertEquals("v1", cache.get("k1"));
+
+      assertEquals(2, interceptor.commands.size());
+      assertNotSame(interceptor.commands.get(0), interceptor.commands.get(1));
+   }
+
+   public void testCommandNotReusedWithVisitedListener() {
+      cache.put("k1", "v1");
+      VisitedListener listener = new VisitedListener();
+      cache.addListener(listener);
+      try {
+         assertEquals("v1", cache.get("k1"));
+         assertEquals("v1", cache.get("k1"));
+      } finally {
+         cache.removeListener(listener);
+      }
+
+      assertEquals(2, interceptor.commands.size());
+      assertNotSame(interceptor.commands.get(0), interceptor.commands.get(1));
+      assertEquals(2, listener.events.size());
+   }
+
+   static class CommandRecordingInterceptor extends DDAsyncInterceptor {
+      final List<GetKeyValueCommand> commands = new ArrayList<>();
+      final List<Object> keys = new ArrayList<>();
+      Cache<Object, Object> cache;
+      Object nestedValue;
+
+      @Override
+      public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
+         commands.add(command);
+         keys.add(command.getKey());
+         if ("fail".equals(command.getKey())) {
+            throw new IllegalStateException("Induced failure");
+         }
+         if ("outer".equals(command.getKey())) {
+            nestedValue = cache.get("inner");
+         }
+         return invokeNext(ctx, command);
+      }
+   }
+
+   @Listener
+   public static class VisitedListener {
+      final List<CacheEntryVisitedEvent<?, ?>> events = new ArrayList<>();
+
+      @CacheEntryVisited
+      public void visited(CacheEntryVisitedEvent<?, ?> event) {
+         if (!event.isPre()) {
+            events.add(event);
+         }
+      }
+   }
+}
@@ -23,6 +23,7 @@
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.MemoryConfiguration;
 import org.infinispan.configuration.cache.MemoryStorageConfiguration;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.configuration.parsing.ConfigurationBuilderHolder;
 import org.infinispan.configuration.parsing.ParserRegistry;
@@ -330,6 +331,26 @@ public void testParseXML3() {
       assertEquals(afterParsing.memory().evictionType(), MEMORY);
    }
 
+   @Test
+   public void testParseOffHeapAllocator() {
+      String xmlNew = "<infinispan>\n" +
+            "   <cache-container>\n" +
+            "      <local-cache name=\"local\">\n" +
+            "         <memory storage=\"OFF_HEAP\" max-count=\"1000\" allocator=\"SLAB\"/>\n" +
+            "      </local-cache>\n" +
+            "   </cache-container>\n" +
+            "</infinispan>";
+
+      testSerializationAndBack(xmlNew);
+
+      ConfigurationBuilderHolder parsed = new ParserRegistry().parse(xmlNew);
+      Configuration afterParsing = parsed.getNamedConfigurationBuilders().get("local").build();
+
+      assertEquals(afterParsing.memory().storage(), OFF_HEAP);
+      assertEquals(afterParsing.memory().allocator(), OffHeapAllocatorType.SLAB);
+      assertEquals(new ConfigurationBuilder().build().memory().allocator(), OffHeapAllocatorType.UNPOOLED);
+   }
+
 
    @Test
    public void testParseJSON() {
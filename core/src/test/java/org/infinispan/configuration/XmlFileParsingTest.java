@@ -24,6 +24,7 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.PersistenceConfiguration;
+import org.infinispan.configuration.cache.ReadRouting;
 import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.configuration.global.GlobalConfiguration;
@@ -36,6 +37,7 @@
 import org.infinispan.factories.threads.AbstractThreadPoolExecutorFactory;
 import org.infinispan.factories.threads.DefaultThreadFactory;
 import org.infinispan.factories.threads.EnhancedQueueExecutorFactory;
+import org.infinispan.factories.threads.VirtualThreadExecutorFactory;
 import org.infinispan.interceptors.FooInterceptor;
 import org.infinispan.manager.DefaultCacheManager;
 import org.infinispan.marshall.AdvancedExternalizerTest;
@@ -243,6 +245,36 @@ public void testCustomTransport() {
       assertTrue(transport instanceof CustomTransport);
    }
 
+   public void testVirtualThreadPool() {
+      String config = TestingUtil.wrapXMLWithSchema(
+            "<threads>\n" +
+            "  <thread-factory name=\"factory\" group-name=\"infinispan\"/>\n" +
+            "  <blocking-bounded-queue-thread-pool name=\"virtual\" thread-factory=\"factory\" max-threads=\"1000\" queue-length=\"100\" virtual-threads=\"true\"/>\n" +
+            "</threads>\n" +
+            "<cache-container blocking-executor=\"virtual\"/>"
+      );
+
+      ConfigurationBuilderHolder holder = parseStringConfiguration(config);
+      GlobalConfiguration gc = holder.getGlobalConfigurationBuilder().build();
+      VirtualThreadExecutorFactory blockingThreadPool = gc.blockingThreadPool().threadPoolFactory();
+      assertEquals(1000, blockingThreadPool.maxThreads());
+      assertEquals(100, blockingThreadPool.queueLength());
+   }
+
+   public void testAdaptiveReadRouting() {
+      String config = TestingUtil.wrapXMLWithSchema(
+            "<cache-container>\n" +
+            "  <transport cluster=\"demoCluster\"/>\n" +
+            "  <distributed-cache name=\"adaptive\" read-routing=\"ADAPTIVE\"/>\n" +
+            "  <distributed-cache name=\"staggered\"/>\n" +
+            "</cache-container>"
+      );
+
+      ConfigurationBuilderHolder holder = parseStringConfiguration(config);
+      assertEquals(ReadRouting.ADAPTIVE, holder.getNamedConfigurationBuilders().get("adaptive").build().clustering().hash().readRouting());
+      assertEquals(ReadRouting.STAGGERED, holder.getNamedConfigurationBuilders().get("staggered").build().clustering().hash().readRouting());
+   }
+
    public void testNoDefaultCache() {
       String config = TestingUtil.wrapXMLWithSchema(
             "<cache-container>" +
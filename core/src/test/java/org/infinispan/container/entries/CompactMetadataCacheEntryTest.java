@@ -0,0 +1,129 @@
+package org.infinispan.container.entries;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.container.entries.metadata.CompactMetadataExpirableCacheEntry;
+import org.infinispan.container.entries.metadata.CompactMetadataImmortalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataImmortalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataMortalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataTransientMortalCacheEntry;
+import org.infinispan.container.impl.InternalEntryFactoryImpl;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.ControlledTimeService;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the entries that store numeric versioned embedded metadata in primitive fields.
+ *
+ * @since 14.0
+ */
+@Test(groups = "unit", testName = "container.entries.CompactMetadataCacheEntryTest")
+public class CompactMetadataCacheEntryTest extends AbstractInfinispanTest {
+   private static final String KEY = "key";
+   private static final String VALUE = "value";
+
+   private final CacheEntrySizeCalculator<Object, Object> sizeCalculator =
+         new CacheEntrySizeCalculator<>(new PrimitiveEntrySizeCalculator());
+   private InternalEntryFactoryImpl factory;
+   private ControlledTimeService timeService;
+
+   @BeforeMethod
+   public void setUp() {
+      factory = new InternalEntryFactoryImpl();
+      timeService = new ControlledTimeService();
+      TestingUtil.inject(factory, timeService);
+   }
+
+   public void testImmortal() {
+      Metadata metadata = new EmbeddedMetadata.Builder().version(new NumericVersion(3)).build();
+      InternalCacheEntry<Object, Object> entry = factory.create(KEY, VALUE, metadata);
+      assertEquals(CompactMetadataImmortalCacheEntry.class, entry.getClass());
+      assertEquals(metadata, entry.getMetadata());
+      assertFalse(entry.canExpire());
+      assertEquals(-1, entry.getExpiryTime());
+
+      Metadata updated = new EmbeddedMetadata.Builder().version(new NumericVersion(4)).build();
+      assertSame(entry, factory.update(entry, updated));
+      assertEquals(updated, entry.getMetadata());
+
+      long before = sizeCalculator.calculateSize(KEY, new MetadataImmortalCacheEntry(KEY, VALUE, metadata));
+      long after = sizeCalculator.calculateSize(KEY, entry);
+      assertTrue("Compact entry uses " + after + " bytes, metadata entry " + before, after < before);
+   }
+
+   public void testMortal() {
+      Metadata metadata = new EmbeddedMetadata.Builder().lifespan(100).version(new NumericVersion(3)).build();
+      InternalCacheEntry<Object, Object> entry = factory.create(KEY, VALUE, metadata);
+      assertEquals(CompactMetadataExpirableCacheEntry.class, entry.getClass());
+      assertEquals(metadata, entry.getMetadata());
+      assertFalse(entry.canExpireMaxIdle());
+      long now = timeService.wallClockTime();
+      assertEquals(now + 100, entry.getExpiryTime());
+      assertFalse(entry.isExpired(now + 100));
+      assertTrue(entry.isExpired(now + 101));
+
+      long before = sizeCalculator.calculateSize(KEY, new MetadataMortalCacheEntry(KEY, VALUE, metadata, now));
+      long after = sizeCalculator.calculateSize(KEY, entry);
+      assertTrue("Compact entry uses " + after + " bytes, metadata entry " + before, after < before);
+   }
+
+   public void testTransientMortal() {
+      Metadata metadata = new EmbeddedMetadata.Builder().lifespan(1000).maxIdle(100)
+            .version(new NumericVersion(3)).build();
+      InternalCacheEntry<Object, Object> entry = factory.create(KEY, VALUE, metadata);
+      assertEquals(CompactMetadataExpirableCacheEntry.class, entry.getClass());
+      assertEquals(metadata, entry.getMetadata());
+      assertTrue(entry.canExpireMaxIdle());
+      long now = timeService.wallClockTime();
+      assertTrue(entry.isExpired(now + 101));
+      entry.touch(now + 50);
+      assertFalse(entry.isExpired(now + 101));
+      assertEquals(now + 150, entry.getExpiryTime());
+
+      // Dropping the max idle keeps the instance
+      Metadata mortal = new EmbeddedMetadata.Builder().lifespan(1000).version(new NumericVersion(4)).build();
+      assertSame(entry, factory.update(entry, mortal));
+      assertEquals(mortal, entry.getMetadata());
+      assertEquals(now + 1000, entry.getExpiryTime());
+
+      long before = sizeCalculator.calculateSize(KEY,
+            new MetadataTransientMortalCacheEntry(KEY, VALUE, metadata, now));
+      long after = sizeCalculator.calculateSize(KEY, factory.create(KEY, VALUE, metadata));
+      assertTrue("Compact entry uses " + after + " bytes, metadata entry " + before, after < before);
+   }
+
+   public void testExpirableBecomesImmortal() {
+      Metadata metadata = new EmbeddedMetadata.Builder().maxIdle(100).version(new NumericVersion(3)).build();
+      InternalCacheEntry<Object, Object> entry = factory.create(KEY, VALUE, metadata);
+      assertEquals(CompactMetadataExpirableCacheEntry.class, entry.getClass());
+
+      Metadata immortal = new EmbeddedMetadata.Builder().version(new NumericVersion(4)).build();
+      InternalCacheEntry<Object, Object> updated = factory.update(entry, immortal);
+      assertEquals(CompactMetadataImmortalCacheEntry.class, updated.getClass());
+      assertEquals(immortal, updated.getMetadata());
+   }
+
+   public void testOtherVersionsKeepMetadata() {
+      Metadata metadata = new EmbeddedMetadata.Builder().lifespan(100)
+            .version(new SimpleClusteredVersion(1, 3)).build();
+      InternalCacheEntry<Object, Object> entry = factory.create(KEY, VALUE, metadata);
+      assertEquals(MetadataMortalCacheEntry.class, entry.getClass());
+      assertSame(metadata, entry.getMetadata());
+   }
+
+   public void testSizeMatchesMetadataEstimate() {
+      Metadata metadata = new EmbeddedMetadata.Builder().lifespan(1000).maxIdle(100)
+            .version(new NumericVersion(3)).build();
+      InternalCacheEntry<Object, Object> entry = factory.create(KEY, VALUE, metadata);
+      assertEquals(sizeCalculator.calculateSize(KEY, VALUE, metadata, null), sizeCalculator.calculateSize(KEY, entry));
+   }
+}
@@ -0,0 +1,92 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.annotations.Test;
+
+/**
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "container.offheap.EpochDeferredMemoryAllocatorTest")
+public class EpochDeferredMemoryAllocatorTest {
+
+   public void testDeallocationDeferredWhileReaderActive() {
+      UnpooledOffHeapMemoryAllocator unpooled = new UnpooledOffHeapMemoryAllocator();
+      EpochDeferredMemoryAllocator allocator = new EpochDeferredMemoryAllocator(unpooled);
+
+      long[] addresses = new long[EpochDeferredMemoryAllocator.RECLAIM_THRESHOLD * 2];
+      for (int i = 0; i < addresses.length; ++i) {
+         addresses[i] = allocator.allocate(32);
+      }
+      long allocated = unpooled.getAllocatedAmount();
+
+      EpochDeferredMemoryAllocator.Participant reader = allocator.enter();
+      for (long address : addresses) {
+         allocator.deallocate(address, 32);
+      }
+      // The reader entered before any of the deallocations, so they must all still be pending
+      assertEquals(addresses.length, allocator.retiredCount());
+      assertEquals(allocated, unpooled.getAllocatedAmount());
+
+      allocator.exit(reader);
+      // Once the reader left, the next deallocation over the threshold releases everything retired before
+      allocator.deallocate(allocator.allocate(32), 32);
+      assertEquals(0, allocator.retiredCount());
+
+      assertEquals(0, unpooled.getAllocatedAmount());
+   }
+
+   public void testRetiredByIdleThreadIsReclaimed() throws InterruptedException {
+      UnpooledOffHeapMemoryAllocator unpooled = new UnpooledOffHeapMemoryAllocator();
+      EpochDeferredMemoryAllocator allocator = new EpochDeferredMemoryAllocator(unpooled);
+
+      long idleAddress = allocator.allocate(32);
+      CountDownLatch retired = new CountDownLatch(1);
+      CountDownLatch done = new CountDownLatch(1);
+      Thread idle = new Thread(() -> {
+         allocator.deallocate(idleAddress, 32);
+         retired.countDown();
+         try {
+            done.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      });
+      idle.start();
+      retired.await();
+      assertEquals(1, allocator.retiredCount());
+
+      // This thread reaching the threshold also reclaims the memory retired by the idle thread
+      for (int i = 0; i < EpochDeferredMemoryAllocator.RECLAIM_THRESHOLD; ++i) {
+         allocator.deallocate(allocator.allocate(32), 32);
+      }
+      assertEquals(0, allocator.retiredCount());
+      assertEquals(0, unpooled.getAllocatedAmount());
+      assertEquals(2, allocator.participantCount());
+
+      done.countDown();
+      idle.join();
+      allocator.reclaim();
+      // The terminated thread no longer takes part
+      assertEquals(1, allocator.participantCount());
+   }
+
+   public void testRetiredByTerminatedThreadIsReclaimed() throws InterruptedException {
+      UnpooledOffHeapMemoryAllocator unpooled = new UnpooledOffHeapMemoryAllocator();
+      EpochDeferredMemoryAllocator allocator = new EpochDeferredMemoryAllocator(unpooled);
+
+      long address = allocator.allocate(32);
+      Thread thread = new Thread(() -> allocator.deallocate(address, 32));
+      thread.start();
+      thread.join();
+      assertEquals(1, allocator.retiredCount());
+      assertEquals(1, allocator.participantCount());
+
+      allocator.reclaimAll();
+      assertEquals(0, allocator.retiredCount());
+      assertEquals(0, allocator.participantCount());
+      assertEquals(0, unpooled.getAllocatedAmount());
+   }
+}
@@ -90,4 +90,36 @@ public void testMultiThreaded() throws ExecutionException, InterruptedException,
       }
       assertTrue("Cache size was " + cacheSize, cacheSize <= COUNT);
    }
+
+   public void testEvictionWithConcurrentWritesToSameKeys() throws Exception {
+      Cache<String, String> cache = cache(0);
+
+      // Every thread writes the same keys, so the evicted keys are often written concurrently
+      int threadCount = 4;
+      int keyCount = COUNT * 2;
+      List<Future<?>> futures = new ArrayList<>(threadCount);
+      for (int i = 0; i < threadCount; ++i) {
+         int thread = i;
+         futures.add(fork(() -> {
+            for (int j = 0; j < keyCount * 20; ++j) {
+               if (Thread.interrupted()) {
+                  return;
+               }
+               cache.put("key" + (j % keyCount), "value" + thread + "-" + j);
+            }
+         }));
+      }
+
+      for (Future<?> future : futures) {
+         try {
+            future.get(30, TimeUnit.SECONDS);
+         } catch (Exception e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e;
+         }
+      }
+
+      int cacheSize = cache.size();
+      assertTrue("Cache size was " + cacheSize, cacheSize <= COUNT);
+   }
 }
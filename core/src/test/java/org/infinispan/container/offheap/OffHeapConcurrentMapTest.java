@@ -4,10 +4,19 @@
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
@@ -22,14 +31,16 @@
 @Test(groups = "stress", testName = "container.offheap.OffHeapConcurrentMapTest")
 public class OffHeapConcurrentMapTest {
    private OffHeapConcurrentMap map;
+   private OffHeapMemoryAllocator allocator;
+   private OffHeapEntryFactoryImpl offHeapEntryFactory;
    private WrappedByteArray valueByteArray = new WrappedByteArray(new byte[] { 0, 1, 2, 3, 4, 5 });
 
    private static final int RESIZE_LIMITATION = OffHeapConcurrentMap.computeThreshold(OffHeapConcurrentMap.INITIAL_SIZE);
 
    @BeforeMethod
    void initializeMap() {
-      OffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
-      OffHeapEntryFactoryImpl offHeapEntryFactory = new OffHeapEntryFactoryImpl();
+      allocator = new UnpooledOffHeapMemoryAllocator();
+      offHeapEntryFactory = new OffHeapEntryFactoryImpl();
       offHeapEntryFactory.allocator = allocator;
       offHeapEntryFactory.internalEntryFactory = new InternalEntryFactoryImpl();
       offHeapEntryFactory.configuration = new ConfigurationBuilder().build();
@@ -132,6 +143,148 @@ public void testIterationCreatedButNotUsedUntilAfterAResize() {
       assertEquals(RESIZE_LIMITATION, entriesFound);
    }
 
+   public void testReadsAndIterationDuringIncrementalResize() {
+      Set<WrappedBytes> expectedKeys = insertUpToResizeLimitation();
+
+      // Starts the resize, which only migrates the buckets of a single step
+      expectedKeys.add(putInMap(map, valueByteArray));
+      assertTrue(map.isTransferring());
+
+      for (WrappedBytes key : expectedKeys) {
+         assertNotNull(map.peek(key));
+         assertNotNull(map.get(key));
+      }
+      Set<WrappedBytes> results = new HashSet<>();
+      for (InternalCacheEntry<WrappedBytes, WrappedBytes> ice : map.values()) {
+         assertTrue(results.add(ice.getKey()));
+      }
+      assertEquals(expectedKeys, results);
+
+      // Writes to keys in buckets that were not migrated yet
+      WrappedBytes removedKey = expectedKeys.iterator().next();
+      assertNotNull(map.remove(removedKey));
+      expectedKeys.remove(removedKey);
+      for (WrappedBytes key : expectedKeys) {
+         assertNotNull(map.replace(key, new ImmortalCacheEntry(key, key)));
+      }
+
+      // Every insert migrates another step
+      while (map.isTransferring()) {
+         expectedKeys.add(putInMap(map, valueByteArray));
+      }
+      assertEquals(expectedKeys.size(), map.size());
+      for (WrappedBytes key : expectedKeys) {
+         assertNotNull(map.peek(key));
+      }
+   }
+
+   public void testBackgroundTransferCompletesResize() throws Exception {
+      map.close();
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null, true, executor);
+         Set<WrappedBytes> expectedKeys = insertUpToResizeLimitation();
+         expectedKeys.add(putInMap(map, valueByteArray));
+
+         long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+         while (map.isTransferring()) {
+            assertTrue("Resize was not completed in the background", System.nanoTime() < end);
+            Thread.sleep(10);
+         }
+         Set<WrappedBytes> results = new HashSet<>();
+         for (InternalCacheEntry<WrappedBytes, WrappedBytes> ice : map.values()) {
+            assertTrue(results.add(ice.getKey()));
+         }
+         assertEquals(expectedKeys, results);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testOptimisticReadsDuringWritesAndResizes() throws Exception {
+      WrappedBytes[] keys = new WrappedBytes[RESIZE_LIMITATION * 8];
+      for (int i = 0; i < keys.length; ++i) {
+         keys[i] = new WrappedByteArray(("key" + i).getBytes());
+      }
+      AtomicBoolean done = new AtomicBoolean();
+      Future<?> writer = CompletableFuture.runAsync(() -> {
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         // Keeps growing and clearing the map so readers see resizes, replacements and removals
+         while (!done.get()) {
+            for (WrappedBytes key : keys) {
+               map.put(key, new ImmortalCacheEntry(key, key));
+               if (random.nextBoolean()) {
+                  map.remove(key);
+               }
+            }
+            map.clear();
+         }
+      });
+      try {
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+         while (System.nanoTime() < end) {
+            WrappedBytes key = keys[random.nextInt(keys.length)];
+            InternalCacheEntry<WrappedBytes, WrappedBytes> ice = map.peek(key);
+            if (ice != null) {
+               assertEquals(key, ice.getKey());
+               assertEquals(key, ice.getValue());
+            }
+         }
+      } finally {
+         done.set(true);
+         writer.get(10, TimeUnit.SECONDS);
+      }
+   }
+
+   public void testOptimisticReadsOfValuesReplacedWithDifferentSizes() throws Exception {
+      WrappedBytes[] keys = new WrappedBytes[64];
+      for (int i = 0; i < keys.length; ++i) {
+         keys[i] = new WrappedByteArray(("key" + i).getBytes());
+      }
+      // The value lengths change on every write, so a read that is not validated decodes mismatched lengths
+      WrappedBytes[] values = new WrappedBytes[8];
+      for (int i = 0; i < values.length; ++i) {
+         byte[] bytes = new byte[1 << (i * 2)];
+         Arrays.fill(bytes, (byte) i);
+         values[i] = new WrappedByteArray(bytes);
+      }
+      Set<WrappedBytes> expectedValues = new HashSet<>(Arrays.asList(values));
+      AtomicBoolean done = new AtomicBoolean();
+      Future<?> writer = CompletableFuture.runAsync(() -> {
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         while (!done.get()) {
+            WrappedBytes key = keys[random.nextInt(keys.length)];
+            map.put(key, new ImmortalCacheEntry(key, values[random.nextInt(values.length)]));
+         }
+      });
+      ExecutorService readers = Executors.newFixedThreadPool(4);
+      try {
+         List<Future<?>> futures = new ArrayList<>();
+         for (int i = 0; i < 4; ++i) {
+            futures.add(readers.submit(() -> {
+               ThreadLocalRandom random = ThreadLocalRandom.current();
+               long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+               while (System.nanoTime() < end) {
+                  WrappedBytes key = keys[random.nextInt(keys.length)];
+                  InternalCacheEntry<WrappedBytes, WrappedBytes> ice = map.peek(key);
+                  if (ice != null) {
+                     assertEquals(key, ice.getKey());
+                     assertTrue(expectedValues.contains(ice.getValue()));
+                  }
+               }
+            }));
+         }
+         for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+         }
+      } finally {
+         done.set(true);
+         readers.shutdownNow();
+         writer.get(10, TimeUnit.SECONDS);
+      }
+   }
+
    WrappedBytes putInMap(OffHeapConcurrentMap map, WrappedBytes value) {
       InternalCacheEntry<WrappedBytes, WrappedBytes> ice;
       WrappedBytes key;
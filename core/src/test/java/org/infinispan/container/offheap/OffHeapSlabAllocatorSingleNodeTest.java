@@ -0,0 +1,33 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the off-heap single node tests with entries allocated from slabs.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapSlabAllocatorSingleNodeTest")
+public class OffHeapSlabAllocatorSingleNodeTest extends OffHeapSingleNodeTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, false);
+      dcc.memory().storage(StorageType.OFF_HEAP).allocator(OffHeapAllocatorType.SLAB);
+      addClusterEnabledCacheManager(dcc);
+
+      configureTimeService();
+   }
+
+   public void testSlabAllocatorInstalled() {
+      OffHeapMemoryAllocator allocator = TestingUtil.extractComponent(cache(0), OffHeapMemoryAllocator.class);
+      assertTrue(allocator instanceof SlabOffHeapMemoryAllocator);
+   }
+}
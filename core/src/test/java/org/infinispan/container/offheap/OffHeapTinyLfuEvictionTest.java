@@ -0,0 +1,61 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.container.DataContainer;
+import org.infinispan.encoding.DataConversion;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the off-heap eviction policy keeps frequently read entries when entries that are only written once
+ * are inserted.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapTinyLfuEvictionTest")
+public class OffHeapTinyLfuEvictionTest extends SingleCacheManagerTest {
+   private static final int MAX_COUNT = 100;
+   private static final int HOT_KEYS = 50;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.memory().storageType(StorageType.OFF_HEAP).maxCount(MAX_COUNT);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testScanDoesNotEvictFrequentlyReadEntries() {
+      DataContainer<Object, Object> dataContainer = cache.getAdvancedCache().getDataContainer();
+      DataConversion keyDataConversion = cache.getAdvancedCache().getKeyDataConversion();
+      for (int i = 0; i < HOT_KEYS; ++i) {
+         cache.put("hot-" + i, "value-" + i);
+      }
+      // Reads through the container record the access, unlike peeks
+      for (int j = 0; j < 10; ++j) {
+         for (int i = 0; i < HOT_KEYS; ++i) {
+            assertNotNull(dataContainer.get(keyDataConversion.toStorage("hot-" + i)));
+         }
+      }
+
+      for (int i = 0; i < MAX_COUNT * 10; ++i) {
+         cache.put("scan-" + i, "value-" + i);
+      }
+      assertEquals(MAX_COUNT, cache.size());
+
+      int retained = 0;
+      for (int i = 0; i < HOT_KEYS; ++i) {
+         if (dataContainer.peek(keyDataConversion.toStorage("hot-" + i)) != null) {
+            retained++;
+         }
+      }
+      // Only a few of the reads are dropped by the lossy read buffer, an LRU policy would not retain any
+      assertTrue("Only " + retained + " hot entries were retained", retained >= HOT_KEYS * 9 / 10);
+   }
+}
@@ -0,0 +1,161 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "container.offheap.SlabOffHeapMemoryAllocatorTest")
+public class SlabOffHeapMemoryAllocatorTest {
+
+   @DataProvider(name = "sizeClasses")
+   Object[][] sizeClasses() {
+      return new Object[][] {
+            { 1, 16 },
+            { 16, 16 },
+            { 17, 32 },
+            { 128, 128 },
+            { 129, 160 },
+            { 161, 192 },
+            { 256, 256 },
+            { 257, 320 },
+            { 1000, 1024 },
+            { 8192, 8192 },
+      };
+   }
+
+   @Test(dataProvider = "sizeClasses")
+   public void testSizeClasses(long size, int expectedBlockSize) {
+      assertEquals(expectedBlockSize, SlabOffHeapMemoryAllocator.blockSize(SlabOffHeapMemoryAllocator.sizeClass(size)));
+   }
+
+   public void testSizeClassesAreContiguous() {
+      for (int i = 1; i < SlabOffHeapMemoryAllocator.SIZE_CLASS_COUNT; ++i) {
+         int blockSize = SlabOffHeapMemoryAllocator.blockSize(i);
+         assertEquals(0, blockSize % 16);
+         assertEquals(i, SlabOffHeapMemoryAllocator.sizeClass(blockSize));
+         assertEquals(i, SlabOffHeapMemoryAllocator.sizeClass(SlabOffHeapMemoryAllocator.blockSize(i - 1) + 1));
+      }
+   }
+
+   public void testBlocksAreReused() {
+      SlabOffHeapMemoryAllocator allocator = new SlabOffHeapMemoryAllocator();
+      try {
+         Set<Long> addresses = new HashSet<>();
+         for (int i = 0; i < 1000; ++i) {
+            addresses.add(allocator.allocate(100));
+         }
+         assertEquals(1000, addresses.size());
+         assertEquals(1000 * 112, allocator.getUsedBytes());
+         assertEquals(SlabOffHeapMemoryAllocator.ARENA_CHUNK_SIZE, allocator.getReservedBytes());
+         assertEquals(SlabOffHeapMemoryAllocator.ARENA_CHUNK_SIZE, allocator.getAllocatedAmount());
+
+         for (long address : addresses) {
+            allocator.deallocate(address, 100);
+         }
+         assertEquals(0, allocator.getUsedBytes());
+         assertEquals(1.0, allocator.getFragmentation(), 0.0);
+
+         long slabs = allocator.getSlabCount();
+         for (int i = 0; i < 1000; ++i) {
+            allocator.allocate(100);
+         }
+         assertEquals(slabs, allocator.getSlabCount());
+      } finally {
+         allocator.stop();
+      }
+      assertEquals(0, allocator.getAllocatedAmount());
+   }
+
+   public void testBlocksCachedByTerminatedThreadAreReused() throws InterruptedException {
+      SlabOffHeapMemoryAllocator allocator = new SlabOffHeapMemoryAllocator();
+      try {
+         // Fill a slab from another thread and free it, leaving blocks in that thread's magazine
+         int blocks = SlabOffHeapMemoryAllocator.SLAB_SIZE / 112;
+         Thread thread = new Thread(() -> {
+            long[] addresses = new long[blocks];
+            for (int i = 0; i < blocks; ++i) {
+               addresses[i] = allocator.allocate(100);
+            }
+            for (long address : addresses) {
+               allocator.deallocate(address, 100);
+            }
+         });
+         thread.start();
+         thread.join();
+         assertEquals(1, allocator.getSlabCount());
+         assertEquals(0, allocator.getUsedBytes());
+
+         // All the blocks of the slab are reused instead of carving a new one
+         for (int i = 0; i < blocks; ++i) {
+            allocator.allocate(100);
+         }
+         assertEquals(1, allocator.getSlabCount());
+         assertEquals(blocks * 112L, allocator.getUsedBytes());
+      } finally {
+         allocator.stop();
+      }
+   }
+
+   public void testBlocksCachedByIdleThreadAreReused() throws Exception {
+      SlabOffHeapMemoryAllocator allocator = new SlabOffHeapMemoryAllocator();
+      CountDownLatch freed = new CountDownLatch(1);
+      CountDownLatch done = new CountDownLatch(1);
+      Thread thread = new Thread(() -> {
+         int blocks = SlabOffHeapMemoryAllocator.SLAB_SIZE / 112;
+         long[] addresses = new long[blocks];
+         for (int i = 0; i < blocks; ++i) {
+            addresses[i] = allocator.allocate(100);
+         }
+         for (long address : addresses) {
+            allocator.deallocate(address, 100);
+         }
+         freed.countDown();
+         try {
+            done.await(10, TimeUnit.SECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      });
+      thread.start();
+      try {
+         assertTrue(freed.await(10, TimeUnit.SECONDS));
+         // The first attempt only marks the thread, its blocks are moved if it stays idle until the next one
+         allocator.reclaimMagazines();
+
+         int blocks = SlabOffHeapMemoryAllocator.SLAB_SIZE / 112;
+         for (int i = 0; i < blocks; ++i) {
+            allocator.allocate(100);
+         }
+         assertEquals(1, allocator.getSlabCount());
+         assertEquals(blocks * 112L, allocator.getUsedBytes());
+      } finally {
+         done.countDown();
+         thread.join();
+         allocator.stop();
+      }
+   }
+
+   public void testLargeAllocationsBypassSlabs() {
+      SlabOffHeapMemoryAllocator allocator = new SlabOffHeapMemoryAllocator();
+      try {
+         long size = SlabOffHeapMemoryAllocator.MAX_BLOCK_SIZE + 1;
+         long address = allocator.allocate(size);
+         assertEquals(0, allocator.getSlabCount());
+         assertEquals(UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size), allocator.getLargeAllocationBytes());
+         allocator.deallocate(address, size);
+         assertEquals(0, allocator.getAllocatedAmount());
+      } finally {
+         allocator.stop();
+      }
+   }
+}
@@ -0,0 +1,51 @@
+package org.infinispan.expiration.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the expiration tests with the reaper visiting the entries indexed by the timing wheel.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "expiration.impl.ExpirationTimingWheelFunctionalTest")
+public class ExpirationTimingWheelFunctionalTest extends ExpirationFunctionalTest {
+
+   @Factory
+   @Override
+   public Object[] factory() {
+      return new Object[]{
+            new ExpirationTimingWheelFunctionalTest().cacheMode(CacheMode.LOCAL).withStorage(StorageType.OBJECT),
+            new ExpirationTimingWheelFunctionalTest().cacheMode(CacheMode.LOCAL).withStorage(StorageType.OFF_HEAP),
+            new ExpirationTimingWheelFunctionalTest().cacheMode(CacheMode.DIST_SYNC).withStorage(StorageType.OBJECT),
+      };
+   }
+
+   @Override
+   protected void configure(ConfigurationBuilder config) {
+      super.configure(config);
+      // The reaper must be enabled for the wheel to be used, but it only runs when the test invokes it
+      config.expiration().enableReaper().wakeUpInterval(Long.MAX_VALUE).timingWheel(true);
+   }
+
+   public void testRemovedKeysLeaveTheWheel() {
+      ExpirationTimingWheel<?> timingWheel = ((ExpirationManagerImpl<?, ?>) expirationManager).timingWheel;
+      processExpiration();
+      int size = timingWheel.size();
+      for (int i = 0; i < SIZE; i++) {
+         cache.put("key-" + i, "value-" + i, 10, TimeUnit.MINUTES);
+      }
+      for (int i = 0; i < SIZE; i++) {
+         cache.remove("key-" + i);
+      }
+      processExpiration();
+      assertEquals(size, timingWheel.size());
+   }
+}
@@ -0,0 +1,132 @@
+package org.infinispan.expiration.impl;
+
+import static java.util.Collections.singletonList;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * @since 14.0
+ */
+@Test(groups = "unit", testName = "expiration.impl.ExpirationTimingWheelTest")
+public class ExpirationTimingWheelTest extends AbstractInfinispanTest {
+   private static final long START = 1_000_000;
+
+   public void testDueKeys() {
+      ExpirationTimingWheel<String> wheel = new ExpirationTimingWheel<>(START);
+      wheel.schedule("a", START + 1);
+      wheel.schedule("b", START + 5_000);
+      wheel.schedule("c", START + 100_000);
+      wheel.schedule("d", START + 10_000_000);
+
+      assertEquals(0, advance(wheel, START).size());
+      assertEquals(singletonList("a"), advance(wheel, START + 1));
+      assertEquals(0, advance(wheel, START + 4_999).size());
+      assertEquals(singletonList("b"), advance(wheel, START + 5_000));
+      assertEquals(0, advance(wheel, START + 99_999).size());
+      assertEquals(singletonList("c"), advance(wheel, START + 100_001));
+      assertEquals(1, wheel.size());
+      assertEquals(singletonList("d"), advance(wheel, START + 20_000_000));
+      assertEquals(0, wheel.size());
+   }
+
+   public void testScheduleAgainReplaces() {
+      ExpirationTimingWheel<String> wheel = new ExpirationTimingWheel<>(START);
+      wheel.schedule("a", START + 10);
+      wheel.schedule("a", START + 70_000);
+      assertEquals(0, advance(wheel, START + 69_999).size());
+      assertEquals(singletonList("a"), advance(wheel, START + 70_000));
+      assertEquals(0, wheel.size());
+   }
+
+   public void testUnschedule() {
+      ExpirationTimingWheel<String> wheel = new ExpirationTimingWheel<>(START);
+      wheel.schedule("a", START + 10);
+      wheel.schedule("b", START + 10);
+      wheel.unschedule("a");
+      wheel.unschedule("c");
+      assertEquals(singletonList("b"), advance(wheel, START + 10));
+      assertEquals(0, wheel.size());
+
+      // Scheduling the key after it was removed adds it again
+      wheel.schedule("a", START + 20);
+      wheel.unschedule("a");
+      wheel.schedule("a", START + 30);
+      assertEquals(0, advance(wheel, START + 20).size());
+      assertEquals(1, wheel.size());
+      assertEquals(singletonList("a"), advance(wheel, START + 30));
+   }
+
+   public void testTryDrainPending() {
+      ExpirationTimingWheel<Integer> wheel = new ExpirationTimingWheel<>(START);
+      int keys = 2_000;
+      for (int i = 0; i < keys; ++i) {
+         wheel.schedule(i, START + 100_000);
+      }
+      for (int i = 0; i < keys; ++i) {
+         wheel.unschedule(i);
+      }
+      assertEquals(2 * keys, wheel.size());
+      // Applies the updates in the order they were queued
+      wheel.tryDrainPending();
+      assertEquals(0, wheel.size());
+      wheel.schedule(0, START + 100_000);
+      // Not enough updates are pending
+      wheel.tryDrainPending();
+      assertEquals(1, wheel.size());
+      assertEquals(singletonList(0), advance(wheel, START + 100_000));
+   }
+
+   public void testKeysInThePast() {
+      ExpirationTimingWheel<String> wheel = new ExpirationTimingWheel<>(START);
+      advance(wheel, START + 1_000);
+      wheel.schedule("a", START);
+      assertEquals(singletonList("a"), advance(wheel, START + 1_001));
+   }
+
+   public void testKeysInThePastWithoutClockMoving() {
+      ExpirationTimingWheel<String> wheel = new ExpirationTimingWheel<>(START);
+      advance(wheel, START + 1_000);
+      wheel.schedule("a", START);
+      wheel.schedule("b", START + 1_000);
+      wheel.schedule("c", START + 1_001);
+      assertEquals(Arrays.asList("a", "b"), advance(wheel, START + 1_000));
+      assertEquals(0, advance(wheel, START + 500).size());
+      assertEquals(singletonList("c"), advance(wheel, START + 1_001));
+   }
+
+   public void testManyKeys() {
+      ExpirationTimingWheel<Integer> wheel = new ExpirationTimingWheel<>(START);
+      int keys = 10_000;
+      for (int i = 0; i < keys; ++i) {
+         wheel.schedule(i, START + (i + 1) * 97L);
+      }
+      long now = START;
+      int expired = 0;
+      while (expired < keys) {
+         now += 3_333;
+         long time = now;
+         List<Integer> due = advance(wheel, time);
+         for (Integer key : due) {
+            long expirationTime = START + (key + 1) * 97L;
+            assertTrue(key + " expires at " + expirationTime + " but was due at " + time, expirationTime <= time);
+            assertTrue(key + " expired at " + expirationTime + " was not due until " + time,
+                  expirationTime > time - 3_333);
+         }
+         expired += due.size();
+      }
+      assertEquals(0, wheel.size());
+   }
+
+   private static <K> List<K> advance(ExpirationTimingWheel<K> wheel, long time) {
+      List<K> due = new ArrayList<>();
+      wheel.advance(time, due::add);
+      return due;
+   }
+}
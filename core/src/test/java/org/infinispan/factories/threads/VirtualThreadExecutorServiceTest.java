@@ -0,0 +1,136 @@
+package org.infinispan.factories.threads;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.commons.IllegalLifecycleStateException;
+import org.infinispan.commons.test.Exceptions;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the concurrency limit and the queue of {@link VirtualThreadExecutorService}. The tests use platform threads,
+ * so they also run on JVMs without virtual threads.
+ *
+ * @since 14.0
+ */
+@Test(groups = "unit", testName = "factories.threads.VirtualThreadExecutorServiceTest")
+public class VirtualThreadExecutorServiceTest extends AbstractInfinispanTest {
+   private static final int MAX_CONCURRENCY = 4;
+
+   public void testConcurrencyLimit() throws Exception {
+      ExecutorService executor = new VirtualThreadExecutorService(Executors.newCachedThreadPool(getTestThreadFactory("Worker")),
+            MAX_CONCURRENCY, 100);
+      try {
+         CountDownLatch release = new CountDownLatch(1);
+         AtomicInteger running = new AtomicInteger();
+         AtomicInteger maxRunning = new AtomicInteger();
+         AtomicInteger completed = new AtomicInteger();
+         int tasks = 50;
+         for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+               maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+               try {
+                  release.await(10, TimeUnit.SECONDS);
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               }
+               assertTrue(VirtualThreadExecutorService.isWorkerThread());
+               running.decrementAndGet();
+               completed.incrementAndGet();
+            });
+         }
+         eventuallyEquals(MAX_CONCURRENCY, running::get);
+         release.countDown();
+         eventuallyEquals(tasks, completed::get);
+         assertEquals(MAX_CONCURRENCY, maxRunning.get());
+         assertFalse(VirtualThreadExecutorService.isWorkerThread());
+      } finally {
+         executor.shutdown();
+         assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+      }
+   }
+
+   public void testQueueFullAndShutdown() throws Exception {
+      ExecutorService executor = new VirtualThreadExecutorService(Executors.newCachedThreadPool(getTestThreadFactory("Worker")),
+            1, 1);
+      CountDownLatch release = new CountDownLatch(1);
+      try {
+         Runnable blockedTask = () -> {
+            try {
+               release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         };
+         executor.execute(blockedTask);
+         executor.execute(blockedTask);
+         // The rejected task runs in the caller thread, as it is not a non-blocking thread
+         AtomicInteger callerRuns = new AtomicInteger();
+         Thread caller = Thread.currentThread();
+         executor.execute(() -> {
+            if (Thread.currentThread() == caller) {
+               callerRuns.incrementAndGet();
+            }
+         });
+         assertEquals(1, callerRuns.get());
+      } finally {
+         release.countDown();
+         executor.shutdown();
+         assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+      }
+      Exceptions.expectException(IllegalLifecycleStateException.class, () -> executor.execute(() -> {}));
+   }
+
+   public void testQueuedTasksRunAfterShutdown() throws Exception {
+      ExecutorService executor = new VirtualThreadExecutorService(Executors.newCachedThreadPool(getTestThreadFactory("Worker")),
+            1, 10);
+      CountDownLatch release = new CountDownLatch(1);
+      AtomicInteger completed = new AtomicInteger();
+      executor.execute(() -> {
+         try {
+            release.await(10, TimeUnit.SECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      });
+      for (int i = 0; i < 5; i++) {
+         executor.execute(completed::incrementAndGet);
+      }
+      executor.shutdown();
+      assertTrue(executor.isShutdown());
+      assertFalse(executor.isTerminated());
+      release.countDown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+      assertEquals(5, completed.get());
+   }
+
+   public void testShutdownNowReturnsQueuedTasks() throws Exception {
+      ExecutorService executor = new VirtualThreadExecutorService(Executors.newCachedThreadPool(getTestThreadFactory("Worker")),
+            1, 10);
+      CountDownLatch started = new CountDownLatch(1);
+      executor.execute(() -> {
+         started.countDown();
+         try {
+            new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      });
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      Runnable queuedTask = () -> {};
+      executor.execute(queuedTask);
+      List<Runnable> tasks = executor.shutdownNow();
+      assertEquals(Collections.singletonList(queuedTask), tasks);
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+   }
+}
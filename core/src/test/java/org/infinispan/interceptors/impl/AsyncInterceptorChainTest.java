@@ -1,5 +1,10 @@
 package org.infinispan.interceptors.impl;
 
+import static org.testng.AssertJUnit.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -9,11 +14,14 @@
 import java.util.concurrent.Future;
 
 import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commons.test.Exceptions;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.interceptors.AsyncInterceptor;
 import org.infinispan.interceptors.AsyncInterceptorChain;
 import org.infinispan.interceptors.BaseAsyncInterceptor;
+import org.infinispan.interceptors.DDAsyncInterceptor;
 import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.testng.annotations.Test;
@@ -61,6 +69,64 @@ public void testConcurrentAddRemove() throws Exception {
       assert ic.getInterceptors().size() == 5 : "Resulting interceptor chain was actually " + ic.getInterceptors();
    }
 
+   public void testReadsSkipInterceptorsNotHandlingThem() {
+      DummyCallInterceptor first = new DummyCallInterceptor();
+      DummyCallInterceptor last = new DummyActivationInterceptor();
+      AsyncInterceptorChainImpl ic = new AsyncInterceptorChainImpl();
+      ic.appendInterceptor(first, false);
+      ic.appendInterceptor(new PassingInterceptor(), false);
+      ic.appendInterceptor(last, false);
+
+      assertSame(last, TestingUtil.extractField(BaseAsyncInterceptor.class, first, "nextReadInterceptor"));
+   }
+
+   public void testReadsVisitInterceptorsWithMissingTypes() throws Exception {
+      // Loads the interceptor with a class loader that can't load the type of one of its methods, so looking up
+      // its methods throws a NoClassDefFoundError
+      ClassLoader parent = getClass().getClassLoader();
+      ClassLoader loader = new ClassLoader(parent) {
+         @Override
+         protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(MissingType.class.getName())) {
+               throw new ClassNotFoundException(name);
+            }
+            if (!name.equals(MissingTypeInterceptor.class.getName())) {
+               return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+               Class<?> c = findLoadedClass(name);
+               if (c == null) {
+                  String resource = name.replace('.', '/') + ".class";
+                  try (InputStream is = parent.getResourceAsStream(resource)) {
+                     ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                     byte[] buffer = new byte[4096];
+                     int read;
+                     while ((read = is.read(buffer)) != -1) {
+                        bytes.write(buffer, 0, read);
+                     }
+                     c = defineClass(name, bytes.toByteArray(), 0, bytes.size());
+                  } catch (IOException e) {
+                     throw new ClassNotFoundException(name, e);
+                  }
+               }
+               return c;
+            }
+         }
+      };
+      Class<?> interceptorClass = loader.loadClass(MissingTypeInterceptor.class.getName());
+      Exceptions.expectException(NoClassDefFoundError.class, interceptorClass::getDeclaredMethods);
+      AsyncInterceptor interceptor = (AsyncInterceptor) interceptorClass.getConstructor().newInstance();
+
+      DummyCallInterceptor first = new DummyCallInterceptor();
+      AsyncInterceptorChainImpl ic = new AsyncInterceptorChainImpl();
+      ic.appendInterceptor(first, false);
+      ic.appendInterceptor(interceptor, false);
+      ic.appendInterceptor(new DummyActivationInterceptor(), false);
+
+      // The methods of the interceptor can't be checked, so it is assumed to handle reads
+      assertSame(interceptor, TestingUtil.extractField(BaseAsyncInterceptor.class, first, "nextReadInterceptor"));
+   }
+
    private static class InterceptorChainUpdater implements Callable<Void> {
       private final AsyncInterceptorChain ic;
       private final CyclicBarrier barrier;
@@ -101,6 +167,17 @@ public Object visitCommand(InvocationContext ctx, VisitableCommand command)
       }
    }
 
+   static class PassingInterceptor extends DDAsyncInterceptor {
+   }
+
+   public static class MissingType {
+   }
+
+   public static class MissingTypeInterceptor extends DDAsyncInterceptor {
+      public void use(MissingType type) {
+      }
+   }
+
    static class DummyActivationInterceptor extends DummyCallInterceptor {
    }
 
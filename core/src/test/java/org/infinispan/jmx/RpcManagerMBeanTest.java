@@ -4,6 +4,7 @@
 import static org.infinispan.test.TestingUtil.extractComponent;
 import static org.infinispan.test.TestingUtil.getCacheObjectName;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -14,6 +15,7 @@
 
 import org.infinispan.Cache;
 import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.test.Exceptions;
 import org.infinispan.distribution.MagicKey;
@@ -132,4 +134,42 @@ public void testSuccessRatio() throws Exception {
          rpcManager.setTransport(originalTransport);
       }
    }
+
+   @Test(dependsOnMethods = "testSuccessRatio")
+   public void testCommandStatistics() throws Exception {
+      Cache<String, String> cache1 = manager(0).getCache();
+      MBeanServer mBeanServer = mBeanServerLookup.getMBeanServer();
+      cache1.put("commandStatistics", "value");
+
+      // The put is sent to the primary owner or from the primary owner to the backup owners
+      ObjectName sender = getCommandStatisticsObjectName(jmxDomain1, 0);
+      ObjectName[] receivers = {getCommandStatisticsObjectName(jmxDomain2, 1),
+                                getCommandStatisticsObjectName(jmxDomain3, 2)};
+      // The statistics are registered in the background
+      eventually(() -> mBeanServer.isRegistered(sender));
+      eventually(() -> mBeanServer.isRegistered(receivers[0]) || mBeanServer.isRegistered(receivers[1]));
+      assertTrue((Long) mBeanServer.getAttribute(sender, "SentRequests") > 0);
+      assertTrue((Double) mBeanServer.getAttribute(sender, "AverageSentRequestSize") > 0);
+      assertTrue((Long) mBeanServer.getAttribute(sender, "MaxSentRequestSize") > 0);
+
+      long receivedRequests = 0;
+      long sentResponses = 0;
+      for (ObjectName receiver : receivers) {
+         if (mBeanServer.isRegistered(receiver)) {
+            receivedRequests += (Long) mBeanServer.getAttribute(receiver, "ReceivedRequests");
+            sentResponses += (Long) mBeanServer.getAttribute(receiver, "SentResponses");
+         }
+      }
+      assertTrue(receivedRequests > 0);
+      assertTrue(sentResponses > 0);
+
+      mBeanServer.invoke(sender, "resetStatistics", new Object[0], new String[0]);
+      assertEquals(mBeanServer.getAttribute(sender, "SentRequests"), (long) 0);
+   }
+
+   private ObjectName getCommandStatisticsObjectName(String jmxDomain, int managerIndex) throws Exception {
+      String cacheManagerName = manager(managerIndex).getCacheManagerConfiguration().cacheManagerName();
+      return new ObjectName(jmxDomain + ":type=CacheManager,name=" + ObjectName.quote(cacheManagerName) +
+                            ",command=" + PutKeyValueCommand.class.getName() + ",component=RpcCommandStatistics");
+   }
 }
@@ -9,8 +9,10 @@
 import static org.testng.AssertJUnit.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
@@ -565,6 +567,33 @@ public void testLoadAll() throws PersistenceException {
       }
    }
 
+   public void testLoadEntries() {
+      assertIsEmpty();
+
+      // Enough keys to need more than one batch in the stores that load them in batches
+      int numberOfEntries = 150;
+      List<Object> keys = new ArrayList<>();
+      for (int i = 0; i < numberOfEntries; i++) {
+         store.write(marshalledEntry("k" + i, "v" + i));
+         keys.add(keyToStorage("k" + i));
+      }
+      if (characteristics.contains(NonBlockingStore.Characteristic.EXPIRATION)) {
+         long lifespan = 120000;
+         store.write(marshalledEntry(internalCacheEntry("expired", "v", lifespan)));
+         keys.add(keyToStorage("expired"));
+         timeService.advance(lifespan + 1);
+      }
+      keys.add(keyToStorage("missing"));
+
+      Map<Object, MarshallableEntry<Object, Object>> entries = store.loadEntries(keys);
+      assertEquals(numberOfEntries, entries.size());
+      for (int i = 0; i < numberOfEntries; i++) {
+         MarshallableEntry<Object, Object> entry = entries.get(keyToStorage("k" + i));
+         assertNotNull(entry);
+         assertEquals(valueToStorage("v" + i), entry.getValue());
+      }
+   }
+
    public void testReplaceEntry() {
       assertIsEmpty();
       InternalCacheEntry tmpIce = internalCacheEntry("ok", "v1", -1);
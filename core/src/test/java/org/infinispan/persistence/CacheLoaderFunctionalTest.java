@@ -11,9 +11,14 @@
 import static org.testng.AssertJUnit.assertTrue;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 
 import javax.transaction.NotSupportedException;
 import javax.transaction.SystemException;
@@ -22,19 +27,23 @@
 
 import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
+import org.infinispan.commons.test.Exceptions;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.Configurations;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
+import org.infinispan.interceptors.impl.CacheLoaderInterceptor;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
 import org.infinispan.persistence.dummy.DummyInMemoryStore;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.support.DelegatingPersistenceManager;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
@@ -327,6 +336,55 @@ public void testLoading() throws PersistenceException {
       assertNoLocks(cache);
    }
 
+   public void testGetAllLoadsWithSingleStoreRequest() throws PersistenceException {
+      boolean versioned = Configurations.isTxVersioned(cache.getCacheConfiguration());
+      for (int i = 1; i < 5; i++) {
+         writer.write(versioned ? MarshalledEntryUtil.createWithVersion("k" + i, "v" + i, cache) :
+                      MarshalledEntryUtil.create("k" + i, "v" + i, cache));
+      }
+      cache.put("k5", "v5");
+      store.clearStats();
+
+      Set<String> keys = new HashSet<>();
+      for (int i = 1; i < 7; i++) keys.add("k" + i);
+      Map<String, String> values = cache.getAdvancedCache().getAll(keys);
+      assertEquals(5, values.size());
+      for (int i = 1; i < 6; i++) assertEquals("v" + i, values.get("k" + i));
+      assertFalse(values.containsKey("k6"));
+      // k5 is in memory, the other keys are loaded together
+      assertEquals(1, (int) store.stats().get("loadAll"));
+      assertEquals(0, (int) store.stats().get("load"));
+      for (int i = 1; i < 5; i++) assertEquals("v" + i, cache.getAdvancedCache().getDataContainer().peek("k" + i).getValue());
+      assertNoLocks(cache);
+   }
+
+   public void testGetAllAfterSynchronousLoadFailure() throws Exception {
+      boolean versioned = Configurations.isTxVersioned(cache.getCacheConfiguration());
+      writer.write(versioned ? MarshalledEntryUtil.createWithVersion("k1", "v1", cache) :
+                   MarshalledEntryUtil.create("k1", "v1", cache));
+      Set<String> keys = new HashSet<>(Arrays.asList("k1", "k2"));
+
+      CacheLoaderInterceptor<?, ?> interceptor = TestingUtil.findInterceptor(cache, CacheLoaderInterceptor.class);
+      PersistenceManager actual = TestingUtil.extractField(CacheLoaderInterceptor.class, interceptor, "persistenceManager");
+      TestingUtil.replaceField(new DelegatingPersistenceManager(actual) {
+         @Override
+         public <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAllFromAllStores(
+               Map<Integer, ? extends Collection<?>> keysBySegment, boolean localInvocation, boolean includeStores) {
+            throw new PersistenceException("Induced failure");
+         }
+      }, "persistenceManager", interceptor, CacheLoaderInterceptor.class);
+      try {
+         Exceptions.expectException(PersistenceException.class, () -> cache.getAdvancedCache().getAll(keys));
+      } finally {
+         TestingUtil.replaceField(actual, "persistenceManager", interceptor, CacheLoaderInterceptor.class);
+      }
+
+      // The failed loads are not pending anymore, so the keys are loaded again instead of waiting for them
+      Map<String, String> values = fork(() -> cache.getAdvancedCache().getAll(keys)).get(10, TimeUnit.SECONDS);
+      assertEquals(Collections.singletonMap("k1", "v1"), values);
+      assertNoLocks(cache);
+   }
+
    public void testPreloading() throws Exception {
       ConfigurationBuilder preloadingCfg = newPreloadConfiguration(cfg.build(), this.getClass().getName() + "preloadingCache");
       doPreloadingTest(preloadingCfg.build(), "preloadingCache");
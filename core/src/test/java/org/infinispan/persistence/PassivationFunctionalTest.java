@@ -3,7 +3,9 @@
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.testng.AssertJUnit.assertEquals;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 import javax.transaction.Transaction;
@@ -135,6 +137,27 @@ public void testPassivate() throws PersistenceException {
       assertInStoreNotInCache("k2", "v2", lifespan);
    }
 
+   public void testGetAllActivates() throws PersistenceException {
+      assertNotInCacheAndStore("k1", "k2", "k3");
+
+      cache.put("k1", "v1");
+      cache.put("k2", "v2", lifespan, MILLISECONDS);
+      cache.evict("k1");
+      cache.evict("k2");
+
+      assertInStoreNotInCache("k1", "v1");
+      assertInStoreNotInCache("k2", "v2", lifespan);
+
+      Map<String, String> values = cache.getAdvancedCache().getAll(new HashSet<>(Arrays.asList("k1", "k2", "k3")));
+      assertEquals(2, values.size());
+      assertEquals("v1", values.get("k1"));
+      assertEquals("v2", values.get("k2"));
+
+      assertInCacheNotInStore("k1", "v1");
+      assertInCacheNotInStore("k2", "v2", lifespan);
+      assertNotInCacheAndStore("k3");
+   }
+
    public void testRemoveAndReplace() throws PersistenceException {
       assertNotInCacheAndStore("k1", "k2");
 
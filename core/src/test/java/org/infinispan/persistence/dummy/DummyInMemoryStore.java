@@ -2,6 +2,7 @@
 
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -254,15 +255,35 @@ public CompletionStage<MarshallableEntry> load(int segment, Object key) {
       assertRunning();
       record("load");
       if (key == null) return null;
+      return CompletableFuture.completedFuture(loadEntry(segment, key));
+   }
+
+   @Override
+   public CompletionStage<Map<Object, MarshallableEntry>> loadAll(Map keysBySegment) {
+      assertRunning();
+      record("loadAll");
+      Map<Object, MarshallableEntry> entries = new HashMap<>();
+      for (Map.Entry<Integer, Collection<?>> segmentKeys : ((Map<Integer, Collection<?>>) keysBySegment).entrySet()) {
+         for (Object key : segmentKeys.getValue()) {
+            MarshallableEntry me = loadEntry(segmentKeys.getKey(), key);
+            if (me != null) {
+               entries.put(key, me);
+            }
+         }
+      }
+      return CompletableFuture.completedFuture(entries);
+   }
+
+   private MarshallableEntry loadEntry(int segment, Object key) {
       Map<Object, byte[]> map = mapForSegment(segment);
       MarshallableEntry me = deserialize(key, map.get(key));
-      if (me == null) return CompletableFutures.completedNull();
+      if (me == null) return null;
       long now = timeService.wallClockTime();
       if (isExpired(me, now)) {
          log.tracef("Key %s exists, but has expired.  Entry is %s", key, me);
-         return CompletableFutures.completedNull();
+         return null;
       }
-      return CompletableFuture.completedFuture(me);
+      return me;
    }
 
    private boolean isExpired(MarshallableEntry me, long now) {
@@ -1,6 +1,8 @@
 package org.infinispan.persistence.file;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 import java.util.concurrent.CompletionStage;
@@ -29,6 +31,7 @@ public class SingleFileStoreTest extends BaseNonBlockingStoreTest {
 
    private String tmpDirectory = CommonsTestingUtil.tmpDirectory(this.getClass());
    private boolean segmented;
+   private boolean offHeapIndex;
 
    @AfterClass(alwaysRun = true)
    protected void clearTempDir() {
@@ -40,17 +43,24 @@ public SingleFileStoreTest segmented(boolean segmented) {
       return this;
    }
 
+   public SingleFileStoreTest offHeapIndex(boolean offHeapIndex) {
+      this.offHeapIndex = offHeapIndex;
+      return this;
+   }
+
    @Factory
    public Object[] factory() {
       return new Object[] {
               new SingleFileStoreTest().segmented(false),
               new SingleFileStoreTest().segmented(true),
+              new SingleFileStoreTest().segmented(false).offHeapIndex(true),
+              new SingleFileStoreTest().segmented(true).offHeapIndex(true),
       };
    }
 
    @Override
    protected String parameters() {
-      return "[" + segmented + "]";
+      return "[" + segmented + ", " + offHeapIndex + "]";
    }
 
    @Override
@@ -66,6 +76,7 @@ protected SingleFileStoreConfigurationBuilder createCacheStoreConfig(Persistence
       cfg.segmented(segmented);
       cfg.location(tmpDirectory);
       cfg.fragmentationFactor(0.5f);
+      cfg.offHeapIndex(offHeapIndex);
       return cfg;
    }
 
@@ -128,4 +139,22 @@ public void testStopDuringClear() {
       long size = CompletionStages.join(store.size(IntSets.immutableRangeSet(segmentCount)));
       assertTrue(size == 0 || size == 1);
    }
+
+   public void testKeysWithSameHashCode() {
+      // "Aa" and "BB" have the same hash code
+      assertEquals("Aa".hashCode(), "BB".hashCode());
+      store.write(marshalledEntry(TestInternalCacheEntryFactory.create("Aa", "v1")));
+      store.write(marshalledEntry(TestInternalCacheEntryFactory.create("BB", "v2")));
+      assertEquals("v1", store.loadEntry("Aa").getValue());
+      assertEquals("v2", store.loadEntry("BB").getValue());
+
+      store.write(marshalledEntry(TestInternalCacheEntryFactory.create("BB", "v3")));
+      assertEquals("v1", store.loadEntry("Aa").getValue());
+      assertEquals("v3", store.loadEntry("BB").getValue());
+
+      assertTrue(store.delete("Aa"));
+      assertNull(store.loadEntry("Aa"));
+      assertEquals("v3", store.loadEntry("BB").getValue());
+      assertEquals(1, store.sizeWait(IntSets.immutableRangeSet(segmentCount)));
+   }
 }
@@ -0,0 +1,90 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.time.ControlledTimeService;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that overwritten data files are compacted by several threads and that the compaction is reported.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "persistence.sifs.SoftIndexFileStoreCompactionTest")
+public class SoftIndexFileStoreCompactionTest extends SingleCacheManagerTest {
+   private static final int KEYS = 100;
+   private static final int ROUNDS = 20;
+
+   private String tmpDirectory;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.persistence().addSoftIndexFileStore()
+            .dataLocation(Paths.get(tmpDirectory, "data").toString())
+            .indexLocation(Paths.get(tmpDirectory, "index").toString())
+            .maxFileSize(1000)
+            .compactionThreads(4)
+            .compactionRateLimit(10 * 1024 * 1024);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   @Override
+   protected void teardown() {
+      super.teardown();
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testOverwrites() {
+      SoftIndexFileStoreStatistics statistics = TestingUtil.extractComponent(cache, SoftIndexFileStoreStatistics.class);
+      assertNotNull(statistics);
+
+      for (int round = 0; round < ROUNDS; round++) {
+         for (int i = 0; i < KEYS; i++) {
+            cache.put("key-" + i, "value-" + round);
+         }
+      }
+
+      eventually(() -> statistics.getCompactedFiles() > 0 && statistics.getCompactionBacklogFiles() == 0,
+            TimeUnit.SECONDS.toMillis(30));
+      assertTrue(statistics.getCompactedBytes() > 0);
+      assertTrue(statistics.getReclaimedBytes() > 0);
+      assertTrue(statistics.getReclaimedBytes() <= statistics.getCompactedBytes());
+      assertTrue(statistics.getCompactionThroughput() > 0);
+
+      // Read everything back from the store
+      cache.getAdvancedCache().getDataContainer().clear();
+      for (int i = 0; i < KEYS; i++) {
+         assertEquals("value-" + (ROUNDS - 1), cache.get("key-" + i));
+      }
+   }
+
+   public void testThrottle() {
+      ControlledTimeService timeService = new ControlledTimeService();
+      CompactionThrottle throttle = new CompactionThrottle(timeService, 1000);
+      // The first second is not throttled
+      assertEquals(0, throttle.reserve(1000));
+      // Another 100 bytes need 100 ms
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(100), throttle.reserve(100));
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(200), throttle.reserve(100));
+      timeService.advance(200);
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(50), throttle.reserve(50));
+      // Unused time is kept up to one second
+      timeService.advance(TimeUnit.SECONDS.toMillis(10));
+      assertEquals(0, throttle.reserve(1000));
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(500), throttle.reserve(500));
+   }
+}
@@ -0,0 +1,81 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.test.ExceptionRunnable;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that concurrent writes with sync writes enabled are written and forced to disk in batches.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "persistence.sifs.SoftIndexFileStoreGroupCommitTest")
+public class SoftIndexFileStoreGroupCommitTest extends SingleCacheManagerTest {
+   private static final int WRITERS = 8;
+   private static final int WRITES = 200;
+
+   private String tmpDirectory;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.statistics().enable();
+      builder.persistence().addSoftIndexFileStore()
+            .dataLocation(Paths.get(tmpDirectory, "data").toString())
+            .indexLocation(Paths.get(tmpDirectory, "index").toString())
+            .syncWrites(true);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   @Override
+   protected void teardown() {
+      super.teardown();
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testConcurrentWrites() throws Exception {
+      SoftIndexFileStoreStatistics statistics = TestingUtil.extractComponent(cache, SoftIndexFileStoreStatistics.class);
+      assertNotNull(statistics);
+
+      ExceptionRunnable[] writers = new ExceptionRunnable[WRITERS];
+      for (int i = 0; i < WRITERS; i++) {
+         int writer = i;
+         writers[i] = () -> {
+            for (int j = 0; j < WRITES; j++) {
+               cache.put(writer + "-" + j, "value-" + j);
+            }
+         };
+      }
+      runConcurrently(30, TimeUnit.SECONDS, writers);
+
+      // The writers queue up while a batch is forced, so at least one batch holds several writes
+      long batches = statistics.getWriteBatches();
+      assertTrue(batches > 0);
+      assertTrue("Every write was forced on its own: " + batches, batches < WRITERS * WRITES);
+      assertEquals(batches, statistics.getFsyncs());
+      assertTrue(statistics.getMaxWriteBatchSize() > 1);
+      assertTrue(statistics.getMaxWriteBatchSize() <= LogAppender.MAX_BATCH_ENTRIES);
+
+      // Read everything back from the store
+      cache.getAdvancedCache().getDataContainer().clear();
+      for (int i = 0; i < WRITERS; i++) {
+         for (int j = 0; j < WRITES; j++) {
+            assertEquals("value-" + j, cache.get(i + "-" + j));
+         }
+      }
+   }
+}
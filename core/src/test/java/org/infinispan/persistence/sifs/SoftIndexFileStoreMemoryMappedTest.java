@@ -0,0 +1,44 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.nio.file.Paths;
+
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the store tests reading the data files through memory mappings. The files are small, so most reads and the
+ * compaction happen on mapped files.
+ *
+ * @since 14.0
+ */
+@Test(groups = "unit", testName = "persistence.sifs.SoftIndexFileStoreMemoryMappedTest")
+public class SoftIndexFileStoreMemoryMappedTest extends SoftIndexFileStoreTest {
+
+   @Override
+   protected Configuration buildConfig(ConfigurationBuilder configurationBuilder) {
+      return configurationBuilder.persistence()
+            .addSoftIndexFileStore()
+            .dataLocation(Paths.get(tmpDirectory, "data").toString())
+            .indexLocation(Paths.get(tmpDirectory, "index").toString())
+            .maxFileSize(1000)
+            .memoryMapped(true)
+            .build();
+   }
+
+   public void testReadsFromMappedFiles() {
+      for (int i = 0; i < 100; ++i) {
+         store.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+      }
+      FileProvider fileProvider = ((NonBlockingSoftIndexFileStore<?, ?>) store.delegate()).getFileProvider();
+      long mappedReads = fileProvider.getMappedReads();
+      // Only the last file is still written to, the others are mapped
+      for (int i = 0; i < 50; ++i) {
+         assertEquals(valueToStorage("v" + i), store.loadEntry(keyToStorage("k" + i)).getValue());
+      }
+      assertTrue(fileProvider.getMappedReads() > mappedReads);
+   }
+}
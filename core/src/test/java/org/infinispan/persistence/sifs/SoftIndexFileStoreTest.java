@@ -1,14 +1,22 @@
 package org.infinispan.persistence.sifs;
 
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
 
+import java.io.File;
 import java.nio.file.Paths;
+import java.util.List;
 
 import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.persistence.BaseNonBlockingStoreTest;
+import org.infinispan.persistence.sifs.configuration.IndexConfiguration;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.NonBlockingStore;
 import org.testng.annotations.AfterClass;
@@ -60,6 +68,92 @@ public void testOverrideWithExpirableAndCompaction() throws InterruptedException
       assertNull(entry != null ? entry.getKey() + "=" + entry.getValue() : null, entry);
    }
 
+   public void testRemoveSegments() {
+      String removedKey = "k1";
+      int removedSegment = keyPartitioner.getSegment(keyToStorage(removedKey));
+      String keptKey = null;
+      for (int i = 2; keptKey == null; ++i) {
+         if (keyPartitioner.getSegment(keyToStorage("k" + i)) != removedSegment) {
+            keptKey = "k" + i;
+         }
+      }
+      int keptSegment = keyPartitioner.getSegment(keyToStorage(keptKey));
+      store.write(marshalledEntry(internalCacheEntry(removedKey, "v1", -1)));
+      store.write(marshalledEntry(internalCacheEntry(keptKey, "v2", -1)));
+
+      IntSet segments = IntSets.immutableRangeSet(segmentCount);
+      IntSet removedSegments = IntSets.immutableSet(removedSegment);
+      store.join(store.removeSegments(removedSegments));
+      store.join(store.addSegments(removedSegments));
+
+      assertNull(store.loadEntry(keyToStorage(removedKey)));
+      assertNotNull(store.loadEntry(keyToStorage(keptKey)));
+      assertEquals(1, store.sizeWait(segments));
+      assertEquals(1, store.approximateSizeWait(segments));
+      assertEquals(0, store.sizeWait(removedSegments));
+
+      List<Object> keys = store.publishKeysWait(IntSets.immutableSet(keptSegment), null);
+      assertEquals(1, keys.size());
+      assertEquals(keyToStorage(keptKey), keys.get(0));
+   }
+
+   public void testRemoveSegmentsCompactsTheirFiles() {
+      int removedSegment = keyPartitioner.getSegment(keyToStorage("k0"));
+      for (int i = 0, written = 0; written < 100; ++i) {
+         if (keyPartitioner.getSegment(keyToStorage("k" + i)) == removedSegment) {
+            store.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+            written++;
+         }
+      }
+      File dataDir = storeLocation("data");
+      assertTrue(dataDir.list().length > 1);
+
+      IntSet removedSegments = IntSets.immutableSet(removedSegment);
+      store.join(store.removeSegments(removedSegments));
+      // Only the file being appended to is not compacted
+      eventuallyEquals(1, () -> dataDir.list().length);
+      store.join(store.addSegments(removedSegments));
+   }
+
+   public void testIndexFilesPerUpdaterThread() {
+      int indexSegments = IndexConfiguration.INDEX_SEGMENTS.getDefaultValue();
+      assertTrue(segmentCount > indexSegments);
+      for (int i = 0; i < 100; ++i) {
+         store.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+      }
+      assertEquals(indexSegments, storeLocation("index").list().length);
+
+      store.stopAndWait();
+      startStore(store);
+      for (int i = 0; i < 100; ++i) {
+         assertEquals(valueToStorage("v" + i), store.loadEntry(keyToStorage("k" + i)).getValue());
+      }
+      assertEquals(100, store.sizeWait(IntSets.immutableRangeSet(segmentCount)));
+   }
+
+   public void testRebuildIndex() {
+      for (int i = 0; i < 100; ++i) {
+         store.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+      }
+      store.delete(keyToStorage("k0"));
+      store.stopAndWait();
+      Util.recursiveFileRemove(Paths.get(tmpDirectory, "index").toFile());
+      startStore(store);
+
+      assertNull(store.loadEntry(keyToStorage("k0")));
+      for (int i = 1; i < 100; ++i) {
+         assertEquals(valueToStorage("v" + i), store.loadEntry(keyToStorage("k" + i)).getValue());
+      }
+      assertEquals(99, store.sizeWait(IntSets.immutableRangeSet(segmentCount)));
+   }
+
+   private File storeLocation(String location) {
+      // The files are kept in a directory of the cache inside the configured location
+      File[] cacheDirs = Paths.get(tmpDirectory, location).toFile().listFiles();
+      assertEquals(1, cacheDirs.length);
+      return new File(cacheDirs[0], location);
+   }
+
    private void writeGibberish() {
       for (int i = 0; i < 100; ++i) {
          store.write(marshalledEntry(internalCacheEntry("foo", "bar", -1)));
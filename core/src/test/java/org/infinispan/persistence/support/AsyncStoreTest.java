@@ -26,6 +26,7 @@
 import org.infinispan.marshall.TestObjectStreamMarshaller;
 import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
 import org.infinispan.persistence.async.AsyncNonBlockingStore;
+import org.infinispan.persistence.async.AsyncStoreStatistics;
 import org.infinispan.persistence.dummy.DummyInMemoryStore;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
 import org.infinispan.persistence.spi.InitializationContext;
@@ -282,6 +283,50 @@ public void testModificationQueueSize(final Method m) throws Exception {
       }
    }
 
+   public void testConcurrentBatches(final Method m) throws Exception {
+      DelayStore underlying = new DelayStore();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+
+      builder.persistence()
+             .addStore(DelayStore.ConfigurationBuilder.class)
+             .segmented(true)
+             .async()
+             .concurrencyLevel(2);
+
+      store = new AsyncNonBlockingStore<>(underlying);
+      InitializationContext ctx = PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller);
+      CompletionStages.join(store.start(ctx));
+      AsyncStoreStatistics statistics = TestingUtil.extractField(store, "statistics");
+      // Delay the write of the first batch
+      underlying.delayBeforeModification(1);
+      try {
+         CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, 0), v(m, 0), marshaller)));
+         assertEquals(1, statistics.getReplicatingBatches());
+
+         // Segment 1 is in another queue, so its batch is not blocked by the first one
+         CompletionStages.join(store.write(1, MarshalledEntryUtil.create(k(m, 1), v(m, 1), marshaller)));
+         eventually(() -> CompletionStages.join(underlying.containsKey(1, k(m, 1))));
+         assertFalse(CompletionStages.join(underlying.containsKey(0, k(m, 0))));
+         assertEquals(1, statistics.getQueueSize());
+
+         // Another write to segment 0 must wait for the first batch
+         CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, 2), v(m, 2), marshaller)));
+         assertEquals(2, statistics.getQueueSize());
+         assertEquals(v(m, 2), CompletionStages.join(store.load(0, k(m, 2))).getValue());
+
+         underlying.endDelay();
+         eventuallyEquals(0, statistics::getQueueSize);
+         assertTrue(CompletionStages.join(underlying.containsKey(0, k(m, 0))));
+         assertTrue(CompletionStages.join(underlying.containsKey(0, k(m, 2))));
+         assertEquals(3, statistics.getBatches());
+         assertEquals(1.0, statistics.getAverageBatchSize());
+         assertEquals(0, statistics.getReplicatingBatches());
+      } finally {
+         underlying.endDelay();
+         CompletionStages.join(store.stop());
+      }
+   }
+
    private static abstract class OneEntryCacheManagerCallable extends CacheManagerCallable {
       protected final Cache<String, String> cache;
       protected final DelayStore store;
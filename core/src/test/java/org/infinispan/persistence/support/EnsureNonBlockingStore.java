@@ -1,5 +1,7 @@
 package org.infinispan.persistence.support;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
 
@@ -41,6 +43,11 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       return BlockHoundHelper.ensureNonBlocking(() -> delegate().load(segment, key));
    }
 
+   @Override
+   public CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAll(Map<Integer, ? extends Collection<?>> keysBySegment) {
+      return BlockHoundHelper.ensureNonBlocking(() -> delegate().loadAll(keysBySegment));
+   }
+
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       return BlockHoundHelper.ensureNonBlocking(() -> delegate().containsKey(segment, key));
@@ -1,6 +1,10 @@
 package org.infinispan.persistence.support;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -33,6 +37,14 @@ default MarshallableEntry<K, V> loadEntry(Object key) {
       return join(load(segment, key));
    }
 
+   default Map<Object, MarshallableEntry<K, V>> loadEntries(Collection<?> keys) {
+      Map<Integer, List<Object>> keysBySegment = new HashMap<>();
+      for (Object key : keys) {
+         keysBySegment.computeIfAbsent(getKeyPartitioner().getSegment(key), s -> new ArrayList<>()).add(key);
+      }
+      return join(loadAll(keysBySegment));
+   }
+
    default void write(MarshallableEntry<K, V> entry) {
       int segment = getKeyPartitioner().getSegment(entry.getKey());
       join(write(segment, entry));
@@ -0,0 +1,133 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.commands.read.GetCacheEntryCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.ReadRouting;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.interceptors.DDAsyncInterceptor;
+import org.infinispan.interceptors.impl.CallInterceptor;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestDataSCI;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that adaptive reads go to the owner that responds faster, and that they are sent to the other owner when the
+ * first owner stops responding.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "remoting.transport.jgroups.AdaptiveReadRoutingTest")
+public class AdaptiveReadRoutingTest extends MultipleCacheManagersTest {
+   private static final long REMOTE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+   private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(getTestThreadFactory("Delay"));
+   private final RemoteReadInterceptor primaryReads = new RemoteReadInterceptor();
+   private final RemoteReadInterceptor backupReads = new RemoteReadInterceptor();
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().remoteTimeout(REMOTE_TIMEOUT).hash().numOwners(2).readRouting(ReadRouting.ADAPTIVE);
+      createCluster(TestDataSCI.INSTANCE, builder, 3);
+      waitForClusterToForm();
+
+      TestingUtil.extractInterceptorChain(cache(1)).addInterceptorBefore(primaryReads, CallInterceptor.class);
+      TestingUtil.extractInterceptorChain(cache(2)).addInterceptorBefore(backupReads, CallInterceptor.class);
+   }
+
+   @AfterClass(alwaysRun = true)
+   protected void stopExecutor() {
+      executor.shutdownNow();
+   }
+
+   @BeforeMethod
+   public void resetInterceptors() {
+      for (RemoteReadInterceptor interceptor : new RemoteReadInterceptor[]{primaryReads, backupReads}) {
+         interceptor.delayMillis = 0;
+         interceptor.blocker = null;
+         interceptor.remoteReads.set(0);
+      }
+   }
+
+   public void testReadsAvoidSlowOwner() {
+      MagicKey key = new MagicKey("slow-primary", cache(1), cache(2));
+      cache(1).put(key, "value");
+      primaryReads.delayMillis = 20;
+
+      int reads = 100;
+      for (int i = 0; i < reads; i++) {
+         assertEquals("value", cache(0).get(key));
+      }
+
+      // Only the first read and the occasional probes go to the slow owner, and they may be hedged to the fast owner
+      assertTrue("Reads sent to the slow owner: " + primaryReads.remoteReads, primaryReads.remoteReads.get() <= 5);
+      assertTrue("Reads sent to the fast owner: " + backupReads.remoteReads, backupReads.remoteReads.get() >= reads - 5);
+   }
+
+   public void testReadToStalledOwnerIsHedged() throws Exception {
+      MagicKey key = new MagicKey("stalled-backup", cache(1), cache(2));
+      cache(1).put(key, "value");
+      // Make the backup the preferred owner, with enough responses to estimate its response times
+      primaryReads.delayMillis = 20;
+      for (int i = 0; i < 2 * ResponseTimeTracker.MIN_SAMPLES; i++) {
+         assertEquals("value", cache(0).get(key));
+      }
+
+      JGroupsTransport transport = (JGroupsTransport) manager(0).getTransport();
+      long hedgedReads = transport.getHedgedReads();
+      primaryReads.delayMillis = 0;
+      CompletableFuture<Void> blocker = new CompletableFuture<>();
+      backupReads.blocker = blocker;
+      int backupReadsBefore = backupReads.remoteReads.get();
+      try {
+         long start = System.nanoTime();
+         assertEquals("value", cache(0).get(key));
+         long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+         // Staggering would wait for REMOTE_TIMEOUT / 10 / 2 before asking the primary owner
+         assertTrue("Read took " + elapsedMillis + "ms", elapsedMillis < REMOTE_TIMEOUT / 10 / 4);
+         assertEquals(backupReadsBefore + 1, backupReads.remoteReads.get());
+         assertEquals(hedgedReads + 1, transport.getHedgedReads());
+      } finally {
+         blocker.complete(null);
+      }
+   }
+
+   class RemoteReadInterceptor extends DDAsyncInterceptor {
+      final AtomicInteger remoteReads = new AtomicInteger();
+      volatile long delayMillis;
+      volatile CompletableFuture<Void> blocker;
+
+      @Override
+      public Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEntryCommand command) throws Throwable {
+         if (ctx.isOriginLocal()) {
+            return invokeNext(ctx, command);
+         }
+         remoteReads.incrementAndGet();
+         CompletableFuture<Void> blocker = this.blocker;
+         if (blocker != null) {
+            return asyncInvokeNext(ctx, command, blocker);
+         }
+         if (delayMillis > 0) {
+            CompletableFuture<Void> delay = new CompletableFuture<>();
+            executor.schedule(() -> delay.complete(null), delayMillis, TimeUnit.MILLISECONDS);
+            return asyncInvokeNext(ctx, command, delay);
+         }
+         return invokeNext(ctx, command);
+      }
+   }
+}
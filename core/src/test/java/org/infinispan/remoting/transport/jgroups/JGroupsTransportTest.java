@@ -1,6 +1,7 @@
 package org.infinispan.remoting.transport.jgroups;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -98,6 +99,22 @@ public void testInvokeCommandStaggeredToNonMember() throws Exception {
       }
    }
 
+   public void testMarshallingStatistics() {
+      JGroupsTransport transport = (JGroupsTransport) manager(0).getTransport();
+      transport.resetStatistics();
+      assertEquals(0, transport.getMarshalledMessages());
+
+      for (int i = 0; i < 100; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+
+      long messages = transport.getMarshalledMessages();
+      assertTrue(messages >= 100);
+      assertTrue(transport.getMarshalledBytes() > 0);
+      assertEquals(transport.getMarshalledBytes() / messages, transport.getAverageMessageSize());
+      assertTrue(transport.getAllocatedBytesPerMessage() >= transport.getAverageMessageSize());
+   }
+
    private CompletableFuture<Void> blockRemoteGets() {
       CompletableFuture<Void> blocker = new CompletableFuture<>();
       InboundInvocationHandler oldInvocationHandler = TestingUtil.extractGlobalComponent(manager(1),
@@ -0,0 +1,92 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestDataSCI;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that non-transactional writes sent to the same primary owner are coalesced into a single message.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "remoting.transport.jgroups.RequestCoalescingTest")
+public class RequestCoalescingTest extends MultipleCacheManagersTest {
+   private static final int KEYS = 10;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      for (int i = 0; i < 2; i++) {
+         GlobalConfigurationBuilder global = GlobalConfigurationBuilder.defaultClusteredBuilder();
+         global.transport().addProperty(JGroupsTransport.COALESCE_REQUESTS, "true");
+         global.serialization().addContextInitializer(TestDataSCI.INSTANCE);
+         addClusterEnabledCacheManager(global, builder);
+      }
+      waitForClusterToForm();
+   }
+
+   public void testWritesToSamePrimaryAreCoalesced() throws Exception {
+      JGroupsTransport transport = (JGroupsTransport) manager(0).getTransport();
+      transport.resetStatistics();
+      // Queue the requests until they are all sent
+      Queue<Runnable> flushTasks = new ConcurrentLinkedQueue<>();
+      RequestCoalescer original = TestingUtil.extractField(JGroupsTransport.class, transport, "requestCoalescer");
+      RequestCoalescer coalescer = new RequestCoalescer(transport, flushTasks::add);
+      TestingUtil.replaceField(coalescer, "requestCoalescer", transport, JGroupsTransport.class);
+      try {
+         List<MagicKey> keys = new ArrayList<>();
+         List<CompletableFuture<Object>> futures = new ArrayList<>();
+         for (int i = 0; i < KEYS; i++) {
+            MagicKey key = new MagicKey("k" + i, cache(1));
+            keys.add(key);
+            futures.add(cache(0).putAsync(key, "v" + i));
+         }
+         eventuallyEquals(1, flushTasks::size);
+         flushTasks.poll().run();
+         for (CompletableFuture<Object> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+         }
+
+         assertEquals(1, transport.getCoalescedMessages());
+         assertEquals(KEYS, transport.getCoalescedRequests());
+         assertEquals((double) KEYS, transport.getAverageCoalescedRequests());
+         for (int i = 0; i < KEYS; i++) {
+            assertEquals("v" + i, cache(0).get(keys.get(i)));
+            assertEquals("v" + i, cache(1).get(keys.get(i)));
+         }
+      } finally {
+         TestingUtil.replaceField(original, "requestCoalescer", transport, JGroupsTransport.class);
+      }
+   }
+
+   public void testConcurrentWrites() throws Exception {
+      Future<?>[] writers = new Future<?>[4];
+      for (int i = 0; i < writers.length; i++) {
+         int writer = i;
+         writers[i] = fork(() -> {
+            for (int j = 0; j < 100; j++) {
+               cache(writer % 2).put(new MagicKey("w" + writer + "-" + j, cache((writer + 1) % 2)), "v" + j);
+            }
+         });
+      }
+      for (Future<?> writer : writers) {
+         writer.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(400, cache(0).size());
+   }
+}
@@ -12,6 +12,7 @@ public enum Attribute {
    UNKNOWN(null),
 
    CONCURRENCY_LEVEL("concurrency-level"),
+   FLUSH_INTERVAL("flush-interval"),
    INITIAL_VALUE("initial-value"),
    LOWER_BOUND("lower-bound"),
    NAME("name"),
@@ -32,6 +32,7 @@ public static AbstractCounterConfiguration configToParsedConfig(String name,
          case WEAK:
             WeakCounterConfigurationBuilder wBuilder = new WeakCounterConfigurationBuilder(null);
             wBuilder.concurrencyLevel(configuration.concurrencyLevel());
+            wBuilder.flushInterval(configuration.flushInterval());
             populateCommonAttributes(wBuilder, name, configuration);
             return wBuilder.create();
          case BOUNDED_STRONG:
@@ -81,6 +82,7 @@ private static CounterConfiguration parsedConfigToConfig(WeakCounterConfiguratio
             .initialValue(configuration.initialValue())
             .storage(configuration.storage())
             .concurrencyLevel(configuration.concurrencyLevel())
+            .flushInterval(configuration.flushInterval())
             .build();
    }
 
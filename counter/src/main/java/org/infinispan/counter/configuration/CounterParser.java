@@ -69,6 +69,8 @@ private void parseWeakCounter(ConfigurationReader reader, WeakCounterConfigurati
          Attribute attribute = Attribute.forName(reader.getAttributeName(i));
          if (attribute == Attribute.CONCURRENCY_LEVEL) {
             builder.concurrencyLevel(Integer.parseInt(value));
+         } else if (attribute == Attribute.FLUSH_INTERVAL) {
+            builder.flushInterval(Long.parseLong(value));
          } else {
             parserCommonCounterAttributes(reader, builder, i, attribute, value);
          }
@@ -23,16 +23,30 @@ public class WeakCounterConfiguration extends AbstractCounterConfiguration {
          .immutable()
          .build();
 
+   static final AttributeDefinition<Long> FLUSH_INTERVAL = AttributeDefinition
+         .builder(Attribute.FLUSH_INTERVAL, 0L)
+         .validator(value -> {
+            if (value < 0) {
+               throw CONTAINER.invalidFlushInterval(value);
+            }
+         })
+         .immutable()
+         .build();
+
    WeakCounterConfiguration(AttributeSet attributes) {
       super(attributes);
    }
 
    public static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(WeakCounterConfiguration.class, AbstractCounterConfiguration.attributeDefinitionSet(),
-            CONCURRENCY_LEVEL);
+            CONCURRENCY_LEVEL, FLUSH_INTERVAL);
    }
 
    public int concurrencyLevel() {
       return attributes.attribute(CONCURRENCY_LEVEL).get();
    }
+
+   public long flushInterval() {
+      return attributes.attribute(FLUSH_INTERVAL).get();
+   }
 }
@@ -45,4 +45,19 @@ public WeakCounterConfigurationBuilder concurrencyLevel(int level) {
       attributes.attribute(WeakCounterConfiguration.CONCURRENCY_LEVEL).set(level);
       return self();
    }
+
+   /**
+    * Sets the interval, in milliseconds, between the updates of the counter's value in the cluster.
+    * <p>
+    * When positive, the updates are accumulated locally and applied to the counter once per interval. The updates made
+    * in a node are visible to the other nodes only after they are applied, and they are lost if the node stops before.
+    * <p>
+    * Default value is 0, the updates are applied immediately.
+    *
+    * @param interval the new interval, in milliseconds.
+    */
+   public WeakCounterConfigurationBuilder flushInterval(long interval) {
+      attributes.attribute(WeakCounterConfiguration.FLUSH_INTERVAL).set(interval);
+      return self();
+   }
 }
@@ -226,6 +226,9 @@ private void validateConfiguration(CounterConfiguration configuration) {
             if (configuration.concurrencyLevel() < 1) {
                throw CONTAINER.invalidConcurrencyLevel(configuration.concurrencyLevel());
             }
+            if (configuration.flushInterval() < 0) {
+               throw CONTAINER.invalidFlushInterval(configuration.flushInterval());
+            }
             break;
       }
    }
@@ -9,6 +9,7 @@
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import org.infinispan.AdvancedCache;
 import org.infinispan.commons.logging.LogFactory;
@@ -27,8 +28,11 @@
 import org.infinispan.counter.impl.strong.AbstractStrongCounter;
 import org.infinispan.counter.impl.strong.BoundedStrongCounter;
 import org.infinispan.counter.impl.strong.UnboundedStrongCounter;
+import org.infinispan.counter.impl.weak.BufferedWeakCounterImpl;
 import org.infinispan.counter.impl.weak.WeakCounterImpl;
 import org.infinispan.counter.logging.Log;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
@@ -38,6 +42,7 @@
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.concurrent.NonBlockingManager;
 
 /**
  * A {@link CounterManager} implementation for embedded cache manager.
@@ -59,6 +64,9 @@ public class EmbeddedCounterManager implements CounterManager {
    private volatile boolean started = false;
 
    @Inject BlockingManager blockingManager;
+   @Inject NonBlockingManager nonBlockingManager;
+   @Inject @ComponentName(KnownComponentNames.NON_BLOCKING_EXECUTOR)
+   Executor nonBlockingExecutor;
 
    public EmbeddedCounterManager(EmbeddedCacheManager cacheManager) {
       this.cacheManager = cacheManager;
@@ -92,6 +100,11 @@ public void stop() {
          log.trace("Stopping EmbeddedCounterManager");
       }
       started = false;
+      for (Object counter : counters.values()) {
+         if (counter instanceof BufferedWeakCounterImpl) {
+            ((BufferedWeakCounterImpl) counter).stop();
+         }
+      }
       counterCache = null;
       configurationManager.stop();
       notificationManager.stop();
@@ -259,8 +272,10 @@ private StrongCounter createUnboundedStrongCounter(String counterName, CounterCo
    }
 
    private WeakCounter createWeakCounter(String counterName, CounterConfiguration configuration) {
-      WeakCounterImpl counter = new WeakCounterImpl(counterName, cache(configuration), configuration,
-            notificationManager);
+      WeakCounterImpl counter = configuration.flushInterval() > 0 ?
+            new BufferedWeakCounterImpl(counterName, cache(configuration), configuration, notificationManager,
+                  nonBlockingManager, nonBlockingExecutor) :
+            new WeakCounterImpl(counterName, cache(configuration), configuration, notificationManager);
       counter.init();
       return counter;
    }
@@ -43,7 +43,8 @@
  * to apply the write and reads. It uses the functional API.
  * <p>
  * Writes: The writes are performed by the functional API in order. The single key approach allows us to provide atomic
- * properties for the counter value.
+ * properties for the counter value. Subclasses may combine the concurrent additions into a single write, see {@link
+ * AddCombiner}.
  * <p>
  * Reads: The reads read the value from the cache and it can go remotely.
  * <p>
@@ -60,11 +61,14 @@ public abstract class AbstractStrongCounter implements StrongCounter, CounterEve
    private final FunctionalMap.ReadOnlyMap<StrongCounterKey, CounterValue> readOnlyMap;
    private final CounterManagerNotificationManager notificationManager;
    private final CounterConfiguration configuration;
+   // null if the concurrent additions are not combined
+   private final AddCombiner addCombiner;
    @GuardedBy("this")
    private CounterValue weakCounter;
 
    AbstractStrongCounter(String counterName, AdvancedCache<StrongCounterKey, CounterValue> cache,
-         CounterConfiguration configuration, CounterManagerNotificationManager notificationManager) {
+         CounterConfiguration configuration, CounterManagerNotificationManager notificationManager,
+         boolean combineAdds) {
       this.notificationManager = notificationManager;
       FunctionalMapImpl<StrongCounterKey, CounterValue> functionalMap = FunctionalMapImpl.create(cache)
             .withParams(getPersistenceMode(configuration.storage()));
@@ -73,6 +77,7 @@ public abstract class AbstractStrongCounter implements StrongCounter, CounterEve
       this.readOnlyMap = ReadOnlyMapImpl.create(functionalMap);
       this.weakCounter = null;
       this.configuration = configuration;
+      this.addCombiner = combineAdds ? new AddCombiner(this::add) : null;
    }
 
    /**
@@ -102,7 +107,7 @@ public final CompletableFuture<Long> getValue() {
 
    @Override
    public final CompletableFuture<Long> addAndGet(long delta) {
-      return readWriteMap.eval(key, new AddFunction<>(delta)).thenCompose(value -> checkAddResult(value, delta));
+      return addCombiner == null ? add(delta) : addCombiner.add(delta);
    }
 
    @Override
@@ -208,6 +213,10 @@ private long handleReadResult(Long value) {
             value;
    }
 
+   private CompletableFuture<Long> add(long delta) {
+      return readWriteMap.eval(key, new AddFunction<>(delta)).thenCompose(value -> checkAddResult(value, delta));
+   }
+
    private CompletableFuture<Long> checkAddResult(CounterValue value, long delta) {
       if (value == null) {
          //key doesn't exist in the cache. create and add.
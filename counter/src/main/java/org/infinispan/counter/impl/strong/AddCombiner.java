@@ -0,0 +1,162 @@
+package org.infinispan.counter.impl.strong;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongFunction;
+
+import org.infinispan.util.concurrent.CompletableFutures;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Combines the concurrent additions to a counter.
+ * <p>
+ * While an addition is in progress, the new additions are queued, and when it completes all the queued additions are
+ * applied with a single write, adding the sum of their deltas. Each addition is then completed with the value the
+ * counter would have had if the additions were applied one after the other, in the order they were queued, so every
+ * caller still gets its own value. The counter is only written once per batch, so a hot counter is not limited by the
+ * latency of each write.
+ * <p>
+ * The next batch is written before the additions of the previous batch are completed, so the stages that depend on
+ * them do not delay it.
+ * <p>
+ * If the write fails, all the additions in the batch fail. If the counter reaches {@link Long#MAX_VALUE} or {@link
+ * Long#MIN_VALUE}, all the additions in the batch return that value.
+ * <p>
+ * The listeners receive a single {@link org.infinispan.counter.api.CounterEvent} per batch, from the value before the
+ * batch to the value after it, and not one event per addition.
+ *
+ * @since 14.0
+ */
+final class AddCombiner {
+   private final LongFunction<CompletableFuture<Long>> addFunction;
+   @GuardedBy("this")
+   private List<PendingAdd> queue = new ArrayList<>();
+   @GuardedBy("this")
+   private long queuedDelta;
+   @GuardedBy("this")
+   private boolean inProgress;
+
+   /**
+    * @param addFunction adds a delta to the counter and returns its new value.
+    */
+   AddCombiner(LongFunction<CompletableFuture<Long>> addFunction) {
+      this.addFunction = addFunction;
+   }
+
+   CompletableFuture<Long> add(long delta) {
+      PendingAdd add = new PendingAdd(delta);
+      boolean overflow = false;
+      synchronized (this) {
+         if (inProgress) {
+            try {
+               queuedDelta = Math.addExact(queuedDelta, delta);
+               queue.add(add);
+               return add.future;
+            } catch (ArithmeticException e) {
+               overflow = true;
+            }
+         } else {
+            inProgress = true;
+         }
+      }
+      if (overflow) {
+         // The sum does not fit in a long, apply this addition on its own
+         return addFunction.apply(delta);
+      }
+      List<PendingAdd> adds = new ArrayList<>(1);
+      adds.add(add);
+      Batch batch = new Batch(adds, delta);
+      run(batch, write(batch));
+      return add.future;
+   }
+
+   private void run(Batch batch, CompletableFuture<Long> write) {
+      while (write.isDone()) {
+         Batch next = nextBatch();
+         // Start the next write before running the stages that depend on this batch
+         CompletableFuture<Long> nextWrite = next == null ? null : write(next);
+         batch.complete(write);
+         if (next == null) {
+            return;
+         }
+         batch = next;
+         write = nextWrite;
+      }
+      Batch asyncBatch = batch;
+      CompletableFuture<Long> asyncWrite = write;
+      asyncWrite.whenComplete((value, throwable) -> run(asyncBatch, asyncWrite));
+   }
+
+   private CompletableFuture<Long> write(Batch batch) {
+      try {
+         return addFunction.apply(batch.delta);
+      } catch (Throwable t) {
+         return CompletableFutures.completedExceptionFuture(t);
+      }
+   }
+
+   private Batch nextBatch() {
+      synchronized (this) {
+         if (queue.isEmpty()) {
+            inProgress = false;
+            return null;
+         }
+         Batch batch = new Batch(queue, queuedDelta);
+         queue = new ArrayList<>();
+         queuedDelta = 0;
+         return batch;
+      }
+   }
+
+   private static final class Batch {
+      final List<PendingAdd> adds;
+      final long delta;
+
+      Batch(List<PendingAdd> adds, long delta) {
+         this.adds = adds;
+         this.delta = delta;
+      }
+
+      void complete(CompletableFuture<Long> write) {
+         long value;
+         try {
+            value = write.join();
+         } catch (CompletionException e) {
+            completeExceptionally(e.getCause());
+            return;
+         } catch (Throwable t) {
+            completeExceptionally(t);
+            return;
+         }
+         if (value == Long.MAX_VALUE || value == Long.MIN_VALUE) {
+            for (PendingAdd add : adds) {
+               add.future.complete(value);
+            }
+            return;
+         }
+         long current = value - delta;
+         for (PendingAdd add : adds) {
+            current += add.delta;
+            add.future.complete(current);
+         }
+      }
+
+      private void completeExceptionally(Throwable throwable) {
+         for (PendingAdd add : adds) {
+            add.future.completeExceptionally(throwable);
+         }
+      }
+   }
+
+   private static final class PendingAdd {
+      final long delta;
+      final CompletableFuture<Long> future = new CompletableFuture<>();
+
+      PendingAdd(long delta) {
+         this.delta = delta;
+      }
+   }
+}
@@ -30,7 +30,7 @@ public class BoundedStrongCounter extends AbstractStrongCounter {
 
    public BoundedStrongCounter(String counterName, AdvancedCache<StrongCounterKey, CounterValue> cache,
          CounterConfiguration configuration, CounterManagerNotificationManager notificationManager) {
-      super(counterName, cache, configuration, notificationManager);
+      super(counterName, cache, configuration, notificationManager, false);
    }
 
    @Override
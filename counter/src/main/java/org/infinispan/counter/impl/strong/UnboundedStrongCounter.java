@@ -7,6 +7,8 @@
 
 /**
  * An unbounded strong consistent counter.
+ * <p>
+ * The concurrent additions are combined into a single write, see {@link AddCombiner}.
  *
  * @author Pedro Ruivo
  * @see AbstractStrongCounter
@@ -16,7 +18,7 @@ public class UnboundedStrongCounter extends AbstractStrongCounter {
 
    public UnboundedStrongCounter(String counterName, AdvancedCache<StrongCounterKey, CounterValue> cache,
          CounterConfiguration configuration, CounterManagerNotificationManager notificationManager) {
-      super(counterName, cache, configuration, notificationManager);
+      super(counterName, cache, configuration, notificationManager, true);
    }
 
    @Override
@@ -0,0 +1,249 @@
+package org.infinispan.counter.impl.weak;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.logging.LogFactory;
+import org.infinispan.commons.util.Util;
+import org.infinispan.counter.api.CounterConfiguration;
+import org.infinispan.counter.api.CounterEvent;
+import org.infinispan.counter.impl.entries.CounterKey;
+import org.infinispan.counter.impl.entries.CounterValue;
+import org.infinispan.counter.impl.listener.CounterManagerNotificationManager;
+import org.infinispan.counter.logging.Log;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.concurrent.NonBlockingManager;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * A weak counter that accumulates the updates locally and applies them periodically.
+ * <p>
+ * Write: The updates are added to a {@link LongAdder} and the operation completes immediately. Every {@link
+ * CounterConfiguration#flushInterval()} milliseconds, the sum of the updates since the previous flush is applied to one
+ * of the keys with a single write, so the number of writes does not depend on the number of updates. When the updates
+ * not applied reach {@link #FLUSH_THRESHOLD}, a flush is also started in the executor, instead of waiting for the
+ * interval. A failed flush is retried in the next interval.
+ * <p>
+ * Read: The value is the cached value plus the updates of this node that are not applied yet. The cached value and the
+ * updates not applied are read together: the updates being applied are no longer counted once the cached value of their
+ * key changes. The updates of the other nodes, and the events sent to the listeners, are only visible after they are
+ * applied.
+ * <p>
+ * Reset and remove discard the updates that are not applied yet. The updates that are not applied when the node stops
+ * are lost.
+ *
+ * @since 14.0
+ */
+public class BufferedWeakCounterImpl extends WeakCounterImpl {
+   /**
+    * The updates not applied yet that start a flush before the interval.
+    */
+   public static final long FLUSH_THRESHOLD = 1 << 16;
+   private static final Log log = LogFactory.getLog(BufferedWeakCounterImpl.class, Log.class);
+   // LongAdder.sum() reads all the cells, so only one update in 64 checks the threshold
+   private static final int THRESHOLD_CHECK_MASK = 63;
+
+   private final LongAdder updates = new LongAdder();
+   private final NonBlockingManager nonBlockingManager;
+   private final Executor executor;
+   private final long flushInterval;
+   private final AtomicBoolean thresholdFlushScheduled = new AtomicBoolean();
+   // The sum of the updates that are applied, or discarded. Only written while holding the lock
+   private volatile long applied;
+   // The updates being applied, the key they are applied to and whether the cached value of the key changed since
+   @GuardedBy("this")
+   private long inFlight;
+   @GuardedBy("this")
+   private WeakCounterKey inFlightKey;
+   @GuardedBy("this")
+   private boolean inFlightSeen;
+   // The flushes run one after the other, so that an update is never applied twice
+   @GuardedBy("this")
+   private CompletableFuture<Void> lastFlush = CompletableFutures.completedNull();
+   @GuardedBy("this")
+   private AutoCloseable flushTask;
+
+   public BufferedWeakCounterImpl(String counterName, AdvancedCache<WeakCounterKey, CounterValue> cache,
+         CounterConfiguration configuration, CounterManagerNotificationManager notificationManager,
+         NonBlockingManager nonBlockingManager, Executor executor) {
+      super(counterName, cache, configuration, notificationManager);
+      this.nonBlockingManager = nonBlockingManager;
+      this.executor = executor;
+      this.flushInterval = configuration.flushInterval();
+   }
+
+   @Override
+   public void init() {
+      super.init();
+      synchronized (this) {
+         flushTask = nonBlockingManager.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval,
+               TimeUnit.MILLISECONDS);
+      }
+   }
+
+   @Override
+   public long getValue() {
+      long value;
+      long pending;
+      synchronized (this) {
+         value = super.getValue();
+         pending = updates.sum() - applied;
+      }
+      try {
+         return Math.addExact(value, pending);
+      } catch (ArithmeticException e) {
+         return pending > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+      }
+   }
+
+   @Override
+   public CompletableFuture<Void> add(long delta) {
+      updates.add(delta);
+      if ((ThreadLocalRandom.current().nextInt() & THRESHOLD_CHECK_MASK) == 0) {
+         checkThreshold();
+      }
+      return CompletableFutures.completedNull();
+   }
+
+   @Override
+   public CompletableFuture<Void> reset() {
+      return discardUpdates().thenCompose(ignore -> super.reset());
+   }
+
+   @Override
+   public CompletableFuture<Void> remove() {
+      return discardUpdates().thenCompose(ignore -> super.remove());
+   }
+
+   @Override
+   public CounterEvent generate(CounterKey key, CounterValue value) {
+      synchronized (this) {
+         CounterEvent event = super.generate(key, value);
+         if (inFlightKey != null && !inFlightSeen && inFlightKey.equals(key)) {
+            // The cached value contains the updates being applied, unless another node updated the key first: then
+            // they are missing until their own change arrives, but they are never counted twice
+            applied += inFlight;
+            inFlightSeen = true;
+         }
+         return event;
+      }
+   }
+
+   @Override
+   public void destroyAndRemove() {
+      stop();
+      super.destroyAndRemove();
+   }
+
+   /**
+    * Stops applying the updates periodically.
+    */
+   public void stop() {
+      AutoCloseable task;
+      synchronized (this) {
+         task = flushTask;
+         flushTask = null;
+      }
+      if (task != null) {
+         Util.close(task);
+      }
+   }
+
+   /**
+    * Applies the updates that are not applied yet.
+    *
+    * @return a {@link CompletableFuture} that completes when the updates are applied, or when the flush failed.
+    */
+   public CompletableFuture<Void> flush() {
+      return afterLastFlush(this::applyUpdates);
+   }
+
+   private void checkThreshold() {
+      long pending = updates.sum() - applied;
+      if ((pending >= FLUSH_THRESHOLD || pending <= -FLUSH_THRESHOLD) &&
+            thresholdFlushScheduled.compareAndSet(false, true)) {
+         try {
+            executor.execute(() -> flush().whenComplete((ignore, throwable) -> thresholdFlushScheduled.set(false)));
+         } catch (RejectedExecutionException e) {
+            thresholdFlushScheduled.set(false);
+         }
+      }
+   }
+
+   private CompletionStage<Void> applyUpdates() {
+      WeakCounterKey key;
+      long delta;
+      synchronized (this) {
+         delta = updates.sum() - applied;
+         if (delta == 0) {
+            return CompletableFutures.completedNull();
+         }
+         key = findKey();
+         inFlight = delta;
+         inFlightKey = key;
+         inFlightSeen = false;
+      }
+      CompletableFuture<Void> write;
+      try {
+         write = add(key, delta);
+      } catch (Throwable t) {
+         write = CompletableFutures.completedExceptionFuture(t);
+      }
+      return write.handle((ignore, throwable) -> {
+         synchronized (this) {
+            if (throwable == null) {
+               if (!inFlightSeen) {
+                  applied += delta;
+               }
+            } else if (inFlightSeen) {
+               // The key was changed by another node, the updates are applied again by the next flush
+               applied -= delta;
+            }
+            inFlight = 0;
+            inFlightKey = null;
+            inFlightSeen = false;
+         }
+         if (throwable != null && log.isDebugEnabled()) {
+            log.debugf(throwable, "Unable to apply the updates of counter '%s', retrying later", getName());
+         }
+         return null;
+      });
+   }
+
+   private CompletableFuture<Void> discardUpdates() {
+      return afterLastFlush(() -> {
+         synchronized (this) {
+            applied = updates.sum();
+         }
+         return CompletableFutures.completedNull();
+      });
+   }
+
+   // The action runs without holding the lock, as the write may notify the listener in another thread
+   private CompletableFuture<Void> afterLastFlush(Supplier<CompletionStage<Void>> action) {
+      CompletableFuture<Void> previous;
+      CompletableFuture<Void> next = new CompletableFuture<>();
+      synchronized (this) {
+         previous = lastFlush;
+         lastFlush = next;
+      }
+      previous.thenCompose(ignore -> action.get()).whenComplete((ignore, throwable) -> next.complete(null));
+      return next;
+   }
+
+   @Override
+   public String toString() {
+      return "BufferedWeakCounter{" +
+            "counterName=" + getName() +
+            '}';
+   }
+}
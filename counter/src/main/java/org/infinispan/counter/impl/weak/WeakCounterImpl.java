@@ -147,7 +147,10 @@ public long getValue() {
 
    @Override
    public CompletableFuture<Void> add(long delta) {
-      WeakCounterKey key = findKey();
+      return add(findKey(), delta);
+   }
+
+   CompletableFuture<Void> add(WeakCounterKey key, long delta) {
       return readWriteMap.eval(key, new AddFunction<>(delta))
             .thenCompose(counterValue -> handleAddResult(key, counterValue, delta));
    }
@@ -338,7 +341,7 @@ private void removeListener() {
       notificationManager.removeCounter(counterName());
    }
 
-   private WeakCounterKey findKey() {
+   WeakCounterKey findKey() {
       return selector.findKey((int) Thread.currentThread().getId());
    }
 
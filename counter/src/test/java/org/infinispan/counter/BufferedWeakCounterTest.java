@@ -0,0 +1,107 @@
+package org.infinispan.counter;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.counter.api.CounterConfiguration;
+import org.infinispan.counter.api.CounterEvent;
+import org.infinispan.counter.api.CounterListener;
+import org.infinispan.counter.api.CounterType;
+import org.infinispan.counter.api.Handle;
+import org.infinispan.counter.api.WeakCounter;
+import org.infinispan.counter.impl.BaseCounterTest;
+import org.infinispan.counter.impl.weak.BufferedWeakCounterImpl;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the {@link WeakCounter} that accumulates the updates locally, see {@link CounterConfiguration#flushInterval()}.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "counter.BufferedWeakCounterTest")
+public class BufferedWeakCounterTest extends BaseCounterTest {
+
+   public void testUpdatesAreApplied() {
+      String counterName = "updates-applied";
+      counterManager(0).defineCounter(counterName, CounterConfiguration.builder(CounterType.WEAK)
+            .initialValue(10).flushInterval(100).build());
+      WeakCounter counter = counterManager(0).getWeakCounter(counterName);
+      WeakCounter otherCounter = counterManager(1).getWeakCounter(counterName);
+      assertTrue(counter instanceof BufferedWeakCounterImpl);
+      CountingListener listener = new CountingListener();
+      Handle<CountingListener> handle = otherCounter.addListener(listener);
+      try {
+         int updates = 1000;
+         for (int i = 0; i < updates; i++) {
+            counter.sync().increment();
+         }
+         // The updates are visible locally before they are applied
+         assertEquals(10 + updates, counter.getValue());
+
+         eventuallyEquals(10L + updates, otherCounter::getValue);
+         eventuallyEquals(10L + updates, counter::getValue);
+         // The listener only sees the updates that are applied, a few at most
+         assertTrue("Events: " + listener.events, listener.events.get() < 10);
+      } finally {
+         handle.remove();
+      }
+   }
+
+   public void testResetDiscardsUpdates() {
+      String counterName = "reset-discards";
+      counterManager(0).defineCounter(counterName, CounterConfiguration.builder(CounterType.WEAK)
+            .flushInterval(TimeUnit.MINUTES.toMillis(10)).build());
+      BufferedWeakCounterImpl counter = (BufferedWeakCounterImpl) counterManager(0).getWeakCounter(counterName);
+      WeakCounter otherCounter = counterManager(1).getWeakCounter(counterName);
+
+      counter.sync().add(5);
+      assertEquals(5, counter.getValue());
+      assertEquals(0, otherCounter.getValue());
+
+      counter.sync().reset();
+      assertEquals(0, counter.getValue());
+
+      counter.sync().add(3);
+      counter.flush().join();
+      eventuallyEquals(3L, otherCounter::getValue);
+      assertEquals(3, counter.getValue());
+   }
+
+   public void testThresholdStartsFlush() {
+      String counterName = "threshold-flush";
+      counterManager(0).defineCounter(counterName, CounterConfiguration.builder(CounterType.WEAK)
+            .flushInterval(TimeUnit.MINUTES.toMillis(10)).build());
+      BufferedWeakCounterImpl counter = (BufferedWeakCounterImpl) counterManager(0).getWeakCounter(counterName);
+      WeakCounter otherCounter = counterManager(1).getWeakCounter(counterName);
+
+      // Only some updates check the threshold, every update is above it
+      long value = 0;
+      while (otherCounter.getValue() == 0) {
+         counter.sync().add(BufferedWeakCounterImpl.FLUSH_THRESHOLD);
+         value += BufferedWeakCounterImpl.FLUSH_THRESHOLD;
+         // The updates being applied are never counted twice
+         assertEquals(value, counter.getValue());
+      }
+
+      counter.flush().join();
+      eventuallyEquals(value, otherCounter::getValue);
+      assertEquals(value, counter.getValue());
+   }
+
+   @Override
+   protected int clusterSize() {
+      return 2;
+   }
+
+   public static class CountingListener implements CounterListener {
+      final AtomicInteger events = new AtomicInteger();
+
+      @Override
+      public void onUpdate(CounterEvent entry) {
+         events.incrementAndGet();
+      }
+   }
+}
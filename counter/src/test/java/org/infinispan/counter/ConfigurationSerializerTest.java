@@ -93,6 +93,7 @@ private void assertSameWeakCounterConfiguration(AbstractCounterConfiguration c1,
       assertEquals(c1.storage(), c2.storage());
       assertEquals(((WeakCounterConfiguration) c1).concurrencyLevel(),
             ((WeakCounterConfiguration) c2).concurrencyLevel());
+      assertEquals(((WeakCounterConfiguration) c1).flushInterval(), ((WeakCounterConfiguration) c2).flushInterval());
    }
 
    private void assertWeakCounter(AbstractCounterConfiguration configuration) {
@@ -101,6 +102,7 @@ private void assertWeakCounter(AbstractCounterConfiguration configuration) {
       assertEquals(5, configuration.initialValue());
       assertEquals(Storage.PERSISTENT, configuration.storage());
       assertEquals(1, ((WeakCounterConfiguration) configuration).concurrencyLevel());
+      assertEquals(500, ((WeakCounterConfiguration) configuration).flushInterval());
    }
 
    private void assertStrongCounter(String name, AbstractCounterConfiguration configuration, long initialValue,
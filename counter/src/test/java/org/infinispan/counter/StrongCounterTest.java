@@ -1,6 +1,7 @@
 package org.infinispan.counter;
 
 import static java.lang.String.format;
+import static org.infinispan.commons.test.Exceptions.expectException;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
@@ -12,6 +13,7 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -22,6 +24,9 @@
 import org.infinispan.counter.api.CounterConfiguration;
 import org.infinispan.counter.api.CounterManager;
 import org.infinispan.counter.api.CounterType;
+import org.infinispan.counter.api.StrongCounter;
+import org.infinispan.counter.api.SyncStrongCounter;
+import org.infinispan.counter.exception.CounterOutOfBoundsException;
 import org.infinispan.counter.util.StrongTestCounter;
 import org.testng.annotations.Test;
 
@@ -75,6 +80,46 @@ public void testUniqueReturnValues(Method method) throws ExecutionException, Int
       }
    }
 
+   public void testUniqueReturnValuesAsync(Method method) {
+      final String counterName = method.getName();
+      createCounter(counterManager(0), counterName, 0);
+      StrongCounter counter = counterManager(0).getStrongCounter(counterName);
+      final int numberOfAdds = 1000;
+      List<CompletableFuture<Long>> results = new ArrayList<>(numberOfAdds);
+      for (int i = 0; i < numberOfAdds; ++i) {
+         results.add(counter.addAndGet(i % 2 == 0 ? 1 : 2));
+      }
+
+      final Set<Long> uniqueValuesCheck = new HashSet<>();
+      for (CompletableFuture<Long> result : results) {
+         Long value = result.join();
+         assertTrue(format("Duplicated value %d", value), uniqueValuesCheck.add(value));
+      }
+      assertEquals(numberOfAdds / 2 * 3, counter.sync().getValue());
+   }
+
+   public void testReserve(Method method) {
+      final String counterName = method.getName();
+      createCounter(counterManager(0), counterName, 10);
+      SyncStrongCounter counter = counterManager(0).getStrongCounter(counterName).sync();
+      SyncStrongCounter otherCounter = counterManager(clusterSize() - 1).getStrongCounter(counterName).sync();
+      assertEquals(11, counter.reserve(5));
+      assertEquals(16, otherCounter.reserve(100));
+      assertEquals(116, counter.reserve(1));
+      assertEquals(116, otherCounter.getValue());
+      expectException(IllegalArgumentException.class, () -> counter.reserve(0));
+   }
+
+   public void testReserveUpToMaxValue(Method method) {
+      final String counterName = method.getName();
+      createCounter(counterManager(0), counterName, Long.MAX_VALUE - 10);
+      SyncStrongCounter counter = counterManager(0).getStrongCounter(counterName).sync();
+      assertEquals(Long.MAX_VALUE - 9, counter.reserve(5));
+      // The ranges can't overlap the one already reserved
+      expectException(CounterOutOfBoundsException.class, () -> counter.reserve(10));
+      expectException(CounterOutOfBoundsException.class, () -> counter.reserve(5));
+   }
+
    public void testCompareAndSet(Method method) {
       final String counterName = method.getName();
       TestContext context = new TestContext();
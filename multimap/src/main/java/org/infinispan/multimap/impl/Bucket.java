@@ -2,14 +2,10 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
 import org.infinispan.commons.util.Util;
@@ -20,6 +16,11 @@
 
 /**
  * Bucket used to store MultiMap values, required as HashSet cannot be directly marshalled via ProtoStream.
+ * <p>
+ * Buckets are immutable. The values are kept in a {@link ValueSet}, so checking, adding or removing a value does not
+ * scan or copy all the values of the bucket. The functions that modify the bucket, e.g. {@link
+ * org.infinispan.multimap.impl.function.PutFunction}, are replicated instead of the bucket, so the backup owners
+ * receive only the added or removed value and apply it to their own copy of the bucket.
  *
  * @author Ryan Emerson
  * @since 10.0
@@ -27,37 +28,38 @@
 @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_BUCKET)
 public class Bucket<V> {
 
-   final Collection<V> values;
+   final ValueSet<V> values;
 
    public Bucket() {
-      this.values = Collections.emptyList();
+      this.values = ValueSet.empty();
    }
 
    public Bucket(V value) {
-      this.values = Collections.singletonList(value);
+      this.values = ValueSet.<V>empty().add(value);
    }
 
-   private Bucket(List<V> values) {
+   private Bucket(ValueSet<V> values) {
       this.values = values;
    }
 
    @ProtoFactory
    Bucket(Collection<MarshallableUserObject<V>> wrappedValues) {
-      this(wrappedValues.stream().map(MarshallableUserObject::get).collect(Collectors.toList()));
+      ValueSet<V> values = ValueSet.empty();
+      for (MarshallableUserObject<V> wrappedValue : wrappedValues) {
+         values = values.add(wrappedValue.get());
+      }
+      this.values = values;
    }
 
    @ProtoField(number = 1, collectionImplementation = ArrayList.class)
    Collection<MarshallableUserObject<V>> getWrappedValues() {
-      return this.values.stream().map(MarshallableUserObject::new).collect(Collectors.toSet());
+      List<MarshallableUserObject<V>> wrappedValues = new ArrayList<>(values.size());
+      values.forEach(v -> wrappedValues.add(new MarshallableUserObject<>(v)));
+      return wrappedValues;
    }
 
    public boolean contains(V value) {
-      for (V v : values) {
-         if (Objects.deepEquals(v, value)) {
-            return Boolean.TRUE;
-         }
-      }
-      return Boolean.FALSE;
+      return values.contains(value);
    }
 
    /**
@@ -65,48 +67,34 @@ public boolean contains(V value) {
     * instance.
     */
    public Bucket<V> add(V value) {
-      List<V> newBucket = new ArrayList<>(values.size() + 1);
-      for (V v : values) {
-         if (Objects.deepEquals(v, value)) {
-            return null;
-         }
-         newBucket.add(v);
-      }
-      newBucket.add(value);
-      return new Bucket<>(newBucket);
+      ValueSet<V> newValues = values.add(value);
+      return newValues == values ? null : new Bucket<>(newValues);
    }
 
    public Bucket<V> remove(V value) {
-      List<V> newBucket = new ArrayList<>(values.size());
-      boolean removed = false;
-      Iterator<V> it = values.iterator();
-      while (it.hasNext()) {
-         V v = it.next();
-         if (Objects.deepEquals(v, value)) {
-            removed = true;
-            break;
-         }
-         newBucket.add(v);
-      }
-      //add remaining values
-      while (it.hasNext()) {
-         newBucket.add(it.next());
-      }
-      return removed ? new Bucket<>(newBucket) : null;
+      ValueSet<V> newValues = values.remove(value);
+      return newValues == values ? null : new Bucket<>(newValues);
    }
 
    public Bucket<V> removeIf(Predicate<? super V> p) {
-      List<V> newBucket = new ArrayList<>(values.size());
-      for (V v : values) {
-         if (!p.test(v)) {
-            newBucket.add(v);
+      List<V> removed = new ArrayList<>();
+      values.forEach(v -> {
+         if (p.test(v)) {
+            removed.add(v);
          }
+      });
+      if (removed.isEmpty()) {
+         return null;
+      }
+      ValueSet<V> newValues = values;
+      for (V v : removed) {
+         newValues = newValues.remove(v);
       }
-      return newBucket.size() == values.size() ? null : new Bucket<>(newBucket);
+      return new Bucket<>(newValues);
    }
 
    public boolean isEmpty() {
-      return values.isEmpty();
+      return values.size() == 0;
    }
 
    public int size() {
@@ -117,11 +105,15 @@ public int size() {
     * @return a defensive copy of the {@link #values} collection.
     */
    public Set<V> toSet() {
-      return new HashSet<>(values);
+      Set<V> set = new HashSet<>(values.size() * 4 / 3 + 1);
+      values.forEach(set::add);
+      return set;
    }
 
    @Override
    public String toString() {
-      return "Bucket{values=" + Util.toStr(values) + '}';
+      List<V> list = new ArrayList<>(values.size());
+      values.forEach(list::add);
+      return "Bucket{values=" + Util.toStr(list) + '}';
    }
 }
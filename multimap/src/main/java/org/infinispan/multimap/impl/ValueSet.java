@@ -0,0 +1,299 @@
+package org.infinispan.multimap.impl;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Immutable set of the values of a {@link Bucket}.
+ * <p>
+ * The values are stored in a hash array mapped trie, so {@link #contains(Object)}, {@link #add(Object)} and {@link
+ * #remove(Object)} look at a few nodes instead of scanning all the values, and adding or removing a value copies only
+ * the nodes on the path to the value. The unchanged nodes are shared with the previous set, so a transaction or a
+ * reader that still sees the previous set is not affected.
+ * <p>
+ * Values are compared with {@link Objects#deepEquals(Object, Object)}, so arrays are equal when their contents are
+ * equal.
+ *
+ * @since 14.0
+ */
+final class ValueSet<V> {
+   private static final int BITS = 5;
+   private static final int MASK = (1 << BITS) - 1;
+   private static final ValueSet<?> EMPTY = new ValueSet<>(BitmapNode.EMPTY, 0);
+
+   private final Node root;
+   private final int size;
+
+   private ValueSet(Node root, int size) {
+      this.root = root;
+      this.size = size;
+   }
+
+   @SuppressWarnings("unchecked")
+   static <V> ValueSet<V> empty() {
+      return (ValueSet<V>) EMPTY;
+   }
+
+   int size() {
+      return size;
+   }
+
+   boolean contains(V value) {
+      return root.contains(value, hash(value), 0);
+   }
+
+   /**
+    * @return this set if it already contains {@code value}, otherwise a new set with {@code value}.
+    */
+   ValueSet<V> add(V value) {
+      Node newRoot = root.add(value, hash(value), 0);
+      return newRoot == root ? this : new ValueSet<>(newRoot, size + 1);
+   }
+
+   /**
+    * @return this set if it does not contain {@code value}, otherwise a new set without {@code value}.
+    */
+   ValueSet<V> remove(V value) {
+      Node newRoot = root.remove(value, hash(value), 0);
+      return newRoot == root ? this : new ValueSet<>(newRoot, size - 1);
+   }
+
+   @SuppressWarnings("unchecked")
+   void forEach(Consumer<? super V> action) {
+      root.forEach((Consumer<Object>) action);
+   }
+
+   private static int hash(Object value) {
+      int h = value.getClass().isArray() ? Arrays.deepHashCode(new Object[]{value}) : value.hashCode();
+      // Spread the high bits, the first levels of the trie only use the low bits
+      return h ^ (h >>> 16);
+   }
+
+   private static int bit(int hash, int shift) {
+      return 1 << ((hash >>> shift) & MASK);
+   }
+
+   private abstract static class Node {
+      abstract boolean contains(Object value, int hash, int shift);
+
+      /**
+       * @return this node if it already contains {@code value}.
+       */
+      abstract Node add(Object value, int hash, int shift);
+
+      /**
+       * @return this node if it does not contain {@code value}.
+       */
+      abstract Node remove(Object value, int hash, int shift);
+
+      /**
+       * @return the only value of this node, or {@code null} if the node has more values or child nodes.
+       */
+      abstract Object singleValue();
+
+      abstract boolean isEmpty();
+
+      abstract void forEach(Consumer<Object> action);
+   }
+
+   /**
+    * Each slot holds either a value or a child node, the bitmap tells which of the 32 hash fragments have a slot.
+    */
+   private static final class BitmapNode extends Node {
+      static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+      final int bitmap;
+      final Object[] slots;
+
+      BitmapNode(int bitmap, Object[] slots) {
+         this.bitmap = bitmap;
+         this.slots = slots;
+      }
+
+      private int index(int bit) {
+         return Integer.bitCount(bitmap & (bit - 1));
+      }
+
+      @Override
+      boolean contains(Object value, int hash, int shift) {
+         int bit = bit(hash, shift);
+         if ((bitmap & bit) == 0) {
+            return false;
+         }
+         Object slot = slots[index(bit)];
+         if (slot instanceof Node) {
+            return ((Node) slot).contains(value, hash, shift + BITS);
+         }
+         return Objects.deepEquals(slot, value);
+      }
+
+      @Override
+      Node add(Object value, int hash, int shift) {
+         int bit = bit(hash, shift);
+         int index = index(bit);
+         if ((bitmap & bit) == 0) {
+            Object[] newSlots = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, newSlots, 0, index);
+            newSlots[index] = value;
+            System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+            return new BitmapNode(bitmap | bit, newSlots);
+         }
+         Object slot = slots[index];
+         Node newChild;
+         if (slot instanceof Node) {
+            Node child = (Node) slot;
+            newChild = child.add(value, hash, shift + BITS);
+            if (newChild == child) {
+               return this;
+            }
+         } else if (Objects.deepEquals(slot, value)) {
+            return this;
+         } else {
+            newChild = createNode(slot, hash(slot), value, hash, shift + BITS);
+         }
+         return replace(index, newChild);
+      }
+
+      @Override
+      Node remove(Object value, int hash, int shift) {
+         int bit = bit(hash, shift);
+         if ((bitmap & bit) == 0) {
+            return this;
+         }
+         int index = index(bit);
+         Object slot = slots[index];
+         if (slot instanceof Node) {
+            Node child = (Node) slot;
+            Node newChild = child.remove(value, hash, shift + BITS);
+            if (newChild == child) {
+               return this;
+            }
+            if (newChild.isEmpty()) {
+               return removeSlot(index, bit);
+            }
+            // Move a lone value up, so that the trie does not keep long chains of nodes
+            Object single = newChild.singleValue();
+            return replace(index, single != null ? single : newChild);
+         }
+         return Objects.deepEquals(slot, value) ? removeSlot(index, bit) : this;
+      }
+
+      private BitmapNode replace(int index, Object slot) {
+         Object[] newSlots = slots.clone();
+         newSlots[index] = slot;
+         return new BitmapNode(bitmap, newSlots);
+      }
+
+      private BitmapNode removeSlot(int index, int bit) {
+         if (slots.length == 1) {
+            return EMPTY;
+         }
+         Object[] newSlots = new Object[slots.length - 1];
+         System.arraycopy(slots, 0, newSlots, 0, index);
+         System.arraycopy(slots, index + 1, newSlots, index, slots.length - index - 1);
+         return new BitmapNode(bitmap & ~bit, newSlots);
+      }
+
+      @Override
+      Object singleValue() {
+         return slots.length == 1 && !(slots[0] instanceof Node) ? slots[0] : null;
+      }
+
+      @Override
+      boolean isEmpty() {
+         return slots.length == 0;
+      }
+
+      @Override
+      void forEach(Consumer<Object> action) {
+         for (Object slot : slots) {
+            if (slot instanceof Node) {
+               ((Node) slot).forEach(action);
+            } else {
+               action.accept(slot);
+            }
+         }
+      }
+
+      private static Node createNode(Object value1, int hash1, Object value2, int hash2, int shift) {
+         if (hash1 == hash2) {
+            return new CollisionNode(hash1, new Object[]{value1, value2});
+         }
+         return EMPTY.add(value1, hash1, shift).add(value2, hash2, shift);
+      }
+   }
+
+   /**
+    * Holds the values that have the same hash.
+    */
+   private static final class CollisionNode extends Node {
+      final int hash;
+      final Object[] values;
+
+      CollisionNode(int hash, Object[] values) {
+         this.hash = hash;
+         this.values = values;
+      }
+
+      private int indexOf(Object value) {
+         for (int i = 0; i < values.length; i++) {
+            if (Objects.deepEquals(values[i], value)) {
+               return i;
+            }
+         }
+         return -1;
+      }
+
+      @Override
+      boolean contains(Object value, int hash, int shift) {
+         return this.hash == hash && indexOf(value) >= 0;
+      }
+
+      @Override
+      Node add(Object value, int hash, int shift) {
+         if (this.hash != hash) {
+            // The hashes differ in a later fragment, so this node moves down one level
+            return new BitmapNode(bit(this.hash, shift), new Object[]{this}).add(value, hash, shift);
+         }
+         if (indexOf(value) >= 0) {
+            return this;
+         }
+         Object[] newValues = Arrays.copyOf(values, values.length + 1);
+         newValues[values.length] = value;
+         return new CollisionNode(hash, newValues);
+      }
+
+      @Override
+      Node remove(Object value, int hash, int shift) {
+         int index = this.hash == hash ? indexOf(value) : -1;
+         if (index < 0) {
+            return this;
+         }
+         if (values.length == 1) {
+            return BitmapNode.EMPTY;
+         }
+         Object[] newValues = new Object[values.length - 1];
+         System.arraycopy(values, 0, newValues, 0, index);
+         System.arraycopy(values, index + 1, newValues, index, values.length - index - 1);
+         return new CollisionNode(hash, newValues);
+      }
+
+      @Override
+      Object singleValue() {
+         return values.length == 1 ? values[0] : null;
+      }
+
+      @Override
+      boolean isEmpty() {
+         return false;
+      }
+
+      @Override
+      void forEach(Consumer<Object> action) {
+         for (Object value : values) {
+            action.accept(value);
+         }
+      }
+   }
+}
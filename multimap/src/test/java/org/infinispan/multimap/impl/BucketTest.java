@@ -0,0 +1,102 @@
+package org.infinispan.multimap.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "multimap.BucketTest")
+public class BucketTest extends AbstractInfinispanTest {
+
+   public void testAddAndRemoveManyValues() {
+      int count = 10_000;
+      Bucket<Integer> bucket = new Bucket<>();
+      for (int i = 0; i < count; i++) {
+         bucket = bucket.add(i);
+      }
+      assertEquals(count, bucket.size());
+      assertNull(bucket.add(42));
+      assertEquals(IntStream.range(0, count).boxed().collect(Collectors.toSet()), bucket.toSet());
+
+      Bucket<Integer> previous = bucket;
+      for (int i = 0; i < count; i += 2) {
+         bucket = bucket.remove(i);
+      }
+      assertNull(bucket.remove(0));
+      assertEquals(count / 2, bucket.size());
+      for (int i = 0; i < count; i++) {
+         assertEquals(i % 2 == 1, bucket.contains(i));
+      }
+      // The previous bucket is not modified
+      assertEquals(count, previous.size());
+      assertTrue(previous.contains(0));
+
+      bucket = bucket.removeIf(i -> i < count / 2);
+      assertEquals(count / 4, bucket.size());
+      assertNull(bucket.removeIf(i -> i < 0));
+   }
+
+   public void testValuesWithSameHash() {
+      Bucket<SameHash> bucket = new Bucket<>(new SameHash("a"));
+      bucket = bucket.add(new SameHash("b")).add(new SameHash("c"));
+      assertNull(bucket.add(new SameHash("b")));
+      assertEquals(3, bucket.size());
+
+      bucket = bucket.remove(new SameHash("a")).remove(new SameHash("c"));
+      assertNull(bucket.remove(new SameHash("a")));
+      assertEquals(1, bucket.size());
+      assertTrue(bucket.contains(new SameHash("b")));
+
+      bucket = bucket.remove(new SameHash("b"));
+      assertTrue(bucket.isEmpty());
+      assertFalse(bucket.contains(new SameHash("b")));
+   }
+
+   public void testArrayValues() {
+      Bucket<byte[]> bucket = new Bucket<>(new byte[]{1, 2});
+      assertTrue(bucket.contains(new byte[]{1, 2}));
+      assertNull(bucket.add(new byte[]{1, 2}));
+      bucket = bucket.add(new byte[]{3});
+      assertEquals(2, bucket.size());
+      bucket = bucket.remove(new byte[]{1, 2});
+      assertEquals(1, bucket.size());
+      assertFalse(bucket.contains(new byte[]{1, 2}));
+   }
+
+   public void testMarshallingRoundTrip() {
+      Bucket<String> bucket = new Bucket<>();
+      Set<String> values = new HashSet<>();
+      for (int i = 0; i < 100; i++) {
+         values.add("v" + i);
+         bucket = bucket.add("v" + i);
+      }
+      Bucket<String> copy = new Bucket<>(bucket.getWrappedValues());
+      assertEquals(values, copy.toSet());
+   }
+
+   static class SameHash {
+      final String value;
+
+      SameHash(String value) {
+         this.value = value;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         return o instanceof SameHash && ((SameHash) o).value.equals(value);
+      }
+
+      @Override
+      public int hashCode() {
+         return 1;
+      }
+   }
+}
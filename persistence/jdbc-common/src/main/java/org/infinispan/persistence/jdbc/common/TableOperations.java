@@ -2,6 +2,9 @@
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -19,6 +22,25 @@
 public interface TableOperations<K, V> {
    MarshallableEntry<K, V> loadEntry(Connection connection, int segment, Object key) throws SQLException;
 
+   /**
+    * Loads the entries of the given keys, grouped by segment, using the same connection. Keys that are not present
+    * are not in the returned map.
+    */
+   default Map<Object, MarshallableEntry<K, V>> loadEntries(Connection connection,
+         Map<Integer, ? extends Collection<?>> keysBySegment) throws SQLException {
+      Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>();
+      for (Map.Entry<Integer, ? extends Collection<?>> segmentKeys : keysBySegment.entrySet()) {
+         int segment = segmentKeys.getKey();
+         for (Object key : segmentKeys.getValue()) {
+            MarshallableEntry<K, V> entry = loadEntry(connection, segment, key);
+            if (entry != null) {
+               entries.put(key, entry);
+            }
+         }
+      }
+      return entries;
+   }
+
    default Flowable<K> publishKeys(Supplier<Connection> connectionSupplier, Consumer<Connection> connectionCloser,
          IntSet segments, Predicate<? super K> filter) {
       return publishEntries(connectionSupplier, connectionCloser, segments, filter, false)
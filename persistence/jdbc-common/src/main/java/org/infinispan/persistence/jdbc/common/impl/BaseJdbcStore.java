@@ -4,6 +4,7 @@
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
@@ -135,6 +136,22 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       }, "jdbcstore-load");
    }
 
+   @Override
+   public CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAll(Map<Integer, ? extends Collection<?>> keysBySegment) {
+      return blockingManager.supplyBlocking(() -> {
+         Connection conn = null;
+         try {
+            conn = connectionFactory.getConnection();
+            return tableOperations.loadEntries(conn, keysBySegment);
+         } catch (SQLException e) {
+            PERSISTENCE.sqlFailureReadingKeys(e);
+            throw new PersistenceException("SQL error while fetching stored entries", e);
+         } finally {
+            connectionFactory.releaseConnection(conn);
+         }
+      }, "jdbcstore-loadAll");
+   }
+
    @Override
    public CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> entry) {
       return blockingManager.runBlocking(() -> {
@@ -278,4 +278,8 @@ CacheConfigurationException deleteAndSelectQueryMismatchArguments(String paramNa
 
    @Message(value = "Table name must be non null", id = 8071)
    CacheConfigurationException tableNameMissing();
+
+   @LogMessage(level = ERROR)
+   @Message(value = "SQL error while fetching stored entries", id = 8072)
+   void sqlFailureReadingKeys(@Cause SQLException e);
 }
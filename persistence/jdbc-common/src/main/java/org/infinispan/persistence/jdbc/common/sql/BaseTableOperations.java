@@ -8,6 +8,9 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -93,6 +96,34 @@ public MarshallableEntry<K, V> loadEntry(Connection connection, int segment, Obj
       return null;
    }
 
+   @Override
+   public Map<Object, MarshallableEntry<K, V>> loadEntries(Connection connection,
+         Map<Integer, ? extends Collection<?>> keysBySegment) throws SQLException {
+      Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>();
+      String selectSql = getSelectRowSql();
+      if (log.isTraceEnabled()) {
+         log.tracef("Running select row sql '%s' for multiple keys", selectSql);
+      }
+      // The key may span several columns, so the row select is prepared once and executed for every key
+      try (PreparedStatement ps = connection.prepareStatement(selectSql)) {
+         ps.setQueryTimeout(readQueryTimeout);
+         for (Collection<?> keys : keysBySegment.values()) {
+            for (Object key : keys) {
+               prepareKeyStatement(ps, key);
+               try (ResultSet rs = ps.executeQuery()) {
+                  if (rs.next()) {
+                     MarshallableEntry<K, V> entry = entryFromResultSet(rs, key, true, null);
+                     if (entry != null) {
+                        entries.put(key, entry);
+                     }
+                  }
+               }
+            }
+         }
+      }
+      return entries;
+   }
+
    @Override
    public boolean deleteEntry(Connection connection, int segment, Object key) throws SQLException {
       PreparedStatement ps = null;
@@ -12,6 +12,11 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.PrimitiveIterator;
 import java.util.function.Predicate;
@@ -412,6 +417,35 @@ public String getSelectRowSql() {
       return selectRowSql;
    }
 
+   /**
+    * @return the placeholder of an id value in the WHERE clause, for the databases that need a conversion
+    */
+   protected String idParameterSql() {
+      return "?";
+   }
+
+   public String getSelectMultipleRowSql(int numKeys) {
+      StringBuilder stringBuilder = new StringBuilder("SELECT ");
+      stringBuilder.append(config.dataColumnName());
+      stringBuilder.append(", ");
+      stringBuilder.append(config.idColumnName());
+      stringBuilder.append(" FROM ");
+      stringBuilder.append(dataTableName);
+      stringBuilder.append(" WHERE ");
+      stringBuilder.append(config.idColumnName());
+      stringBuilder.append(" IN (");
+      String idParameter = idParameterSql();
+      for (int i = 0; i < numKeys; ++i) {
+         if (i > 0) {
+            stringBuilder.append(",");
+         }
+         stringBuilder.append(idParameter);
+      }
+      stringBuilder.append(")");
+
+      return stringBuilder.toString();
+   }
+
    protected String initSelectIdRowSql() {
       return String.format("SELECT %s FROM %s WHERE %s = ?", config.idColumnName(), dataTableName, config.idColumnName());
    }
@@ -604,6 +638,47 @@ protected void prepareKeyStatement(PreparedStatement ps, Object key) throws SQLE
       ps.setString(1, lockingKey);
    }
 
+   @Override
+   public Map<Object, MarshallableEntry<K, V>> loadEntries(Connection connection,
+         Map<Integer, ? extends Collection<?>> keysBySegment) throws SQLException {
+      // The returned rows only have the string form of the key
+      Map<String, Object> keysByString = new HashMap<>();
+      for (Collection<?> keys : keysBySegment.values()) {
+         for (Object key : keys) {
+            keysByString.put(key2Str(key), key);
+         }
+      }
+      Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>();
+      List<String> keyStrings = new ArrayList<>(keysByString.keySet());
+      // Databases limit the size of the IN list, so the keys are split in batches
+      for (int start = 0; start < keyStrings.size(); start += fetchSize) {
+         List<String> batch = keyStrings.subList(start, Math.min(start + fetchSize, keyStrings.size()));
+         String selectSql = getSelectMultipleRowSql(batch.size());
+         if (log.isTraceEnabled()) {
+            log.tracef("Running select multiple row sql '%s'", selectSql);
+         }
+         try (PreparedStatement ps = connection.prepareStatement(selectSql)) {
+            ps.setQueryTimeout(readQueryTimeout);
+            for (int i = 0; i < batch.size(); ++i) {
+               ps.setString(i + 1, batch.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+               while (rs.next()) {
+                  Object key = keysByString.get(rs.getString(2));
+                  if (key == null) {
+                     continue;
+                  }
+                  MarshallableEntry<K, V> entry = entryFromResultSet(rs, key, true, null);
+                  if (entry != null) {
+                     entries.put(key, entry);
+                  }
+               }
+            }
+         }
+      }
+      return entries;
+   }
+
    @Override
    protected MarshallableEntry<K, V> entryFromResultSet(ResultSet rs, Object keyIfPresent, boolean fetchValue,
          Predicate<? super K> keyPredicate) throws SQLException {
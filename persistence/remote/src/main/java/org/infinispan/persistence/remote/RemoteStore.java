@@ -1,6 +1,9 @@
 package org.infinispan.persistence.remote;
 
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -252,6 +255,36 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       }
    }
 
+   @Override
+   public CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAll(Map<Integer, ? extends Collection<?>> keysBySegment) {
+      if (configuration.rawValues()) {
+         // getAll does not return the metadata, which is needed to create the entries of raw values
+         return NonBlockingStore.super.loadAll(keysBySegment);
+      }
+      Set<Object> unwrappedKeys = new HashSet<>();
+      for (Collection<?> keys : keysBySegment.values()) {
+         for (Object key : keys) {
+            unwrappedKeys.add(unwrap(key));
+         }
+      }
+      return remoteCache.getAllAsync(unwrappedKeys)
+            .thenApply(values -> {
+               Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>(values.size());
+               for (Map.Entry<Object, Object> e : values.entrySet()) {
+                  Object value = e.getValue();
+                  if (value == null) {
+                     continue;
+                  }
+                  // The key is wrapped again so that it is equal to the requested key
+                  Object key = wrap(e.getKey());
+                  entries.put(key, value instanceof MarshalledValue ?
+                                   entryFactory.create(key, (MarshalledValue) value) :
+                                   entryFactory.create(key, value));
+               }
+               return entries;
+            });
+   }
+
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       key = unwrap(key);
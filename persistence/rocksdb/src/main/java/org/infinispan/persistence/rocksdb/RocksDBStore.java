@@ -11,7 +11,9 @@
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -352,6 +354,11 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       return handler.load(segment, key);
    }
 
+   @Override
+   public CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAll(Map<Integer, ? extends Collection<?>> keysBySegment) {
+      return handler.loadAll(keysBySegment);
+   }
+
    @Override
    public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublisher<Object>> removePublisher,
          Publisher<SegmentedPublisher<MarshallableEntry<K, V>>> writePublisher) {
@@ -740,6 +747,46 @@ CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
          }
       }
 
+      CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAll(Map<Integer, ? extends Collection<?>> keysBySegment) {
+         List<ColumnFamilyHandle> handles = new ArrayList<>();
+         List<Object> keys = new ArrayList<>();
+         List<byte[]> marshalledKeys = new ArrayList<>();
+         for (Map.Entry<Integer, ? extends Collection<?>> segmentKeys : keysBySegment.entrySet()) {
+            ColumnFamilyHandle handle = getHandle(segmentKeys.getKey());
+            if (handle == null) {
+               log.trace("Ignoring load of segment as handle is not currently configured");
+               continue;
+            }
+            for (Object key : segmentKeys.getValue()) {
+               handles.add(handle);
+               keys.add(key);
+               marshalledKeys.add(marshall(key));
+            }
+         }
+         if (keys.isEmpty()) {
+            return CompletableFutures.completedEmptyMap();
+         }
+         // A single multiGet reads all the keys, grouping the lookups by column family
+         CompletionStage<List<byte[]>> entryBytesStage = blockingManager.supplyBlocking(() -> {
+            try {
+               return db.multiGetAsList(handles, marshalledKeys);
+            } catch (RocksDBException e) {
+               throw new CompletionException(e);
+            }
+         }, "rocksdb-loadAll");
+         return entryBytesStage.thenApply(entryBytes -> {
+            long now = timeService.wallClockTime();
+            Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+               MarshallableEntry<K, V> me = unmarshallEntry(keys.get(i), entryBytes.get(i));
+               if (me != null && !me.isExpired(now)) {
+                  entries.put(keys.get(i), me);
+               }
+            }
+            return entries;
+         });
+      }
+
       CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> me) {
          ColumnFamilyHandle handle = getHandle(segment);
          if (handle == null) {
@@ -1,7 +1,10 @@
 package org.infinispan.server.core;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
@@ -47,6 +50,7 @@
    private ExecutorService executor;
    private ManageableThreadPoolExecutorService manageableThreadPoolExecutorService;
    private ObjectName executorObjName;
+   private final List<ObjectName> componentObjNames = new ArrayList<>();
    private CacheManagerMetricsRegistration metricsRegistration;
    private Set<MetricID> metricIds;
    private ProtocolServer<?> enclosingProtocolServer;
@@ -163,6 +167,9 @@ protected void registerServerMBeans() {
             if (manageableThreadPoolExecutorService != null) {
                executorObjName = jmxRegistration.registerExternalMBean(manageableThreadPoolExecutorService, groupName);
             }
+            for (Object component : getManagedComponents()) {
+               componentObjNames.add(jmxRegistration.registerExternalMBean(component, groupName));
+            }
          } catch (Exception e) {
             throw new RuntimeException(e);
          }
@@ -176,6 +183,10 @@ protected void unregisterServerMBeans() throws Exception {
       if (executorObjName != null) {
          jmxRegistration.unregisterMBean(executorObjName);
       }
+      for (ObjectName componentObjName : componentObjNames) {
+         jmxRegistration.unregisterMBean(componentObjName);
+      }
+      componentObjNames.clear();
    }
 
    protected void registerMetrics() {
@@ -184,9 +195,20 @@ protected void registerMetrics() {
          String protocol = "server_" + getQualifiedName() + '_' + configuration.port();
          metricIds = Collections.synchronizedSet(metricsRegistration.registerExternalMetrics(transport, protocol));
          metricIds.addAll(metricsRegistration.registerExternalMetrics(manageableThreadPoolExecutorService, protocol));
+         for (Object component : getManagedComponents()) {
+            metricIds.addAll(metricsRegistration.registerExternalMetrics(component, protocol));
+         }
       }
    }
 
+   /**
+    * @return additional components of this server, annotated with {@link org.infinispan.jmx.annotations.MBean}, to
+    * register as MBeans and metrics along with the transport and the worker executor.
+    */
+   protected Collection<Object> getManagedComponents() {
+      return Collections.emptyList();
+   }
+
    protected void unregisterMetrics() {
       if (metricIds != null) {
          metricsRegistration.unregisterMetrics(metricIds);
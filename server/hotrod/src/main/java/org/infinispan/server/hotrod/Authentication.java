@@ -72,7 +72,7 @@ public void auth(HotRodHeader header, String mech, byte[] response) {
             server.accessLogging().logException(future, (AccessLoggingHeader) header, cause.toString(), responseBytes);
          }
       } else {
-         executor.execute(() -> {
+         executeBlocking(header, () -> {
             try {
                authInternal(header, mech, response);
             } catch (Throwable t) {
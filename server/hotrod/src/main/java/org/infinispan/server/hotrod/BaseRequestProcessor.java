@@ -38,6 +38,14 @@ Channel channel() {
       return channel;
    }
 
+   /**
+    * Runs a task that could block in the worker executor, so that it does not block the event loop.
+    */
+   void executeBlocking(HotRodHeader header, Runnable task) {
+      server.getExecutorHops().increment(header.op);
+      executor.execute(task);
+   }
+
    void writeException(HotRodHeader header, Throwable cause) {
       if (cause instanceof CompletionException && cause.getCause() != null) {
          cause = cause.getCause();
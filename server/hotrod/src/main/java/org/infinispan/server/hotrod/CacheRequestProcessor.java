@@ -55,7 +55,7 @@ void ping(HotRodHeader header, Subject subject) {
 
    void stats(HotRodHeader header, Subject subject) {
       AdvancedCache<byte[], byte[]> cache = server.cache(server.getCacheInfo(header), header, subject);
-      executor.execute(() -> writeResponse(header, header.encoder().statsResponse(header, server, channel,
+      executeBlocking(header, () -> writeResponse(header, header.encoder().statsResponse(header, server, channel,
             cache.getStats(), server.getTransport(), SecurityActions.getCacheComponentRegistry(cache))));
    }
 
@@ -505,7 +505,7 @@ private void handleSize(HotRodHeader header, Long size, Throwable throwable, Obj
 
    void bulkGet(HotRodHeader header, Subject subject, int size) {
       AdvancedCache<byte[], byte[]> cache = server.cache(server.getCacheInfo(header), header, subject);
-      executor.execute(() -> bulkGetInternal(header, cache, size));
+      executeBlocking(header, () -> bulkGetInternal(header, cache, size));
    }
 
    private void bulkGetInternal(HotRodHeader header, AdvancedCache<byte[], byte[]> cache, int size) {
@@ -521,7 +521,7 @@ private void bulkGetInternal(HotRodHeader header, AdvancedCache<byte[], byte[]>
 
    void bulkGetKeys(HotRodHeader header, Subject subject, int scope) {
       AdvancedCache<byte[], byte[]> cache = server.cache(server.getCacheInfo(header), header, subject);
-      executor.execute(() -> bulkGetKeysInternal(header, cache, scope));
+      executeBlocking(header, () -> bulkGetKeysInternal(header, cache, scope));
    }
 
    private void bulkGetKeysInternal(HotRodHeader header, AdvancedCache<byte[], byte[]> cache, int scope) {
@@ -537,7 +537,7 @@ private void bulkGetKeysInternal(HotRodHeader header, AdvancedCache<byte[], byte
 
    void query(HotRodHeader header, Subject subject, byte[] queryBytes) {
       AdvancedCache<byte[], byte[]> cache = server.cache(server.getCacheInfo(header), header, subject);
-      executor.execute(() -> queryInternal(header, cache, queryBytes));
+      executeBlocking(header, () -> queryInternal(header, cache, queryBytes));
    }
 
    private void queryInternal(HotRodHeader header, AdvancedCache<byte[], byte[]> cache, byte[] queryBytes) {
@@ -604,7 +604,7 @@ private void removeClientListenerInternal(HotRodHeader header, AdvancedCache<byt
    void iterationStart(HotRodHeader header, Subject subject, byte[] segmentMask, String filterConverterFactory,
                        List<byte[]> filterConverterParams, int batch, boolean includeMetadata) {
       AdvancedCache<byte[], byte[]> cache = server.cache(server.getCacheInfo(header), header, subject);
-      executor.execute(() -> {
+      executeBlocking(header, () -> {
          try {
             IterationState iterationState = server.getIterationManager().start(cache, segmentMask != null ? BitSet.valueOf(segmentMask) : null,
                   filterConverterFactory, filterConverterParams, header.getValueMediaType(), batch, includeMetadata);
@@ -617,7 +617,7 @@ void iterationStart(HotRodHeader header, Subject subject, byte[] segmentMask, St
    }
 
    void iterationNext(HotRodHeader header, Subject subject, String iterationId) {
-      executor.execute(() -> {
+      executeBlocking(header, () -> {
          try {
             IterableIterationResult iterationResult = server.getIterationManager().next(iterationId);
             writeResponse(header, header.encoder().iterationNextResponse(header, server, channel, iterationResult));
@@ -628,7 +628,7 @@ void iterationNext(HotRodHeader header, Subject subject, String iterationId) {
    }
 
    void iterationEnd(HotRodHeader header, Subject subject, String iterationId) {
-      executor.execute(() -> {
+      executeBlocking(header, () -> {
          try {
             IterationState removed = server.getIterationManager().close(iterationId);
             writeResponse(header, header.encoder().emptyResponse(header, server, channel, removed != null ? OperationStatus.Success : OperationStatus.InvalidIteration));
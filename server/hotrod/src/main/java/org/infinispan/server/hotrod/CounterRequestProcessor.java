@@ -45,7 +45,7 @@ private EmbeddedCounterManager counterManager(HotRodHeader header) {
    }
 
    void removeCounterListener(HotRodHeader header, Subject subject, String counterName, byte[] listenerId) {
-      executor.execute(() -> removeCounterListenerInternal(header, counterName, listenerId));
+      executeBlocking(header, () -> removeCounterListenerInternal(header, counterName, listenerId));
    }
 
    private void removeCounterListenerInternal(HotRodHeader header, String counterName, byte[] listenerId) {
@@ -58,7 +58,7 @@ private void removeCounterListenerInternal(HotRodHeader header, String counterNa
    }
 
    void addCounterListener(HotRodHeader header, Subject subject, String counterName, byte[] listenerId) {
-      executor.execute(() -> addCounterListenerInternal(header, counterName, listenerId));
+      executeBlocking(header, () -> addCounterListenerInternal(header, counterName, listenerId));
    }
 
    private void addCounterListenerInternal(HotRodHeader header, String counterName, byte[] listenerId) {
@@ -76,7 +76,7 @@ void getCounterNames(HotRodHeader header, Subject subject) {
    }
 
    void counterRemove(HotRodHeader header, Subject subject, String counterName) {
-      executor.execute(() -> counterRemoveInternal(header, counterName));
+      executeBlocking(header, () -> counterRemoveInternal(header, counterName));
    }
 
    private void counterRemoveInternal(HotRodHeader header, String counterName) {
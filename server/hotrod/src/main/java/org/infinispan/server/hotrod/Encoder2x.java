@@ -320,7 +320,7 @@ public ByteBuf iterationNextResponse(HotRodHeader header, HotRodServer server, C
    public ByteBuf counterConfigurationResponse(HotRodHeader header, HotRodServer server, Channel channel, CounterConfiguration configuration) {
       ByteBuf buf = writeHeader(header, server, channel, OperationStatus.Success);
       encodeConfiguration(configuration, buf::writeByte, buf::writeLong,
-            value -> ExtendedByteBuf.writeUnsignedInt(value, buf));
+            value -> ExtendedByteBuf.writeUnsignedInt(value, buf), HotRodVersion.HOTROD_32.isAtLeast(header.version));
       return buf;
    }
 
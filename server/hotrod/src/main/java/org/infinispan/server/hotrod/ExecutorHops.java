@@ -0,0 +1,94 @@
+package org.infinispan.server.hotrod;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+
+/**
+ * Counts the requests that are handed from the event loop to the worker executor, per operation.
+ * <p>
+ * Most operations run on the event loop, so every hop is a request that could block.
+ *
+ * @since 14.0
+ */
+@MBean(objectName = "ExecutorHops", description = "Requests handed from the event loop to the worker executor")
+public class ExecutorHops {
+   private static final HotRodOperation[] OPERATIONS = HotRodOperation.values();
+
+   private final LongAdder[] hops = new LongAdder[OPERATIONS.length];
+
+   ExecutorHops() {
+      for (int i = 0; i < hops.length; i++) {
+         hops[i] = new LongAdder();
+      }
+   }
+
+   void increment(HotRodOperation operation) {
+      hops[operation.ordinal()].increment();
+   }
+
+   /**
+    * @return the number of requests of the given operation handed to the worker executor.
+    */
+   public long getHops(HotRodOperation operation) {
+      return hops[operation.ordinal()].sum();
+   }
+
+   @ManagedAttribute(description = "Returns the number of requests handed to the worker executor",
+         displayName = "Total executor hops", measurementType = MeasurementType.TRENDSUP)
+   public long getTotalHops() {
+      long total = 0;
+      for (LongAdder adder : hops) {
+         total += adder.sum();
+      }
+      return total;
+   }
+
+   @ManagedAttribute(description = "Returns the number of stats requests handed to the worker executor",
+         displayName = "Stats executor hops", measurementType = MeasurementType.TRENDSUP)
+   public long getStatsHops() {
+      return getHops(HotRodOperation.STATS);
+   }
+
+   @ManagedAttribute(description = "Returns the number of bulk get and bulk get keys requests handed to the worker executor",
+         displayName = "Bulk get executor hops", measurementType = MeasurementType.TRENDSUP)
+   public long getBulkGetHops() {
+      return getHops(HotRodOperation.BULK_GET) + getHops(HotRodOperation.BULK_GET_KEYS);
+   }
+
+   @ManagedAttribute(description = "Returns the number of query requests handed to the worker executor",
+         displayName = "Query executor hops", measurementType = MeasurementType.TRENDSUP)
+   public long getQueryHops() {
+      return getHops(HotRodOperation.QUERY);
+   }
+
+   @ManagedAttribute(description = "Returns the number of iteration requests handed to the worker executor",
+         displayName = "Iteration executor hops", measurementType = MeasurementType.TRENDSUP)
+   public long getIterationHops() {
+      return getHops(HotRodOperation.ITERATION_START) + getHops(HotRodOperation.ITERATION_NEXT) +
+            getHops(HotRodOperation.ITERATION_END);
+   }
+
+   @ManagedAttribute(description = "Returns the number of transaction requests handed to the worker executor",
+         displayName = "Transaction executor hops", measurementType = MeasurementType.TRENDSUP)
+   public long getTransactionHops() {
+      return getHops(HotRodOperation.PREPARE_TX) + getHops(HotRodOperation.PREPARE_TX_2) +
+            getHops(HotRodOperation.COMMIT_TX) + getHops(HotRodOperation.ROLLBACK_TX) +
+            getHops(HotRodOperation.FORGET_TX) + getHops(HotRodOperation.FETCH_TX_RECOVERY);
+   }
+
+   @ManagedAttribute(description = "Returns the number of counter requests handed to the worker executor",
+         displayName = "Counter executor hops", measurementType = MeasurementType.TRENDSUP)
+   public long getCounterHops() {
+      return getHops(HotRodOperation.COUNTER_ADD_LISTENER) + getHops(HotRodOperation.COUNTER_REMOVE_LISTENER) +
+            getHops(HotRodOperation.COUNTER_REMOVE);
+   }
+
+   @ManagedAttribute(description = "Returns the number of authentication requests handed to the worker executor",
+         displayName = "Authentication executor hops", measurementType = MeasurementType.TRENDSUP)
+   public long getAuthenticationHops() {
+      return getHops(HotRodOperation.AUTH);
+   }
+}
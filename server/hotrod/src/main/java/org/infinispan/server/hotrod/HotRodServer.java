@@ -11,6 +11,8 @@
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -122,6 +124,7 @@ public class HotRodServer extends AbstractProtocolServer<HotRodServerConfigurati
    private RemoveCacheListener removeCacheListener;
    private ClientCounterManagerNotificationManager clientCounterNotificationManager;
    private HotRodAccessLogging accessLogging = new HotRodAccessLogging();
+   private final ExecutorHops executorHops = new ExecutorHops();
    private ScheduledExecutorService scheduledExecutor;
 
    public HotRodServer() {
@@ -152,6 +155,15 @@ public ClientCounterManagerNotificationManager getClientCounterNotificationManag
       return clientCounterNotificationManager;
    }
 
+   public ExecutorHops getExecutorHops() {
+      return executorHops;
+   }
+
+   @Override
+   protected Collection<Object> getManagedComponents() {
+      return Collections.singletonList(executorHops);
+   }
+
    @Override
    public ChannelOutboundHandler getEncoder() {
       return null;
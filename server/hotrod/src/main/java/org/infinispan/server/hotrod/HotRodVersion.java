@@ -23,6 +23,7 @@ public enum HotRodVersion {
    HOTROD_29(2, 9), // since 9.4
    HOTROD_30(3, 0), // since 10.0
    HOTROD_31(3, 1), // since 12.0
+   HOTROD_32(3, 2), // since 14.0
    ;
 
    private final int major;
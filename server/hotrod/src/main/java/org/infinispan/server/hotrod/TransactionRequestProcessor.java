@@ -43,7 +43,7 @@ private void writeTransactionResponse(HotRodHeader header, int value) {
    void rollbackTransaction(HotRodHeader header, Subject subject, XidImpl xid) {
       RollbackTransactionOperation operation = new RollbackTransactionOperation(header, server, subject, xid,
             this::writeTransactionResponse);
-      executor.execute(operation);
+      executeBlocking(header, operation);
    }
 
    /**
@@ -52,7 +52,7 @@ void rollbackTransaction(HotRodHeader header, Subject subject, XidImpl xid) {
    void commitTransaction(HotRodHeader header, Subject subject, XidImpl xid) {
       CommitTransactionOperation operation = new CommitTransactionOperation(header, server, subject, xid,
             this::writeTransactionResponse);
-      executor.execute(operation);
+      executeBlocking(header, operation);
    }
 
    /**
@@ -63,14 +63,14 @@ void prepareTransaction(HotRodHeader header, Subject subject, XidImpl xid, boole
       HotRodServer.ExtendedCacheInfo cacheInfo = server.getCacheInfo(header);
       AdvancedCache<byte[], byte[]> cache = server.cache(cacheInfo, header, subject);
       validateConfiguration(cache);
-      executor.execute(() -> prepareTransactionInternal(header, cache, cacheInfo.versionGenerator, xid, onePhaseCommit,
+      executeBlocking(header, () -> prepareTransactionInternal(header, cache, cacheInfo.versionGenerator, xid, onePhaseCommit,
             writes, recoverable, timeout));
    }
 
    void forgetTransaction(HotRodHeader header, Subject subject, XidImpl xid) {
       //TODO authentication?
       GlobalTxTable txTable = SecurityActions.getGlobalComponentRegistry(server.getCacheManager()).getComponent(GlobalTxTable.class);
-      executor.execute(() -> {
+      executeBlocking(header, () -> {
          try {
             txTable.forgetTransaction(xid);
             writeSuccess(header);
@@ -85,7 +85,7 @@ void getPreparedTransactions(HotRodHeader header, Subject subject) {
       if (log.isTraceEnabled()) {
          log.trace("Fetching transactions for recovery");
       }
-      executor.execute(() -> {
+      executeBlocking(header, () -> {
          try {
             GlobalTxTable txTable = SecurityActions.getGlobalComponentRegistry(server.getCacheManager())
                   .getComponent(GlobalTxTable.class);
@@ -0,0 +1,127 @@
+package org.infinispan.server.hotrod;
+
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.assertStatus;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.k;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.killClient;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.v;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commons.executors.NonBlockingResource;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.interceptors.BaseAsyncInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.server.hotrod.test.HotRodClient;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the requests handed from the event loop to the worker executor, see {@link ExecutorHops}.
+ *
+ * @since 14.0
+ */
+@Test(groups = "functional", testName = "server.hotrod.HotRodExecutorHopsTest")
+public class HotRodExecutorHopsTest extends HotRodSingleNodeTest {
+   private static final String STORE_CACHE_NAME = "store";
+
+   @Override
+   protected EmbeddedCacheManager createTestCacheManager() {
+      EmbeddedCacheManager cacheManager = super.createTestCacheManager();
+      ConfigurationBuilder storeBuilder = hotRodCacheConfiguration();
+      storeBuilder.persistence()
+                  .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+                  .storeName(getClass().getName());
+      cacheManager.defineConfiguration(STORE_CACHE_NAME, storeBuilder.build());
+      return cacheManager;
+   }
+
+   public void testGetAndPutRunOnEventLoop(Method m) {
+      ExecutorHops executorHops = server().getExecutorHops();
+      long totalHops = executorHops.getTotalHops();
+      ThreadRecordingInterceptor interceptor = addInterceptor(cacheName);
+
+      assertStatus(client().put(k(m), 0, 0, v(m)), OperationStatus.Success);
+      assertOnEventLoop(interceptor.threads);
+
+      interceptor.threads.clear();
+      assertStatus(client().get(k(m), 0), OperationStatus.Success);
+      assertOnEventLoop(interceptor.threads);
+
+      assertEquals(totalHops, executorHops.getTotalHops());
+   }
+
+   public void testNonBlockingCacheHopsToExecutor(Method m) {
+      ExecutorHops executorHops = server().getExecutorHops();
+      long bulkGetHops = executorHops.getBulkGetHops();
+      long statsHops = executorHops.getStatsHops();
+      long totalHops = executorHops.getTotalHops();
+      assertStatus(client().put(m.getName(), "v"), OperationStatus.Success);
+
+      // The bulk operations iterate the cache synchronously, so they never run on the event loop
+      assertEquals(1, client().bulkGet().bulkData.size());
+      assertEquals(1, client().bulkGetKeys().bulkData.size());
+      assertEquals(bulkGetHops + 2, executorHops.getBulkGetHops());
+
+      client().stats();
+      assertEquals(statsHops + 1, executorHops.getStatsHops());
+      assertEquals(totalHops + 3, executorHops.getTotalHops());
+   }
+
+   public void testBlockingCacheHopsToExecutor(Method m) {
+      ExecutorHops executorHops = server().getExecutorHops();
+      long bulkGetHops = executorHops.getHops(HotRodOperation.BULK_GET);
+      long bulkGetKeysHops = executorHops.getHops(HotRodOperation.BULK_GET_KEYS);
+      long totalHops = executorHops.getTotalHops();
+      HotRodClient storeClient = new HotRodClient("127.0.0.1", server().getPort(), STORE_CACHE_NAME, protocolVersion());
+      try {
+         assertStatus(storeClient.put(m.getName(), "v"), OperationStatus.Success);
+         assertEquals(totalHops, executorHops.getTotalHops());
+
+         assertEquals(1, storeClient.bulkGet().bulkData.size());
+         assertEquals(1, storeClient.bulkGetKeys().bulkData.size());
+         assertEquals(bulkGetHops + 1, executorHops.getHops(HotRodOperation.BULK_GET));
+         assertEquals(bulkGetKeysHops + 1, executorHops.getHops(HotRodOperation.BULK_GET_KEYS));
+         assertEquals(totalHops + 2, executorHops.getTotalHops());
+      } finally {
+         killClient(storeClient);
+      }
+   }
+
+   private ThreadRecordingInterceptor addInterceptor(String name) {
+      AsyncInterceptorChain chain = TestingUtil.extractInterceptorChain(cacheManager.getCache(name));
+      ThreadRecordingInterceptor interceptor = chain.findInterceptorExtending(ThreadRecordingInterceptor.class);
+      if (interceptor == null) {
+         interceptor = new ThreadRecordingInterceptor();
+         chain.addInterceptor(interceptor, 0);
+      }
+      interceptor.threads.clear();
+      return interceptor;
+   }
+
+   private static void assertOnEventLoop(Queue<Thread> threads) {
+      assertFalse(threads.isEmpty());
+      for (Thread thread : threads) {
+         assertTrue(thread.getName(), thread.getThreadGroup() instanceof NonBlockingResource);
+      }
+   }
+
+   static class ThreadRecordingInterceptor extends BaseAsyncInterceptor {
+      final Queue<Thread> threads = new ConcurrentLinkedQueue<>();
+
+      @Override
+      public Object visitCommand(InvocationContext ctx, VisitableCommand command) throws Throwable {
+         threads.add(Thread.currentThread());
+         return invokeNext(ctx, command);
+      }
+   }
+}
@@ -2,7 +2,10 @@
 
 import static org.infinispan.commons.test.CommonsTestingUtil.tmpDirectory;
 import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.killClient;
 import static org.infinispan.test.fwk.TestCacheManagerFactory.createClusteredCacheManager;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.io.File;
 import java.lang.reflect.Method;
@@ -13,13 +16,16 @@
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.counter.api.CounterConfiguration;
 import org.infinispan.counter.api.CounterManager;
+import org.infinispan.counter.api.CounterType;
 import org.infinispan.counter.impl.CounterModuleLifecycle;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.server.hotrod.HotRodMultiNodeTest;
 import org.infinispan.server.hotrod.HotRodVersion;
 import org.infinispan.server.hotrod.counter.impl.CounterManagerImplTestStrategy;
 import org.infinispan.server.hotrod.counter.impl.TestCounterManager;
+import org.infinispan.server.hotrod.test.HotRodClient;
 import org.infinispan.util.logging.Log;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -93,6 +99,23 @@ public void testGetCounterNames(Method method) {
       strategy.testGetCounterNames(method);
    }
 
+   public void testWeakCounterFlushInterval(Method method) {
+      String counterName = method.getName();
+      CounterConfiguration.Builder builder = CounterConfiguration.builder(CounterType.WEAK).concurrencyLevel(4);
+      CounterConfiguration config = builder.flushInterval(1000).build();
+      HotRodClient client = new HotRodClient(clients().get(0), HotRodVersion.HOTROD_32.getVersion());
+      try {
+         CounterManager counterManager = new TestCounterManager(client);
+         assertTrue(counterManager.defineCounter(counterName, config));
+         assertEquals(config, counterManager.getConfiguration(counterName));
+         // The flush interval is not sent to the older clients
+         assertEquals(builder.flushInterval(0).build(),
+               new TestCounterManager(clients().get(1)).getConfiguration(counterName));
+      } finally {
+         killClient(client);
+      }
+   }
+
    @AfterClass(alwaysRun = true)
    @Override
    protected void destroy() {
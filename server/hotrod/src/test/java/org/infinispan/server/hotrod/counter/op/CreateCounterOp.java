@@ -6,6 +6,7 @@
 
 import org.infinispan.counter.api.CounterConfiguration;
 import org.infinispan.server.hotrod.HotRodOperation;
+import org.infinispan.server.hotrod.HotRodVersion;
 
 import io.netty.buffer.ByteBuf;
 
@@ -18,16 +19,18 @@
 public class CreateCounterOp extends CounterOp {
 
    private final CounterConfiguration configuration;
+   private final boolean withFlushInterval;
 
    public CreateCounterOp(byte version, String counterName, CounterConfiguration configuration) {
       super(version, COUNTER_CREATE, counterName);
       this.configuration = configuration;
+      this.withFlushInterval = HotRodVersion.HOTROD_32.isAtLeast(version);
    }
 
    @Override
    public void writeTo(ByteBuf buffer) {
       super.writeTo(buffer);
       encodeConfiguration(configuration, buffer::writeByte, buffer::writeLong,
-            value -> writeUnsignedInt(value, buffer));
+            value -> writeUnsignedInt(value, buffer), withFlushInterval);
    }
 }
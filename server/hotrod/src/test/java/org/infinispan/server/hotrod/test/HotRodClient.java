@@ -55,6 +55,7 @@
 import org.infinispan.server.hotrod.Constants;
 import org.infinispan.server.hotrod.HotRodConstants;
 import org.infinispan.server.hotrod.HotRodOperation;
+import org.infinispan.server.hotrod.HotRodVersion;
 import org.infinispan.server.hotrod.OperationStatus;
 import org.infinispan.server.hotrod.ProtocolFlag;
 import org.infinispan.server.hotrod.ServerAddress;
@@ -978,7 +979,8 @@ protected void decode(ChannelHandlerContext ctx, ByteBuf buf, List<Object> out)
             resp = status == OperationStatus.Success ?
                    new CounterConfigurationTestResponse(op.version, id, op.cacheName, op.clientIntel,
                          opCode, status, op.topologyId, topologyChangeResponse,
-                         decodeConfiguration(buf::readByte, buf::readLong, () -> readUnsignedInt(buf))) :
+                         decodeConfiguration(buf::readByte, buf::readLong, () -> readUnsignedInt(buf),
+                               HotRodVersion.HOTROD_32.isAtLeast(op.version))) :
                    new TestResponse(op.version, id, op.cacheName, op.clientIntel,
                          opCode, status, op.topologyId, topologyChangeResponse);
             break;